@@ -0,0 +1,275 @@
+package actors;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.Props;
+import akka.actor.Terminated;
+import akka.pattern.Patterns;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import models.entities.Video;
+import scala.concurrent.duration.Duration;
+
+import java.util.*;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import static akka.pattern.Patterns.pipe;
+
+/**
+ * Shared actor polling the uploads of the channels users subscribed to over the WebSocket.
+ *
+ * <p>There is one feed per channel, whatever the number of subscribers, so a channel costs one poll per
+ * interval rather than one per user. A poll asks the {@link ChannelProfileActor} to refresh the channel's
+ * latest videos; the uploads not seen before are sent to every subscriber as a
+ * {@link ChannelPollerMessages.NewChannelUploads} message. The first poll of a channel only records the
+ * videos it already has.</p>
+ *
+ * <p>The interval of every channel adapts to its activity: it is halved, down to
+ * {@code channel.poll.min-interval}, when a poll finds new uploads, and grows by half, up to
+ * {@code channel.poll.max-interval}, when it finds none or fails. A new feed starts at
+ * {@code channel.poll.initial-interval}. Subscribers are watched while they hold a subscription, so closing a
+ * WebSocket ends its subscriptions, and a channel without subscribers is no longer polled. A channel subscribed to
+ * again gets a new feed, which ignores the replies to the polls of the previous one.</p>
+ *
+ * <p>Messages handled by this actor:
+ * <ul>
+ *   <li>{@link ChannelPollerMessages.SubscribeChannel} - Subscribes the sender to a channel.</li>
+ *   <li>{@link ChannelPollerMessages.UnsubscribeChannel} - Unsubscribes the sender from a channel.</li>
+ *   <li>{@code "PollChannels"} - Polls every channel whose interval has elapsed; sent to itself periodically.</li>
+ * </ul>
+ * </p>
+ */
+public class ChannelPollerActor extends AbstractActor {
+
+    /**
+     * The number of latest videos read by a poll.
+     */
+    public static final int VIDEOS_PER_POLL = 10;
+    private static final int SEEN_VIDEOS_PER_CHANNEL = 200;
+    private static final java.time.Duration POLL_TIMEOUT = java.time.Duration.ofSeconds(10);
+
+    private static final Config config = ConfigFactory.load();
+    private static final long MIN_INTERVAL_MILLIS = config.getDuration("channel.poll.min-interval").toMillis();
+    private static final long INITIAL_INTERVAL_MILLIS = config.getDuration("channel.poll.initial-interval").toMillis();
+    private static final long MAX_INTERVAL_MILLIS = config.getDuration("channel.poll.max-interval").toMillis();
+    private static final long TICK_MILLIS = config.getDuration("channel.poll.tick").toMillis();
+
+    private final ActorRef channelProfileActor;
+    private final long minIntervalMillis;
+    private final long initialIntervalMillis;
+    private final long maxIntervalMillis;
+    private final Map<String, ChannelFeed> feeds = new HashMap<>();
+    private final Map<ActorRef, Set<String>> channelsBySubscriber = new HashMap<>();
+    private long feedGenerations;
+
+    /**
+     * Creates Props for a ChannelPollerActor with the configured intervals.
+     *
+     * @param channelProfileActor the actor fetching the channel videos
+     * @return a Props instance
+     */
+    public static Props props(ActorRef channelProfileActor) {
+        return Props.create(ChannelPollerActor.class, () -> new ChannelPollerActor(channelProfileActor,
+                MIN_INTERVAL_MILLIS, INITIAL_INTERVAL_MILLIS, MAX_INTERVAL_MILLIS));
+    }
+
+    /**
+     * Constructs a {@code ChannelPollerActor}.
+     *
+     * @param channelProfileActor   the actor fetching the channel videos
+     * @param minIntervalMillis     the shortest interval between two polls of a channel
+     * @param initialIntervalMillis the interval of a new feed
+     * @param maxIntervalMillis     the longest interval between two polls of a channel
+     */
+    public ChannelPollerActor(ActorRef channelProfileActor, long minIntervalMillis, long initialIntervalMillis, long maxIntervalMillis) {
+        this.channelProfileActor = channelProfileActor;
+        this.minIntervalMillis = minIntervalMillis;
+        this.initialIntervalMillis = initialIntervalMillis;
+        this.maxIntervalMillis = maxIntervalMillis;
+    }
+
+    /**
+     * Schedules the periodic check for channels due for a poll.
+     */
+    @Override
+    public void preStart() {
+        getContext().getSystem().scheduler().scheduleWithFixedDelay(
+                Duration.create(TICK_MILLIS, TimeUnit.MILLISECONDS),
+                Duration.create(TICK_MILLIS, TimeUnit.MILLISECONDS),
+                self(),
+                "PollChannels",
+                getContext().getSystem().dispatcher(),
+                self()
+        );
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(ChannelPollerMessages.SubscribeChannel.class, this::handleSubscribe)
+                .match(ChannelPollerMessages.UnsubscribeChannel.class, msg -> handleUnsubscribe(msg.getChannelId(), sender()))
+                .match(Terminated.class, this::handleTerminated)
+                .matchEquals("PollChannels", msg -> pollDueChannels())
+                .match(PollCompleted.class, this::handlePollCompleted)
+                .build();
+    }
+
+    /**
+     * Returns the interval until the next poll of a channel.
+     *
+     * @param currentMillis the current interval
+     * @param foundUploads  whether the last poll found new uploads
+     * @param minMillis     the shortest interval
+     * @param maxMillis     the longest interval
+     * @return the next interval
+     */
+    public static long nextInterval(long currentMillis, boolean foundUploads, long minMillis, long maxMillis) {
+        long next = foundUploads ? currentMillis / 2 : currentMillis + currentMillis / 2;
+        return Math.max(minMillis, Math.min(maxMillis, next));
+    }
+
+    private void handleSubscribe(ChannelPollerMessages.SubscribeChannel message) {
+        String channelId = message.getChannelId();
+        ActorRef subscriber = sender();
+        Set<String> channels = channelsBySubscriber.get(subscriber);
+        if (channels == null) {
+            channels = new HashSet<>();
+            channelsBySubscriber.put(subscriber, channels);
+            getContext().watch(subscriber);
+        }
+        channels.add(channelId);
+
+        ChannelFeed feed = feeds.get(channelId);
+        if (feed == null) {
+            feed = new ChannelFeed(++feedGenerations, initialIntervalMillis);
+            feeds.put(channelId, feed);
+            feed.subscribers.add(subscriber);
+            poll(channelId, feed);
+        } else {
+            feed.subscribers.add(subscriber);
+        }
+    }
+
+    private void handleUnsubscribe(String channelId, ActorRef subscriber) {
+        Set<String> channels = channelsBySubscriber.get(subscriber);
+        if (channels == null || !channels.remove(channelId)) {
+            return;
+        }
+        if (channels.isEmpty()) {
+            channelsBySubscriber.remove(subscriber);
+            getContext().unwatch(subscriber);
+        }
+        removeSubscriber(channelId, subscriber);
+    }
+
+    private void handleTerminated(Terminated message) {
+        Set<String> channels = channelsBySubscriber.remove(message.getActor());
+        if (channels != null) {
+            channels.forEach(channelId -> removeSubscriber(channelId, message.getActor()));
+        }
+    }
+
+    private void removeSubscriber(String channelId, ActorRef subscriber) {
+        ChannelFeed feed = feeds.get(channelId);
+        if (feed != null && feed.subscribers.remove(subscriber) && feed.subscribers.isEmpty()) {
+            feeds.remove(channelId);
+        }
+    }
+
+    private void pollDueChannels() {
+        long now = System.currentTimeMillis();
+        feeds.forEach((channelId, feed) -> {
+            if (!feed.polling && now >= feed.nextPollAt) {
+                poll(channelId, feed);
+            }
+        });
+    }
+
+    private void poll(String channelId, ChannelFeed feed) {
+        feed.polling = true;
+        long generation = feed.generation;
+        CompletionStage<PollCompleted> result = Patterns.ask(channelProfileActor,
+                        new ChannelProfileMessages.RefreshChannelVideos(channelId, VIDEOS_PER_POLL), POLL_TIMEOUT)
+                .handle((response, ex) -> new PollCompleted(channelId, generation,
+                        response instanceof ChannelProfileMessages.ChannelVideosResponse
+                                ? ((ChannelProfileMessages.ChannelVideosResponse) response).getVideos()
+                                : null));
+        pipe(result, getContext().dispatcher()).to(self());
+    }
+
+    private void handlePollCompleted(PollCompleted message) {
+        ChannelFeed feed = feeds.get(message.channelId);
+        if (feed == null || feed.generation != message.feedGeneration) {
+            // The channel was unsubscribed from, and maybe subscribed to again, while the poll was running
+            return;
+        }
+        feed.polling = false;
+        List<Video> newUploads = new ArrayList<>();
+        if (message.videos != null) {
+            for (Video video : message.videos) {
+                if (video != null && video.getVideoId() != null && feed.markSeen(video.getVideoId())) {
+                    newUploads.add(video);
+                }
+            }
+        }
+        boolean notify = feed.seeded && !newUploads.isEmpty();
+        if (notify) {
+            ChannelPollerMessages.NewChannelUploads uploads = new ChannelPollerMessages.NewChannelUploads(message.channelId, newUploads);
+            feed.subscribers.forEach(subscriber -> subscriber.tell(uploads, self()));
+        }
+        feed.seeded |= message.videos != null;
+        feed.intervalMillis = nextInterval(feed.intervalMillis, notify, minIntervalMillis, maxIntervalMillis);
+        feed.nextPollAt = System.currentTimeMillis() + feed.intervalMillis;
+    }
+
+    /**
+     * The polling state and subscribers of one channel.
+     */
+    private static final class ChannelFeed {
+        private final long generation;
+        private final Set<ActorRef> subscribers = new HashSet<>();
+        private final Set<String> seenVideoIds = new LinkedHashSet<>();
+        private long intervalMillis;
+        private long nextPollAt;
+        private boolean polling;
+        private boolean seeded;
+
+        ChannelFeed(long generation, long intervalMillis) {
+            this.generation = generation;
+            this.intervalMillis = intervalMillis;
+        }
+
+        /**
+         * Records a video as seen, forgetting the oldest ones beyond {@link #SEEN_VIDEOS_PER_CHANNEL}.
+         *
+         * @return {@code true} if the video was not seen before
+         */
+        boolean markSeen(String videoId) {
+            if (!seenVideoIds.add(videoId)) {
+                return false;
+            }
+            if (seenVideoIds.size() > SEEN_VIDEOS_PER_CHANNEL) {
+                Iterator<String> oldest = seenVideoIds.iterator();
+                oldest.next();
+                oldest.remove();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The result of a poll of a feed, piped back to the actor; {@code videos} is {@code null} if the poll failed.
+     */
+    private static final class PollCompleted {
+        private final String channelId;
+        private final long feedGeneration;
+        private final List<Video> videos;
+
+        PollCompleted(String channelId, long feedGeneration, List<Video> videos) {
+            this.channelId = channelId;
+            this.feedGeneration = feedGeneration;
+            this.videos = videos;
+        }
+    }
+}
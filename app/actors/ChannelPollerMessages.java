@@ -0,0 +1,70 @@
+package actors;
+
+import models.entities.Video;
+
+import java.util.List;
+
+/**
+ * Messages used by the {@link ChannelPollerActor}.
+ *
+ * <p>The messages include:
+ * <ul>
+ *   <li>{@link SubscribeChannel} - Subscribes the sender to the new uploads of a channel.</li>
+ *   <li>{@link UnsubscribeChannel} - Ends the subscription of the sender to a channel.</li>
+ *   <li>{@link NewChannelUploads} - The uploads of a channel found since the previous poll, sent to every subscriber.</li>
+ * </ul>
+ * </p>
+ */
+public class ChannelPollerMessages {
+
+    /**
+     * Message subscribing the sender to the new uploads of a channel.
+     */
+    public static class SubscribeChannel {
+        private final String channelId;
+
+        public SubscribeChannel(String channelId) {
+            this.channelId = channelId;
+        }
+
+        public String getChannelId() {
+            return channelId;
+        }
+    }
+
+    /**
+     * Message ending the subscription of the sender to a channel.
+     */
+    public static class UnsubscribeChannel {
+        private final String channelId;
+
+        public UnsubscribeChannel(String channelId) {
+            this.channelId = channelId;
+        }
+
+        public String getChannelId() {
+            return channelId;
+        }
+    }
+
+    /**
+     * Message carrying the uploads of a channel that were not seen by the previous polls, newest first.
+     */
+    public static class NewChannelUploads {
+        private final String channelId;
+        private final List<Video> videos;
+
+        public NewChannelUploads(String channelId, List<Video> videos) {
+            this.channelId = channelId;
+            this.videos = videos;
+        }
+
+        public String getChannelId() {
+            return channelId;
+        }
+
+        public List<Video> getVideos() {
+            return videos;
+        }
+    }
+}
@@ -2,17 +2,24 @@ package actors;
 
 import akka.actor.AbstractActor;
 import akka.actor.Props;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import models.entities.Channel;
 import models.entities.Video;
 import models.services.YouTubeService;
-import org.json.JSONArray;
 import org.json.JSONObject;
+import utils.ExpiringCache;
 
 import javax.inject.Inject;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 
 import static akka.pattern.Patterns.pipe;
@@ -23,10 +30,20 @@ import static akka.pattern.Patterns.pipe;
  * <p>This actor interacts with the YouTube Data API to fetch channel information and videos. It uses
  * {@link YouTubeService} for API configuration and handling the response data.</p>
  *
+ * <p>Channel information and video lists are kept in two {@link ExpiringCache}s with their own lifetimes
+ * ({@code channel.cache.info-ttl} and {@code channel.cache.videos-ttl}), since channel metadata changes far less
+ * often than the list of latest uploads. Concurrent requests for the same channel share one API call, and all
+ * calls go through a single {@link HttpClient}.</p>
+ *
+ * <p>Videos are listed from the channel's uploads playlist, newest first, one page at a time; the token
+ * returned with a page fetches the next, older page.</p>
+ *
  * <p>Messages handled by this actor include:
  * <ul>
  *   <li>{@link ChannelProfileMessages.GetChannelInfo} - To retrieve information about a specific channel.</li>
  *   <li>{@link ChannelProfileMessages.GetChannelVideos} - To fetch a list of videos from a specific channel.</li>
+ *   <li>{@link ChannelProfileMessages.RefreshChannelVideos} - To fetch the latest videos of a channel, bypassing the cache.</li>
+ *   <li>{@link ChannelProfileMessages.GetCacheStats} - To retrieve the hit rate and load latency of the caches.</li>
  * </ul>
  * </p>
  *
@@ -34,7 +51,21 @@ import static akka.pattern.Patterns.pipe;
  */
 public class ChannelProfileActor extends AbstractActor {
 
+    private static final Config config = ConfigFactory.load();
+    private static final long INFO_TTL_MILLIS = config.getDuration("channel.cache.info-ttl").toMillis();
+    private static final long VIDEOS_TTL_MILLIS = config.getDuration("channel.cache.videos-ttl").toMillis();
+    private static final long UPLOADS_PLAYLIST_TTL_MILLIS = config.getDuration("channel.cache.uploads-playlist-ttl").toMillis();
+    private static final int MAX_CACHED_CHANNELS = config.getInt("channel.cache.max-channels");
+    /**
+     * The maximum number of items of a single {@code playlistItems} call.
+     */
+    public static final int MAX_PLAYLIST_ITEMS_PER_CALL = 50;
+
     private final YouTubeService youTubeService;
+    private final ExpiringCache<String, Channel> infoCache;
+    private final ExpiringCache<String, ChannelProfileMessages.ChannelVideosResponse> videosCache;
+    private final ExpiringCache<String, String> uploadsPlaylistCache;
+    private HttpClient httpClient;
 
     /**
      * Factory method for creating an actor's {@link Props}.
@@ -53,7 +84,21 @@ public class ChannelProfileActor extends AbstractActor {
      */
     @Inject
     public ChannelProfileActor(YouTubeService youTubeService) {
+        this(youTubeService, INFO_TTL_MILLIS, VIDEOS_TTL_MILLIS);
+    }
+
+    /**
+     * Constructs a new {@code ChannelProfileActor} with explicit cache lifetimes.
+     *
+     * @param youTubeService  the YouTube service providing API configurations
+     * @param infoTtlMillis   the time in milliseconds during which fetched channel information is served
+     * @param videosTtlMillis the time in milliseconds during which a fetched video list is served
+     */
+    public ChannelProfileActor(YouTubeService youTubeService, long infoTtlMillis, long videosTtlMillis) {
         this.youTubeService = youTubeService;
+        this.infoCache = new ExpiringCache<>(infoTtlMillis, MAX_CACHED_CHANNELS);
+        this.videosCache = new ExpiringCache<>(videosTtlMillis, MAX_CACHED_CHANNELS);
+        this.uploadsPlaylistCache = new ExpiringCache<>(UPLOADS_PLAYLIST_TTL_MILLIS, MAX_CACHED_CHANNELS);
     }
 
     /**
@@ -66,40 +111,25 @@ public class ChannelProfileActor extends AbstractActor {
         return receiveBuilder()
                 .match(ChannelProfileMessages.GetChannelInfo.class, this::handleGetChannelInfo)
                 .match(ChannelProfileMessages.GetChannelVideos.class, this::handleGetChannelVideos)
+                .match(ChannelProfileMessages.RefreshChannelVideos.class, this::handleRefreshChannelVideos)
+                .match(ChannelProfileMessages.GetCacheStats.class, this::handleGetCacheStats)
                 .build();
     }
 
     /**
      * Handles the {@link ChannelProfileMessages.GetChannelInfo} message.
      *
-     * <p>This method sends a request to the YouTube Data API to fetch information about the specified channel.
-     * The result is sent back to the sender as either {@link ChannelProfileMessages.ChannelInfoResponse}
-     * or {@link ChannelProfileMessages.ChannelProfileError}.</p>
+     * <p>The channel information is served from the metadata cache, or fetched from the YouTube Data API if it
+     * is missing or expired. The result is sent back to the sender as either
+     * {@link ChannelProfileMessages.ChannelInfoResponse} or {@link ChannelProfileMessages.ChannelProfileError}.</p>
      *
      * @param message the {@link ChannelProfileMessages.GetChannelInfo} message containing the channel ID
      */
     private void handleGetChannelInfo(ChannelProfileMessages.GetChannelInfo message) {
-        String channelId = message.getChannelId();
-        String youtubeChannelUrl = youTubeService.getApiUrl() + "/channels?part=snippet&id=";
-        String apiUrl = youtubeChannelUrl + channelId + "&key=" + youTubeService.getApiKey();
-        HttpClient client = createHttpClient();
-        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(apiUrl)).build();
-
-        CompletionStage<Object> futureResponse = client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .handle((response, ex) -> {
-                    if (ex != null) {
-                        return new ChannelProfileMessages.ChannelProfileError(ex.getMessage());
-                    } else {
-                        try {
-                            String responseBody = response.body();
-                            JSONObject json = new JSONObject(responseBody);
-                            JSONObject snippet = json.getJSONArray("items").getJSONObject(0).getJSONObject("snippet");
-                            return new ChannelProfileMessages.ChannelInfoResponse(snippet);
-                        } catch (Exception e) {
-                            return new ChannelProfileMessages.ChannelProfileError(e.getMessage());
-                        }
-                    }
-                });
+        CompletionStage<Object> futureResponse = infoCache.get(message.getChannelId(), this::fetchChannelInfo)
+                .handle((channel, ex) -> ex != null
+                        ? new ChannelProfileMessages.ChannelProfileError(rootCause(ex).getMessage())
+                        : new ChannelProfileMessages.ChannelInfoResponse(channel));
 
         pipe(futureResponse, getContext().dispatcher()).to(sender());
     }
@@ -107,45 +137,137 @@ public class ChannelProfileActor extends AbstractActor {
     /**
      * Handles the {@link ChannelProfileMessages.GetChannelVideos} message.
      *
-     * <p>This method sends a request to the YouTube Data API to fetch a list of videos from the specified channel.
-     * The result is sent back to the sender as either {@link ChannelProfileMessages.ChannelVideosResponse}
-     * or {@link ChannelProfileMessages.ChannelProfileError}.</p>
+     * <p>The requested page of the channel's uploads is served from the video list cache, or fetched from the
+     * YouTube Data API if it is missing or expired. At most {@link #MAX_PLAYLIST_ITEMS_PER_CALL} videos are
+     * returned per page. The result is sent back to the sender as either
+     * {@link ChannelProfileMessages.ChannelVideosResponse} or {@link ChannelProfileMessages.ChannelProfileError}.</p>
      *
-     * @param message the {@link ChannelProfileMessages.GetChannelVideos} message containing the channel ID
-     *                and the maximum number of videos to retrieve
+     * @param message the {@link ChannelProfileMessages.GetChannelVideos} message containing the channel ID,
+     *                the maximum number of videos to retrieve and the page token
      */
     private void handleGetChannelVideos(ChannelProfileMessages.GetChannelVideos message) {
-        String channelId = message.getChannelId();
-        int maxResults = message.getMaxResults();
-        String youtubeChannelVideosUrl = youTubeService.getApiUrl() + "/search?part=snippet&order=date&type=video&";
-        String apiUrl = youtubeChannelVideosUrl + "channelId=" + channelId + "&maxResults=" + maxResults + "&key=" + youTubeService.getApiKey();
-        HttpClient client = createHttpClient();
+        replyWithChannelVideos(message.getChannelId(), message.getMaxResults(), message.getPageToken(), false);
+    }
+
+    /**
+     * Handles the {@link ChannelProfileMessages.RefreshChannelVideos} message.
+     *
+     * <p>The cached first page of the channel's uploads is dropped and fetched again, so that pollers see new
+     * uploads immediately and the refreshed page is then served to profile views.</p>
+     *
+     * @param message the {@link ChannelProfileMessages.RefreshChannelVideos} message
+     */
+    private void handleRefreshChannelVideos(ChannelProfileMessages.RefreshChannelVideos message) {
+        replyWithChannelVideos(message.getChannelId(), message.getMaxResults(), null, true);
+    }
+
+    private void replyWithChannelVideos(String channelId, int requestedResults, String pageToken, boolean refresh) {
+        int maxResults = Math.min(requestedResults, MAX_PLAYLIST_ITEMS_PER_CALL);
+        String key = channelId + "/" + maxResults + "/" + (pageToken == null ? "" : pageToken);
+        if (refresh) {
+            videosCache.invalidate(key);
+        }
+        CompletionStage<Object> futureResponse = videosCache.get(key, ignored -> fetchChannelVideos(channelId, maxResults, pageToken))
+                .handle((page, ex) -> ex != null
+                        ? new ChannelProfileMessages.ChannelProfileError(rootCause(ex).getMessage())
+                        : page);
+
+        pipe(futureResponse, getContext().dispatcher()).to(sender());
+    }
+
+    /**
+     * Handles the {@link ChannelProfileMessages.GetCacheStats} message by replying with the counters of both caches.
+     *
+     * @param message the {@link ChannelProfileMessages.GetCacheStats} message
+     */
+    private void handleGetCacheStats(ChannelProfileMessages.GetCacheStats message) {
+        sender().tell(new ChannelProfileMessages.CacheStatsResponse(infoCache.getStats(), videosCache.getStats()), self());
+    }
+
+    /**
+     * Fetches the profile of a channel from the snippet returned by the YouTube Data API.
+     *
+     * @param channelId the channel ID
+     * @return the channel
+     */
+    private CompletionStage<Channel> fetchChannelInfo(String channelId) {
+        String youtubeChannelUrl = youTubeService.getApiUrl() + "/channels?part=snippet&id=";
+        String apiUrl = youtubeChannelUrl + channelId + "&key=" + youTubeService.getApiKey();
         HttpRequest request = HttpRequest.newBuilder().uri(URI.create(apiUrl)).build();
 
-        CompletionStage<Object> futureResponse = client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .handle((response, ex) -> {
-                    if (ex != null) {
-                        return new ChannelProfileMessages.ChannelProfileError(ex.getMessage());
-                    } else {
-                        try {
-                            String responseBody = response.body();
-                            JSONObject json = new JSONObject(responseBody);
-                            JSONArray items = json.getJSONArray("items");
-                            List<Video> videos = youTubeService.parseVideos(items);
-                            return new ChannelProfileMessages.ChannelVideosResponse(videos);
-                        } catch (Exception e) {
-                            return new ChannelProfileMessages.ChannelProfileError(e.getMessage());
-                        }
-                    }
+        return httpClient().sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    JSONObject json = new JSONObject(response.body());
+                    JSONObject snippet = json.getJSONArray("items").getJSONObject(0).getJSONObject("snippet");
+                    JSONObject thumbnails = snippet.optJSONObject("thumbnails");
+                    JSONObject thumbnail = thumbnails == null ? null : thumbnails.optJSONObject("default");
+                    return new Channel(channelId, snippet.optString("title", ""), snippet.optString("description", ""),
+                            thumbnail == null ? null : thumbnail.optString("url", null));
                 });
+    }
 
-        pipe(futureResponse, getContext().dispatcher()).to(sender());
+    /**
+     * Fetches a page of the uploads of a channel from the YouTube Data API.
+     *
+     * <p>The uploads are read from the channel's uploads playlist with {@code playlistItems}, which costs one
+     * quota unit per call instead of the hundred of a {@code search} call. The playlist ID is resolved once per
+     * channel and cached.</p>
+     *
+     * @param channelId  the channel ID
+     * @param maxResults the maximum number of videos
+     * @param pageToken  the token of the page, or {@code null} for the most recent uploads
+     * @return the videos and the token of the next page
+     */
+    private CompletionStage<ChannelProfileMessages.ChannelVideosResponse> fetchChannelVideos(String channelId, int maxResults, String pageToken) {
+        return uploadsPlaylistCache.get(channelId, this::fetchUploadsPlaylistId).thenCompose(playlistId -> {
+            String apiUrl = youTubeService.getApiUrl() + "/playlistItems?part=snippet,contentDetails&playlistId=" + playlistId
+                    + "&maxResults=" + maxResults
+                    + (pageToken == null ? "" : "&pageToken=" + URLEncoder.encode(pageToken, StandardCharsets.UTF_8))
+                    + "&key=" + youTubeService.getApiKey();
+            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(apiUrl)).build();
+            return httpClient().sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        }).thenApply(response -> {
+            JSONObject json = new JSONObject(response.body());
+            List<Video> videos = Collections.unmodifiableList(youTubeService.parseVideos(json.getJSONArray("items")));
+            return new ChannelProfileMessages.ChannelVideosResponse(videos, json.optString("nextPageToken", null));
+        });
+    }
+
+    /**
+     * Resolves the ID of the uploads playlist of a channel from the YouTube Data API.
+     *
+     * @param channelId the channel ID
+     * @return the playlist ID
+     */
+    private CompletionStage<String> fetchUploadsPlaylistId(String channelId) {
+        String apiUrl = youTubeService.getApiUrl() + "/channels?part=contentDetails&id=" + channelId + "&key=" + youTubeService.getApiKey();
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(apiUrl)).build();
+
+        return httpClient().sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> youTubeService.parseUploadsPlaylistId(new JSONObject(response.body())));
+    }
+
+    /**
+     * Returns the HTTP client shared by every request of this actor, creating it on first use.
+     *
+     * @return the HTTP client
+     */
+    private HttpClient httpClient() {
+        if (httpClient == null) {
+            httpClient = createHttpClient();
+        }
+        return httpClient;
+    }
+
+    private static Throwable rootCause(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
     }
 
     /**
      * Creates a new {@link HttpClient} instance.
      *
-     * <p>This method provides a way to create an {@link HttpClient} for making HTTP requests.</p>
+     * <p>This method provides a way to create an {@link HttpClient} for making HTTP requests. It is called
+     * once, and the client is reused for every request of the actor.</p>
      *
      * @return a new {@link HttpClient}
      */
@@ -1,8 +1,9 @@
 package actors;
 
 import java.io.Serializable;
+import models.entities.Channel;
 import models.entities.Video;
-import org.json.JSONObject;
+import utils.ExpiringCache;
 import java.util.List;
 
 /**
@@ -16,9 +17,12 @@ import java.util.List;
  * <ul>
  *   <li>{@link GetChannelInfo} - Request to fetch channel information.</li>
  *   <li>{@link GetChannelVideos} - Request to fetch videos for a specific channel.</li>
+ *   <li>{@link RefreshChannelVideos} - Request to fetch the latest videos of a channel, bypassing the cache.</li>
  *   <li>{@link ChannelInfoResponse} - Response containing channel information.</li>
  *   <li>{@link ChannelVideosResponse} - Response containing a list of videos.</li>
  *   <li>{@link ChannelProfileError} - Response indicating an error occurred.</li>
+ *   <li>{@link GetCacheStats} - Request for the statistics of the channel caches.</li>
+ *   <li>{@link CacheStatsResponse} - Response containing the statistics of the channel caches.</li>
  * </ul>
  * </p>
  *
@@ -57,14 +61,74 @@ public class ChannelProfileMessages {
     public static class GetChannelVideos implements Serializable {
         private final String channelId;
         private final int maxResults;
+        private final String pageToken;
 
         /**
-         * Constructs a new {@code GetChannelVideos} message.
+         * Constructs a new {@code GetChannelVideos} message for the most recent videos.
          *
          * @param channelId  the ID of the channel to fetch videos from
          * @param maxResults the maximum number of videos to retrieve
          */
         public GetChannelVideos(String channelId, int maxResults) {
+            this(channelId, maxResults, null);
+        }
+
+        /**
+         * Constructs a new {@code GetChannelVideos} message for a page of older videos.
+         *
+         * @param channelId  the ID of the channel to fetch videos from
+         * @param maxResults the maximum number of videos to retrieve
+         * @param pageToken  the token of the page to fetch, as returned with the previous page, or {@code null}
+         *                   for the most recent videos
+         */
+        public GetChannelVideos(String channelId, int maxResults, String pageToken) {
+            this.channelId = channelId;
+            this.maxResults = maxResults;
+            this.pageToken = pageToken;
+        }
+
+        /**
+         * Gets the channel ID.
+         *
+         * @return the channel ID
+         */
+        public String getChannelId() {
+            return channelId;
+        }
+
+        /**
+         * Gets the maximum number of videos to retrieve.
+         *
+         * @return the maximum number of videos
+         */
+        public int getMaxResults() {
+            return maxResults;
+        }
+
+        /**
+         * Gets the token of the page to fetch.
+         *
+         * @return the page token, or {@code null} for the most recent videos
+         */
+        public String getPageToken() {
+            return pageToken;
+        }
+    }
+
+    /**
+     * Message to fetch the most recent videos of a channel from the API, bypassing and then refreshing the cache.
+     */
+    public static class RefreshChannelVideos implements Serializable {
+        private final String channelId;
+        private final int maxResults;
+
+        /**
+         * Constructs a new {@code RefreshChannelVideos} message.
+         *
+         * @param channelId  the ID of the channel to fetch videos from
+         * @param maxResults the maximum number of videos to retrieve
+         */
+        public RefreshChannelVideos(String channelId, int maxResults) {
             this.channelId = channelId;
             this.maxResults = maxResults;
         }
@@ -92,24 +156,24 @@ public class ChannelProfileMessages {
      * Response message containing channel information.
      */
     public static class ChannelInfoResponse implements Serializable {
-        private final JSONObject channelInfo;
+        private final Channel channel;
 
         /**
          * Constructs a new {@code ChannelInfoResponse}.
          *
-         * @param channelInfo the channel information as a {@link JSONObject}
+         * @param channel the channel information
          */
-        public ChannelInfoResponse(JSONObject channelInfo) {
-            this.channelInfo = channelInfo;
+        public ChannelInfoResponse(Channel channel) {
+            this.channel = channel;
         }
 
         /**
          * Gets the channel information.
          *
-         * @return the channel information as a {@link JSONObject}
+         * @return the channel
          */
-        public JSONObject getChannelInfo() {
-            return channelInfo;
+        public Channel getChannel() {
+            return channel;
         }
     }
 
@@ -118,14 +182,26 @@ public class ChannelProfileMessages {
      */
     public static class ChannelVideosResponse implements Serializable {
         private final List<Video> videos;
+        private final String nextPageToken;
 
         /**
-         * Constructs a new {@code ChannelVideosResponse}.
+         * Constructs a new {@code ChannelVideosResponse} without a following page.
          *
          * @param videos the list of videos
          */
         public ChannelVideosResponse(List<Video> videos) {
+            this(videos, null);
+        }
+
+        /**
+         * Constructs a new {@code ChannelVideosResponse}.
+         *
+         * @param videos        the list of videos
+         * @param nextPageToken the token of the page of older videos, or {@code null} if there is none
+         */
+        public ChannelVideosResponse(List<Video> videos, String nextPageToken) {
             this.videos = videos;
+            this.nextPageToken = nextPageToken;
         }
 
         /**
@@ -136,6 +212,15 @@ public class ChannelProfileMessages {
         public List<Video> getVideos() {
             return videos;
         }
+
+        /**
+         * Gets the token of the page of older videos.
+         *
+         * @return the page token, or {@code null} if this is the last page
+         */
+        public String getNextPageToken() {
+            return nextPageToken;
+        }
     }
 
     /**
@@ -162,4 +247,47 @@ public class ChannelProfileMessages {
             return errorMessage;
         }
     }
+
+    /**
+     * Message to request the statistics of the channel information and channel video caches.
+     */
+    public static class GetCacheStats implements Serializable {
+    }
+
+    /**
+     * Response message containing the statistics of the channel caches.
+     */
+    public static class CacheStatsResponse implements Serializable {
+        private final ExpiringCache.Stats infoStats;
+        private final ExpiringCache.Stats videosStats;
+
+        /**
+         * Constructs a new {@code CacheStatsResponse}.
+         *
+         * @param infoStats   the statistics of the channel information cache
+         * @param videosStats the statistics of the channel video cache
+         */
+        public CacheStatsResponse(ExpiringCache.Stats infoStats, ExpiringCache.Stats videosStats) {
+            this.infoStats = infoStats;
+            this.videosStats = videosStats;
+        }
+
+        /**
+         * Gets the statistics of the channel information cache.
+         *
+         * @return the statistics
+         */
+        public ExpiringCache.Stats getInfoStats() {
+            return infoStats;
+        }
+
+        /**
+         * Gets the statistics of the channel video cache.
+         *
+         * @return the statistics
+         */
+        public ExpiringCache.Stats getVideosStats() {
+            return videosStats;
+        }
+    }
 }
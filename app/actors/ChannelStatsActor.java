@@ -0,0 +1,85 @@
+package actors;
+
+import akka.actor.AbstractActor;
+import akka.actor.Props;
+import models.entities.Video;
+import models.services.SentimentService;
+import utils.ChannelStats;
+
+/**
+ * Actor owning the per-channel {@link ChannelStats}.
+ *
+ * <p>Every video fetched from the YouTube API is sent to this actor as a
+ * {@link TrendingMessages.VideosIngested} message and added to the statistics of its channel, together
+ * with the sentiment of its description. The channel profile page then reads the upload cadence,
+ * publish-hour histogram, top title terms and sentiment distribution of a channel from this actor without
+ * any further API call.</p>
+ *
+ * <p>Messages handled by this actor:
+ * <ul>
+ *   <li>{@link TrendingMessages.VideosIngested} - Adds the videos to the statistics of their channels.</li>
+ *   <li>{@link ChannelStatsMessages.GetChannelStats} - Replies with a {@link ChannelStatsMessages.ChannelStatsResponse}.</li>
+ * </ul>
+ * </p>
+ */
+public class ChannelStatsActor extends AbstractActor {
+
+    private final ChannelStats channelStats;
+    private final SentimentService sentimentService;
+
+    /**
+     * Creates Props for a ChannelStatsActor with the default sizes.
+     *
+     * @param sentimentService the service rating the sentiment of a video description
+     * @return a Props instance
+     */
+    public static Props props(SentimentService sentimentService) {
+        return Props.create(ChannelStatsActor.class, () -> new ChannelStatsActor(new ChannelStats(), sentimentService));
+    }
+
+    /**
+     * Constructs a {@code ChannelStatsActor}.
+     *
+     * @param channelStats     the statistics
+     * @param sentimentService the service rating the sentiment of a video description
+     */
+    public ChannelStatsActor(ChannelStats channelStats, SentimentService sentimentService) {
+        this.channelStats = channelStats;
+        this.sentimentService = sentimentService;
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(TrendingMessages.VideosIngested.class, this::handleVideosIngested)
+                .match(ChannelStatsMessages.GetChannelStats.class, this::handleGetChannelStats)
+                .build();
+    }
+
+    private void handleVideosIngested(TrendingMessages.VideosIngested message) {
+        for (Video video : message.getVideos()) {
+            if (video != null) {
+                channelStats.add(video, sentiment(video.getDescription()));
+            }
+        }
+    }
+
+    private void handleGetChannelStats(ChannelStatsMessages.GetChannelStats message) {
+        ChannelStats.Summary summary = channelStats.summary(message.getChannelId(), message.getTopTerms()).orElse(null);
+        sender().tell(new ChannelStatsMessages.ChannelStatsResponse(message.getChannelId(), summary), self());
+    }
+
+    /**
+     * Maps the sentiment emoticon of a description to a {@link ChannelStats} sentiment.
+     */
+    private int sentiment(String description) {
+        switch (sentimentService.calculateSentiment(description)) {
+            case ":-)":
+                return ChannelStats.SENTIMENT_HAPPY;
+            case ":-(":
+                return ChannelStats.SENTIMENT_SAD;
+            default:
+                return ChannelStats.SENTIMENT_NEUTRAL;
+        }
+    }
+}
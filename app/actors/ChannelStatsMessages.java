@@ -0,0 +1,59 @@
+package actors;
+
+import utils.ChannelStats;
+
+/**
+ * Messages used by the {@link ChannelStatsActor}.
+ *
+ * <p>The messages include:
+ * <ul>
+ *   <li>{@link GetChannelStats} - Request for the statistics of a channel.</li>
+ *   <li>{@link ChannelStatsResponse} - Response carrying the statistics of a channel.</li>
+ * </ul>
+ * The actor is fed with {@link TrendingMessages.VideosIngested} messages.
+ * </p>
+ */
+public class ChannelStatsMessages {
+
+    /**
+     * Message to request the statistics of a channel.
+     */
+    public static class GetChannelStats {
+        private final String channelId;
+        private final int topTerms;
+
+        public GetChannelStats(String channelId, int topTerms) {
+            this.channelId = channelId;
+            this.topTerms = topTerms;
+        }
+
+        public String getChannelId() {
+            return channelId;
+        }
+
+        public int getTopTerms() {
+            return topTerms;
+        }
+    }
+
+    /**
+     * Response message containing the statistics of a channel, or {@code null} if none of its videos was seen.
+     */
+    public static class ChannelStatsResponse {
+        private final String channelId;
+        private final ChannelStats.Summary summary;
+
+        public ChannelStatsResponse(String channelId, ChannelStats.Summary summary) {
+            this.channelId = channelId;
+            this.summary = summary;
+        }
+
+        public String getChannelId() {
+            return channelId;
+        }
+
+        public ChannelStats.Summary getSummary() {
+            return summary;
+        }
+    }
+}
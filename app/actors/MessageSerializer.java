@@ -0,0 +1,715 @@
+package actors;
+
+import akka.serialization.SerializerWithStringManifest;
+import models.entities.Channel;
+import models.entities.Video;
+import utils.ChannelStats;
+import utils.ExpiringCache;
+import utils.TrendingTerms;
+import utils.VideoIds;
+import utils.VideoInterner;
+
+import java.io.NotSerializableException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Compact binary Akka serializer for the actor messages and the entities they carry.
+ *
+ * <p>Every message is encoded as a schema version byte followed by its fields: integers as variable-length
+ * zigzag varints, strings as their UTF-8 bytes preceded by their length (so that {@code null} is kept), and
+ * collections as their size followed by their elements. A string repeated within a message, such as the channel
+ * of every video of a channel, is written once and then referenced by its index. Videos are written in the compact
+ * form they are held in: a YouTube video ID as 8 bytes, no video or thumbnail URL when it is derived from the ID,
+ * and the publication time in milliseconds when its text is the ISO-8601 form of that time. The message class is
+ * identified by a short string manifest, so the payload does not carry class names like Java serialization does.
+ * Decoded videos are interned in the {@linkplain VideoInterner#shared() shared intern table}.</p>
+ *
+ * <p>The serializer is registered in {@code application.conf} for every class of {@link #registeredClasses()}.
+ * {@link WordStatMessages.VideosFetched} is not registered: it carries a {@link Throwable} and is only piped by an
+ * actor to itself. Instances are thread-safe.</p>
+ */
+public final class MessageSerializer extends SerializerWithStringManifest {
+
+    /**
+     * The identifier of this serializer, unique among the serializers of the actor system.
+     */
+    public static final int IDENTIFIER = 4711;
+
+    /**
+     * The version of the encoding, written as the first byte of every message.
+     */
+    public static final byte SCHEMA_VERSION = 1;
+
+    // Header bits of a video, telling which fields are derived from the video ID or the publication time
+    private static final int VIDEO_PRESENT = 1;
+    private static final int VIDEO_PACKED_ID = 2;
+    private static final int VIDEO_DERIVED_URL = 4;
+    private static final int VIDEO_DERIVED_THUMBNAIL_URL = 8;
+    private static final int VIDEO_PUBLISHED_AT_MILLIS = 16;
+    private static final int VIDEO_HEADER_BITS = 31;
+
+    private static final Map<Class<?>, Codec<?>> codecsByClass = new LinkedHashMap<>();
+    private static final Map<String, Codec<?>> codecsByManifest = new HashMap<>();
+
+    static {
+        register("Video", Video.class, MessageSerializer::writeVideo, MessageSerializer::readVideo);
+        register("Channel", Channel.class, MessageSerializer::writeChannel, MessageSerializer::readChannel);
+
+        register("cp.GetChannelInfo", ChannelProfileMessages.GetChannelInfo.class,
+                (out, m) -> out.writeString(m.getChannelId()),
+                in -> new ChannelProfileMessages.GetChannelInfo(in.readString()));
+        register("cp.GetChannelVideos", ChannelProfileMessages.GetChannelVideos.class,
+                (out, m) -> {
+                    out.writeString(m.getChannelId());
+                    out.writeInt(m.getMaxResults());
+                    out.writeString(m.getPageToken());
+                },
+                in -> new ChannelProfileMessages.GetChannelVideos(in.readString(), in.readInt(), in.readString()));
+        register("cp.RefreshChannelVideos", ChannelProfileMessages.RefreshChannelVideos.class,
+                (out, m) -> {
+                    out.writeString(m.getChannelId());
+                    out.writeInt(m.getMaxResults());
+                },
+                in -> new ChannelProfileMessages.RefreshChannelVideos(in.readString(), in.readInt()));
+        register("cp.ChannelInfoResponse", ChannelProfileMessages.ChannelInfoResponse.class,
+                (out, m) -> writeChannel(out, m.getChannel()),
+                in -> new ChannelProfileMessages.ChannelInfoResponse(readChannel(in)));
+        register("cp.ChannelVideosResponse", ChannelProfileMessages.ChannelVideosResponse.class,
+                (out, m) -> {
+                    out.writeList(m.getVideos(), MessageSerializer::writeVideo);
+                    out.writeString(m.getNextPageToken());
+                },
+                in -> new ChannelProfileMessages.ChannelVideosResponse(in.readList(MessageSerializer::readVideo), in.readString()));
+        register("cp.ChannelProfileError", ChannelProfileMessages.ChannelProfileError.class,
+                (out, m) -> out.writeString(m.getErrorMessage()),
+                in -> new ChannelProfileMessages.ChannelProfileError(in.readString()));
+        register("cp.GetCacheStats", ChannelProfileMessages.GetCacheStats.class,
+                (out, m) -> {
+                },
+                in -> new ChannelProfileMessages.GetCacheStats());
+        register("cp.CacheStatsResponse", ChannelProfileMessages.CacheStatsResponse.class,
+                (out, m) -> {
+                    writeCacheStats(out, m.getInfoStats());
+                    writeCacheStats(out, m.getVideosStats());
+                },
+                in -> new ChannelProfileMessages.CacheStatsResponse(readCacheStats(in), readCacheStats(in)));
+
+        register("tag.GetVideo", TagMessages.GetVideo.class,
+                (out, m) -> out.writeString(m.getVideoId()),
+                in -> new TagMessages.GetVideo(in.readString()));
+        register("tag.GetTags", TagMessages.GetTags.class,
+                (out, m) -> out.writeString(m.getVideoId()),
+                in -> new TagMessages.GetTags(in.readString()));
+        register("tag.GetVideoResponse", TagMessages.GetVideoResponse.class,
+                (out, m) -> writeVideo(out, m.getVideo()),
+                in -> new TagMessages.GetVideoResponse(readVideo(in)));
+        register("tag.GetTagsResponse", TagMessages.GetTagsResponse.class,
+                (out, m) -> out.writeList(m.getTags(), Output::writeString),
+                in -> new TagMessages.GetTagsResponse(in.readList(Input::readString)));
+        register("tag.TagsError", TagMessages.TagsError.class,
+                (out, m) -> out.writeString(m.getErrorMessage()),
+                in -> new TagMessages.TagsError(in.readString()));
+
+        register("poll.SubscribeChannel", ChannelPollerMessages.SubscribeChannel.class,
+                (out, m) -> out.writeString(m.getChannelId()),
+                in -> new ChannelPollerMessages.SubscribeChannel(in.readString()));
+        register("poll.UnsubscribeChannel", ChannelPollerMessages.UnsubscribeChannel.class,
+                (out, m) -> out.writeString(m.getChannelId()),
+                in -> new ChannelPollerMessages.UnsubscribeChannel(in.readString()));
+        register("poll.NewChannelUploads", ChannelPollerMessages.NewChannelUploads.class,
+                (out, m) -> {
+                    out.writeString(m.getChannelId());
+                    out.writeList(m.getVideos(), MessageSerializer::writeVideo);
+                },
+                in -> new ChannelPollerMessages.NewChannelUploads(in.readString(), in.readList(MessageSerializer::readVideo)));
+
+        register("stats.GetChannelStats", ChannelStatsMessages.GetChannelStats.class,
+                (out, m) -> {
+                    out.writeString(m.getChannelId());
+                    out.writeInt(m.getTopTerms());
+                },
+                in -> new ChannelStatsMessages.GetChannelStats(in.readString(), in.readInt()));
+        register("stats.ChannelStatsResponse", ChannelStatsMessages.ChannelStatsResponse.class,
+                (out, m) -> {
+                    out.writeString(m.getChannelId());
+                    writeSummary(out, m.getSummary());
+                },
+                in -> new ChannelStatsMessages.ChannelStatsResponse(in.readString(), readSummary(in)));
+
+        register("sentiment.AnalyzeVideos", SentimentMessages.AnalyzeVideos.class,
+                (out, m) -> out.writeList(m.getVideos(), MessageSerializer::writeVideo),
+                in -> new SentimentMessages.AnalyzeVideos(in.readList(MessageSerializer::readVideo)));
+        register("sentiment.GetOverallSentiment", SentimentMessages.GetOverallSentiment.class,
+                (out, m) -> out.writeList(m.getVideos(), MessageSerializer::writeVideo),
+                in -> new SentimentMessages.GetOverallSentiment(in.readList(MessageSerializer::readVideo)));
+
+        register("graph.GetCooccurringTags", TagGraphMessages.GetCooccurringTags.class,
+                (out, m) -> {
+                    out.writeString(m.getTag());
+                    out.writeInt(m.getLimit());
+                },
+                in -> new TagGraphMessages.GetCooccurringTags(in.readString(), in.readInt()));
+        register("graph.CooccurringTagsResponse", TagGraphMessages.CooccurringTagsResponse.class,
+                (out, m) -> {
+                    out.writeString(m.getTag());
+                    out.writeMap(m.getTags(), Output::writeString, Output::writeInt);
+                },
+                in -> new TagGraphMessages.CooccurringTagsResponse(in.readString(), in.readMap(Input::readString, Input::readInt)));
+        register("graph.GetTagClusters", TagGraphMessages.GetTagClusters.class,
+                (out, m) -> {
+                    out.writeString(m.getKeyword());
+                    out.writeInt(m.getMaxClusters());
+                },
+                in -> new TagGraphMessages.GetTagClusters(in.readString(), in.readInt()));
+        register("graph.TagClustersResponse", TagGraphMessages.TagClustersResponse.class,
+                (out, m) -> {
+                    out.writeString(m.getKeyword());
+                    out.writeList(m.getClusters(), (o, cluster) -> o.writeList(cluster, Output::writeString));
+                },
+                in -> new TagGraphMessages.TagClustersResponse(in.readString(), in.readList(i -> i.readList(Input::readString))));
+
+        register("index.TagsFetched", TagIndexMessages.TagsFetched.class,
+                (out, m) -> {
+                    out.writeString(m.getVideoId());
+                    out.writeList(m.getTags(), Output::writeString);
+                },
+                in -> new TagIndexMessages.TagsFetched(in.readString(), in.readList(Input::readString)));
+        register("index.GetVideosForTag", TagIndexMessages.GetVideosForTag.class,
+                (out, m) -> {
+                    out.writeString(m.getTag());
+                    out.writeInt(m.getLimit());
+                },
+                in -> new TagIndexMessages.GetVideosForTag(in.readString(), in.readInt()));
+        register("index.VideosForTagResponse", TagIndexMessages.VideosForTagResponse.class,
+                (out, m) -> {
+                    out.writeString(m.getTag());
+                    out.writeList(m.getVideoIds(), Output::writeString);
+                },
+                in -> new TagIndexMessages.VideosForTagResponse(in.readString(), in.readList(Input::readString)));
+        register("index.GetRelatedVideos", TagIndexMessages.GetRelatedVideos.class,
+                (out, m) -> {
+                    out.writeString(m.getVideoId());
+                    out.writeInt(m.getLimit());
+                },
+                in -> new TagIndexMessages.GetRelatedVideos(in.readString(), in.readInt()));
+        register("index.RelatedVideosResponse", TagIndexMessages.RelatedVideosResponse.class,
+                (out, m) -> {
+                    out.writeString(m.getVideoId());
+                    out.writeMap(m.getRelated(), Output::writeString, Output::writeInt);
+                },
+                in -> new TagIndexMessages.RelatedVideosResponse(in.readString(), in.readMap(Input::readString, Input::readInt)));
+
+        register("trend.VideosIngested", TrendingMessages.VideosIngested.class,
+                (out, m) -> out.writeList(m.getVideos(), MessageSerializer::writeVideo),
+                in -> new TrendingMessages.VideosIngested(in.readList(MessageSerializer::readVideo)));
+        register("trend.GetTrending", TrendingMessages.GetTrending.class,
+                (out, m) -> {
+                    writeWindow(out, m.getWindow());
+                    out.writeInt(m.getLimit());
+                },
+                in -> new TrendingMessages.GetTrending(readWindow(in), in.readInt()));
+        register("trend.TrendingResponse", TrendingMessages.TrendingResponse.class,
+                (out, m) -> {
+                    writeWindow(out, m.getWindow());
+                    out.writeMap(m.getTerms(), Output::writeString, Output::writeLong);
+                },
+                in -> new TrendingMessages.TrendingResponse(readWindow(in), in.readMap(Input::readString, Input::readLong)));
+        register("trend.TrendingUpdate", TrendingMessages.TrendingUpdate.class,
+                (out, m) -> out.writeMap(m.getTerms(), MessageSerializer::writeWindow,
+                        (o, terms) -> o.writeMap(terms, Output::writeString, Output::writeLong)),
+                in -> new TrendingMessages.TrendingUpdate(in.readMap(MessageSerializer::readWindow,
+                        i -> i.readMap(Input::readString, Input::readLong))));
+
+        register("words.UpdateVideos", WordStatMessages.UpdateVideos.class,
+                (out, m) -> out.writeString(m.getKeyword()),
+                in -> new WordStatMessages.UpdateVideos(in.readString()));
+        register("words.GetWordStats", WordStatMessages.GetWordStats.class,
+                (out, m) -> out.writeString(m.getKeyword()),
+                in -> new WordStatMessages.GetWordStats(in.readString()));
+        register("words.UpdateAndGetWordStats", WordStatMessages.UpdateAndGetWordStats.class,
+                (out, m) -> {
+                    out.writeString(m.getKeyword());
+                    out.writeInt(m.ngramSize);
+                },
+                in -> new WordStatMessages.UpdateAndGetWordStats(in.readString(), in.readInt()));
+        register("words.WordStatsResult", WordStatMessages.WordStatsResult.class,
+                (out, m) -> {
+                    out.writeString(m.getKeyword());
+                    out.writeLong(m.getVersion());
+                    out.writeMap(m.getWordStats(), Output::writeString, Output::writeLong);
+                },
+                in -> new WordStatMessages.WordStatsResult(in.readString(), in.readLong(), in.readMap(Input::readString, Input::readLong)));
+        register("words.WordStatsError", WordStatMessages.WordStatsError.class,
+                (out, m) -> {
+                    out.writeString(m.getKeyword());
+                    out.writeString(m.getErrorMessage());
+                },
+                in -> new WordStatMessages.WordStatsError(in.readString(), in.readString()));
+        register("words.Passivate", WordStatMessages.Passivate.class,
+                (out, m) -> {
+                },
+                in -> new WordStatMessages.Passivate());
+        register("words.Detached", WordStatMessages.Detached.class,
+                (out, m) -> {
+                },
+                in -> new WordStatMessages.Detached());
+    }
+
+    /**
+     * Returns the classes this serializer encodes.
+     *
+     * @return the classes, in registration order
+     */
+    public static Set<Class<?>> registeredClasses() {
+        return Collections.unmodifiableSet(codecsByClass.keySet());
+    }
+
+    @Override
+    public int identifier() {
+        return IDENTIFIER;
+    }
+
+    @Override
+    public String manifest(Object o) {
+        return codecFor(o).manifest;
+    }
+
+    @Override
+    public byte[] toBinary(Object o) {
+        Output out = new Output();
+        out.writeByte(SCHEMA_VERSION);
+        codecFor(o).write(out, o);
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object fromBinary(byte[] bytes, String manifest) throws NotSerializableException {
+        Codec<?> codec = codecsByManifest.get(manifest);
+        if (codec == null) {
+            throw new NotSerializableException("Unknown manifest: " + manifest);
+        }
+        if (bytes.length == 0 || bytes[0] != SCHEMA_VERSION) {
+            throw new NotSerializableException("Unsupported schema version of " + manifest
+                    + (bytes.length == 0 ? ": empty message" : ": " + bytes[0]));
+        }
+        Input in = new Input(bytes, 1);
+        try {
+            Object message = codec.reader.apply(in);
+            in.expectEnd();
+            return message;
+        } catch (IllegalArgumentException e) {
+            throw new NotSerializableException("Malformed " + manifest + ": " + e.getMessage());
+        }
+    }
+
+    private static Codec<?> codecFor(Object o) {
+        Codec<?> codec = codecsByClass.get(o.getClass());
+        if (codec == null) {
+            throw new IllegalArgumentException("Cannot serialize " + o.getClass().getName());
+        }
+        return codec;
+    }
+
+    private static <T> void register(String manifest, Class<T> type, BiConsumer<Output, T> writer, Function<Input, T> reader) {
+        Codec<T> codec = new Codec<>(manifest, type, writer, reader);
+        codecsByClass.put(type, codec);
+        codecsByManifest.put(manifest, codec);
+    }
+
+    private static void writeVideo(Output out, Video video) {
+        if (video == null) {
+            out.writeByte(0);
+            return;
+        }
+        String videoId = video.getVideoId();
+        String videoURL = video.getVideoURL();
+        String thumbnailUrl = video.getThumbnailUrl();
+        String publishedAt = video.getPublishedAt();
+        long publishedAtMillis = video.getPublishedAtMillis();
+        int header = VIDEO_PRESENT;
+        if (VideoIds.isPackable(videoId)) {
+            header |= VIDEO_PACKED_ID;
+        }
+        if (videoId != null && (Video.BASE_VIDEO_URL + videoId).equals(videoURL)) {
+            header |= VIDEO_DERIVED_URL;
+        }
+        if (videoId != null && Video.defaultThumbnailUrl(videoId).equals(thumbnailUrl)) {
+            header |= VIDEO_DERIVED_THUMBNAIL_URL;
+        }
+        if (publishedAtMillis != Video.UNKNOWN_TIME && Instant.ofEpochMilli(publishedAtMillis).toString().equals(publishedAt)) {
+            header |= VIDEO_PUBLISHED_AT_MILLIS;
+        }
+        out.writeByte(header);
+        if ((header & VIDEO_PACKED_ID) != 0) {
+            out.writeFixedLong(VideoIds.pack(videoId));
+        } else {
+            out.writeString(videoId);
+        }
+        out.writeString(video.getTitle());
+        out.writeString(video.getDescription());
+        out.writeString(video.getChannelTitle());
+        out.writeString(video.getChannelId());
+        if ((header & VIDEO_DERIVED_URL) == 0) {
+            out.writeString(videoURL);
+        }
+        if ((header & VIDEO_DERIVED_THUMBNAIL_URL) == 0) {
+            out.writeString(thumbnailUrl);
+        }
+        if ((header & VIDEO_PUBLISHED_AT_MILLIS) != 0) {
+            out.writeLong(publishedAtMillis);
+        } else {
+            out.writeString(publishedAt);
+        }
+    }
+
+    private static Video readVideo(Input in) {
+        int header = in.readByte();
+        if (header == 0) {
+            return null;
+        }
+        if ((header & ~VIDEO_HEADER_BITS) != 0 || (header & VIDEO_PRESENT) == 0) {
+            throw new IllegalArgumentException("Malformed video header " + header);
+        }
+        String videoId = (header & VIDEO_PACKED_ID) != 0 ? VideoIds.unpack(in.readFixedLong()) : in.readString();
+        String title = in.readString();
+        String description = in.readString();
+        String channelTitle = in.readString();
+        String channelId = in.readString();
+        String videoURL = (header & VIDEO_DERIVED_URL) != 0 ? Video.BASE_VIDEO_URL + videoId : in.readString();
+        String thumbnailUrl = (header & VIDEO_DERIVED_THUMBNAIL_URL) != 0 ? Video.defaultThumbnailUrl(videoId) : in.readString();
+        Video video = (header & VIDEO_PUBLISHED_AT_MILLIS) != 0
+                ? new Video(title, description, channelTitle, thumbnailUrl, videoId, channelId, videoURL, in.readLong())
+                : new Video(title, description, channelTitle, thumbnailUrl, videoId, channelId, videoURL, in.readString());
+        return VideoInterner.shared().intern(video);
+    }
+
+    private static void writeChannel(Output out, Channel channel) {
+        out.writeByte(channel == null ? 0 : 1);
+        if (channel != null) {
+            out.writeString(channel.getChannelId());
+            out.writeString(channel.getTitle());
+            out.writeString(channel.getDescription());
+            out.writeString(channel.getThumbnailUrl());
+        }
+    }
+
+    private static Channel readChannel(Input in) {
+        return in.readByte() == 0 ? null : new Channel(in.readString(), in.readString(), in.readString(), in.readString());
+    }
+
+    private static void writeCacheStats(Output out, ExpiringCache.Stats stats) {
+        out.writeLong(stats.getHits());
+        out.writeLong(stats.getMisses());
+        out.writeLong(stats.getLoads());
+        out.writeLong(stats.getLoadFailures());
+        out.writeLong(stats.getCompletedLoads());
+        out.writeLong(stats.getTotalLoadNanos());
+        out.writeLong(stats.getMaxLoadNanos());
+        out.writeInt(stats.getSize());
+    }
+
+    private static ExpiringCache.Stats readCacheStats(Input in) {
+        return new ExpiringCache.Stats(in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                in.readLong(), in.readLong(), in.readInt());
+    }
+
+    private static void writeSummary(Output out, ChannelStats.Summary summary) {
+        out.writeInt(summary.getVideoCount());
+        out.writeInts(summary.getPublishHours());
+        out.writeInts(summary.getPublishWeekdays());
+        out.writeInt(summary.getSadCount());
+        out.writeInt(summary.getNeutralCount());
+        out.writeInt(summary.getHappyCount());
+        out.writeLong(summary.getMedianGapSeconds());
+        out.writeDouble(summary.getUploadsPerWeek());
+        out.writeMap(summary.getTopTerms(), Output::writeString, Output::writeLong);
+    }
+
+    private static ChannelStats.Summary readSummary(Input in) {
+        int videoCount = in.readInt();
+        int[] publishHours = in.readInts();
+        int[] publishWeekdays = in.readInts();
+        int[] sentiments = {in.readInt(), in.readInt(), in.readInt()};
+        return new ChannelStats.Summary(videoCount, publishHours, publishWeekdays, sentiments, in.readLong(),
+                in.readDouble(), in.readMap(Input::readString, Input::readLong));
+    }
+
+    private static void writeWindow(Output out, TrendingTerms.Window window) {
+        out.writeString(window.getLabel());
+    }
+
+    private static TrendingTerms.Window readWindow(Input in) {
+        String label = in.readString();
+        return TrendingTerms.Window.fromLabel(label)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown window " + label));
+    }
+
+    /**
+     * The manifest, encoder and decoder of one message class.
+     */
+    private static final class Codec<T> {
+        private final String manifest;
+        private final Class<T> type;
+        private final BiConsumer<Output, T> writer;
+        private final Function<Input, T> reader;
+
+        private Codec(String manifest, Class<T> type, BiConsumer<Output, T> writer, Function<Input, T> reader) {
+            this.manifest = manifest;
+            this.type = type;
+            this.writer = writer;
+            this.reader = reader;
+        }
+
+        private void write(Output out, Object message) {
+            writer.accept(out, type.cast(message));
+        }
+    }
+
+    /**
+     * Growable byte buffer with the primitive encodings of the serializer.
+     */
+    private static final class Output {
+        private final Map<String, Integer> strings = new HashMap<>();
+        private byte[] buffer = new byte[64];
+        private int size;
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeInt(int value) {
+            writeLong(value);
+        }
+
+        void writeInt(Integer value) {
+            writeLong(value);
+        }
+
+        void writeLong(Long value) {
+            writeLong(value.longValue());
+        }
+
+        void writeDouble(double value) {
+            writeFixedLong(Double.doubleToRawLongBits(value));
+        }
+
+        void writeFixedLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        /**
+         * Writes a string as a tag followed by its UTF-8 bytes. The tag is 0 for {@code null}, an odd number
+         * referring to a string written earlier in the message, or an even number giving the length.
+         */
+        void writeString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            Integer index = strings.putIfAbsent(value, strings.size());
+            if (index != null) {
+                writeVarint(((long) index << 1) | 1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint((bytes.length + 1L) << 1);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void writeInts(int[] values) {
+            writeVarint(values.length);
+            for (int value : values) {
+                writeInt(value);
+            }
+        }
+
+        <E> void writeList(List<E> list, BiConsumer<Output, E> elementWriter) {
+            if (list == null) {
+                writeVarint(0);
+                return;
+            }
+            writeVarint(list.size() + 1L);
+            for (E element : list) {
+                elementWriter.accept(this, element);
+            }
+        }
+
+        <K, V> void writeMap(Map<K, V> map, BiConsumer<Output, K> keyWriter, BiConsumer<Output, V> valueWriter) {
+            if (map == null) {
+                writeVarint(0);
+                return;
+            }
+            writeVarint(map.size() + 1L);
+            for (Map.Entry<K, V> entry : map.entrySet()) {
+                keyWriter.accept(this, entry.getKey());
+                valueWriter.accept(this, entry.getValue());
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int bytes) {
+            if (size + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes));
+            }
+        }
+    }
+
+    /**
+     * Reader of the encodings of {@link Output}. Reading past the end throws {@link IllegalArgumentException}.
+     */
+    private static final class Input {
+        private final List<String> strings = new ArrayList<>();
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        int readByte() {
+            require(1);
+            return buffer[position++] & 0xFF;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        long readLong() {
+            long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        int readInt() {
+            return (int) readLong();
+        }
+
+        long readFixedLong() {
+            require(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = value << 8 | (buffer[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        double readDouble() {
+            return Double.longBitsToDouble(readFixedLong());
+        }
+
+        String readString() {
+            long tag = readVarint();
+            if (tag == 0) {
+                return null;
+            }
+            if ((tag & 1) != 0) {
+                long index = tag >>> 1;
+                if (index >= strings.size()) {
+                    throw new IllegalArgumentException("Unknown string reference " + index);
+                }
+                return strings.get((int) index);
+            }
+            long length = (tag >>> 1) - 1;
+            require(length);
+            String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            strings.add(value);
+            return value;
+        }
+
+        int[] readInts() {
+            long length = readVarint();
+            require(length);
+            int[] values = new int[(int) length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readInt();
+            }
+            return values;
+        }
+
+        <E> List<E> readList(Function<Input, E> elementReader) {
+            int size = readLength();
+            if (size < 0) {
+                return null;
+            }
+            List<E> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(elementReader.apply(this));
+            }
+            return Collections.unmodifiableList(list);
+        }
+
+        <K, V> Map<K, V> readMap(Function<Input, K> keyReader, Function<Input, V> valueReader) {
+            int size = readLength();
+            if (size < 0) {
+                return null;
+            }
+            Map<K, V> map = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                K key = keyReader.apply(this);
+                map.put(key, valueReader.apply(this));
+            }
+            return Collections.unmodifiableMap(map);
+        }
+
+        void expectEnd() {
+            if (position != buffer.length) {
+                throw new IllegalArgumentException((buffer.length - position) + " trailing bytes");
+            }
+        }
+
+        /**
+         * Reads a length stored plus one, every element taking at least one byte.
+         *
+         * @return the length, or -1 for {@code null}
+         */
+        private int readLength() {
+            long length = readVarint() - 1;
+            if (length != -1) {
+                require(length);
+            }
+            return (int) length;
+        }
+
+        private void require(long bytes) {
+            if (bytes < 0 || bytes > buffer.length - position) {
+                throw new IllegalArgumentException("Truncated message");
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package actors;
+
+import akka.actor.AbstractActor;
+import akka.actor.Props;
+import utils.TagGraph;
+
+/**
+ * Actor owning the in-memory {@link TagGraph} of tag co-occurrences.
+ *
+ * <p>Every tag list fetched through the {@link models.services.TagsService} is sent to this actor as a
+ * {@link TagIndexMessages.TagsFetched} message and updates the graph incrementally. Queries are answered
+ * from memory.</p>
+ *
+ * <p>Messages handled by this actor:
+ * <ul>
+ *   <li>{@link TagIndexMessages.TagsFetched} - Links the tags of a video.</li>
+ *   <li>{@link TagGraphMessages.GetCooccurringTags} - Replies with a {@link TagGraphMessages.CooccurringTagsResponse}.</li>
+ *   <li>{@link TagGraphMessages.GetTagClusters} - Replies with a {@link TagGraphMessages.TagClustersResponse}.</li>
+ * </ul>
+ * </p>
+ */
+public class TagGraphActor extends AbstractActor {
+
+    /**
+     * The minimum number of shared videos linking a tag to a cluster.
+     */
+    public static final int MIN_CLUSTER_WEIGHT = 2;
+
+    private final TagGraph tagGraph;
+
+    /**
+     * Creates Props for a TagGraphActor with an empty graph.
+     *
+     * @return a Props instance
+     */
+    public static Props props() {
+        return Props.create(TagGraphActor.class, () -> new TagGraphActor(new TagGraph()));
+    }
+
+    /**
+     * Constructs a {@code TagGraphActor}.
+     *
+     * @param tagGraph the graph to maintain
+     */
+    public TagGraphActor(TagGraph tagGraph) {
+        this.tagGraph = tagGraph;
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(TagIndexMessages.TagsFetched.class, msg -> tagGraph.addVideo(msg.getVideoId(), msg.getTags()))
+                .match(TagGraphMessages.GetCooccurringTags.class, this::handleGetCooccurringTags)
+                .match(TagGraphMessages.GetTagClusters.class, this::handleGetTagClusters)
+                .build();
+    }
+
+    private void handleGetCooccurringTags(TagGraphMessages.GetCooccurringTags message) {
+        sender().tell(new TagGraphMessages.CooccurringTagsResponse(message.getTag(),
+                tagGraph.topCooccurring(message.getTag(), message.getLimit())), self());
+    }
+
+    private void handleGetTagClusters(TagGraphMessages.GetTagClusters message) {
+        sender().tell(new TagGraphMessages.TagClustersResponse(message.getKeyword(),
+                tagGraph.clusters(message.getKeyword(), message.getMaxClusters(), MIN_CLUSTER_WEIGHT)), self());
+    }
+}
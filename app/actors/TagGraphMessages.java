@@ -0,0 +1,105 @@
+package actors;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Messages used by the {@link TagGraphActor}. Fetched tags reach the actor as
+ * {@link TagIndexMessages.TagsFetched} messages.
+ *
+ * <p>The messages include:
+ * <ul>
+ *   <li>{@link GetCooccurringTags} - Request for the tags appearing most often with a tag.</li>
+ *   <li>{@link CooccurringTagsResponse} - Response carrying the co-occurring tags.</li>
+ *   <li>{@link GetTagClusters} - Request for the clusters of tags related to a keyword.</li>
+ *   <li>{@link TagClustersResponse} - Response carrying the clusters.</li>
+ * </ul>
+ * </p>
+ */
+public class TagGraphMessages {
+
+    /**
+     * Message to request the tags appearing most often with a tag.
+     */
+    public static class GetCooccurringTags {
+        private final String tag;
+        private final int limit;
+
+        public GetCooccurringTags(String tag, int limit) {
+            this.tag = tag;
+            this.limit = limit;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+    }
+
+    /**
+     * Response message containing the co-occurring tags of a tag and the number of videos they share with it,
+     * ordered by descending count.
+     */
+    public static class CooccurringTagsResponse {
+        private final String tag;
+        private final Map<String, Integer> tags;
+
+        public CooccurringTagsResponse(String tag, Map<String, Integer> tags) {
+            this.tag = tag;
+            this.tags = tags;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public Map<String, Integer> getTags() {
+            return tags;
+        }
+    }
+
+    /**
+     * Message to request the clusters of tags related to a keyword.
+     */
+    public static class GetTagClusters {
+        private final String keyword;
+        private final int maxClusters;
+
+        public GetTagClusters(String keyword, int maxClusters) {
+            this.keyword = keyword;
+            this.maxClusters = maxClusters;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        public int getMaxClusters() {
+            return maxClusters;
+        }
+    }
+
+    /**
+     * Response message containing the clusters of tags related to a keyword, each starting with its anchor tag.
+     */
+    public static class TagClustersResponse {
+        private final String keyword;
+        private final List<List<String>> clusters;
+
+        public TagClustersResponse(String keyword, List<List<String>> clusters) {
+            this.keyword = keyword;
+            this.clusters = clusters;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        public List<List<String>> getClusters() {
+            return clusters;
+        }
+    }
+}
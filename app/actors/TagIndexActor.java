@@ -0,0 +1,62 @@
+package actors;
+
+import akka.actor.AbstractActor;
+import akka.actor.Props;
+import utils.TagIndex;
+
+/**
+ * Actor owning the in-memory {@link TagIndex}.
+ *
+ * <p>Every tag list fetched through the {@link models.services.TagsService} is sent to this actor as a
+ * {@link TagIndexMessages.TagsFetched} message. Lookups are answered from the index alone, without any call
+ * to the YouTube API.</p>
+ *
+ * <p>Messages handled by this actor:
+ * <ul>
+ *   <li>{@link TagIndexMessages.TagsFetched} - Indexes the tags of a video.</li>
+ *   <li>{@link TagIndexMessages.GetVideosForTag} - Replies with a {@link TagIndexMessages.VideosForTagResponse}.</li>
+ *   <li>{@link TagIndexMessages.GetRelatedVideos} - Replies with a {@link TagIndexMessages.RelatedVideosResponse}.</li>
+ * </ul>
+ * </p>
+ */
+public class TagIndexActor extends AbstractActor {
+
+    private final TagIndex tagIndex;
+
+    /**
+     * Creates Props for a TagIndexActor with an empty index.
+     *
+     * @return a Props instance
+     */
+    public static Props props() {
+        return Props.create(TagIndexActor.class, () -> new TagIndexActor(new TagIndex()));
+    }
+
+    /**
+     * Constructs a {@code TagIndexActor}.
+     *
+     * @param tagIndex the index to maintain
+     */
+    public TagIndexActor(TagIndex tagIndex) {
+        this.tagIndex = tagIndex;
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(TagIndexMessages.TagsFetched.class, msg -> tagIndex.index(msg.getVideoId(), msg.getTags()))
+                .match(TagIndexMessages.GetVideosForTag.class, this::handleGetVideosForTag)
+                .match(TagIndexMessages.GetRelatedVideos.class, this::handleGetRelatedVideos)
+                .build();
+    }
+
+    private void handleGetVideosForTag(TagIndexMessages.GetVideosForTag message) {
+        sender().tell(new TagIndexMessages.VideosForTagResponse(message.getTag(),
+                tagIndex.videosForTag(message.getTag(), message.getLimit())), self());
+    }
+
+    private void handleGetRelatedVideos(TagIndexMessages.GetRelatedVideos message) {
+        sender().tell(new TagIndexMessages.RelatedVideosResponse(message.getVideoId(),
+                tagIndex.relatedVideos(message.getVideoId(), message.getLimit())), self());
+    }
+}
@@ -0,0 +1,126 @@
+package actors;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Messages used by the {@link TagIndexActor}.
+ *
+ * <p>The messages include:
+ * <ul>
+ *   <li>{@link TagsFetched} - The tags of a video, just fetched from the YouTube API, to be indexed.</li>
+ *   <li>{@link GetVideosForTag} - Request for the videos carrying a tag.</li>
+ *   <li>{@link VideosForTagResponse} - Response carrying the videos of a tag.</li>
+ *   <li>{@link GetRelatedVideos} - Request for the videos sharing tags with a video.</li>
+ *   <li>{@link RelatedVideosResponse} - Response carrying the related videos.</li>
+ * </ul>
+ * </p>
+ */
+public class TagIndexMessages {
+
+    /**
+     * Message carrying the tags of a video that were just fetched.
+     */
+    public static class TagsFetched {
+        private final String videoId;
+        private final List<String> tags;
+
+        public TagsFetched(String videoId, List<String> tags) {
+            this.videoId = videoId;
+            this.tags = tags;
+        }
+
+        public String getVideoId() {
+            return videoId;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+    }
+
+    /**
+     * Message to request the videos carrying a tag, most recently indexed first.
+     */
+    public static class GetVideosForTag {
+        private final String tag;
+        private final int limit;
+
+        public GetVideosForTag(String tag, int limit) {
+            this.tag = tag;
+            this.limit = limit;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+    }
+
+    /**
+     * Response message containing the videos carrying a tag.
+     */
+    public static class VideosForTagResponse {
+        private final String tag;
+        private final List<String> videoIds;
+
+        public VideosForTagResponse(String tag, List<String> videoIds) {
+            this.tag = tag;
+            this.videoIds = videoIds;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public List<String> getVideoIds() {
+            return videoIds;
+        }
+    }
+
+    /**
+     * Message to request the videos sharing the most tags with a video.
+     */
+    public static class GetRelatedVideos {
+        private final String videoId;
+        private final int limit;
+
+        public GetRelatedVideos(String videoId, int limit) {
+            this.videoId = videoId;
+            this.limit = limit;
+        }
+
+        public String getVideoId() {
+            return videoId;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+    }
+
+    /**
+     * Response message containing the related videos of a video and the number of tags each one shares with it,
+     * ordered by descending count.
+     */
+    public static class RelatedVideosResponse {
+        private final String videoId;
+        private final Map<String, Integer> related;
+
+        public RelatedVideosResponse(String videoId, Map<String, Integer> related) {
+            this.videoId = videoId;
+            this.related = related;
+        }
+
+        public String getVideoId() {
+            return videoId;
+        }
+
+        public Map<String, Integer> getRelated() {
+            return related;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package actors;
+
+import akka.actor.AbstractActor;
+import akka.actor.Cancellable;
+import akka.actor.Props;
+import scala.concurrent.duration.Duration;
+import utils.TrendingTerms;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actor owning the cross-keyword {@link TrendingTerms} engine.
+ *
+ * <p>Every video fetched from the YouTube API (search, polling, channel and tag pages) is sent to this actor
+ * as a {@link TrendingMessages.VideosIngested} message. Every 30 seconds, if new videos were counted, the
+ * actor publishes a {@link TrendingMessages.TrendingUpdate} on the event stream, which the
+ * {@link UserActor}s forward to their WebSocket.</p>
+ *
+ * <p>Messages handled by this actor:
+ * <ul>
+ *   <li>{@link TrendingMessages.VideosIngested} - Counts the title terms of the videos.</li>
+ *   <li>{@link TrendingMessages.GetTrending} - Replies with a {@link TrendingMessages.TrendingResponse}.</li>
+ * </ul>
+ * </p>
+ */
+public class TrendingActor extends AbstractActor {
+
+    public static final int PUBLISHED_TERMS = 10;
+    private static final String PUBLISH_TICK = "PublishTrending";
+
+    private final TrendingTerms trendingTerms;
+    private boolean changedSincePublish = false;
+    private Cancellable publishSchedule;
+
+    /**
+     * Creates Props for a TrendingActor with the default engine sizes.
+     *
+     * @return a Props instance
+     */
+    public static Props props() {
+        return Props.create(TrendingActor.class, () -> new TrendingActor(new TrendingTerms()));
+    }
+
+    /**
+     * Constructs a {@code TrendingActor}.
+     *
+     * @param trendingTerms the engine holding the counts
+     */
+    public TrendingActor(TrendingTerms trendingTerms) {
+        this.trendingTerms = trendingTerms;
+    }
+
+    /**
+     * Schedules the periodic publication of the trending terms.
+     */
+    @Override
+    public void preStart() {
+        publishSchedule = getContext().getSystem().scheduler().scheduleWithFixedDelay(
+                Duration.create(30, TimeUnit.SECONDS),
+                Duration.create(30, TimeUnit.SECONDS),
+                self(),
+                PUBLISH_TICK,
+                getContext().getSystem().dispatcher(),
+                self()
+        );
+    }
+
+    /**
+     * Cancels the periodic publication.
+     */
+    @Override
+    public void postStop() {
+        if (publishSchedule != null) {
+            publishSchedule.cancel();
+        }
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(TrendingMessages.VideosIngested.class, this::handleVideosIngested)
+                .match(TrendingMessages.GetTrending.class, this::handleGetTrending)
+                .matchEquals(PUBLISH_TICK, tick -> publish())
+                .build();
+    }
+
+    private void handleVideosIngested(TrendingMessages.VideosIngested message) {
+        if (trendingTerms.addVideos(message.getVideos(), System.currentTimeMillis()) > 0) {
+            changedSincePublish = true;
+        }
+    }
+
+    private void handleGetTrending(TrendingMessages.GetTrending message) {
+        Map<String, Long> terms = trendingTerms.top(message.getWindow(), message.getLimit(), System.currentTimeMillis());
+        sender().tell(new TrendingMessages.TrendingResponse(message.getWindow(), terms), self());
+    }
+
+    /**
+     * Publishes the top terms of every window on the event stream if new videos were counted since the last publication.
+     */
+    private void publish() {
+        if (!changedSincePublish) {
+            return;
+        }
+        changedSincePublish = false;
+        long now = System.currentTimeMillis();
+        Map<TrendingTerms.Window, Map<String, Long>> snapshot = new EnumMap<>(TrendingTerms.Window.class);
+        for (TrendingTerms.Window window : TrendingTerms.Window.values()) {
+            snapshot.put(window, trendingTerms.top(window, PUBLISHED_TERMS, now));
+        }
+        getContext().getSystem().getEventStream().publish(new TrendingMessages.TrendingUpdate(snapshot));
+    }
+}
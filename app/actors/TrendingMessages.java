@@ -0,0 +1,95 @@
+package actors;
+
+import models.entities.Video;
+import utils.TrendingTerms;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Messages used by the {@link TrendingActor}.
+ *
+ * <p>The messages include:
+ * <ul>
+ *   <li>{@link VideosIngested} - Videos fetched anywhere in the system, to be counted.</li>
+ *   <li>{@link GetTrending} - Request for the top terms of a window.</li>
+ *   <li>{@link TrendingResponse} - Response carrying the top terms of a window.</li>
+ *   <li>{@link TrendingUpdate} - Snapshot of every window, published on the event stream.</li>
+ * </ul>
+ * </p>
+ */
+public class TrendingMessages {
+
+    /**
+     * Message carrying videos that were just fetched from the YouTube API.
+     */
+    public static class VideosIngested {
+        private final List<Video> videos;
+
+        public VideosIngested(List<Video> videos) {
+            this.videos = videos;
+        }
+
+        public List<Video> getVideos() {
+            return videos;
+        }
+    }
+
+    /**
+     * Message to request the top terms of a window.
+     */
+    public static class GetTrending {
+        private final TrendingTerms.Window window;
+        private final int limit;
+
+        public GetTrending(TrendingTerms.Window window, int limit) {
+            this.window = window;
+            this.limit = limit;
+        }
+
+        public TrendingTerms.Window getWindow() {
+            return window;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+    }
+
+    /**
+     * Response message containing the top terms of a window, ordered by descending count.
+     */
+    public static class TrendingResponse {
+        private final TrendingTerms.Window window;
+        private final Map<String, Long> terms;
+
+        public TrendingResponse(TrendingTerms.Window window, Map<String, Long> terms) {
+            this.window = window;
+            this.terms = terms;
+        }
+
+        public TrendingTerms.Window getWindow() {
+            return window;
+        }
+
+        public Map<String, Long> getTerms() {
+            return terms;
+        }
+    }
+
+    /**
+     * Snapshot of the top terms of every window, published on the actor system's event stream
+     * whenever new videos were counted.
+     */
+    public static class TrendingUpdate {
+        private final Map<TrendingTerms.Window, Map<String, Long>> terms;
+
+        public TrendingUpdate(Map<TrendingTerms.Window, Map<String, Long>> terms) {
+            this.terms = terms;
+        }
+
+        public Map<TrendingTerms.Window, Map<String, Long>> getTerms() {
+            return terms;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import akka.actor.ActorRef;
 import akka.actor.Props;
 import models.entities.Video;
 import models.services.SearchService;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import scala.concurrent.duration.Duration;
 
@@ -24,6 +25,7 @@ public class UserActor extends AbstractActor {
     private final SearchService searchService;
     private final String sessionId;
     private final ActorRef sentimentActor;
+    private final ActorRef channelPollerActor;
 
     /**
      * Factory method for creating {@code Props} for the {@code UserActor}.
@@ -38,6 +40,20 @@ public class UserActor extends AbstractActor {
         return Props.create(UserActor.class, () -> new UserActor(out, searchService, sentimentActor, sessionId));
     }
 
+    /**
+     * Factory method for creating {@code Props} for a {@code UserActor} that can follow channels.
+     *
+     * @param out                The {@code ActorRef} for output communication with the client.
+     * @param searchService      The {@code SearchService} for managing video search and history.
+     * @param sentimentActor     The {@code ActorRef} for sentiment analysis actor.
+     * @param channelPollerActor The {@code ActorRef} of the shared channel poller.
+     * @param sessionId          The user's session ID.
+     * @return The {@code Props} object for creating {@code UserActor} instances.
+     */
+    public static Props props(ActorRef out, SearchService searchService, ActorRef sentimentActor, ActorRef channelPollerActor, String sessionId) {
+        return Props.create(UserActor.class, () -> new UserActor(out, searchService, sentimentActor, channelPollerActor, sessionId));
+    }
+
     /**
      * Constructs a {@code UserActor} with the specified parameters.
      *
@@ -47,9 +63,24 @@ public class UserActor extends AbstractActor {
      * @param sessionId      The user's session ID.
      */
     public UserActor(ActorRef out, SearchService searchService, ActorRef sentimentActor, String sessionId) {
+        this(out, searchService, sentimentActor, null, sessionId);
+    }
+
+    /**
+     * Constructs a {@code UserActor} that can follow channels through the shared channel poller.
+     *
+     * @param out                The {@code ActorRef} for output communication with the client.
+     * @param searchService      The {@code SearchService} for managing video search and history.
+     * @param sentimentActor     The {@code ActorRef} for sentiment analysis actor.
+     * @param channelPollerActor The {@code ActorRef} of the shared channel poller, or {@code null} to ignore
+     *                           channel subscriptions.
+     * @param sessionId          The user's session ID.
+     */
+    public UserActor(ActorRef out, SearchService searchService, ActorRef sentimentActor, ActorRef channelPollerActor, String sessionId) {
         this.out = out;
         this.searchService = searchService;
         this.sentimentActor = sentimentActor;
+        this.channelPollerActor = channelPollerActor;
         this.sessionId = sessionId;
 
         Map<String, List<Video>> initialSearchHistory = searchService.getSearchHistory(sessionId);
@@ -65,10 +96,13 @@ public class UserActor extends AbstractActor {
 
     /**
      * Initializes the {@code UserActor}.
-     * Schedules periodic tasks for fetching videos and sending heartbeats.
+     * Schedules periodic tasks for fetching videos and sending heartbeats, and subscribes to the
+     * trending-terms updates published on the event stream.
      */
     @Override
     public void preStart() {
+        getContext().getSystem().getEventStream().subscribe(self(), TrendingMessages.TrendingUpdate.class);
+
         getContext().getSystem().scheduler().scheduleWithFixedDelay(
                 Duration.create(10, TimeUnit.SECONDS),
                 Duration.create(30, TimeUnit.SECONDS),
@@ -88,9 +122,18 @@ public class UserActor extends AbstractActor {
         );
     }
 
+    /**
+     * Unsubscribes from the event stream when the WebSocket closes.
+     */
+    @Override
+    public void postStop() {
+        getContext().getSystem().getEventStream().unsubscribe(self());
+    }
+
     /**
      * Defines the message handling behavior for the {@code UserActor}.
-     * Handles periodic tasks such as "FetchVideos" and "Heartbeat".
+     * Handles periodic tasks such as "FetchVideos" and "Heartbeat", channel subscriptions sent by the client,
+     * and forwards trending-terms updates and the new uploads of followed channels.
      *
      * @return The {@code Receive} object defining message handling behavior.
      */
@@ -103,13 +146,44 @@ public class UserActor extends AbstractActor {
                     } else if (message.equals("FetchVideos")) {
                         System.out.println("FetchVideos triggered at: " + LocalDateTime.now());
                         searchHistory.forEach(this::fetchAndSendResults);
-                    } else {
-                        // Handle other messages
+                    } else if (message.startsWith("{")) {
+                        handleClientMessage(message);
                     }
                 })
+                .match(TrendingMessages.TrendingUpdate.class, update -> out.tell(trendingToJson(update), self()))
+                .match(ChannelPollerMessages.NewChannelUploads.class, uploads -> uploads.getVideos().stream()
+                        .map(video -> channelVideoToJson(video, uploads.getChannelId()))
+                        .forEach(json -> out.tell(json, self())))
                 .build();
     }
 
+    /**
+     * Handles a JSON message sent by the client over the WebSocket. Messages of type {@code subscribeChannel}
+     * and {@code unsubscribeChannel} start and end following the new uploads of the given {@code channelId};
+     * every other message is ignored.
+     *
+     * @param message The JSON message.
+     */
+    private void handleClientMessage(String message) {
+        JSONObject json;
+        try {
+            json = new JSONObject(message);
+        } catch (Exception e) {
+            return;
+        }
+        String type = json.optString("type");
+        String channelId = json.optString("channelId", "");
+        if (channelPollerActor == null || channelId.isEmpty()) {
+            return;
+        }
+        if (type.equals("subscribeChannel")) {
+            channelPollerActor.tell(new ChannelPollerMessages.SubscribeChannel(channelId), self());
+            out.tell(new JSONObject().put("type", "channelSubscribed").put("channelId", channelId).toString(), self());
+        } else if (type.equals("unsubscribeChannel")) {
+            channelPollerActor.tell(new ChannelPollerMessages.UnsubscribeChannel(channelId), self());
+        }
+    }
+
     /**
      * Fetches new video results for a given keyword, processes the results, and sends them to the client.
      *
@@ -153,6 +227,45 @@ public class UserActor extends AbstractActor {
         return json.toString();
     }
 
+    /**
+     * Converts a new upload of a followed channel to a JSON representation.
+     *
+     * @param video     The uploaded video.
+     * @param channelId The ID of the followed channel.
+     * @return A JSON string representation of the video.
+     */
+    private String channelVideoToJson(Video video, String channelId) {
+        JSONObject json = new JSONObject();
+        json.put("type", "channelVideo");
+        json.put("channelId", channelId);
+        json.put("videoId", video.getVideoId());
+        json.put("title", video.getTitle());
+        json.put("description", video.getDescription());
+        json.put("thumbnailUrl", video.getThumbnailUrl());
+        json.put("channelTitle", video.getChannelTitle());
+        json.put("publishedAt", video.getPublishedAt());
+        return json.toString();
+    }
+
+    /**
+     * Converts a {@code TrendingUpdate} to a JSON representation.
+     *
+     * @param update The trending-terms snapshot to convert.
+     * @return A JSON string with the top terms of every window, keyed by window label.
+     */
+    private String trendingToJson(TrendingMessages.TrendingUpdate update) {
+        JSONObject windows = new JSONObject();
+        update.getTerms().forEach((window, terms) -> {
+            JSONArray entries = new JSONArray();
+            terms.forEach((term, count) -> entries.put(new JSONObject().put("term", term).put("count", count)));
+            windows.put(window.getLabel(), entries);
+        });
+        JSONObject json = new JSONObject();
+        json.put("type", "trending");
+        json.put("windows", windows);
+        return json.toString();
+    }
+
     /**
      * Sends a heartbeat message to the client.
      * The message indicates that the actor is still active.
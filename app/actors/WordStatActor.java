@@ -1,29 +1,62 @@
 package actors;
 
 import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
 import akka.actor.Props;
+import akka.actor.ReceiveTimeout;
 import com.google.inject.Inject;
 import models.entities.Video;
 import models.services.GeneralService;
 import models.services.SearchService;
+import utils.NGramCounter;
+import utils.WordCountTable;
+import utils.WordCounter;
+import utils.WordTokenizer;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletionStage;
-import java.util.stream.Collectors;
+
+import static akka.pattern.Patterns.pipe;
 
 /**
  * Actor responsible for managing and calculating word statistics from video titles.
  * The actor interacts with the {@link SearchService} to fetch video data and computes word frequencies.
  *
+ * Videos are fetched asynchronously and piped back to the actor as a {@link WordStatMessages.VideosFetched}
+ * message, so the statistics are only ever read and written on the actor's own thread.
+ *
+ * Word counts are maintained incrementally: when a fetch returns, only the titles of newly arrived videos
+ * are added to the counts and only the titles of videos that left the window are subtracted. The sorted
+ * top-word view is rebuilt lazily, the first time it is read after the counts changed.
+ *
+ * Phrase statistics (2- and 3-grams) are counted with an {@link NGramCounter} over the titles of the current
+ * window when they are first requested, and cached until the window changes.
+ *
+ * Each instance holds the statistics of a single keyword. Instances are created on demand by the
+ * {@link WordStatRouterActor}, and an instance created with an idle timeout asks its parent to detach it
+ * once it has not received any message for that long and has no fetch running. Once detached, it stops
+ * itself as soon as the requesters still waiting for a fetch have been answered.
+ *
  * Messages handled by this actor:
  * - {@link WordStatMessages.UpdateVideos}: Updates word statistics based on new videos.
+ * - {@link WordStatMessages.UpdateAndGetWordStats}: Updates word statistics and replies with the result.
  * - {@link WordStatMessages.GetWordStats}: Retrieves the current word statistics.
  */
 public class WordStatActor extends AbstractActor {
 
     private final SearchService searchService;
-    private final Map<String, Long> wordStats = new LinkedHashMap<>();
-    private final Set<String> processedVideoIds = new HashSet<>(); // To track processed videos
+    private final Duration idleTimeout;
+    private final Map<String, Video> windowVideos = new HashMap<>(); // Videos currently counted, by ID
+    private final WordCountTable wordCounts = new WordCountTable();
+    private final WordTokenizer tokenizer = new WordTokenizer();
+    private Map<String, Long> wordStats = new LinkedHashMap<>();
+    private boolean wordStatsStale = false;
+    private final Map<Integer, Map<String, Long>> phraseStats = new HashMap<>(); // Cached phrase statistics, by n-gram size
+    private final List<PendingRequest> pendingRequests = new ArrayList<>();
+    private boolean fetchInProgress = false;
+    private boolean detached = false;
+    private long version = 0;
 
     /**
      * Constructs a {@code WordStatActor} with the specified {@link SearchService}.
@@ -32,7 +65,18 @@ public class WordStatActor extends AbstractActor {
      */
     @Inject
     public WordStatActor(SearchService searchService) {
+        this(searchService, null);
+    }
+
+    /**
+     * Constructs a {@code WordStatActor} that passivates itself after the given idle period.
+     *
+     * @param searchService the service used to fetch video data
+     * @param idleTimeout   the idle period after which the actor asks its parent to detach it, or {@code null} to never passivate
+     */
+    public WordStatActor(SearchService searchService, Duration idleTimeout) {
         this.searchService = searchService;
+        this.idleTimeout = idleTimeout;
     }
 
     /**
@@ -45,11 +89,34 @@ public class WordStatActor extends AbstractActor {
         return Props.create(WordStatActor.class, () -> new WordStatActor(searchService));
     }
 
+    /**
+     * Creates a {@link Props} instance for a keyword actor that passivates itself when idle.
+     *
+     * @param searchService the {@link SearchService} instance to use
+     * @param idleTimeout   the idle period after which the actor asks its parent to stop it
+     * @return a {@link Props} instance for creating a {@code WordStatActor}
+     */
+    public static Props props(SearchService searchService, Duration idleTimeout) {
+        return Props.create(WordStatActor.class, () -> new WordStatActor(searchService, idleTimeout));
+    }
+
+    /**
+     * Starts the idle timer if this actor was created with an idle timeout.
+     */
+    @Override
+    public void preStart() {
+        if (idleTimeout != null) {
+            getContext().setReceiveTimeout(idleTimeout);
+        }
+    }
+
     /**
      * Defines the behavior of the actor.
      *
      * Supported messages:
      * - {@link WordStatMessages.UpdateVideos}: Triggers an update of word statistics.
+     * - {@link WordStatMessages.UpdateAndGetWordStats}: Triggers an update and replies once it is done.
+     * - {@link WordStatMessages.VideosFetched}: Applies the result of a fetch.
      * - {@link WordStatMessages.GetWordStats}: Returns the current word statistics.
      *
      * @return the actor's behavior
@@ -58,95 +125,194 @@ public class WordStatActor extends AbstractActor {
     public Receive createReceive() {
         return receiveBuilder()
                 .match(WordStatMessages.UpdateVideos.class, this::handleUpdateVideos)
+                .match(WordStatMessages.UpdateAndGetWordStats.class, this::handleUpdateAndGetWordStats)
+                .match(WordStatMessages.VideosFetched.class, this::handleVideosFetched)
                 .match(WordStatMessages.GetWordStats.class, msg -> sender().tell(getWordStats(), self()))
+                .match(ReceiveTimeout.class, msg -> passivate())
+                .match(WordStatMessages.Detached.class, msg -> handleDetached())
                 .build();
     }
 
+    /**
+     * Asks the parent to detach this actor after it has been idle for the configured timeout.
+     * The timeout is ignored while a fetch is running or requesters are waiting, since stopping the actor
+     * would drop their replies. Otherwise the timer is cancelled so that the request is sent only once.
+     */
+    private void passivate() {
+        if (fetchInProgress || !pendingRequests.isEmpty()) {
+            return;
+        }
+        getContext().cancelReceiveTimeout();
+        getContext().getParent().tell(new WordStatMessages.Passivate(), self());
+    }
+
+    /**
+     * Handles the {@link WordStatMessages.Detached} acknowledgement of the parent. Messages routed before the
+     * acknowledgement were received before it, so the actor only has to finish the work they started.
+     */
+    private void handleDetached() {
+        detached = true;
+        stopIfDone();
+    }
+
+    /**
+     * Stops this actor once it is detached and has no fetch running and no requester waiting.
+     */
+    private void stopIfDone() {
+        if (detached && !fetchInProgress && pendingRequests.isEmpty()) {
+            getContext().stop(self());
+        }
+    }
+
     /**
      * Handles the {@link WordStatMessages.UpdateVideos} message.
-     * Fetches videos for the given keyword and updates word statistics if the video data has changed.
+     * Starts fetching the videos for the given keyword unless a fetch is already running.
      *
      * @param message the {@link WordStatMessages.UpdateVideos} message containing the keyword
      */
     private void handleUpdateVideos(WordStatMessages.UpdateVideos message) {
-        searchService.searchVideos(message.keyword, GeneralService.NUM_OF_RESULTS_WORD_STATS)
-                .thenAccept(videos -> {
-                    if (hasVideosChanged(videos)) {
-                        Map<String, Long> updatedStats = createWordStats(videos);
-                        wordStats.clear();
-                        wordStats.putAll(updatedStats);
-                        setProcessedVideoIds(videos);
-                        System.out.println("Updated word statistics for keyword: " + message.keyword);
-                    } else {
-                        System.out.println("No changes in the latest videos for keyword: " + message.keyword);
-                    }
-                })
-                .exceptionally(ex -> {
-                    System.err.println("Error fetching videos for keyword '" + message.keyword + "': " + ex.getMessage());
-                    return null;
-                });
-    }
-
-    /**
-     * Checks if the videos retrieved from the search service differ from previously processed videos.
+        startFetch(message.keyword);
+    }
+
+    /**
+     * Handles the {@link WordStatMessages.UpdateAndGetWordStats} message.
+     * The sender is answered when the running fetch, or a newly started one, completes.
      *
-     * @param latestVideos the list of videos retrieved from the search service
-     * @return {@code true} if the videos are different, {@code false} otherwise
+     * @param message the {@link WordStatMessages.UpdateAndGetWordStats} message containing the keyword
+     */
+    private void handleUpdateAndGetWordStats(WordStatMessages.UpdateAndGetWordStats message) {
+        pendingRequests.add(new PendingRequest(sender(), message.ngramSize));
+        startFetch(message.keyword);
+    }
+
+    /**
+     * Fetches the videos for a keyword and pipes the outcome back to this actor.
+     * Concurrent requests for the same keyword collapse into the fetch that is already running.
+     *
+     * @param keyword the keyword to fetch videos for
      */
-    private boolean hasVideosChanged(List<Video> latestVideos) {
-        Set<String> latestVideoIds = latestVideos.stream()
-                .map(Video::getVideoId)
-                .collect(Collectors.toSet());
-        return !processedVideoIds.equals(latestVideoIds);
+    private void startFetch(String keyword) {
+        if (fetchInProgress) {
+            return;
+        }
+        fetchInProgress = true;
+        CompletionStage<WordStatMessages.VideosFetched> fetched = searchService
+                .searchVideos(keyword, GeneralService.NUM_OF_RESULTS_WORD_STATS)
+                .handle((videos, ex) -> new WordStatMessages.VideosFetched(keyword, videos, ex));
+        pipe(fetched, getContext().dispatcher()).to(self());
     }
 
     /**
-     * Updates the set of processed video IDs with the IDs of the latest videos.
+     * Handles the {@link WordStatMessages.VideosFetched} message.
+     * Updates word statistics if the video data has changed and answers every pending requester.
+     *
+     * @param message the {@link WordStatMessages.VideosFetched} message with the fetched videos or the failure
+     */
+    private void handleVideosFetched(WordStatMessages.VideosFetched message) {
+        fetchInProgress = false;
+        if (message.failure != null) {
+            System.err.println("Error fetching videos for keyword '" + message.keyword + "': " + message.failure.getMessage());
+            Object reply = new WordStatMessages.WordStatsError(message.keyword, message.failure.getMessage());
+            pendingRequests.forEach(request -> request.requester.tell(reply, self()));
+        } else {
+            if (applyVideoDelta(message.videos)) {
+                version++;
+                System.out.println("Updated word statistics for keyword: " + message.keyword);
+            } else {
+                System.out.println("No changes in the latest videos for keyword: " + message.keyword);
+            }
+            for (PendingRequest request : pendingRequests) {
+                Map<String, Long> stats = request.ngramSize == 1 ? getWordStats() : getPhraseStats(request.ngramSize);
+                request.requester.tell(new WordStatMessages.WordStatsResult(message.keyword, version, stats), self());
+            }
+        }
+        pendingRequests.clear();
+        stopIfDone();
+    }
+
+    /**
+     * Brings the word counts in line with the latest videos by counting the titles of videos that are new
+     * to the window and uncounting the titles of videos that are no longer part of it.
      *
      * @param latestVideos the list of videos retrieved from the search service
+     * @return {@code true} if the set of videos changed, {@code false} otherwise
      */
-    private void setProcessedVideoIds(List<Video> latestVideos) {
-        processedVideoIds.clear();
-        processedVideoIds.addAll(
-                latestVideos.stream()
-                        .map(Video::getVideoId)
-                        .collect(Collectors.toSet())
-        );
+    private boolean applyVideoDelta(List<Video> latestVideos) {
+        Map<String, Video> latestById = new HashMap<>();
+        latestVideos.forEach(video -> latestById.putIfAbsent(video.getVideoId(), video));
+
+        boolean changed = false;
+        Iterator<Map.Entry<String, Video>> window = windowVideos.entrySet().iterator();
+        while (window.hasNext()) {
+            Map.Entry<String, Video> entry = window.next();
+            if (!latestById.containsKey(entry.getKey())) {
+                WordCounter.addTitle(wordCounts, tokenizer, entry.getValue().getTitle(), -1);
+                window.remove();
+                changed = true;
+            }
+        }
+        for (Map.Entry<String, Video> entry : latestById.entrySet()) {
+            if (!windowVideos.containsKey(entry.getKey())) {
+                WordCounter.addTitle(wordCounts, tokenizer, entry.getValue().getTitle(), 1);
+                windowVideos.put(entry.getKey(), entry.getValue());
+                changed = true;
+            }
+        }
+        if (changed) {
+            wordStatsStale = true;
+            phraseStats.clear();
+        }
+        return changed;
     }
 
     /**
      * Creates a map of word statistics based on the titles of the given videos.
      * Filters out words with a frequency of 1 and sorts the map by frequency in descending order.
+     * The counting is delegated to the shared {@link WordCounter} engine.
      *
      * @param videos the list of videos whose titles are analyzed
      * @return a sorted map of word frequencies
      */
     public Map<String, Long> createWordStats(List<Video> videos) {
-        return videos.stream()
-                .map(Video::getTitle)
-                .map(title -> title.split(" "))
-                .flatMap(Arrays::stream)
-                .map(String::toLowerCase)
-                .map(word -> word.replaceAll("[^a-zA-Z0-9]", ""))
-                .filter(word -> !word.isEmpty())
-                .collect(Collectors.groupingBy(word -> word, Collectors.counting()))
-                .entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .filter(entry -> entry.getValue() > 1)
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new
-                ));
-    }
-
-    /**
-     * Retrieves the current word statistics.
+        return WordCounter.createWordStats(videos);
+    }
+
+    /**
+     * Retrieves the current word statistics, selecting the top words again if the counts changed since the last call.
      *
      * @return a copy of the word statistics map
      */
     public Map<String, Long> getWordStats() {
+        if (wordStatsStale) {
+            wordStats = wordCounts.topK(WordCounter.DEFAULT_TOP_K, WordCounter.MIN_COUNT);
+            wordStatsStale = false;
+        }
         return new LinkedHashMap<>(wordStats);
     }
+
+    /**
+     * Retrieves the statistics of the phrases of {@code ngramSize} consecutive words in the titles of the
+     * current window, counting them again only if the window changed since they were last requested.
+     *
+     * @param ngramSize the number of words per phrase
+     * @return a copy of the phrase statistics map
+     */
+    public Map<String, Long> getPhraseStats(int ngramSize) {
+        Map<String, Long> stats = phraseStats.computeIfAbsent(ngramSize,
+                n -> NGramCounter.createPhraseStats(windowVideos.values(), n));
+        return new LinkedHashMap<>(stats);
+    }
+
+    /**
+     * A requester waiting for the running fetch, with the n-gram size it asked for.
+     */
+    private static final class PendingRequest {
+        private final ActorRef requester;
+        private final int ngramSize;
+
+        PendingRequest(ActorRef requester, int ngramSize) {
+            this.requester = requester;
+            this.ngramSize = ngramSize;
+        }
+    }
 }
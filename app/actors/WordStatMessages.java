@@ -3,26 +3,158 @@ package actors;
 import models.entities.Video;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Messages used by the WordStatActor.
  */
 public class WordStatMessages {
 
+    /**
+     * A message that is addressed to the word statistics of a single keyword.
+     * The {@link WordStatRouterActor} uses the keyword to route the message to the owning child actor.
+     */
+    public interface KeywordMessage {
+        /**
+         * Returns the keyword the message belongs to.
+         *
+         * @return the keyword
+         */
+        String getKeyword();
+    }
+
     /**
      * Message to update the video list and recalculate word statistics.
      */
-    public static class UpdateVideos {
+    public static class UpdateVideos implements KeywordMessage {
         public final String keyword;
 
         public UpdateVideos(String keyword) {
             this.keyword = keyword;
         }
+
+        @Override
+        public String getKeyword() {
+            return keyword;
+        }
+    }
+
+    /**
+     * Message to request the current word statistics of a keyword.
+     */
+    public static class GetWordStats implements KeywordMessage {
+        public final String keyword;
+
+        public GetWordStats(String keyword) {
+            this.keyword = keyword;
+        }
+
+        @Override
+        public String getKeyword() {
+            return keyword;
+        }
+    }
+
+    /**
+     * Message to fetch the latest videos of a keyword, recalculate its word statistics and reply with them.
+     * The actor answers with a {@link WordStatsResult} or a {@link WordStatsError}. Requests for the same
+     * keyword that arrive while a fetch is running are answered by that fetch.
+     * The n-gram size selects single words ({@code 1}) or phrases of 2 or 3 consecutive words.
+     */
+    public static class UpdateAndGetWordStats implements KeywordMessage {
+        public final String keyword;
+        public final int ngramSize;
+
+        public UpdateAndGetWordStats(String keyword) {
+            this(keyword, 1);
+        }
+
+        public UpdateAndGetWordStats(String keyword, int ngramSize) {
+            this.keyword = keyword;
+            this.ngramSize = ngramSize;
+        }
+
+        @Override
+        public String getKeyword() {
+            return keyword;
+        }
+    }
+
+    /**
+     * Internal message piped by the actor to itself once the videos of a keyword have been fetched.
+     * Exactly one of {@code videos} and {@code failure} is set.
+     */
+    public static class VideosFetched {
+        public final String keyword;
+        public final List<Video> videos;
+        public final Throwable failure;
+
+        public VideosFetched(String keyword, List<Video> videos, Throwable failure) {
+            this.keyword = keyword;
+            this.videos = videos;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * Reply to {@link UpdateAndGetWordStats} carrying the statistics of a keyword.
+     * The version is incremented every time the statistics of the keyword change.
+     */
+    public static class WordStatsResult {
+        private final String keyword;
+        private final long version;
+        private final Map<String, Long> wordStats;
+
+        public WordStatsResult(String keyword, long version, Map<String, Long> wordStats) {
+            this.keyword = keyword;
+            this.version = version;
+            this.wordStats = wordStats;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Map<String, Long> getWordStats() {
+            return wordStats;
+        }
+    }
+
+    /**
+     * Reply to {@link UpdateAndGetWordStats} indicating that the videos of a keyword could not be fetched.
+     */
+    public static class WordStatsError {
+        private final String keyword;
+        private final String errorMessage;
+
+        public WordStatsError(String keyword, String errorMessage) {
+            this.keyword = keyword;
+            this.errorMessage = errorMessage;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+    }
+
+    /**
+     * Message sent by an idle keyword actor to its parent, asking to be stopped.
+     */
+    public static class Passivate {
     }
 
     /**
-     * Message to request the current word statistics.
+     * Message sent by the parent to a keyword actor that asked to be passivated, once no further message is
+     * routed to it. The keyword actor stops itself when it has no fetch running and no requester waiting.
      */
-    public static class GetWordStats {
+    public static class Detached {
     }
 }
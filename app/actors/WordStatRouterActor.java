@@ -0,0 +1,159 @@
+package actors;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.Props;
+import akka.actor.Terminated;
+import models.services.SearchService;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Actor that shards word statistics by keyword.
+ *
+ * <p>Every keyword gets its own {@link WordStatActor} child, created on the first message for that keyword,
+ * so the statistics of different keywords never overwrite each other and different keywords are processed
+ * in parallel instead of being serialized through a single mailbox.</p>
+ *
+ * <p>Children passivate after {@link #DEFAULT_IDLE_TIMEOUT} without traffic. The router detaches a child that
+ * asks to passivate and acknowledges with {@link WordStatMessages.Detached}; new messages for the keyword go to
+ * a fresh child, while the detached child answers the messages routed to it before the acknowledgement, waits
+ * for the fetch they started, and then stops itself.</p>
+ *
+ * Messages handled by this actor:
+ * - {@link WordStatMessages.KeywordMessage}: Forwarded to the child actor owning the keyword.
+ * - {@link WordStatMessages.Passivate}: Detaches the idle child that sent it.
+ */
+public class WordStatRouterActor extends AbstractActor {
+
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+    private final SearchService searchService;
+    private final Duration idleTimeout;
+    private final Map<String, ActorRef> childrenByKeyword = new HashMap<>();
+    private final Map<ActorRef, String> keywordsByChild = new HashMap<>();
+    private long childGeneration = 0;
+
+    /**
+     * Constructs a {@code WordStatRouterActor}.
+     *
+     * @param searchService the service passed on to the keyword actors
+     * @param idleTimeout   the idle period after which a keyword actor is stopped
+     */
+    public WordStatRouterActor(SearchService searchService, Duration idleTimeout) {
+        this.searchService = searchService;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Creates a {@link Props} instance for this actor using the default idle timeout.
+     *
+     * @param searchService the {@link SearchService} instance to use
+     * @return a {@link Props} instance for creating a {@code WordStatRouterActor}
+     */
+    public static Props props(SearchService searchService) {
+        return props(searchService, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Creates a {@link Props} instance for this actor.
+     *
+     * @param searchService the {@link SearchService} instance to use
+     * @param idleTimeout   the idle period after which a keyword actor is stopped
+     * @return a {@link Props} instance for creating a {@code WordStatRouterActor}
+     */
+    public static Props props(SearchService searchService, Duration idleTimeout) {
+        return Props.create(WordStatRouterActor.class, () -> new WordStatRouterActor(searchService, idleTimeout));
+    }
+
+    /**
+     * Defines the behavior of the actor.
+     *
+     * @return the actor's behavior
+     */
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(WordStatMessages.KeywordMessage.class, this::route)
+                .match(WordStatMessages.Passivate.class, msg -> passivate(sender()))
+                .match(Terminated.class, msg -> remove(msg.getActor()))
+                .build();
+    }
+
+    /**
+     * Forwards a keyword message to the child actor owning the keyword, keeping the original sender.
+     *
+     * @param message the message to route
+     */
+    private void route(WordStatMessages.KeywordMessage message) {
+        childFor(message.getKeyword()).forward(message, getContext());
+    }
+
+    /**
+     * Returns the child actor for a keyword, creating and watching it if it does not exist yet.
+     *
+     * @param keyword the keyword
+     * @return the child actor owning the keyword
+     */
+    private ActorRef childFor(String keyword) {
+        ActorRef child = childrenByKeyword.get(keyword);
+        if (child == null) {
+            child = getContext().actorOf(WordStatActor.props(searchService, idleTimeout), childName(keyword));
+            getContext().watch(child);
+            childrenByKeyword.put(keyword, child);
+            keywordsByChild.put(child, keyword);
+        }
+        return child;
+    }
+
+    /**
+     * Builds a unique, path-safe child name for a keyword. The generation suffix keeps the name free
+     * while a detached child with the same keyword is still answering its pending requests.
+     *
+     * @param keyword the keyword
+     * @return the child actor name
+     */
+    private String childName(String keyword) {
+        return "wordStat-" + URLEncoder.encode(keyword, StandardCharsets.UTF_8) + "-" + (++childGeneration);
+    }
+
+    /**
+     * Detaches an idle child from its keyword and acknowledges it, so that it stops once its pending requests
+     * are answered.
+     *
+     * @param child the child that asked to be passivated
+     */
+    private void passivate(ActorRef child) {
+        if (remove(child)) {
+            child.tell(new WordStatMessages.Detached(), self());
+        }
+    }
+
+    /**
+     * Removes a child from the routing tables.
+     *
+     * @param child the child to remove
+     * @return {@code true} if the child was still routed to
+     */
+    private boolean remove(ActorRef child) {
+        String keyword = keywordsByChild.remove(child);
+        if (keyword == null) {
+            return false;
+        }
+        childrenByKeyword.remove(keyword);
+        return true;
+    }
+
+    /**
+     * Returns the number of keywords that currently have a live child actor.
+     *
+     * @return the number of active keywords
+     */
+    public int getActiveKeywordCount() {
+        return childrenByKeyword.size();
+    }
+}
@@ -30,6 +30,7 @@ public class YoutubeController extends Controller {
     private final WordStatService wordStatService;
     private final ChannelProfileService channelProfileService;
     private final TagsService tagsService;
+    private final VideoStore videoStore;
     private final HttpExecutionContext httpExecutionContext;
 
     private final ActorSystem actorSystem;
@@ -39,6 +40,11 @@ public class YoutubeController extends Controller {
     private final ActorRef channelProfileActor;
     private final ActorRef wordStatActor;
     private final ActorRef tagActor;
+    private final ActorRef trendingActor;
+    private final ActorRef tagIndexActor;
+    private final ActorRef tagGraphActor;
+    private final ActorRef channelPollerActor;
+    private final ActorRef channelStatsActor;
 
     private final YouTubeService youTubeService;
 
@@ -52,6 +58,7 @@ public class YoutubeController extends Controller {
      * @param actorSystem
      * @param materializer
      * @param youTubeService
+     * @param videoStore            The store of every fetched video, fed by the services.
      * @author: Zahra Rasoulifar, Hosna Habibi, Mojtaba Peyrovian, Kasra Karaji
      */
     @Inject
@@ -63,6 +70,7 @@ public class YoutubeController extends Controller {
                              Materializer materializer,
                              YouTubeService youTubeService,
                              SentimentService sentimentService,
+                             VideoStore videoStore,
                              HttpExecutionContext httpExecutionContext) {
         this.searchService = searchService;
         this.wordStatService = wordStatService;
@@ -71,11 +79,30 @@ public class YoutubeController extends Controller {
         this.actorSystem = actorSystem;
         this.materializer = materializer;
         this.youTubeService = youTubeService;
+        this.videoStore = videoStore;
         this.httpExecutionContext = httpExecutionContext;
         this.sentimentActor = actorSystem.actorOf(SentimentActor.props(sentimentService), "sentimentActor");
         this.channelProfileActor = actorSystem.actorOf(ChannelProfileActor.props(this.youTubeService), "channelProfileActor");
-        this.wordStatActor = actorSystem.actorOf(WordStatActor.props(this.searchService), "wordStatActor");
+        this.channelPollerActor = actorSystem.actorOf(ChannelPollerActor.props(channelProfileActor), "channelPollerActor");
+        this.wordStatActor = actorSystem.actorOf(WordStatRouterActor.props(this.searchService), "wordStatActor");
         this.tagActor= actorSystem.actorOf(TagActor.props(this.tagsService));
+        this.trendingActor = actorSystem.actorOf(TrendingActor.props(), "trendingActor");
+        this.channelStatsActor = actorSystem.actorOf(ChannelStatsActor.props(sentimentService), "channelStatsActor");
+        this.youTubeService.addVideoListener(videos -> {
+            TrendingMessages.VideosIngested ingested = new TrendingMessages.VideosIngested(videos);
+            trendingActor.tell(ingested, ActorRef.noSender());
+            channelStatsActor.tell(ingested, ActorRef.noSender());
+            videoStore.recordVideos(videos);
+        });
+        this.searchService.addSearchListener(videoStore::recordSearch);
+        this.tagIndexActor = actorSystem.actorOf(TagIndexActor.props(), "tagIndexActor");
+        this.tagGraphActor = actorSystem.actorOf(TagGraphActor.props(), "tagGraphActor");
+        this.tagsService.addTagListener((videoId, tags) -> {
+            TagIndexMessages.TagsFetched fetched = new TagIndexMessages.TagsFetched(videoId, tags);
+            tagIndexActor.tell(fetched, ActorRef.noSender());
+            tagGraphActor.tell(fetched, ActorRef.noSender());
+            videoStore.recordTags(videoId, tags);
+        });
     }
 
     /**
@@ -100,6 +127,72 @@ public class YoutubeController extends Controller {
     public CompletionStage<Result> tags(String videoID, Http.Request request) {
         return GeneralService.tagHelper(tagActor, videoID, request);
     }
+
+    /**
+     * Returns the tags appearing most often together with a tag as JSON, served from the tag co-occurrence graph.
+     *
+     * @param tag     The tag.
+     * @param request The HTTP request from the client.
+     * @return CompletionStage of the Result, containing the co-occurring tags and their counts.
+     */
+    public CompletionStage<Result> cooccurringTags(String tag, Http.Request request) {
+        return GeneralService.cooccurringTagsHelper(tagGraphActor, tag, request);
+    }
+
+    /**
+     * Returns clusters of the tags related to a keyword as JSON, served from the tag co-occurrence graph.
+     *
+     * @param keyword The keyword.
+     * @param request The HTTP request from the client.
+     * @return CompletionStage of the Result, containing the tag clusters.
+     */
+    public CompletionStage<Result> tagClusters(String keyword, Http.Request request) {
+        return GeneralService.tagClustersHelper(tagGraphActor, keyword, request);
+    }
+
+    /**
+     * Returns the hit rate and API usage of the tag cache as JSON, to tune the speculative tag prefetching.
+     *
+     * @param request The HTTP request from the client.
+     * @return CompletionStage of the Result, containing the cache statistics.
+     */
+    public CompletionStage<Result> tagCacheStats(Http.Request request) {
+        return GeneralService.tagCacheStatsHelper(tagsService, request);
+    }
+
+    /**
+     * Returns the videos sharing the most tags with a video as JSON, served from the tag index without any API call.
+     *
+     * @param videoID The ID of the video.
+     * @param request The HTTP request from the client.
+     * @return CompletionStage of the Result, containing the related videos and the number of tags they share.
+     */
+    public CompletionStage<Result> relatedVideos(String videoID, Http.Request request) {
+        return GeneralService.relatedVideosHelper(tagIndexActor, videoID, request);
+    }
+
+    /**
+     * Returns the indexed videos carrying a tag as JSON, served from the tag index without any API call.
+     *
+     * @param tag     The tag.
+     * @param request The HTTP request from the client.
+     * @return CompletionStage of the Result, containing the video IDs, most recently indexed first.
+     */
+    public CompletionStage<Result> tagVideos(String tag, Http.Request request) {
+        return GeneralService.tagVideosHelper(tagIndexActor, tag, request);
+    }
+    /**
+     * Returns the videos seen for a keyword since a time as JSON, served from the video store without any API call.
+     *
+     * @param keyword The keyword.
+     * @param since   The epoch time in milliseconds from which videos are returned; 0 for all of them.
+     * @param request The HTTP request from the client.
+     * @return CompletionStage of the Result, containing the videos, most recently seen first.
+     */
+    public CompletionStage<Result> keywordVideos(String keyword, long since, Http.Request request) {
+        return GeneralService.keywordVideosHelper(videoStore, keyword, since, request);
+    }
+
     /**
      * Performs a video search based on a keyword, storing search history and calculating sentiment.
      *
@@ -109,7 +202,7 @@ public class YoutubeController extends Controller {
      * @author: Zahra Rasoulifar, Hosna Habibi, Mojtaba Peyrovian, Kasra Karaji
      */
     public CompletionStage<Result> search(String keyword, Http.Request request) {
-        return GeneralService.searchHelper(searchService, sentimentActor, keyword, request);
+        return GeneralService.searchHelper(searchService, sentimentActor, tagsService, keyword, request);
     }
 
     /**
@@ -121,27 +214,73 @@ public class YoutubeController extends Controller {
      * @author: Zahra Rasoulifar, Hosna Habibi, Mojtaba Peyrovian, Kasra Karaji
      */
     public CompletionStage<Result> channelProfile(String channelId, Http.Request request) {
-        return GeneralService.channelProfileHelper(channelProfileActor, channelId, request);
+        return GeneralService.channelProfileHelper(channelProfileActor, channelStatsActor, channelId, request);
+    }
+
+    /**
+     * Returns a page of the uploads of a channel as JSON, newest first. The token returned with a page
+     * fetches the next, older page.
+     *
+     * @param channelId The ID of the YouTube channel.
+     * @param pageToken The token of the page, or an empty string for the most recent uploads.
+     * @param request   The HTTP request from the client.
+     * @return CompletionStage of the Result, containing the videos and the token of the next page.
+     */
+    public CompletionStage<Result> channelVideos(String channelId, String pageToken, Http.Request request) {
+        return GeneralService.channelVideosHelper(channelProfileActor, channelId, pageToken, request);
+    }
+
+    /**
+     * Returns the hit rate and load latency of the channel information and channel video caches as JSON.
+     *
+     * @param request The HTTP request from the client.
+     * @return CompletionStage of the Result, containing the cache statistics.
+     */
+    public CompletionStage<Result> channelCacheStats(Http.Request request) {
+        return GeneralService.channelCacheStatsHelper(channelProfileActor, request);
     }
 
     /**
      * Generates word statistics for a given search keyword and displays them on the word statistics page.
      *
      * @param keyword The keyword for which to generate word statistics.
+     * @param n       The number of words per counted phrase: 1 for single words, 2 or 3 for phrases.
      * @param request The HTTP request from the client.
      * @return CompletionStage of the Result, rendering the word statistics page or an error page if an issue occurs.
      * @author: Zahra Rasoulifar, Hosna Habibi, Mojtaba Peyrovian, Kasra Karaji
      */
-    public CompletionStage<Result> wordStats(String keyword, Http.Request request) {
+    public CompletionStage<Result> wordStats(String keyword, int n, Http.Request request) {
 //        return GeneralService.wordStatHelper(searchService, wordStatService, keyword, request);
-        return GeneralService.wordStatActorHelper(searchService, wordStatActor, keyword, request);
+        return GeneralService.wordStatActorHelper(wordStatActor, keyword, n, request);
+    }
+
+    /**
+     * Generates word statistics over the titles and descriptions of every video stored for a keyword.
+     *
+     * @param keyword The keyword whose stored videos are counted.
+     * @param request The HTTP request from the client.
+     * @return CompletionStage of the Result, rendering the word statistics page or an error page if an issue occurs.
+     */
+    public CompletionStage<Result> corpusWordStats(String keyword, Http.Request request) {
+        return GeneralService.corpusWordStatsHelper(videoStore, wordStatService, keyword, request);
+    }
+
+    /**
+     * Returns the trending terms across all keywords for a sliding window as JSON.
+     *
+     * @param window  The window label: "5m", "1h" or "24h".
+     * @param request The HTTP request from the client.
+     * @return CompletionStage of the Result, containing the top terms or a bad request for an unknown window.
+     */
+    public CompletionStage<Result> trending(String window, Http.Request request) {
+        return GeneralService.trendingHelper(trendingActor, window, request);
     }
 
     public WebSocket ws() {
         return WebSocket.Text.accept(request -> {
             String sessionId = getSessionIdByHeader(request);
             return ActorFlow.actorRef(
-                    out -> UserActor.props(out, searchService, sentimentActor, sessionId),
+                    out -> UserActor.props(out, searchService, sentimentActor, channelPollerActor, sessionId),
                     actorSystem,
                     materializer
             );
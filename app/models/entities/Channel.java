@@ -0,0 +1,91 @@
+package models.entities;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Represents the profile of a YouTube channel, as shown on the channel profile page.
+ *
+ * <p>Channels are immutable.</p>
+ */
+public class Channel implements Serializable {
+    private final String channelId;
+    private final String title;
+    private final String description;
+    private final String thumbnailUrl;
+
+    /**
+     * Constructs a new {@code Channel} with the specified details.
+     *
+     * @param channelId    the unique identifier of the channel
+     * @param title        the title of the channel
+     * @param description  the description of the channel
+     * @param thumbnailUrl the URL of the channel's thumbnail image
+     */
+    public Channel(String channelId, String title, String description, String thumbnailUrl) {
+        this.channelId = channelId;
+        this.title = title;
+        this.description = description;
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    /**
+     * Returns the unique identifier of the channel.
+     *
+     * @return the channel ID
+     */
+    public String getChannelId() {
+        return channelId;
+    }
+
+    /**
+     * Returns the title of the channel.
+     *
+     * @return the channel's title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns the description of the channel.
+     *
+     * @return the channel's description
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the URL of the channel's thumbnail image.
+     *
+     * @return the thumbnail URL
+     */
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Channel channel = (Channel) o;
+        return Objects.equals(channelId, channel.channelId) && Objects.equals(title, channel.title)
+                && Objects.equals(description, channel.description) && Objects.equals(thumbnailUrl, channel.thumbnailUrl);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(channelId, title, description, thumbnailUrl);
+    }
+
+    @Override
+    public String toString() {
+        return "Channel{" +
+                "channelId='" + channelId + '\'' +
+                ", title='" + title + '\'' +
+                ", description='" + description + '\'' +
+                ", thumbnailUrl='" + thumbnailUrl + '\'' +
+                '}';
+    }
+}
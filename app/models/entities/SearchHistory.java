@@ -0,0 +1,181 @@
+package models.entities;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable search history of a session: the searched keywords, oldest first, each with its latest videos.
+ *
+ * <p>Every change returns a new history that shares the video lists of the unchanged keywords, so a history
+ * can be published through an {@link java.util.concurrent.atomic.AtomicReference} and read by any thread
+ * without locking or copying. A history holds a handful of keywords, so a change only copies two short
+ * lists. A history carries the version given by its owner, see {@link #withVersion(long)}; changes keep
+ * it.</p>
+ */
+public final class SearchHistory {
+
+    /**
+     * The history of a session that has not searched anything yet.
+     */
+    public static final SearchHistory EMPTY = new SearchHistory(List.of(), List.of(), 0);
+
+    private final List<String> keywords;
+    private final List<List<Video>> videos;
+    private final long version;
+    private final Map<String, List<Video>> view = new MapView();
+
+    private SearchHistory(List<String> keywords, List<List<Video>> videos, long version) {
+        this.keywords = keywords;
+        this.videos = videos;
+        this.version = version;
+    }
+
+    /**
+     * Returns the number of keywords.
+     *
+     * @return the number of keywords
+     */
+    public int size() {
+        return keywords.size();
+    }
+
+    public boolean containsKey(String keyword) {
+        return keywords.contains(keyword);
+    }
+
+    /**
+     * Returns the videos of a keyword.
+     *
+     * @param keyword the keyword
+     * @return the unmodifiable list of videos, or {@code null} if the keyword was not searched
+     */
+    public List<Video> get(String keyword) {
+        int index = keywords.indexOf(keyword);
+        return index < 0 ? null : videos.get(index);
+    }
+
+    /**
+     * Returns the keywords, oldest first.
+     *
+     * @return the unmodifiable list of keywords
+     */
+    public List<String> keywords() {
+        return keywords;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Returns this history with another version.
+     *
+     * @param version the version
+     * @return the new history
+     */
+    public SearchHistory withVersion(long version) {
+        return new SearchHistory(keywords, videos, version);
+    }
+
+    /**
+     * Returns a history in which a keyword has the given videos. A new keyword is added as the newest one; an
+     * existing keyword keeps its position, like in a {@link java.util.LinkedHashMap}.
+     *
+     * @param keyword the keyword
+     * @param videos  the videos of the keyword
+     * @return the new history
+     */
+    public SearchHistory with(String keyword, List<Video> videos) {
+        List<Video> copy = Collections.unmodifiableList(new ArrayList<>(videos));
+        int index = keywords.indexOf(keyword);
+        List<String> newKeywords = new ArrayList<>(keywords);
+        List<List<Video>> newVideos = new ArrayList<>(this.videos);
+        if (index < 0) {
+            newKeywords.add(keyword);
+            newVideos.add(copy);
+        } else {
+            newVideos.set(index, copy);
+        }
+        return new SearchHistory(Collections.unmodifiableList(newKeywords), Collections.unmodifiableList(newVideos), version);
+    }
+
+    /**
+     * Returns a history without its oldest keyword.
+     *
+     * @return the new history, or this history if it is empty
+     */
+    public SearchHistory withoutOldest() {
+        if (keywords.isEmpty()) {
+            return this;
+        }
+        return new SearchHistory(List.copyOf(keywords.subList(1, keywords.size())), List.copyOf(videos.subList(1, videos.size())), version);
+    }
+
+    /**
+     * Returns the history as an unmodifiable map from keyword to videos, iterated oldest first. The map is a
+     * view of this immutable history, not a copy.
+     *
+     * @return the map
+     */
+    public Map<String, List<Video>> asMap() {
+        return view;
+    }
+
+    private final class MapView extends AbstractMap<String, List<Video>> {
+
+        @Override
+        public int size() {
+            return keywords.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return keywords.contains(key);
+        }
+
+        @Override
+        public List<Video> get(Object key) {
+            int index = keywords.indexOf(key);
+            return index < 0 ? null : videos.get(index);
+        }
+
+        @Override
+        public Set<Entry<String, List<Video>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return keywords.size();
+                }
+
+                @Override
+                public Iterator<Entry<String, List<Video>>> iterator() {
+                    return new Iterator<>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < keywords.size();
+                        }
+
+                        @Override
+                        public Entry<String, List<Video>> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, List<Video>> entry = new SimpleImmutableEntry<>(keywords.get(next), videos.get(next));
+                            next++;
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -1,27 +1,68 @@
 package models.entities;
 
+import utils.VideoIds;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
  * Represents a YouTube video with associated metadata.
+ *
+ * <p>Videos are immutable and held in a compact form, since the same videos are kept by every session history
+ * and by the caches. A YouTube video ID is stored packed into a {@code long}, the video URL and the default
+ * thumbnail URL are derived from the ID when they follow the YouTube patterns, and the description is kept as
+ * UTF-8 bytes decoded on each read. The publication time is parsed once, into epoch milliseconds, and its text is
+ * only kept if it is not the ISO-8601 form of that instant. The getters return the same values as the fields given
+ * at construction.</p>
+ *
  * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
  */
-public class Video {
-    private String title;
-    private String description;
-    private String channelTitle;
-    private String thumbnailUrl;
-    private String videoId;
-    private String channelId;
-    private String VideoURL;
+public class Video implements Serializable {
+    /**
+     * The URL of a video page, without the video ID.
+     */
+    public static final String BASE_VIDEO_URL = "https://www.youtube.com/watch?v=";
 
-    private String publishedAt;
+    /**
+     * The publication time of a video whose publication time is missing or cannot be parsed.
+     */
+    public static final long UNKNOWN_TIME = Long.MIN_VALUE;
+
+    private static final String THUMBNAIL_PREFIX = "https://i.ytimg.com/vi/";
+    private static final String THUMBNAIL_SUFFIX = "/default.jpg";
+    private static final byte PACKED_ID = 1;
+    private static final byte DERIVED_VIDEO_URL = 2;
+    private static final byte DERIVED_THUMBNAIL_URL = 4;
+    private static final byte DERIVED_PUBLISHED_AT = 8;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final long packedId;
+    // Only set for IDs that are not YouTube IDs, which cannot be packed
+    private final String irregularId;
+    private final String channelId;
+    private final String title;
+    private final byte[] description;
+    private final String channelTitle;
+    private final String thumbnailUrl;
+    private final String videoURL;
+    private final long publishedAtMillis;
+    // Only set if the publication time text is not the ISO-8601 form of the parsed time
+    private final String publishedAt;
+    private final byte flags;
 
     /**
-     * Default constructor.
+     * Creates a video whose fields are all {@code null}.
      * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
      */
     public Video() {
+        this(null, null, null, null, null, null, null, null);
     }
 
     /**
@@ -34,17 +75,60 @@ public class Video {
      * @param videoId       the unique identifier of the video
      * @param channelId     the unique identifier of the channel
      * @param videoURL      the URL of the video
+     * @param publishedAt   the publication time of the video, as an ISO-8601 date-time or date
      * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
      */
     public Video(String title, String description, String channelTitle, String thumbnailUrl, String videoId,
                  String channelId, String videoURL, String publishedAt) {
+        this(title, description, channelTitle, thumbnailUrl, videoId, channelId, videoURL, parseTime(publishedAt), publishedAt);
+    }
+
+    /**
+     * Constructs a new {@code Video} published at the given time.
+     *
+     * @param title             the title of the video
+     * @param description       the description of the video
+     * @param channelTitle      the title of the channel that uploaded the video
+     * @param thumbnailUrl      the URL of the video's thumbnail image
+     * @param videoId           the unique identifier of the video
+     * @param channelId         the unique identifier of the channel
+     * @param videoURL          the URL of the video
+     * @param publishedAtMillis the publication time of the video, in milliseconds since the epoch
+     */
+    public Video(String title, String description, String channelTitle, String thumbnailUrl, String videoId,
+                 String channelId, String videoURL, long publishedAtMillis) {
+        this(title, description, channelTitle, thumbnailUrl, videoId, channelId, videoURL, publishedAtMillis, null);
+    }
+
+    private Video(String title, String description, String channelTitle, String thumbnailUrl, String videoId,
+                  String channelId, String videoURL, long publishedAtMillis, String publishedAt) {
+        boolean packable = VideoIds.isPackable(videoId);
+        this.packedId = packable ? VideoIds.pack(videoId) : 0;
+        this.irregularId = packable ? null : videoId;
+        this.channelId = channelId;
         this.title = title;
-        this.description = description;
+        this.description = description == null ? null
+                : description.isEmpty() ? EMPTY : description.getBytes(StandardCharsets.UTF_8);
         this.channelTitle = channelTitle;
+
+        byte flags = packable ? PACKED_ID : 0;
+        if (isWrapped(videoURL, BASE_VIDEO_URL, videoId, "")) {
+            flags |= DERIVED_VIDEO_URL;
+            videoURL = null;
+        }
+        if (isWrapped(thumbnailUrl, THUMBNAIL_PREFIX, videoId, THUMBNAIL_SUFFIX)) {
+            flags |= DERIVED_THUMBNAIL_URL;
+            thumbnailUrl = null;
+        }
+        if (publishedAtMillis != UNKNOWN_TIME
+                && (publishedAt == null || publishedAt.equals(Instant.ofEpochMilli(publishedAtMillis).toString()))) {
+            flags |= DERIVED_PUBLISHED_AT;
+            publishedAt = null;
+        }
+        this.flags = flags;
+        this.videoURL = videoURL;
         this.thumbnailUrl = thumbnailUrl;
-        this.videoId = videoId;
-        this.channelId = channelId;
-        this.VideoURL = videoURL;
+        this.publishedAtMillis = publishedAtMillis;
         this.publishedAt = publishedAt;
     }
 
@@ -59,33 +143,13 @@ public class Video {
     }
 
     /**
-     * Sets the title of the video.
-     *
-     * @param title the video's title
-     * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
-     */
-    public void setTitle(String title) {
-        this.title = title;
-    }
-
-    /**
-     * Returns the description of the video.
+     * Returns the description of the video, decoded from its UTF-8 bytes.
      *
      * @return the video's description
      * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
      */
     public String getDescription() {
-        return description;
-    }
-
-    /**
-     * Sets the description of the video.
-     *
-     * @param description the video's description
-     * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
-     */
-    public void setDescription(String description) {
-        this.description = description;
+        return description == null ? null : new String(description, StandardCharsets.UTF_8);
     }
 
     /**
@@ -98,16 +162,6 @@ public class Video {
         return channelTitle;
     }
 
-    /**
-     * Sets the title of the channel that uploaded the video.
-     *
-     * @param channelTitle the channel's title
-     * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
-     */
-    public void setChannelTitle(String channelTitle) {
-        this.channelTitle = channelTitle;
-    }
-
     /**
      * Returns the URL of the video's thumbnail image.
      *
@@ -115,17 +169,17 @@ public class Video {
      * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
      */
     public String getThumbnailUrl() {
-        return thumbnailUrl;
+        return (flags & DERIVED_THUMBNAIL_URL) != 0 ? defaultThumbnailUrl(getVideoId()) : thumbnailUrl;
     }
 
     /**
-     * Sets the URL of the video's thumbnail image.
+     * Returns the URL of the default thumbnail image of a video.
      *
-     * @param thumbnailUrl the thumbnail URL
-     * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
+     * @param videoId the unique identifier of the video
+     * @return the thumbnail URL
      */
-    public void setThumbnailUrl(String thumbnailUrl) {
-        this.thumbnailUrl = thumbnailUrl;
+    public static String defaultThumbnailUrl(String videoId) {
+        return THUMBNAIL_PREFIX + videoId + THUMBNAIL_SUFFIX;
     }
 
     /**
@@ -135,65 +189,112 @@ public class Video {
      * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
      */
     public String getVideoId() {
-        return videoId;
+        return (flags & PACKED_ID) != 0 ? VideoIds.unpack(packedId) : irregularId;
     }
 
     /**
-     * Sets the unique identifier of the video.
+     * Returns the unique identifier of the channel.
      *
-     * @param videoId the video ID
+     * @return the channel ID
      * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
      */
-    public void setVideoId(String videoId) {
-        this.videoId = videoId;
+    public String getChannelId() {
+        return channelId;
     }
 
     /**
-     * Returns the unique identifier of the channel.
+     * Returns the URL of the video.
      *
-     * @return the channel ID
+     * @return the video URL
      * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
      */
-    public String getChannelId() {
-        return channelId;
+    public String getVideoURL() {
+        return (flags & DERIVED_VIDEO_URL) != 0 ? BASE_VIDEO_URL + getVideoId() : videoURL;
     }
 
     /**
-     * Sets the unique identifier of the channel.
+     * Returns the publication time of the video.
      *
-     * @param channelId the channel ID
-     * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
+     * @return the publication time, as an ISO-8601 instant
      */
-    public void setChannelId(String channelId) {
-        this.channelId = channelId;
+    public String getPublishedAt() {
+        return (flags & DERIVED_PUBLISHED_AT) != 0 ? Instant.ofEpochMilli(publishedAtMillis).toString() : publishedAt;
     }
 
     /**
-     * Returns the URL of the video.
+     * Returns the publication time of the video, parsed when the video was created.
      *
-     * @return the video URL
-     * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
+     * @return the publication time in milliseconds since the epoch, or {@link #UNKNOWN_TIME}
      */
-    public String getVideoURL() {
-        return VideoURL;
+    public long getPublishedAtMillis() {
+        return publishedAtMillis;
     }
 
     /**
-     * Sets the URL of the video.
+     * Estimates the heap retained by the video from its stored fields, without decoding the description or building
+     * the derived URLs and ID: a fixed overhead for the object, two bytes per character of every stored string plus
+     * its own overhead, and the bytes of the description. A packed ID and the derived fields take no space beyond
+     * the object. Strings shared with other videos are counted by each of them, so the estimate is an upper bound.
      *
-     * @param videoURL the video URL
-     * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
+     * @return the estimated size in bytes
      */
-    public void setVideoURL(String videoURL) {
-        VideoURL = videoURL;
+    public long estimatedSize() {
+        long bytes = 64 + stringSize(irregularId) + stringSize(channelId) + stringSize(title) + stringSize(channelTitle)
+                + stringSize(thumbnailUrl) + stringSize(videoURL) + stringSize(publishedAt);
+        if (description != null && description != EMPTY) {
+            bytes += 16 + description.length;
+        }
+        return bytes;
     }
 
-    public String getPublishedAt() {
-        return publishedAt;
+    private static long stringSize(String text) {
+        return text == null ? 0 : 40 + 2L * text.length();
     }
 
-    public void setPublishedAt(String publishedAt) {
-        this.publishedAt = publishedAt;
+    /**
+     * Returns whether another video has the same value in every field, unlike {@link #equals(Object)} which
+     * only compares the video and channel IDs.
+     *
+     * @param other the other video
+     * @return {@code true} if every getter of both videos returns equal values
+     */
+    public boolean hasSameFields(Video other) {
+        return equals(other)
+                && flags == other.flags
+                && Objects.equals(title, other.title)
+                && Arrays.equals(description, other.description)
+                && Objects.equals(channelTitle, other.channelTitle)
+                && Objects.equals(thumbnailUrl, other.thumbnailUrl)
+                && Objects.equals(videoURL, other.videoURL)
+                && publishedAtMillis == other.publishedAtMillis
+                && Objects.equals(publishedAt, other.publishedAt);
+    }
+
+    /**
+     * Parses an ISO-8601 date-time with an offset or zone, or a date taken at midnight UTC.
+     */
+    private static long parseTime(String text) {
+        if (text == null) {
+            return UNKNOWN_TIME;
+        }
+        try {
+            return DateTimeFormatter.ISO_ZONED_DATE_TIME.parse(text, Instant::from).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            // Not a date-time, try a date
+        }
+        try {
+            return LocalDate.parse(text).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return UNKNOWN_TIME;
+        }
+    }
+
+    private static boolean isWrapped(String url, String prefix, String videoId, String suffix) {
+        return url != null && videoId != null
+                && url.length() == prefix.length() + videoId.length() + suffix.length()
+                && url.startsWith(prefix)
+                && url.startsWith(videoId, prefix.length())
+                && url.endsWith(suffix);
     }
 
     @Override
@@ -201,25 +302,27 @@ public class Video {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Video video = (Video) o;
-        return videoId.equals(video.videoId) && channelId.equals(video.channelId);
+        return packedId == video.packedId && (flags & PACKED_ID) == (video.flags & PACKED_ID)
+                && Objects.equals(irregularId, video.irregularId)
+                && Objects.equals(channelId, video.channelId);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(videoId, channelId);
+        return 31 * (31 * Long.hashCode(packedId) + Objects.hashCode(irregularId)) + Objects.hashCode(channelId);
     }
 
     @Override
     public String toString() {
         return "Video{" +
                 "title='" + title + '\'' +
-                ", description='" + description + '\'' +
+                ", description='" + getDescription() + '\'' +
                 ", channelTitle='" + channelTitle + '\'' +
-                ", thumbnailUrl='" + thumbnailUrl + '\'' +
-                ", videoId='" + videoId + '\'' +
+                ", thumbnailUrl='" + getThumbnailUrl() + '\'' +
+                ", videoId='" + getVideoId() + '\'' +
                 ", channelId='" + channelId + '\'' +
-                ", VideoURL='" + VideoURL + '\'' +
-                ", publishedAt='" + publishedAt + '\'' +
+                ", VideoURL='" + getVideoURL() + '\'' +
+                ", publishedAt='" + getPublishedAt() + '\'' +
                 '}';
     }
 }
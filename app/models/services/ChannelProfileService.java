@@ -1,8 +1,11 @@
 package models.services;
 
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
 import models.entities.Video;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import utils.ExpiringCache;
 
 import javax.inject.Inject;
 import java.net.URI;
@@ -26,14 +29,18 @@ import java.util.concurrent.CompletionStage;
  * <p>Main features include:</p>
  * <ul>
  *     <li>Fetching detailed channel information using the channel ID.</li>
- *     <li>Retrieving a list of videos uploaded to a specific channel.</li>
+ *     <li>Retrieving a list of videos uploaded to a specific channel from its uploads playlist.</li>
  *     <li>Processing the API response and parsing JSON to produce usable objects.</li>
  * </ul>
  *
  * @author Zahra Rasoulifar
  */
 public class ChannelProfileService {
+    private static final Config config = ConfigFactory.load();
+
     private final YouTubeService youTubeService;
+    private final ExpiringCache<String, String> uploadsPlaylistCache = new ExpiringCache<>(
+            config.getDuration("channel.cache.uploads-playlist-ttl").toMillis(), config.getInt("channel.cache.max-channels"));
 
     /**
      * Constructs a new {@code ChannelProfileService} with the specified {@link YouTubeService}.
@@ -87,9 +94,13 @@ public class ChannelProfileService {
     /**
      * Retrieves a list of videos from the specified YouTube channel.
      *
-     * <p>This method sends an asynchronous HTTP GET request to the YouTube Data API's "search" endpoint,
-     * requesting the snippet part for videos uploaded to the specified channel ID. The method returns a
-     * {@link CompletionStage} containing a list of {@link Video} objects upon successful completion.</p>
+     * <p>This method reads the most recent entries of the channel's uploads playlist from the YouTube Data
+     * API's "playlistItems" endpoint, which costs one quota unit per call instead of the hundred of a "search"
+     * call. The uploads playlist ID is resolved from the "channels" endpoint and cached like in the
+     * {@link actors.ChannelProfileActor}, for {@code channel.cache.uploads-playlist-ttl} and up to
+     * {@code channel.cache.max-channels} channels.
+     * The method returns a {@link CompletionStage} containing a list of {@link Video} objects upon successful
+     * completion.</p>
      *
      * <p>The {@code maxResults} parameter limits the number of videos retrieved in the response. If an error
      * occurs during the HTTP request or JSON parsing, the {@link CompletionStage} completes exceptionally.</p>
@@ -99,16 +110,32 @@ public class ChannelProfileService {
      * @return a {@link CompletionStage} containing a {@link List} of {@link Video} objects
      */
     public CompletionStage<List<Video>> getChannelVideos(String channelId, int maxResults) {
-        String youtubeChannelVideosUrl = youTubeService.getApiUrl() + "/search?part=snippet&type=video&";
-        String apiUrl = youtubeChannelVideosUrl + "channelId=" + channelId + "&maxResults=" + maxResults + "&key=" + youTubeService.getApiKey();
         HttpClient client = createHttpClient();
-        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(apiUrl)).build();
-
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+        return uploadsPlaylistCache.get(channelId, id -> fetchUploadsPlaylistId(client, id)).thenCompose(playlistId -> {
+            String apiUrl = youTubeService.getApiUrl() + "/playlistItems?part=snippet,contentDetails&playlistId=" + playlistId
+                    + "&maxResults=" + maxResults + "&key=" + youTubeService.getApiKey();
+            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(apiUrl)).build();
+            return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        }).thenApply(response -> {
             String responseBody = response.body();
             JSONObject json = new JSONObject(responseBody);
             JSONArray items = json.getJSONArray("items");
             return youTubeService.parseVideos(items);
         });
     }
+
+    /**
+     * Resolves the ID of the uploads playlist of a channel from the API.
+     *
+     * @param client    the HTTP client used for the API call
+     * @param channelId the YouTube channel ID
+     * @return a {@link CompletionStage} containing the playlist ID
+     */
+    private CompletionStage<String> fetchUploadsPlaylistId(HttpClient client, String channelId) {
+        String apiUrl = youTubeService.getApiUrl() + "/channels?part=contentDetails&id=" + channelId + "&key=" + youTubeService.getApiKey();
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(apiUrl)).build();
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> youTubeService.parseUploadsPlaylistId(new JSONObject(response.body())));
+    }
 }
@@ -1,20 +1,31 @@
 package models.services;
 
 import actors.ChannelProfileMessages;
+import actors.ChannelStatsMessages;
 import actors.SentimentMessages;
+import actors.TagGraphMessages;
+import actors.TagIndexMessages;
 import actors.TagMessages;
+import actors.TrendingMessages;
 import actors.WordStatMessages;
 import akka.actor.ActorRef;
 import akka.pattern.Patterns;
 import akka.pattern.PatternsCS;
+import models.entities.Channel;
 import models.entities.Video;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import play.mvc.Http;
 import play.mvc.Result;
+import utils.ChannelStats;
+import utils.ExpiringCache;
+import utils.NGramCounter;
+import utils.TrendingTerms;
 
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
@@ -28,6 +39,14 @@ public class GeneralService {
     public static final int DEFAULT_NUM_OF_RESULTS = 10;
     public static final int NUM_OF_RESULTS_SENTIMENT = 50;
     public static final int NUM_OF_RESULTS_WORD_STATS = 50;
+    public static final int NUM_OF_TRENDING_TERMS = 20;
+    public static final int NUM_OF_INDEXED_VIDEOS = 50;
+    public static final int NUM_OF_COOCCURRING_TAGS = 20;
+    public static final int NUM_OF_TAG_CLUSTERS = 5;
+    public static final int NUM_OF_CHANNEL_VIDEOS_PER_PAGE = 50;
+    public static final int NUM_OF_CHANNEL_TOP_TERMS = 10;
+    public static final int NUM_OF_STORED_VIDEOS = 100;
+    public static final int NUM_OF_CORPUS_VIDEOS = 20_000;
 
     public static boolean isKeywordValid(String keyword) {
         return keyword != null && !keyword.trim().isEmpty();
@@ -90,6 +109,14 @@ public class GeneralService {
 
 
     public static CompletionStage<Result> channelProfileHelper(ActorRef channelProfileActor, String channelId, Http.Request request){
+        return channelProfileHelper(channelProfileActor, null, channelId, request);
+    }
+
+    /**
+     * Renders the channel profile page, with the statistics aggregated from the channel videos seen so far.
+     * The statistics are optional: the page is rendered without them if the stats actor is missing or does not reply.
+     */
+    public static CompletionStage<Result> channelProfileHelper(ActorRef channelProfileActor, ActorRef channelStatsActor, String channelId, Http.Request request){
         // Ask the actor for channel info
         CompletionStage<Object> channelInfoFuture = Patterns.ask(
                 channelProfileActor,
@@ -104,21 +131,82 @@ public class GeneralService {
                 Duration.ofSeconds(5)
         );
 
-        // Combine both futures
+        // Ask the stats actor for the aggregated statistics, after the videos so that they are counted
+        CompletionStage<ChannelStats.Summary> statsFuture = channelStatsActor == null
+                ? CompletableFuture.completedFuture(null)
+                : channelVideosFuture.handle((videosResponse, ex) -> null)
+                        .thenCompose(ignored -> Patterns.ask(channelStatsActor, new ChannelStatsMessages.GetChannelStats(channelId, NUM_OF_CHANNEL_TOP_TERMS), Duration.ofSeconds(2)))
+                        .handle((statsResponse, ex) -> statsResponse instanceof ChannelStatsMessages.ChannelStatsResponse
+                                ? ((ChannelStatsMessages.ChannelStatsResponse) statsResponse).getSummary()
+                                : null);
+
+        // Combine the futures
         return channelInfoFuture.thenCombine(channelVideosFuture, (infoResponse, videosResponse) -> {
             if (infoResponse instanceof ChannelProfileMessages.ChannelProfileError || videosResponse instanceof ChannelProfileMessages.ChannelProfileError) {
-                return internalServerError(views.html.errorPage.render("An error occurred while fetching channel profile."));
+                return CompletableFuture.completedFuture(internalServerError(views.html.errorPage.render("An error occurred while fetching channel profile.")));
             }
 
-            JSONObject channelInfo = ((ChannelProfileMessages.ChannelInfoResponse) infoResponse).getChannelInfo();
+            Channel channel = ((ChannelProfileMessages.ChannelInfoResponse) infoResponse).getChannel();
             List<Video> videos = ((ChannelProfileMessages.ChannelVideosResponse) videosResponse).getVideos();
-            return addSessionId(request, ok(views.html.channelProfile.render(channelInfo, videos)));
-        }).exceptionally(ex -> {
+            return statsFuture.thenApply(stats -> addSessionId(request, ok(views.html.channelProfile.render(channel, videos, stats))));
+        }).thenCompose(result -> result).exceptionally(ex -> {
             ex.printStackTrace();
             return internalServerError(views.html.errorPage.render("An error occurred while fetching channel profile."));
         });
     }
 
+    public static CompletionStage<Result> channelVideosHelper(ActorRef channelProfileActor, String channelId, String pageToken, Http.Request request) {
+        String token = pageToken == null || pageToken.isEmpty() ? null : pageToken;
+        return Patterns.ask(channelProfileActor, new ChannelProfileMessages.GetChannelVideos(channelId, NUM_OF_CHANNEL_VIDEOS_PER_PAGE, token), Duration.ofSeconds(5))
+                .thenApply(response -> {
+                    if (!(response instanceof ChannelProfileMessages.ChannelVideosResponse)) {
+                        return internalServerError(views.html.errorPage.render("An error occurred while fetching channel videos."));
+                    }
+                    ChannelProfileMessages.ChannelVideosResponse page = (ChannelProfileMessages.ChannelVideosResponse) response;
+                    JSONArray videos = new JSONArray();
+                    page.getVideos().forEach(video -> videos.put(new JSONObject()
+                            .put("videoId", video.getVideoId())
+                            .put("title", video.getTitle())
+                            .put("thumbnailUrl", video.getThumbnailUrl())
+                            .put("videoUrl", video.getVideoURL())
+                            .put("publishedAt", video.getPublishedAt())));
+                    JSONObject json = new JSONObject().put("channelId", channelId).put("videos", videos);
+                    if (page.getNextPageToken() != null) {
+                        json.put("nextPageToken", page.getNextPageToken());
+                    }
+                    return addSessionId(request, ok(json.toString()).as("application/json"));
+                }).exceptionally(ex -> {
+                    ex.printStackTrace();
+                    return internalServerError(views.html.errorPage.render("An error occurred while fetching channel videos."));
+                });
+    }
+
+    public static CompletionStage<Result> channelCacheStatsHelper(ActorRef channelProfileActor, Http.Request request) {
+        return Patterns.ask(channelProfileActor, new ChannelProfileMessages.GetCacheStats(), Duration.ofSeconds(5))
+                .thenApply(response -> {
+                    ChannelProfileMessages.CacheStatsResponse stats = (ChannelProfileMessages.CacheStatsResponse) response;
+                    JSONObject json = new JSONObject()
+                            .put("info", cacheStatsJson(stats.getInfoStats()))
+                            .put("videos", cacheStatsJson(stats.getVideosStats()));
+                    return addSessionId(request, ok(json.toString()).as("application/json"));
+                }).exceptionally(ex -> {
+                    ex.printStackTrace();
+                    return internalServerError(views.html.errorPage.render("An error occurred while fetching channel cache statistics."));
+                });
+    }
+
+    private static JSONObject cacheStatsJson(ExpiringCache.Stats stats) {
+        return new JSONObject()
+                .put("hits", stats.getHits())
+                .put("misses", stats.getMisses())
+                .put("hitRate", stats.getHitRate())
+                .put("loads", stats.getLoads())
+                .put("loadFailures", stats.getLoadFailures())
+                .put("averageLoadMillis", stats.getAverageLoadMillis())
+                .put("maxLoadMillis", stats.getMaxLoadMillis())
+                .put("cachedEntries", stats.getSize());
+    }
+
 
     public static CompletionStage<Result> wordStatHelper(SearchService searchService, WordStatService wordStatService, String keyword, Http.Request request){
         if (!isKeywordValid(keyword)) {
@@ -131,39 +219,193 @@ public class GeneralService {
         return searchService.searchVideos(standardizedKeyword, NUM_OF_RESULTS_WORD_STATS)
                 .thenApply(videos -> {
                     searchService.addSearchResult(getSessionId(request), standardizedKeyword, videos);
-                    return addSessionId(request, ok(views.html.wordStats.render(standardizedKeyword, wordStatService.createWordStats(videos))));
+                    return addSessionId(request, ok(views.html.wordStats.render(standardizedKeyword, wordStatService.createWordStats(videos), 1, false)));
                 }).exceptionally(ex -> {
                     ex.printStackTrace();
                     return internalServerError(views.html.errorPage.render("An error occurred while fetching word stats."));
                 });
     }
 
-    public static CompletionStage<Result> wordStatActorHelper(SearchService searchService, ActorRef wordStatActor, String keyword, Http.Request request){
+    public static CompletionStage<Result> wordStatActorHelper(ActorRef wordStatActor, String keyword, Http.Request request){
+        return wordStatActorHelper(wordStatActor, keyword, 1, request);
+    }
+
+    public static CompletionStage<Result> wordStatActorHelper(ActorRef wordStatActor, String keyword, int ngramSize, Http.Request request){
         if (!isKeywordValid(keyword)) {
             System.out.println("Keyword is not valid");
             return CompletableFuture.completedFuture(redirect(controllers.routes.YoutubeController.index()));
         }
+        if (ngramSize < 1 || ngramSize > NGramCounter.MAX_N) {
+            return CompletableFuture.completedFuture(badRequest("Unknown n-gram size " + ngramSize + ", expected 1, 2 or 3."));
+        }
 
         String standardizedKeyword = keyword.trim().toLowerCase();
 
-        // Ask the actor to update videos
-        Patterns.ask(
-                wordStatActor,
-                new WordStatMessages.UpdateVideos(standardizedKeyword),
-                Duration.ofSeconds(5)
-        );
-
-        return Patterns.ask(wordStatActor, new WordStatMessages.GetWordStats(), Duration.ofSeconds(5))
+        // Ask the keyword's actor to refresh its videos and reply with the resulting statistics
+        return Patterns.ask(wordStatActor, new WordStatMessages.UpdateAndGetWordStats(standardizedKeyword, ngramSize), Duration.ofSeconds(5))
                 .thenApply(response -> {
-                    Map<String, Long> wordStats = (Map<String, Long>) response;
-                    return addSessionId(request, ok(views.html.wordStats.render(standardizedKeyword, wordStats)));
+                    if (response instanceof WordStatMessages.WordStatsResult) {
+                        Map<String, Long> wordStats = ((WordStatMessages.WordStatsResult) response).getWordStats();
+                        return addSessionId(request, ok(views.html.wordStats.render(standardizedKeyword, wordStats, ngramSize, false)));
+                    }
+                    return internalServerError(views.html.errorPage.render("An error occurred while fetching word stats."));
                 }).exceptionally(ex -> {
                     ex.printStackTrace();
                     return internalServerError(views.html.errorPage.render("An error occurred while fetching word stats."));
                 });
     }
 
+    /**
+     * Renders the word statistics of the titles and descriptions of every video stored for a keyword, rather than
+     * of the latest search results. Large corpora are counted in parallel on the dedicated pool of the
+     * {@link WordStatService}, off the store's query threads and the request threads.
+     */
+    public static CompletionStage<Result> corpusWordStatsHelper(VideoStore videoStore, WordStatService wordStatService, String keyword, Http.Request request) {
+        if (!isKeywordValid(keyword)) {
+            return CompletableFuture.completedFuture(redirect(controllers.routes.YoutubeController.index()));
+        }
+        String standardizedKeyword = keyword.trim().toLowerCase();
+        return videoStore.getVideosForKeyword(standardizedKeyword, 0L, NUM_OF_CORPUS_VIDEOS)
+                .thenApplyAsync(wordStatService::createCorpusStats, wordStatService.getCorpusExecutor())
+                .thenApply(wordStats -> addSessionId(request, ok(views.html.wordStats.render(standardizedKeyword, wordStats, 1, true))))
+                .exceptionally(ex -> {
+                    ex.printStackTrace();
+                    return internalServerError(views.html.errorPage.render("An error occurred while fetching word stats."));
+                });
+    }
+
+    public static CompletionStage<Result> relatedVideosHelper(ActorRef tagIndexActor, String videoId, Http.Request request) {
+        return Patterns.ask(tagIndexActor, new TagIndexMessages.GetRelatedVideos(videoId, NUM_OF_INDEXED_VIDEOS), Duration.ofSeconds(5))
+                .thenApply(response -> {
+                    if (!(response instanceof TagIndexMessages.RelatedVideosResponse)) {
+                        return internalServerError(views.html.errorPage.render("An error occurred while looking up related videos."));
+                    }
+                    JSONArray related = new JSONArray();
+                    ((TagIndexMessages.RelatedVideosResponse) response).getRelated().forEach((relatedId, sharedTags) ->
+                            related.put(new JSONObject().put("videoId", relatedId).put("sharedTags", sharedTags)));
+                    JSONObject json = new JSONObject().put("videoId", videoId).put("related", related);
+                    return addSessionId(request, ok(json.toString()).as("application/json"));
+                }).exceptionally(ex -> {
+                    ex.printStackTrace();
+                    return internalServerError(views.html.errorPage.render("An error occurred while looking up related videos."));
+                });
+    }
+
+    public static CompletionStage<Result> tagVideosHelper(ActorRef tagIndexActor, String tag, Http.Request request) {
+        return Patterns.ask(tagIndexActor, new TagIndexMessages.GetVideosForTag(tag, NUM_OF_INDEXED_VIDEOS), Duration.ofSeconds(5))
+                .thenApply(response -> {
+                    if (!(response instanceof TagIndexMessages.VideosForTagResponse)) {
+                        return internalServerError(views.html.errorPage.render("An error occurred while looking up the videos of the tag."));
+                    }
+                    JSONArray videos = new JSONArray(((TagIndexMessages.VideosForTagResponse) response).getVideoIds());
+                    JSONObject json = new JSONObject().put("tag", tag).put("videos", videos);
+                    return addSessionId(request, ok(json.toString()).as("application/json"));
+                }).exceptionally(ex -> {
+                    ex.printStackTrace();
+                    return internalServerError(views.html.errorPage.render("An error occurred while looking up the videos of the tag."));
+                });
+    }
+
+    public static CompletionStage<Result> keywordVideosHelper(VideoStore videoStore, String keyword, long since, Http.Request request) {
+        if (!isKeywordValid(keyword)) {
+            return CompletableFuture.completedFuture(badRequest("The keyword must not be empty."));
+        }
+        String standardizedKeyword = keyword.trim().toLowerCase();
+        return videoStore.getVideosForKeyword(standardizedKeyword, since, NUM_OF_STORED_VIDEOS)
+                .thenApply(stored -> {
+                    JSONArray videos = new JSONArray();
+                    stored.forEach(video -> videos.put(new JSONObject()
+                            .put("videoId", video.getVideoId())
+                            .put("title", video.getTitle())
+                            .put("channelId", video.getChannelId())
+                            .put("channelTitle", video.getChannelTitle())
+                            .put("thumbnailUrl", video.getThumbnailUrl())
+                            .put("videoUrl", video.getVideoURL())
+                            .put("publishedAt", video.getPublishedAt())));
+                    JSONObject json = new JSONObject().put("keyword", standardizedKeyword).put("since", since).put("videos", videos);
+                    return addSessionId(request, ok(json.toString()).as("application/json"));
+                }).exceptionally(ex -> {
+                    ex.printStackTrace();
+                    return internalServerError(views.html.errorPage.render("An error occurred while reading the stored videos of the keyword."));
+                });
+    }
+
+    public static CompletionStage<Result> cooccurringTagsHelper(ActorRef tagGraphActor, String tag, Http.Request request) {
+        return Patterns.ask(tagGraphActor, new TagGraphMessages.GetCooccurringTags(tag, NUM_OF_COOCCURRING_TAGS), Duration.ofSeconds(5))
+                .thenApply(response -> {
+                    if (!(response instanceof TagGraphMessages.CooccurringTagsResponse)) {
+                        return internalServerError(views.html.errorPage.render("An error occurred while looking up co-occurring tags."));
+                    }
+                    JSONArray tags = new JSONArray();
+                    ((TagGraphMessages.CooccurringTagsResponse) response).getTags().forEach((cooccurring, count) ->
+                            tags.put(new JSONObject().put("tag", cooccurring).put("count", count)));
+                    JSONObject json = new JSONObject().put("tag", tag).put("cooccurring", tags);
+                    return addSessionId(request, ok(json.toString()).as("application/json"));
+                }).exceptionally(ex -> {
+                    ex.printStackTrace();
+                    return internalServerError(views.html.errorPage.render("An error occurred while looking up co-occurring tags."));
+                });
+    }
+
+    public static CompletionStage<Result> tagClustersHelper(ActorRef tagGraphActor, String keyword, Http.Request request) {
+        if (!isKeywordValid(keyword)) {
+            return CompletableFuture.completedFuture(badRequest("A keyword is required."));
+        }
+        return Patterns.ask(tagGraphActor, new TagGraphMessages.GetTagClusters(keyword, NUM_OF_TAG_CLUSTERS), Duration.ofSeconds(5))
+                .thenApply(response -> {
+                    if (!(response instanceof TagGraphMessages.TagClustersResponse)) {
+                        return internalServerError(views.html.errorPage.render("An error occurred while looking up tag clusters."));
+                    }
+                    JSONArray clusters = new JSONArray();
+                    ((TagGraphMessages.TagClustersResponse) response).getClusters().forEach(cluster -> clusters.put(new JSONArray(cluster)));
+                    JSONObject json = new JSONObject().put("keyword", keyword).put("clusters", clusters);
+                    return addSessionId(request, ok(json.toString()).as("application/json"));
+                }).exceptionally(ex -> {
+                    ex.printStackTrace();
+                    return internalServerError(views.html.errorPage.render("An error occurred while looking up tag clusters."));
+                });
+    }
+
+    public static CompletionStage<Result> tagCacheStatsHelper(TagsService tagsService, Http.Request request) {
+        TagsService.CacheStats stats = tagsService.getCacheStats();
+        JSONObject json = new JSONObject()
+                .put("hits", stats.getHits())
+                .put("misses", stats.getMisses())
+                .put("hitRate", stats.getHitRate())
+                .put("apiCalls", stats.getApiCalls())
+                .put("prefetchCalls", stats.getPrefetchCalls())
+                .put("prefetchedVideos", stats.getPrefetchedVideos())
+                .put("usedPrefetches", stats.getUsedPrefetches())
+                .put("cachedVideos", stats.getCachedVideos());
+        return CompletableFuture.completedFuture(addSessionId(request, ok(json.toString()).as("application/json")));
+    }
+
+    public static CompletionStage<Result> trendingHelper(ActorRef trendingActor, String window, Http.Request request) {
+        Optional<TrendingTerms.Window> trendingWindow = TrendingTerms.Window.fromLabel(window);
+        if (trendingWindow.isEmpty()) {
+            return CompletableFuture.completedFuture(badRequest("Unknown window '" + window + "', expected 5m, 1h or 24h."));
+        }
+
+        return Patterns.ask(trendingActor, new TrendingMessages.GetTrending(trendingWindow.get(), NUM_OF_TRENDING_TERMS), Duration.ofSeconds(5))
+                .thenApply(response -> {
+                    TrendingMessages.TrendingResponse trending = (TrendingMessages.TrendingResponse) response;
+                    JSONArray terms = new JSONArray();
+                    trending.getTerms().forEach((term, count) -> terms.put(new JSONObject().put("term", term).put("count", count)));
+                    JSONObject json = new JSONObject();
+                    json.put("window", trending.getWindow().getLabel());
+                    json.put("terms", terms);
+                    return addSessionId(request, ok(json.toString()).as("application/json"));
+                }).exceptionally(ex -> {
+                    ex.printStackTrace();
+                    return internalServerError(views.html.errorPage.render("An error occurred while fetching trending terms."));
+                });
+    }
+
     public static CompletionStage<Result> searchHelper(SearchService searchService, ActorRef sentimentActor, String keyword, Http.Request request) {
+        return searchHelper(searchService, sentimentActor, null, keyword, request);
+    }
+
+    public static CompletionStage<Result> searchHelper(SearchService searchService, ActorRef sentimentActor, TagsService tagsService, String keyword, Http.Request request) {
         if (!isKeywordValid(keyword)) {
             return CompletableFuture.completedFuture(
                     redirect(controllers.routes.YoutubeController.index()).withSession(request.session())
@@ -201,6 +443,14 @@ public class GeneralService {
                                                     standardizedKeyword
                                             ));
 
+                                            // Warm the tag cache for the displayed videos in the background
+                                            if (tagsService != null) {
+                                                tagsService.prefetch(searchHistory.values().stream()
+                                                        .flatMap(List::stream)
+                                                        .map(Video::getVideoId)
+                                                        .collect(Collectors.toList()));
+                                            }
+
                                             return addSessionId(request, result);
                                         });
                             });
@@ -1,5 +1,8 @@
 package models.services;
 
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import models.entities.SearchHistory;
 import models.entities.Video;
 import org.checkerframework.checker.units.qual.A;
 import org.json.JSONArray;
@@ -10,35 +13,71 @@ import java.net.URLEncoder;
 import java.net.http.*;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import javax.inject.Singleton;
+import utils.SessionStore;
+import utils.VideoSorter;
 
 /**
  * The SearchService class provides methods to search for videos on YouTube, manage search history,
  * and perform sentiment analysis on search results. It integrates with SentimentService and YouTubeService.
+ * Search histories are written to a {@link SessionJournal}, so that they survive restarts; a session is loaded from
+ * the journal on its first access.
  */
+@Singleton
 public class SearchService {
     final YouTubeService youTubeService;
     private final String API_KEY;
     private final String API_URL;
     private final String YOUTUBE_SEARCH_URL;
     private static final int MAX_SEARCH_HISTORY = 10; // Limit to 10 results
-    final Map<String, LinkedHashMap<String, List<Video>>> sessionSearchHistoryMap = new ConcurrentHashMap<>();
+    private static final Config config = ConfigFactory.load();
+    /**
+     * Search histories by session ID. Sessions expire after {@code session.idle-ttl} without a request, and at most
+     * {@code session.max-sessions} sessions holding an estimated {@code session.max-memory} are kept. Each history is
+     * immutable and replaced with compare-and-set, so readers never lock nor copy it. A session dropped from memory
+     * stays in the journal and is loaded again on its next access.
+     */
+    final SessionStore<AtomicReference<SearchHistory>> sessionSearchHistoryMap = new SessionStore<>(
+            config.getDuration("session.idle-ttl").toMillis(),
+            config.getInt("session.max-sessions"),
+            config.getBytes("session.max-memory"),
+            System::nanoTime,
+            this::unindexSession);
+    /**
+     * Index from keyword to the sessions whose search history holds it, so that new videos for a keyword only visit
+     * those sessions. It is updated after every change of a history, and may briefly name a session that no longer
+     * holds the keyword, so the history is always checked.
+     */
+    final Map<String, Set<String>> sessionsByKeyword = new ConcurrentHashMap<>();
     final SentimentService sentimentService;
+    final SessionJournal journal;
+    /**
+     * The source of the versions of the search histories, continuing from the last version in the journal.
+     */
+    private final AtomicLong versions;
     final ConcurrentMap<String, List<Video>> cache = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, List<Video>>> searchListeners = new CopyOnWriteArrayList<>();
     HttpClient httpClient;
     boolean isTestingMode = true;
 
 
-    @Inject
     public SearchService(SentimentService sentimentService, YouTubeService youTubeService) {
+        this(sentimentService, youTubeService, SessionJournal.disabled());
+    }
+
+    @Inject
+    public SearchService(SentimentService sentimentService, YouTubeService youTubeService, SessionJournal journal) {
         this.sentimentService = sentimentService;
+        this.journal = journal;
+        this.versions = new AtomicLong(journal.lastVersion());
         this.youTubeService = youTubeService;
         this.API_KEY = youTubeService.getApiKey();
         this.API_URL = youTubeService.getApiUrl();
@@ -62,6 +101,16 @@ public class SearchService {
         return API_URL;
     }
 
+    /**
+     * Registers a listener that receives the keyword and videos of every search answered by the API, for example the
+     * video store. Listeners are called on the thread that parsed the response and must not block.
+     *
+     * @param listener the listener to register
+     */
+    public void addSearchListener(BiConsumer<String, List<Video>> listener) {
+        searchListeners.add(listener);
+    }
+
     /**
      * Fetches videos based on a keyword and number of results. Results are cached to avoid redundant API calls.
      */
@@ -83,6 +132,7 @@ public class SearchService {
                     JSONArray items = json.getJSONArray("items");
                     List<Video> videos = youTubeService.parseVideos(items);
                     cache.put(cacheKey, videos);
+                    searchListeners.forEach(listener -> listener.accept(keyword, videos));
                     return videos;
                 });
     }
@@ -109,18 +159,8 @@ public class SearchService {
      * Updates the search history for a session and keyword with new videos.
      */
     public void updateVideosForKeyword(String sessionId, String keyword, List<Video> newVideos) {
-        LinkedHashMap<String, List<Video>> searchHistory = sessionSearchHistoryMap.computeIfAbsent(sessionId, k -> new LinkedHashMap<>());
-        synchronized (searchHistory) {
-            List<Video> existingVideos = searchHistory.getOrDefault(keyword, new ArrayList<>());
-            existingVideos.addAll(0, newVideos); // Add new videos at the top
-
-            // Trim to the most recent 10 videos
-            if (existingVideos.size() > MAX_SEARCH_HISTORY) {
-                existingVideos = existingVideos.subList(0, MAX_SEARCH_HISTORY);
-            }
-
-            searchHistory.put(keyword, existingVideos);
-        }
+        AtomicReference<SearchHistory> searchHistory = history(sessionId, true);
+        update(sessionId, searchHistory, current -> current.with(keyword, prepend(newVideos, current.get(keyword))));
     }
 
 
@@ -135,15 +175,15 @@ public class SearchService {
                         videoId = UUID.randomUUID().toString();
                     } while (processedVideoIds.contains(videoId));
 
-                    Video video = new Video();
-                    video.setVideoId(videoId);
-                    video.setTitle("Mock Video " + (i + 1) + " for keyword: " + keyword);
-                    video.setDescription("Description for mock video " + (i + 1));
-                    video.setThumbnailUrl("https://picsum.photos/120/80?random=" + UUID.randomUUID());
-                    video.setChannelId("UCH57DD9ssIIVfuav-j2iavw");
-                    video.setChannelTitle("Mock Channel " + (i + 1));
-                    video.setPublishedAt(ZonedDateTime.now(ZoneOffset.UTC).format(DateTimeFormatter.ISO_INSTANT));
-                    return video;
+                    return new Video(
+                            "Mock Video " + (i + 1) + " for keyword: " + keyword,
+                            "Description for mock video " + (i + 1),
+                            "Mock Channel " + (i + 1),
+                            "https://picsum.photos/120/80?random=" + UUID.randomUUID(),
+                            videoId,
+                            "UCH57DD9ssIIVfuav-j2iavw",
+                            null,
+                            System.currentTimeMillis());
                 })
                 .collect(Collectors.toList());
     }
@@ -152,44 +192,42 @@ public class SearchService {
      * Updates all session search histories with new videos for the given keyword.
      * If any session contains the keyword, the new videos are added to the respective session's keyword list.
      * Ensures the total videos for each keyword do not exceed the limit.
+     * Only the sessions indexed under the keyword are visited.
      *
      * @param keyword   The search keyword for which new videos are added.
      * @param newVideos The new videos to add for the keyword.
      */
     public void updateVideosForKeyword(String keyword, List<Video> newVideos) {
-        sessionSearchHistoryMap.values().stream()
-                .map(searchHistory -> {
-                    synchronized (searchHistory) {
-                        if (searchHistory.containsKey(keyword)) {
-                            List<Video> existingVideos = new ArrayList<>(searchHistory.getOrDefault(keyword, new ArrayList<>()));
-                            existingVideos.addAll(0, newVideos); // Add new videos at the top
-
-                            // Trim to the most recent 10 videos
-                            if (existingVideos.size() > MAX_SEARCH_HISTORY) {
-                                existingVideos = existingVideos.subList(0, MAX_SEARCH_HISTORY);
-                            }
-
-                            searchHistory.put(keyword, existingVideos);
-                        }
-                    }
-                    return searchHistory;
-                })
-                .count(); // Ensures the stream is executed
+        Set<String> sessionIds = sessionsByKeyword.get(keyword);
+        if (sessionIds == null) {
+            return;
+        }
+        for (String sessionId : sessionIds) {
+            // Background updates do not count as activity, so they do not keep idle sessions alive
+            AtomicReference<SearchHistory> searchHistory = sessionSearchHistoryMap.peek(sessionId);
+            if (searchHistory == null) {
+                continue;
+            }
+            update(sessionId, searchHistory, current -> current.containsKey(keyword)
+                    ? current.with(keyword, prepend(newVideos, current.get(keyword)))
+                    : current);
+            if (!searchHistory.get().containsKey(keyword)) {
+                unindex(keyword, sessionId, searchHistory);
+            }
+        }
     }
 
 
 
     /**
-     * Retrieves the search history for a session.
+     * Retrieves the search history for a session, as an unmodifiable snapshot read without locking or copying.
      */
     public Map<String, List<Video>> getSearchHistory(String sessionId) {
-        LinkedHashMap<String, List<Video>> searchHistory = sessionSearchHistoryMap.get(sessionId);
+        AtomicReference<SearchHistory> searchHistory = history(sessionId, false);
         if (searchHistory == null) {
             return Collections.emptyMap();
         }
-        synchronized (searchHistory) {
-            return new LinkedHashMap<>(searchHistory); // Return a copy to avoid concurrent modifications
-        }
+        return searchHistory.get().asMap();
     }
     public CompletionStage<Map<String, String>> calculateSentiments(String sessionId) {
         Map<String, List<Video>> searchHistory = getSearchHistory(sessionId);
@@ -219,10 +257,14 @@ public class SearchService {
 
 
     /**
-     * Clears the search history for a session.
+     * Clears the search history for a session, in memory and in the journal.
      */
     public void clearSearchHistory(String sessionId) {
-        sessionSearchHistoryMap.remove(sessionId);
+        AtomicReference<SearchHistory> searchHistory = sessionSearchHistoryMap.remove(sessionId);
+        if (searchHistory != null) {
+            unindexSession(sessionId, searchHistory);
+        }
+        journal.appendClear(sessionId, versions.incrementAndGet());
     }
 
     /**
@@ -236,26 +278,136 @@ public class SearchService {
      * Adds or updates a search result for a session, keeping history limited to 10 searches.
      */
     public void addSearchResult(String sessionId, String keyword, List<Video> videos) {
-        LinkedHashMap<String, List<Video>> searchHistory = sessionSearchHistoryMap.computeIfAbsent(sessionId, k -> new LinkedHashMap<>());
-        synchronized (searchHistory) {
-            if (searchHistory.size() >= MAX_SEARCH_HISTORY) {
-                removeOldestEntry(searchHistory);
+        AtomicReference<SearchHistory> searchHistory = history(sessionId, true);
+
+        // Trim videos to the most recent 10
+        List<Video> trimmedVideos = videos.size() > MAX_SEARCH_HISTORY ? videos.subList(0, MAX_SEARCH_HISTORY) : videos;
+        update(sessionId, searchHistory, current -> (current.size() >= MAX_SEARCH_HISTORY ? current.withoutOldest() : current)
+                .with(keyword, trimmedVideos));
+    }
+
+    /**
+     * Returns the search history of a session held in memory, loading it from the journal if the session is not in
+     * memory. The journal is read outside the lock of the store; if another thread loaded the session first, its
+     * history is kept.
+     *
+     * @param create whether to create an empty history if neither the memory nor the journal holds one
+     * @return the history, or {@code null} if there is none and {@code create} is false
+     */
+    private AtomicReference<SearchHistory> history(String sessionId, boolean create) {
+        AtomicReference<SearchHistory> searchHistory = sessionSearchHistoryMap.get(sessionId);
+        if (searchHistory != null) {
+            return searchHistory;
+        }
+        SearchHistory loaded = journal.load(sessionId);
+        if (loaded == null && !create) {
+            return null;
+        }
+        AtomicReference<SearchHistory> created = new AtomicReference<>(loaded == null ? SearchHistory.EMPTY : loaded);
+        searchHistory = sessionSearchHistoryMap.getOrCreate(sessionId, () -> created);
+        if (searchHistory == created && loaded != null) {
+            loaded.keywords().forEach(keyword -> index(keyword, sessionId));
+            sessionSearchHistoryMap.updateSize(sessionId, estimateSize(loaded.asMap()));
+        }
+        return searchHistory;
+    }
+
+    /**
+     * Returns the most recent 10 of the new and existing videos, newest first. Videos published at the same time,
+     * or whose publication time is unknown, keep the new videos at the top.
+     */
+    private static List<Video> prepend(List<Video> newVideos, List<Video> existingVideos) {
+        return VideoSorter.mostRecent(newVideos, existingVideos, MAX_SEARCH_HISTORY);
+    }
+
+    /**
+     * Replaces the search history of a session with compare-and-set, applying the change again if another thread
+     * replaced the history first, then brings the keyword index and the size of the session up to date and appends
+     * the change to the journal. Every new history takes a new version, so the journal can order the changes even if
+     * concurrent appends reach it out of order. The change may be applied several times, so it must not have side
+     * effects.
+     */
+    private void update(String sessionId, AtomicReference<SearchHistory> searchHistory, UnaryOperator<SearchHistory> change) {
+        SearchHistory current;
+        SearchHistory updated;
+        do {
+            current = searchHistory.get();
+            updated = change.apply(current);
+            if (updated != current) {
+                updated = updated.withVersion(versions.incrementAndGet());
+            }
+        } while (updated != current && !searchHistory.compareAndSet(current, updated));
+        if (updated == current) {
+            return;
+        }
+        for (String keyword : updated.keywords()) {
+            if (!current.containsKey(keyword)) {
+                index(keyword, sessionId);
+            }
+        }
+        for (String keyword : current.keywords()) {
+            if (!updated.containsKey(keyword)) {
+                unindex(keyword, sessionId, searchHistory);
             }
+        }
+        sessionSearchHistoryMap.updateSize(sessionId, estimateSize(searchHistory.get().asMap()));
+        journal.appendChange(sessionId, current, updated);
+    }
 
-            // Trim videos to the most recent 10
-            List<Video> trimmedVideos = videos.size() > MAX_SEARCH_HISTORY ? videos.subList(0, MAX_SEARCH_HISTORY) : videos;
-            searchHistory.put(keyword, trimmedVideos);
+    /**
+     * Estimates the heap retained by a search history: two bytes per character of every keyword, plus a fixed
+     * overhead per keyword, and the {@linkplain Video#estimatedSize() estimated size} of every video. Videos shared
+     * with other sessions or the search cache are counted once per session, so the estimate is an upper bound.
+     */
+    static long estimateSize(Map<String, List<Video>> searchHistory) {
+        long bytes = 64;
+        for (Map.Entry<String, List<Video>> entry : searchHistory.entrySet()) {
+            bytes += 64 + 2L * entry.getKey().length();
+            for (Video video : entry.getValue()) {
+                bytes += video.estimatedSize();
+            }
         }
+        return bytes;
     }
 
+    /**
+     * Records that a session holds a keyword, after the keyword was added to its history.
+     */
+    private void index(String keyword, String sessionId) {
+        sessionsByKeyword.compute(keyword, (key, sessionIds) -> {
+            Set<String> ids = sessionIds == null ? ConcurrentHashMap.newKeySet() : sessionIds;
+            ids.add(sessionId);
+            return ids;
+        });
+    }
+
+    /**
+     * Records that a session no longer holds a keyword, dropping keywords without sessions. As another thread may have
+     * added the keyword back and indexed it in the meantime, the history is checked again afterwards.
+     */
+    private void unindex(String keyword, String sessionId, AtomicReference<SearchHistory> searchHistory) {
+        removeFromIndex(keyword, sessionId);
+        if (searchHistory.get().containsKey(keyword)) {
+            index(keyword, sessionId);
+        }
+    }
+
+    private void removeFromIndex(String keyword, String sessionId) {
+        sessionsByKeyword.computeIfPresent(keyword, (key, sessionIds) -> {
+            sessionIds.remove(sessionId);
+            return sessionIds.isEmpty() ? null : sessionIds;
+        });
+    }
 
     /**
-     * Removes the oldest entry from the search history.
+     * Removes the keywords of a removed, expired or evicted session from the index. If the session was created again
+     * in the meantime, its new history is indexed again, as its keywords may have just been removed.
      */
-    public void removeOldestEntry(LinkedHashMap<String, List<Video>> searchHistory) {
-        if (!searchHistory.isEmpty()) {
-            String oldestKey = searchHistory.keySet().iterator().next();
-            searchHistory.remove(oldestKey);
+    private void unindexSession(String sessionId, AtomicReference<SearchHistory> searchHistory) {
+        searchHistory.get().keywords().forEach(keyword -> removeFromIndex(keyword, sessionId));
+        AtomicReference<SearchHistory> current = sessionSearchHistoryMap.peek(sessionId);
+        if (current != null && current != searchHistory) {
+            current.get().keywords().forEach(keyword -> index(keyword, sessionId));
         }
     }
 
@@ -0,0 +1,751 @@
+package models.services;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import models.entities.SearchHistory;
+import models.entities.Video;
+import play.inject.ApplicationLifecycle;
+import utils.VideoInterner;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the search histories of the sessions, so that they survive restarts.
+ *
+ * <p>Every change of a history appends a record holding its keyword order and the videos of the keywords that
+ * changed, tagged with the version of the history; clearing a history appends a clear record. Versions come from one
+ * sequence shared by all sessions, so a session is rebuilt whatever the order in which concurrent changes reached the
+ * file: the keyword order is taken from its newest record, the videos of every keyword from the newest record that
+ * wrote them, and records older than its latest clear are ignored.</p>
+ *
+ * <p>At startup only the record headers are read, to index the offsets of the records of every session; a session is
+ * rebuilt from its records on its first access. Once {@code session.journal.compact-after} records were appended, a
+ * background thread writes a snapshot holding one record per session, drops the sessions not changed for
+ * {@code session.journal.retention}, and deletes the files the snapshot replaces, so the startup scan is bounded by
+ * the live sessions rather than by the age of the journal. Records are flushed to the operating system as they are
+ * written, so they survive a restart of the process; a record torn by a crash fails its checksum and is ignored.</p>
+ *
+ * <p>Files are named after a generation number: a snapshot holds the state of all older files, and the journals
+ * newer than the latest snapshot are replayed on top of it. Instances are thread-safe.</p>
+ */
+@Singleton
+public class SessionJournal implements Closeable {
+
+    private static final Config config = ConfigFactory.load();
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final byte HISTORY_RECORD = 1;
+    private static final byte CLEAR_RECORD = 2;
+    /**
+     * A location packs the generation of a file in its high bits and the offset of a record in its low bits.
+     */
+    private static final int OFFSET_BITS = 40;
+
+    private final Path directory;
+    private final int compactAfterRecords;
+    private final long retentionMillis;
+    private final ExecutorService compactor;
+    private final Map<String, SessionRecords> sessions = new HashMap<>();
+    private final Map<Long, Path> files = new HashMap<>();
+    private final Map<Long, FileChannel> readers = new HashMap<>();
+    private long lastVersion;
+    private long journalGeneration;
+    private long journalOffset;
+    private DataOutputStream journal;
+    private int recordsSinceSnapshot;
+    private boolean compacting;
+    private boolean closed;
+
+    /**
+     * Opens the journal configured by {@code session.journal.dir}; an empty directory disables the journal. The
+     * journal is closed when the application stops.
+     *
+     * @param lifecycle the lifecycle of the application
+     */
+    @Inject
+    public SessionJournal(ApplicationLifecycle lifecycle) {
+        this(config.getString("session.journal.dir").isEmpty() ? null : Paths.get(config.getString("session.journal.dir")),
+                config.getInt("session.journal.compact-after"),
+                config.getDuration("session.journal.retention").toMillis());
+        lifecycle.addStopHook(() -> {
+            close();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * Opens a journal, indexing the records already in its directory.
+     *
+     * @param directory           the directory of the journal files, or {@code null} to disable the journal
+     * @param compactAfterRecords the number of records appended after which a snapshot is written
+     * @param retentionMillis     the time in milliseconds after which an unchanged session is dropped by a snapshot
+     * @throws UncheckedIOException if the directory cannot be read or written
+     */
+    public SessionJournal(Path directory, int compactAfterRecords, long retentionMillis) {
+        if (compactAfterRecords <= 0 || retentionMillis <= 0) {
+            throw new IllegalArgumentException("compactAfterRecords and retentionMillis must be positive");
+        }
+        this.directory = directory;
+        this.compactAfterRecords = compactAfterRecords;
+        this.retentionMillis = retentionMillis;
+        this.compactor = directory == null ? null : Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+                open();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open the session journal in " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Returns a journal that keeps nothing.
+     *
+     * @return the disabled journal
+     */
+    public static SessionJournal disabled() {
+        return new SessionJournal(null, Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the highest version in the journal, from which new versions must continue.
+     *
+     * @return the version, or 0 if the journal is empty
+     */
+    public synchronized long lastVersion() {
+        return lastVersion;
+    }
+
+    /**
+     * Rebuilds the search history of a session from its records.
+     *
+     * @param sessionId the session ID
+     * @return the history, or {@code null} if the journal holds none for the session
+     */
+    public synchronized SearchHistory load(String sessionId) {
+        SessionRecords records = directory == null ? null : sessions.get(sessionId);
+        if (records == null || records.count == 0) {
+            return null;
+        }
+        try {
+            MergedHistory merged = merge(records);
+            if (merged.keywords.isEmpty()) {
+                return null;
+            }
+            SearchHistory history = SearchHistory.EMPTY;
+            for (String keyword : merged.keywords) {
+                List<Video> videos = merged.videos.get(keyword);
+                if (videos != null) {
+                    history = history.with(keyword, videos);
+                }
+            }
+            return history.withVersion(merged.version);
+        } catch (IOException e) {
+            System.err.println("Error loading the search history of session " + sessionId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Appends the change of the search history of a session. Only the keywords whose videos changed are written.
+     *
+     * @param sessionId the session ID
+     * @param previous  the history before the change
+     * @param updated   the history after the change, carrying a new version
+     */
+    public void appendChange(String sessionId, SearchHistory previous, SearchHistory updated) {
+        if (directory == null) {
+            return;
+        }
+        List<HistoryEntry> entries = new ArrayList<>();
+        for (String keyword : updated.keywords()) {
+            List<Video> videos = updated.get(keyword);
+            if (videos != previous.get(keyword)) {
+                entries.add(new HistoryEntry(keyword, updated.version(), videos));
+            }
+        }
+        long now = System.currentTimeMillis();
+        append(sessionId, HISTORY_RECORD, updated.version(), now,
+                encodeHistory(sessionId, updated.version(), now, updated.keywords(), entries));
+    }
+
+    /**
+     * Appends the clearing of the search history of a session, which hides all its records of older versions.
+     *
+     * @param sessionId the session ID
+     * @param version   the version of the clearing, newer than the last change of the history
+     */
+    public void appendClear(String sessionId, long version) {
+        if (directory == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        append(sessionId, CLEAR_RECORD, version, now, encodeClear(sessionId, version, now));
+    }
+
+    /**
+     * Closes the files of the journal. Appends after closing are ignored.
+     */
+    @Override
+    public void close() {
+        if (compactor != null) {
+            compactor.shutdownNow();
+        }
+        synchronized (this) {
+            closed = true;
+            try {
+                if (journal != null) {
+                    journal.close();
+                }
+                for (FileChannel reader : readers.values()) {
+                    reader.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Error closing the session journal: " + e.getMessage());
+            }
+            readers.clear();
+        }
+    }
+
+    /**
+     * Waits for the compaction in progress, if any. Used by tests.
+     */
+    void awaitCompaction() throws InterruptedException, ExecutionException {
+        compactor.submit(() -> { }).get();
+    }
+
+    /**
+     * Indexes the latest snapshot and the journals after it, deletes the files it replaces and starts a new journal.
+     */
+    private void open() throws IOException {
+        List<Long> snapshots = generations(SNAPSHOT_SUFFIX);
+        List<Long> journals = generations(JOURNAL_SUFFIX);
+        long snapshot = snapshots.isEmpty() ? -1 : snapshots.get(snapshots.size() - 1);
+        long last = snapshot;
+        if (snapshot >= 0) {
+            scan(snapshot, SNAPSHOT_SUFFIX);
+        }
+        for (long generation : journals) {
+            if (generation > snapshot) {
+                recordsSinceSnapshot += scan(generation, JOURNAL_SUFFIX);
+            }
+            last = Math.max(last, generation);
+        }
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                long generation = generation(path, SNAPSHOT_SUFFIX) >= 0 ? generation(path, SNAPSHOT_SUFFIX) : generation(path, JOURNAL_SUFFIX);
+                if ((generation >= 0 && generation < snapshot) || path.getFileName().toString().endsWith(TEMPORARY_SUFFIX)) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+        startJournal(last + 1);
+        if (recordsSinceSnapshot >= compactAfterRecords) {
+            startCompaction();
+        }
+    }
+
+    /**
+     * Indexes the complete records of a file, stopping at the first torn or corrupt one.
+     *
+     * @return the number of records
+     */
+    private int scan(long generation, String suffix) throws IOException {
+        files.put(generation, directory.resolve(fileName(generation, suffix)));
+        FileChannel channel = reader(generation);
+        int count = 0;
+        long offset = 0;
+        ByteBuffer body;
+        while ((body = readBody(channel, offset)) != null) {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(body.array(), 0, body.limit()));
+            byte type = in.readByte();
+            String sessionId = readString(in);
+            long version = in.readLong();
+            long timestamp = in.readLong();
+            index(sessionId, type, version, timestamp, location(generation, offset));
+            offset += body.limit() + 8;
+            count++;
+        }
+        return count;
+    }
+
+    private synchronized void append(String sessionId, byte type, long version, long timestamp, byte[] body) {
+        if (closed) {
+            return;
+        }
+        try {
+            long location = location(journalGeneration, journalOffset);
+            writeRecord(journal, body);
+            journal.flush();
+            journalOffset += body.length + 8;
+            index(sessionId, type, version, timestamp, location);
+        } catch (IOException e) {
+            System.err.println("Error appending to the session journal: " + e.getMessage());
+            return;
+        }
+        if (++recordsSinceSnapshot >= compactAfterRecords && !compacting) {
+            startCompaction();
+        }
+    }
+
+    /**
+     * Adds a record to the index. Must hold the lock.
+     */
+    private void index(String sessionId, byte type, long version, long timestamp, long location) {
+        lastVersion = Math.max(lastVersion, version);
+        SessionRecords records = sessions.computeIfAbsent(sessionId, id -> new SessionRecords());
+        records.lastWrite = Math.max(records.lastWrite, timestamp);
+        if (type == CLEAR_RECORD) {
+            records.clear(version);
+        } else if (version >= records.clearedVersion) {
+            records.add(location, version);
+        }
+    }
+
+    /**
+     * Merges the records of a session. Must hold the lock, or own a copy of the records taken under it.
+     */
+    private MergedHistory merge(SessionRecords records) throws IOException {
+        MergedHistory merged = new MergedHistory();
+        long orderVersion = -1;
+        Map<String, Long> keywordVersions = new HashMap<>();
+        for (int i = 0; i < records.count; i++) {
+            ByteBuffer body = readBody(reader(records.locations[i] >>> OFFSET_BITS), records.locations[i] & ((1L << OFFSET_BITS) - 1));
+            if (body == null) {
+                throw new IOException("Missing record at location " + records.locations[i]);
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(body.array(), 0, body.limit()));
+            in.readByte();
+            readString(in);
+            long version = in.readLong();
+            in.readLong();
+            merged.version = Math.max(merged.version, version);
+            List<String> keywords = new ArrayList<>();
+            for (int count = in.readInt(); count > 0; count--) {
+                keywords.add(readString(in));
+            }
+            if (version > orderVersion) {
+                orderVersion = version;
+                merged.keywords = keywords;
+            }
+            for (int count = in.readInt(); count > 0; count--) {
+                String keyword = readString(in);
+                long keywordVersion = in.readLong();
+                List<Video> videos = readVideos(in);
+                if (keywordVersion > keywordVersions.getOrDefault(keyword, -1L)) {
+                    keywordVersions.put(keyword, keywordVersion);
+                    merged.videos.put(keyword, videos);
+                }
+            }
+        }
+        merged.keywordVersions = keywordVersions;
+        return merged;
+    }
+
+    /**
+     * Closes the current journal and starts a new one, then writes the snapshot of everything before it on the
+     * background thread. Must hold the lock.
+     */
+    private void startCompaction() {
+        long replacedGeneration = journalGeneration;
+        try {
+            journal.close();
+            startJournal(replacedGeneration + 2);
+        } catch (IOException e) {
+            System.err.println("Error rotating the session journal: " + e.getMessage());
+            return;
+        }
+        compacting = true;
+        recordsSinceSnapshot = 0;
+        Map<String, SessionRecords> frozen = new HashMap<>();
+        sessions.forEach((sessionId, records) -> frozen.put(sessionId, records.copy()));
+        compactor.execute(() -> compact(replacedGeneration + 1, replacedGeneration, frozen));
+    }
+
+    /**
+     * Writes a snapshot holding one record per session, then replaces the older files with it.
+     */
+    private void compact(long snapshotGeneration, long replacedGeneration, Map<String, SessionRecords> frozen) {
+        Path snapshot = directory.resolve(fileName(snapshotGeneration, SNAPSHOT_SUFFIX));
+        Path temporary = directory.resolve(fileName(snapshotGeneration, SNAPSHOT_SUFFIX) + TEMPORARY_SUFFIX);
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        Map<String, long[]> written = new HashMap<>();
+        try {
+            try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                long offset = 0;
+                for (Map.Entry<String, SessionRecords> session : frozen.entrySet()) {
+                    String sessionId = session.getKey();
+                    SessionRecords records = session.getValue();
+                    if (records.lastWrite < cutoff) {
+                        continue;
+                    }
+                    if (records.clearedVersion > 0) {
+                        // Keep the clearing, so that a record of an older version appended late stays hidden
+                        offset += writeRecord(out, encodeClear(sessionId, records.clearedVersion, records.lastWrite));
+                    }
+                    MergedHistory merged;
+                    synchronized (this) {
+                        merged = records.count == 0 ? null : merge(records);
+                    }
+                    if (merged != null && !merged.keywords.isEmpty()) {
+                        List<HistoryEntry> entries = new ArrayList<>();
+                        for (String keyword : merged.keywords) {
+                            if (merged.videos.containsKey(keyword)) {
+                                entries.add(new HistoryEntry(keyword, merged.keywordVersions.get(keyword), merged.videos.get(keyword)));
+                            }
+                        }
+                        written.put(sessionId, new long[]{location(snapshotGeneration, offset), merged.version});
+                        offset += writeRecord(out, encodeHistory(sessionId, merged.version, records.lastWrite, merged.keywords, entries));
+                    }
+                }
+                out.flush();
+                file.getFD().sync();
+            }
+            Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error writing the session snapshot: " + e.getMessage());
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // The file is deleted at the next startup
+            }
+            synchronized (this) {
+                compacting = false;
+            }
+            return;
+        }
+
+        List<Path> replaced = new ArrayList<>();
+        synchronized (this) {
+            files.put(snapshotGeneration, snapshot);
+            Iterator<Map.Entry<String, SessionRecords>> iterator = sessions.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, SessionRecords> session = iterator.next();
+                SessionRecords records = session.getValue();
+                records.removeUpTo(replacedGeneration);
+                long[] record = written.get(session.getKey());
+                if (record != null && record[1] >= records.clearedVersion) {
+                    records.add(record[0], record[1]);
+                } else if (records.count == 0 && records.lastWrite < cutoff) {
+                    iterator.remove();
+                }
+            }
+            Iterator<Map.Entry<Long, Path>> generations = files.entrySet().iterator();
+            while (generations.hasNext()) {
+                Map.Entry<Long, Path> file = generations.next();
+                if (file.getKey() <= replacedGeneration) {
+                    FileChannel reader = readers.remove(file.getKey());
+                    if (reader != null) {
+                        try {
+                            reader.close();
+                        } catch (IOException ignored) {
+                            // The file is deleted anyway
+                        }
+                    }
+                    replaced.add(file.getValue());
+                    generations.remove();
+                }
+            }
+            compacting = false;
+            if (recordsSinceSnapshot >= compactAfterRecords && !closed) {
+                startCompaction();
+            }
+        }
+        for (Path path : replaced) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                System.err.println("Error deleting " + path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Starts appending to a new journal file. Must hold the lock.
+     */
+    private void startJournal(long generation) throws IOException {
+        Path path = directory.resolve(fileName(generation, JOURNAL_SUFFIX));
+        journal = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path.toFile(), true)));
+        journalGeneration = generation;
+        journalOffset = Files.size(path);
+        files.put(generation, path);
+    }
+
+    private synchronized FileChannel reader(long generation) throws IOException {
+        FileChannel reader = readers.get(generation);
+        if (reader == null) {
+            Path path = files.get(generation);
+            if (path == null) {
+                throw new IOException("Unknown journal generation " + generation);
+            }
+            reader = FileChannel.open(path, StandardOpenOption.READ);
+            readers.put(generation, reader);
+        }
+        return reader;
+    }
+
+    private List<Long> generations(String suffix) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.forEach(path -> {
+                long generation = generation(path, suffix);
+                if (generation >= 0) {
+                    generations.add(generation);
+                }
+            });
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    /**
+     * Returns the generation of a file with the given suffix, or -1 if the file is not one.
+     */
+    private static long generation(Path path, String suffix) {
+        String name = path.getFileName().toString();
+        if (!name.endsWith(suffix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(0, name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String fileName(long generation, String suffix) {
+        return String.format("%010d%s", generation, suffix);
+    }
+
+    private static long location(long generation, long offset) {
+        return (generation << OFFSET_BITS) | offset;
+    }
+
+    /**
+     * Writes a record: the length of its body, the body, then the CRC-32 of the body.
+     *
+     * @return the size of the record
+     */
+    private static int writeRecord(DataOutputStream out, byte[] body) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        out.writeInt(body.length);
+        out.write(body);
+        out.writeInt((int) crc.getValue());
+        return body.length + 8;
+    }
+
+    /**
+     * Reads the body of the record at an offset.
+     *
+     * @return the body, or {@code null} if the record is missing, torn or corrupt
+     */
+    private static ByteBuffer readBody(FileChannel channel, long offset) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        if (!readFully(channel, length, offset)) {
+            return null;
+        }
+        int bodyLength = length.getInt(0);
+        if (bodyLength <= 0 || offset + 8 + bodyLength > channel.size()) {
+            return null;
+        }
+        ByteBuffer body = ByteBuffer.allocate(bodyLength + 4);
+        if (!readFully(channel, body, offset + 4)) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body.array(), 0, bodyLength);
+        if ((int) crc.getValue() != body.getInt(bodyLength)) {
+            return null;
+        }
+        body.limit(bodyLength);
+        return body;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset + buffer.position());
+            if (read < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] encodeHistory(String sessionId, long version, long timestamp, List<String> keywords,
+                                        List<HistoryEntry> entries) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeHeader(out, HISTORY_RECORD, sessionId, version, timestamp);
+            out.writeInt(keywords.size());
+            for (String keyword : keywords) {
+                writeString(out, keyword);
+            }
+            out.writeInt(entries.size());
+            for (HistoryEntry entry : entries) {
+                writeString(out, entry.keyword);
+                out.writeLong(entry.version);
+                out.writeInt(entry.videos.size());
+                for (Video video : entry.videos) {
+                    writeString(out, video.getTitle());
+                    writeString(out, video.getDescription());
+                    writeString(out, video.getChannelTitle());
+                    writeString(out, video.getThumbnailUrl());
+                    writeString(out, video.getVideoId());
+                    writeString(out, video.getChannelId());
+                    writeString(out, video.getVideoURL());
+                    writeString(out, video.getPublishedAt());
+                }
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] encodeClear(String sessionId, long version, long timestamp) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writeHeader(new DataOutputStream(bytes), CLEAR_RECORD, sessionId, version, timestamp);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out, byte type, String sessionId, long version, long timestamp) throws IOException {
+        out.writeByte(type);
+        writeString(out, sessionId);
+        out.writeLong(version);
+        out.writeLong(timestamp);
+    }
+
+    private static List<Video> readVideos(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<Video> videos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            videos.add(VideoInterner.shared().intern(new Video(readString(in), readString(in), readString(in),
+                    readString(in), readString(in), readString(in), readString(in), readString(in))));
+        }
+        return videos;
+    }
+
+    /**
+     * Writes a nullable string as the length of its UTF-8 bytes, -1 for {@code null}, followed by the bytes.
+     */
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The locations and versions of the records of one session that are not hidden by its latest clearing.
+     */
+    private static final class SessionRecords {
+        private long[] locations = new long[2];
+        private long[] versions = new long[2];
+        private int count;
+        private long clearedVersion;
+        private long lastWrite;
+
+        void add(long location, long version) {
+            if (count == locations.length) {
+                locations = Arrays.copyOf(locations, count * 2);
+                versions = Arrays.copyOf(versions, count * 2);
+            }
+            locations[count] = location;
+            versions[count] = version;
+            count++;
+        }
+
+        void clear(long version) {
+            clearedVersion = Math.max(clearedVersion, version);
+            retain(i -> versions[i] >= clearedVersion);
+        }
+
+        void removeUpTo(long generation) {
+            retain(i -> (locations[i] >>> OFFSET_BITS) > generation);
+        }
+
+        private void retain(IntPredicate kept) {
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                if (kept.test(i)) {
+                    locations[size] = locations[i];
+                    versions[size] = versions[i];
+                    size++;
+                }
+            }
+            count = size;
+        }
+
+        SessionRecords copy() {
+            SessionRecords copy = new SessionRecords();
+            copy.locations = Arrays.copyOf(locations, Math.max(1, count));
+            copy.versions = Arrays.copyOf(versions, Math.max(1, count));
+            copy.count = count;
+            copy.clearedVersion = clearedVersion;
+            copy.lastWrite = lastWrite;
+            return copy;
+        }
+    }
+
+    private static final class HistoryEntry {
+        private final String keyword;
+        private final long version;
+        private final List<Video> videos;
+
+        HistoryEntry(String keyword, long version, List<Video> videos) {
+            this.keyword = keyword;
+            this.version = version;
+            this.videos = videos;
+        }
+    }
+
+    /**
+     * The state of a session rebuilt from its records.
+     */
+    private static final class MergedHistory {
+        private List<String> keywords = List.of();
+        private final Map<String, List<Video>> videos = new HashMap<>();
+        private Map<String, Long> keywordVersions;
+        private long version;
+    }
+}
@@ -3,23 +3,26 @@ package models.services;
 import play.mvc.Http;
 import play.mvc.Result;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
 
 public class SessionService {
 
-    private static final ConcurrentHashMap<Http.Request, String> sessionMap = new ConcurrentHashMap<>();
+    /**
+     * Random secret of this process, mixed into the session IDs derived from request IDs so that they cannot be guessed.
+     */
+    private static final byte[] SECRET = new byte[32];
+
+    static {
+        new SecureRandom().nextBytes(SECRET);
+    }
 
     public static String getSessionId(Http.Request request) {
-        String sessionID = request.session().getOptional("sessionId").orElse(null);
-        if (sessionID == null) {
-            if (!sessionMap.containsKey(request)) {
-                sessionID = generateSessionID();
-                sessionMap.put(request, sessionID);
-            }else {
-                sessionID = sessionMap.get(request);
-            }
-        }
-        return sessionID;
+        return request.session().getOptional("sessionId").orElseGet(() -> deriveSessionId(request.id()));
     }
 
     public static boolean hasSessionId(Http.Request request) {
@@ -30,8 +33,23 @@ public class SessionService {
         return requestHeader.session().getOptional("sessionId").orElse(null);
     }
 
-    private static String generateSessionID() {
-        return java.util.UUID.randomUUID().toString();
+    /**
+     * Derives the session ID of a request without a session cookie from its request ID, so that every call for the
+     * same request returns the same ID without the request being kept anywhere.
+     */
+    static String deriveSessionId(long requestId) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(SECRET);
+            digest.update(Long.toString(requestId).getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+            // Format the first 128 bits as a random (version 4) UUID
+            long high = (hash.getLong() & ~0xF000L) | 0x4000L;
+            long low = (hash.getLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+            return new UUID(high, low).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     public static Result addSessionId(Http.Request request, Result result) {
@@ -8,52 +8,360 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.net.URI;
 import java.net.http.*;
-import java.util.List;
-import java.util.concurrent.CompletionStage;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 /**
  * Service for fetching video details and tags using YouTubeService's methods where possible.
+ *
+ * <p>Every tag list fetched here is handed to the registered tag listeners (for example the tag index).</p>
+ *
+ * <p>Video snippets (the video and its tags) are kept in a bounded LRU cache. A tag page asks for the video
+ * and for its tags at the same time; both requests share a single API call, and later visits are served from
+ * memory. {@link #prefetch(List)} fills the cache speculatively for the videos of a search result page with
+ * one {@code videos.list} call per {@value #MAX_IDS_PER_CALL} video IDs, on a single low-priority thread. A tag page
+ * asked for while the batch of its video is being fetched waits for that batch, and a batch skips the videos fetched
+ * on demand since it was queued. {@link #getCacheStats()} reports the hit rate and the API calls spent, to tune the
+ * prefetching.</p>
+ *
+ * <p>Both paths parse a response the same way, with {@link YouTubeService#parseVideos(JSONArray)}, so the videos
+ * looked up here reach the video listeners of the {@link YouTubeService} whether they were prefetched or not.</p>
  */
 @Singleton
 public class TagsService {
 
+    /**
+     * The maximum number of video IDs of a single {@code videos.list} call.
+     */
+    public static final int MAX_IDS_PER_CALL = 50;
+    public static final int DEFAULT_CACHE_SIZE = 5_000;
+    private static final int MAX_QUEUED_PREFETCH_BATCHES = 100;
+
     private final YouTubeService youTubeService;
     private final HttpClient httpClient;
+    private final List<BiConsumer<String, List<String>>> tagListeners = new CopyOnWriteArrayList<>();
+    private final Map<String, VideoSnippet> snippetCache;
+    private final Map<String, CompletableFuture<VideoSnippet>> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> prefetchPending = ConcurrentHashMap.newKeySet();
+    private final ExecutorService prefetchExecutor;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder apiCalls = new LongAdder();
+    private final LongAdder prefetchCalls = new LongAdder();
+    private final LongAdder prefetchedVideos = new LongAdder();
+    private final LongAdder usedPrefetches = new LongAdder();
 
     @Inject
     public TagsService(YouTubeService youTubeService) {
+        this(youTubeService, HttpClient.newHttpClient(), DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates the service with an explicit HTTP client and cache size.
+     *
+     * @param youTubeService the service holding the API settings and parsers
+     * @param httpClient     the client used for the API calls
+     * @param cacheSize      the maximum number of cached video snippets
+     */
+    public TagsService(YouTubeService youTubeService, HttpClient httpClient, int cacheSize) {
         this.youTubeService = youTubeService;
-        this.httpClient = HttpClient.newHttpClient();
+        this.httpClient = httpClient;
+        this.snippetCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VideoSnippet> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        this.prefetchExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED_PREFETCH_BATCHES),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "tag-prefetch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    /**
+     * Registers a listener that receives the video ID and the tags of every fetched tag list.
+     * Listeners are called on the thread that parsed the response and must not block.
+     *
+     * @param listener the listener to register
+     */
+    public void addTagListener(BiConsumer<String, List<String>> listener) {
+        tagListeners.add(listener);
+    }
+
+    /**
+     * Hands the freshly fetched tags of a video to every registered listener.
+     *
+     * @param videoId the video ID
+     * @param tags    the tags of the video
+     */
+    protected void notifyTagListeners(String videoId, List<String> tags) {
+        tagListeners.forEach(listener -> listener.accept(videoId, tags));
     }
 
     public CompletionStage<Video> getVideoByVideoId(String videoId) {
-        String apiUrl = String.format("%s/videos?part=snippet&id=%s&key=%s",
-                youTubeService.getApiUrl(), videoId, youTubeService.getApiKey());
-        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(apiUrl)).build();
-
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(response -> {
-                    JSONObject jsonResponse = new JSONObject(response.body());
-                    JSONArray items = jsonResponse.getJSONArray("items");
-                    if (items.length() > 0) {
-                        JSONObject item = items.getJSONObject(0);
-                        return youTubeService.parseVideo(item); // Use parseVideo from YouTubeService
-                    } else {
-                        return null; // Handle accordingly (e.g., return Optional<Video> or throw an exception)
-                    }
-                });
+        return getSnippet(videoId).thenApply(snippet -> snippet == null ? null : snippet.video);
     }
 
     public CompletionStage<List<String>> getTagsByVideoId(String videoId) {
-        String apiUrl = String.format("%s/videos?part=snippet&id=%s&key=%s",
-                youTubeService.getApiUrl(), videoId, youTubeService.getApiKey());
-        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(apiUrl)).build();
-
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(response -> {
-                    JSONObject jsonResponse = new JSONObject(response.body());
-                    JSONArray items = jsonResponse.getJSONArray("items");
-                    return youTubeService.parseTags(items); // Use parseTags from YouTubeService
-                });
+        return getSnippet(videoId).thenApply(snippet -> snippet == null ? List.of() : snippet.tags);
+    }
+
+    /**
+     * Speculatively fetches the snippets of the given videos in the background, so that their tag pages are
+     * served from the cache. Videos already cached or queued are skipped. The remaining IDs are fetched in
+     * batches of {@value #MAX_IDS_PER_CALL}, one batch at a time, on a low-priority thread; batches that do
+     * not fit in the queue are dropped.
+     *
+     * @param videoIds the IDs of the displayed videos
+     */
+    public void prefetch(List<String> videoIds) {
+        List<String> missing = videoIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .filter(videoId -> !snippetCache.containsKey(videoId) && prefetchPending.add(videoId))
+                .collect(Collectors.toList());
+        for (int from = 0; from < missing.size(); from += MAX_IDS_PER_CALL) {
+            List<String> batch = new ArrayList<>(missing.subList(from, Math.min(from + MAX_IDS_PER_CALL, missing.size())));
+            try {
+                prefetchExecutor.execute(() -> prefetchBatch(batch));
+            } catch (RejectedExecutionException e) {
+                batch.forEach(prefetchPending::remove);
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the cache and API usage counters.
+     *
+     * @return the statistics
+     */
+    public CacheStats getCacheStats() {
+        return new CacheStats(hits.sum(), misses.sum(), apiCalls.sum(), prefetchCalls.sum(),
+                prefetchedVideos.sum(), usedPrefetches.sum(), snippetCache.size());
+    }
+
+    /**
+     * Returns the snippet of a video from the cache, or fetches it. Concurrent requests for the same video
+     * share one API call, whether it was made on demand or by the prefetcher.
+     */
+    private CompletionStage<VideoSnippet> getSnippet(String videoId) {
+        VideoSnippet cached = snippetCache.get(videoId);
+        if (cached != null) {
+            hits.increment();
+            markUsed(cached);
+            return CompletableFuture.completedFuture(cached);
+        }
+        misses.increment();
+        CompletableFuture<VideoSnippet> created = new CompletableFuture<>();
+        CompletableFuture<VideoSnippet> running = inFlight.putIfAbsent(videoId, created);
+        if (running != null) {
+            return running.thenApply(this::markUsed);
+        }
+        apiCalls.increment();
+        httpClient.sendAsync(videosRequest(List.of(videoId)), HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> cacheSnippets(response.body(), false).get(videoId))
+                .whenComplete((snippet, ex) -> complete(videoId, created, snippet, ex));
+        return created;
+    }
+
+    /**
+     * Fetches the snippets of a batch of videos with a single call, skipping the videos cached or being fetched
+     * since the batch was queued. Requests for the fetched videos wait for the call. Runs on the prefetch thread.
+     */
+    private void prefetchBatch(List<String> batch) {
+        Map<String, CompletableFuture<VideoSnippet>> fetching = new LinkedHashMap<>();
+        Map<String, VideoSnippet> snippets = Map.of();
+        Throwable failure = null;
+        try {
+            for (String videoId : batch) {
+                CompletableFuture<VideoSnippet> created = new CompletableFuture<>();
+                if (!snippetCache.containsKey(videoId) && inFlight.putIfAbsent(videoId, created) == null) {
+                    fetching.put(videoId, created);
+                }
+            }
+            if (fetching.isEmpty()) {
+                return;
+            }
+            prefetchCalls.increment();
+            HttpResponse<String> response = httpClient.send(videosRequest(new ArrayList<>(fetching.keySet())),
+                    HttpResponse.BodyHandlers.ofString());
+            snippets = cacheSnippets(response.body(), true);
+            prefetchedVideos.add(snippets.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = e;
+        } catch (Exception e) {
+            System.err.println("Tag prefetch failed: " + e.getMessage());
+            failure = e;
+        } finally {
+            batch.forEach(prefetchPending::remove);
+            for (Map.Entry<String, CompletableFuture<VideoSnippet>> entry : fetching.entrySet()) {
+                complete(entry.getKey(), entry.getValue(), snippets.get(entry.getKey()), failure);
+            }
+        }
+    }
+
+    /**
+     * Parses a {@code videos.list} response, caches the snippet of every video in it and hands its tags to the
+     * tag listeners.
+     *
+     * @return the snippets, by video ID
+     */
+    private Map<String, VideoSnippet> cacheSnippets(String responseBody, boolean prefetched) {
+        JSONArray items = new JSONObject(responseBody).getJSONArray("items");
+        List<Video> videos = youTubeService.parseVideos(items);
+        Map<String, VideoSnippet> snippets = new HashMap<>();
+        for (int i = 0; i < items.length(); i++) {
+            Video video = videos.get(i);
+            if (video != null && video.getVideoId() != null) {
+                List<String> tags = youTubeService.parseTags(new JSONArray().put(items.getJSONObject(i)));
+                VideoSnippet snippet = new VideoSnippet(video, tags, prefetched);
+                snippetCache.put(video.getVideoId(), snippet);
+                notifyTagListeners(video.getVideoId(), tags);
+                snippets.put(video.getVideoId(), snippet);
+            }
+        }
+        return snippets;
+    }
+
+    /**
+     * Completes the fetch of a video, once its snippet is cached, so that later requests read the cache.
+     */
+    private void complete(String videoId, CompletableFuture<VideoSnippet> fetch, VideoSnippet snippet, Throwable failure) {
+        inFlight.remove(videoId, fetch);
+        if (failure != null) {
+            fetch.completeExceptionally(failure);
+        } else {
+            fetch.complete(snippet);
+        }
+    }
+
+    private VideoSnippet markUsed(VideoSnippet snippet) {
+        if (snippet != null && snippet.prefetched && snippet.markUsed()) {
+            usedPrefetches.increment();
+        }
+        return snippet;
+    }
+
+    private HttpRequest videosRequest(List<String> videoIds) {
+        String apiUrl = String.format("%s/videos?part=snippet&id=%s&maxResults=%d&key=%s",
+                youTubeService.getApiUrl(), String.join(",", videoIds), MAX_IDS_PER_CALL, youTubeService.getApiKey());
+        return HttpRequest.newBuilder().uri(URI.create(apiUrl)).build();
+    }
+
+    /**
+     * A cached video and its tags.
+     */
+    private static final class VideoSnippet {
+        private final Video video;
+        private final List<String> tags;
+        private final boolean prefetched;
+        private volatile boolean used;
+
+        VideoSnippet(Video video, List<String> tags, boolean prefetched) {
+            this.video = video;
+            this.tags = tags;
+            this.prefetched = prefetched;
+        }
+
+        /**
+         * Marks the snippet as read.
+         *
+         * @return {@code true} the first time only
+         */
+        synchronized boolean markUsed() {
+            if (used) {
+                return false;
+            }
+            used = true;
+            return true;
+        }
+    }
+
+    /**
+     * Snapshot of the tag cache and API usage counters.
+     */
+    public static final class CacheStats {
+        private final long hits;
+        private final long misses;
+        private final long apiCalls;
+        private final long prefetchCalls;
+        private final long prefetchedVideos;
+        private final long usedPrefetches;
+        private final int cachedVideos;
+
+        public CacheStats(long hits, long misses, long apiCalls, long prefetchCalls,
+                          long prefetchedVideos, long usedPrefetches, int cachedVideos) {
+            this.hits = hits;
+            this.misses = misses;
+            this.apiCalls = apiCalls;
+            this.prefetchCalls = prefetchCalls;
+            this.prefetchedVideos = prefetchedVideos;
+            this.usedPrefetches = usedPrefetches;
+            this.cachedVideos = cachedVideos;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * Returns the share of lookups served from the cache.
+         *
+         * @return the hit rate between 0 and 1, or 0 if nothing was looked up
+         */
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        /**
+         * Returns the number of on-demand {@code videos.list} calls, one per cache miss not joined to a running call.
+         *
+         * @return the number of calls
+         */
+        public long getApiCalls() {
+            return apiCalls;
+        }
+
+        /**
+         * Returns the number of batched {@code videos.list} calls made by the prefetcher.
+         *
+         * @return the number of calls
+         */
+        public long getPrefetchCalls() {
+            return prefetchCalls;
+        }
+
+        public long getPrefetchedVideos() {
+            return prefetchedVideos;
+        }
+
+        /**
+         * Returns the number of prefetched videos whose snippet was read at least once.
+         *
+         * @return the number of useful prefetches
+         */
+        public long getUsedPrefetches() {
+            return usedPrefetches;
+        }
+
+        public int getCachedVideos() {
+            return cachedVideos;
+        }
     }
 }
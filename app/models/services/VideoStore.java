@@ -0,0 +1,431 @@
+package models.services;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import models.entities.Video;
+import play.db.Database;
+import play.inject.ApplicationLifecycle;
+import utils.VideoLog;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Store of every video fetched from the API, with the keywords it was found for and its tags, so that questions
+ * such as "all videos seen for a keyword since a time" are answered without any API call. The video records live in
+ * a memory-mapped {@link VideoLog}; the embedded SQL database only holds the small relational rows, video IDs with
+ * the keywords and tags they were seen with, and a query resolves the IDs it selects in the log.
+ *
+ * <p>Writes never wait for the database: {@link #recordSearch(String, List)}, {@link #recordVideos(List)} and
+ * {@link #recordTags(String, List)} only queue the rows, and a single background thread writes everything queued
+ * since its last pass in one JDBC batch and one transaction, up to {@code video-store.batch-size} items. When
+ * {@code video-store.queue-capacity} items are already waiting, new rows are dropped and counted rather than
+ * slowing the request down. Queries run on their own small thread pool.</p>
+ *
+ * <p>The store uses the {@code default} database of Play, an H2 database in file mode, and the log in
+ * {@code video-log.dir}. The tables are created on startup if they do not exist; every query is served by an
+ * index.</p>
+ */
+@Singleton
+public class VideoStore implements Closeable {
+
+    private static final Config config = ConfigFactory.load();
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS videos (video_id VARCHAR PRIMARY KEY, channel_id VARCHAR, last_seen BIGINT NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS videos_channel ON videos (channel_id, last_seen)",
+            "CREATE TABLE IF NOT EXISTS keyword_videos (keyword VARCHAR NOT NULL, video_id VARCHAR NOT NULL,"
+                    + " last_seen BIGINT NOT NULL, PRIMARY KEY (keyword, video_id))",
+            "CREATE INDEX IF NOT EXISTS keyword_videos_seen ON keyword_videos (keyword, last_seen)",
+            "CREATE TABLE IF NOT EXISTS video_tags (video_id VARCHAR NOT NULL, tag VARCHAR NOT NULL,"
+                    + " PRIMARY KEY (video_id, tag))",
+            "CREATE INDEX IF NOT EXISTS video_tags_tag ON video_tags (tag)"
+    };
+    private static final String MERGE_VIDEO = "MERGE INTO videos (video_id, channel_id, last_seen) KEY (video_id) VALUES (?, ?, ?)";
+    private static final String MERGE_KEYWORD = "MERGE INTO keyword_videos (keyword, video_id, last_seen) KEY (keyword, video_id) VALUES (?, ?, ?)";
+    private static final String DELETE_TAGS = "DELETE FROM video_tags WHERE video_id = ?";
+    private static final String INSERT_TAG = "INSERT INTO video_tags (video_id, tag) VALUES (?, ?)";
+    private static final String SELECT_KEYWORD_VIDEOS = "SELECT video_id FROM keyword_videos"
+            + " WHERE keyword = ? AND last_seen >= ? ORDER BY last_seen DESC LIMIT ?";
+    private static final String SELECT_TAG_VIDEOS = "SELECT t.video_id FROM video_tags t"
+            + " JOIN videos v ON v.video_id = t.video_id WHERE t.tag = ? ORDER BY v.last_seen DESC LIMIT ?";
+
+    private final DataSource dataSource;
+    private final VideoLog videoLog;
+    private final int batchSize;
+    private final BlockingQueue<PendingWrite> queue;
+    private final ExecutorService queryExecutor;
+    private final Thread writer;
+    private final LongAdder writtenItems = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder droppedItems = new LongAdder();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean running = true;
+
+    /**
+     * Creates the store configured by {@code video-store} and {@code video-log}, which is closed, writing the queued
+     * items and closing its log, when the application stops.
+     *
+     * @param database  the database
+     * @param lifecycle the lifecycle of the application
+     */
+    @Inject
+    public VideoStore(Database database, ApplicationLifecycle lifecycle) {
+        this(database.getDataSource(),
+                new VideoLog(Paths.get(config.getString("video-log.dir")), (int) (long) config.getBytes("video-log.segment-size")),
+                config.getInt("video-store.batch-size"),
+                config.getInt("video-store.queue-capacity"),
+                config.getInt("video-store.query-threads"));
+        lifecycle.addStopHook(() -> {
+            close();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * Creates the store, creating the tables if needed, and starts its writer thread.
+     *
+     * @param dataSource    the database
+     * @param videoLog      the log holding the video records
+     * @param batchSize     the maximum number of queued items written in one batch
+     * @param queueCapacity the maximum number of queued items, beyond which new items are dropped
+     * @param queryThreads  the number of threads running the queries
+     * @throws IllegalStateException if the tables cannot be created
+     */
+    public VideoStore(DataSource dataSource, VideoLog videoLog, int batchSize, int queueCapacity, int queryThreads) {
+        this.dataSource = dataSource;
+        this.videoLog = videoLog;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String ddl : SCHEMA) {
+                statement.execute(ddl);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot create the video store tables", e);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.queryExecutor = Executors.newFixedThreadPool(queryThreads, runnable -> {
+            Thread thread = new Thread(runnable, "video-store-query-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writer = new Thread(this::writeLoop, "video-store-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues the videos found by a search for a keyword.
+     *
+     * @param keyword the keyword
+     * @param videos  the videos
+     */
+    public void recordSearch(String keyword, List<Video> videos) {
+        enqueue(new PendingWrite(keyword, videos, null, null, null));
+    }
+
+    /**
+     * Queues videos fetched without a keyword, for example the uploads of a channel.
+     *
+     * @param videos the videos
+     */
+    public void recordVideos(List<Video> videos) {
+        enqueue(new PendingWrite(null, videos, null, null, null));
+    }
+
+    /**
+     * Queues the tags of a video, replacing the tags stored before.
+     *
+     * @param videoId the video ID
+     * @param tags    the tags
+     */
+    public void recordTags(String videoId, List<String> tags) {
+        enqueue(new PendingWrite(null, List.of(), videoId, tags, null));
+    }
+
+    /**
+     * Returns a stage completed once every item queued before the call is written, or dropped because its batch
+     * failed. Once the store is closed, the stage is already completed.
+     *
+     * @return the stage
+     */
+    public CompletionStage<Void> flush() {
+        if (closed.get()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return queueFlush();
+    }
+
+    private CompletableFuture<Void> queueFlush() {
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        try {
+            queue.put(new PendingWrite(null, List.of(), null, null, written));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            written.completeExceptionally(e);
+        }
+        return written;
+    }
+
+    /**
+     * Returns the videos seen for a keyword since a time, most recently seen first.
+     *
+     * @param keyword     the keyword
+     * @param sinceMillis the epoch time in milliseconds from which videos are returned
+     * @param limit       the maximum number of videos
+     * @return the videos
+     */
+    public CompletionStage<List<Video>> getVideosForKeyword(String keyword, long sinceMillis, int limit) {
+        return query(SELECT_KEYWORD_VIDEOS, statement -> {
+            statement.setString(1, keyword);
+            statement.setLong(2, sinceMillis);
+            statement.setInt(3, limit);
+        });
+    }
+
+    /**
+     * Returns the videos carrying a tag, most recently seen first.
+     *
+     * @param tag   the tag
+     * @param limit the maximum number of videos
+     * @return the videos
+     */
+    public CompletionStage<List<Video>> getVideosForTag(String tag, int limit) {
+        return query(SELECT_TAG_VIDEOS, statement -> {
+            statement.setString(1, tag);
+            statement.setInt(2, limit);
+        });
+    }
+
+    /**
+     * Returns the counts of the items written, dropped and still queued since the store was created.
+     *
+     * @return the statistics
+     */
+    public WriteStats getWriteStats() {
+        return new WriteStats(writtenItems.sum(), batches.sum(), droppedItems.sum(), queue.size());
+    }
+
+    /**
+     * Writes the queued items, then stops the writer and query threads and closes the log. Items queued after
+     * closing are dropped. Closing again has no effect.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        queueFlush().join();
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Items queued by callers that raced with closing are never written
+        List<PendingWrite> left = new ArrayList<>();
+        queue.drainTo(left);
+        for (PendingWrite write : left) {
+            if (write.flushed != null) {
+                write.flushed.complete(null);
+            } else {
+                droppedItems.increment();
+            }
+        }
+        queryExecutor.shutdown();
+        videoLog.close();
+    }
+
+    private void enqueue(PendingWrite write) {
+        if (closed.get() || !queue.offer(write)) {
+            droppedItems.increment();
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            // Everything queued while the previous batch was written goes into this one
+            queue.drainTo(batch, batchSize - 1);
+            try {
+                write(batch);
+                writtenItems.add(batch.stream().filter(write -> write.flushed == null).count());
+                batches.increment();
+            } catch (SQLException | RuntimeException e) {
+                // A failed batch is dropped; the writer keeps serving the next ones
+                System.err.println("Error writing " + batch.size() + " items to the video store: " + e);
+            } finally {
+                for (PendingWrite write : batch) {
+                    if (write.flushed != null) {
+                        write.flushed.complete(null);
+                    }
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingWrite> batch) throws SQLException {
+        long now = System.currentTimeMillis();
+        // Later rows of the same video replace the earlier ones of the batch
+        Map<String, Video> videos = new LinkedHashMap<>();
+        Set<Map.Entry<String, String>> keywordVideos = new LinkedHashSet<>();
+        Map<String, List<String>> tags = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            for (Video video : write.videos) {
+                if (video != null && video.getVideoId() != null) {
+                    videos.put(video.getVideoId(), video);
+                    if (write.keyword != null) {
+                        keywordVideos.add(Map.entry(write.keyword, video.getVideoId()));
+                    }
+                }
+            }
+            if (write.tagsVideoId != null) {
+                tags.put(write.tagsVideoId, write.tags);
+            }
+        }
+        if (videos.isEmpty() && tags.isEmpty()) {
+            return;
+        }
+        for (Video video : videos.values()) {
+            videoLog.append(video);
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement mergeVideo = connection.prepareStatement(MERGE_VIDEO);
+                 PreparedStatement mergeKeyword = connection.prepareStatement(MERGE_KEYWORD);
+                 PreparedStatement deleteTags = connection.prepareStatement(DELETE_TAGS);
+                 PreparedStatement insertTag = connection.prepareStatement(INSERT_TAG)) {
+                for (Video video : videos.values()) {
+                    mergeVideo.setString(1, video.getVideoId());
+                    mergeVideo.setString(2, video.getChannelId());
+                    mergeVideo.setLong(3, now);
+                    mergeVideo.addBatch();
+                }
+                for (Map.Entry<String, String> keywordVideo : keywordVideos) {
+                    mergeKeyword.setString(1, keywordVideo.getKey());
+                    mergeKeyword.setString(2, keywordVideo.getValue());
+                    mergeKeyword.setLong(3, now);
+                    mergeKeyword.addBatch();
+                }
+                for (Map.Entry<String, List<String>> videoTags : tags.entrySet()) {
+                    deleteTags.setString(1, videoTags.getKey());
+                    deleteTags.addBatch();
+                    for (String tag : new LinkedHashSet<>(videoTags.getValue())) {
+                        insertTag.setString(1, videoTags.getKey());
+                        insertTag.setString(2, tag);
+                        insertTag.addBatch();
+                    }
+                }
+                mergeVideo.executeBatch();
+                mergeKeyword.executeBatch();
+                deleteTags.executeBatch();
+                insertTag.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private CompletionStage<List<Video>> query(String sql, StatementBinder binder) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(sql)) {
+                binder.bind(statement);
+                List<Video> videos = new ArrayList<>();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        Video video = videoLog.get(rows.getString(1));
+                        if (video != null) {
+                            videos.add(video);
+                        }
+                    }
+                }
+                return videos;
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, queryExecutor);
+    }
+
+    @FunctionalInterface
+    private interface StatementBinder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    /**
+     * An item waiting for the writer: videos, optionally found for a keyword, the tags of a video, or a flush
+     * marker completed once written.
+     */
+    private static final class PendingWrite {
+        private final String keyword;
+        private final List<Video> videos;
+        private final String tagsVideoId;
+        private final List<String> tags;
+        private final CompletableFuture<Void> flushed;
+
+        PendingWrite(String keyword, List<Video> videos, String tagsVideoId, List<String> tags, CompletableFuture<Void> flushed) {
+            this.keyword = keyword;
+            this.videos = videos;
+            this.tagsVideoId = tagsVideoId;
+            this.tags = tags;
+            this.flushed = flushed;
+        }
+    }
+
+    /**
+     * Counters of the write-behind buffer.
+     */
+    public static final class WriteStats {
+        private final long writtenItems;
+        private final long batches;
+        private final long droppedItems;
+        private final int queuedItems;
+
+        public WriteStats(long writtenItems, long batches, long droppedItems, int queuedItems) {
+            this.writtenItems = writtenItems;
+            this.batches = batches;
+            this.droppedItems = droppedItems;
+            this.queuedItems = queuedItems;
+        }
+
+        public long getWrittenItems() {
+            return writtenItems;
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        public long getDroppedItems() {
+            return droppedItems;
+        }
+
+        public int getQueuedItems() {
+            return queuedItems;
+        }
+    }
+}
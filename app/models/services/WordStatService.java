@@ -1,21 +1,71 @@
 package models.services;
 
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
 import models.entities.Video;
+import utils.ParallelWordCounter;
+import utils.WordCounter;
 
-import java.util.Arrays;
-import java.util.LinkedHashMap;
+import javax.inject.Singleton;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 /**
  * Service class for generating word-level statistics from a list of Video objects.
+ *
+ * <p>Corpus statistics are counted on a fork-join pool of the service rather than on the common pool, so that
+ * counting a large corpus neither competes with other users of the common pool nor blocks a request thread.</p>
  */
+@Singleton
 public class WordStatService {
+    private static final Config config = ConfigFactory.load();
+    private static final String PARALLEL_THRESHOLD_KEY = "wordstats.parallel.threshold";
+
+    private final ForkJoinPool corpusPool;
+    private final ParallelWordCounter corpusCounter;
+
+    /**
+     * Creates the service, reading the corpus size from which word counting runs in parallel from
+     * {@code wordstats.parallel.threshold}.
+     */
+    public WordStatService() {
+        this(config.hasPath(PARALLEL_THRESHOLD_KEY)
+                ? config.getInt(PARALLEL_THRESHOLD_KEY)
+                : ParallelWordCounter.DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Creates the service with an explicit parallel threshold.
+     *
+     * @param parallelThreshold the corpus size, in videos, from which word counting runs in parallel
+     */
+    public WordStatService(int parallelThreshold) {
+        this.corpusPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("word-stats-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        this.corpusCounter = new ParallelWordCounter(corpusPool, parallelThreshold);
+    }
+
+    /**
+     * Returns the executor on which corpus statistics should be created. Its threads are those of the pool the
+     * counting tasks are split across, so a counting task waits for its subtasks by running them.
+     *
+     * @return the executor
+     */
+    public Executor getCorpusExecutor() {
+        return corpusPool;
+    }
+
     /**
      * Creates a map of word frequencies based on the titles of the given list of videos.
      * This method splits each video title into words, normalizes them to lowercase,
-     * removes special characters, and counts the occurrences of each word.
+     * removes special characters, and counts the occurrences of each word using the
+     * shared {@link WordCounter} engine.
      *
      * @param videos a list of {@link Video} objects from which to generate word statistics
      * @return a {@link Map} where keys are words (String) and values are their corresponding
@@ -23,21 +73,19 @@ public class WordStatService {
      *         that appear only once excluded.
      */
     public Map<String, Long> createWordStats(List<Video> videos){
+        return WordCounter.createWordStats(videos);
+    }
 
-        return videos.stream().map(Video::getTitle)     // Map the videos to their titles
-                .map(string -> string.split(" "))   // Split the string into arrays of words
-                .flatMap(Arrays::stream)    // Split the arrays into the stream
-                .map(String::toLowerCase)   // Convert to lowercase
-                .map(s -> s.replaceAll("[^a-zA-Z0-9]", ""))   // Remove special characters
-                .filter(word -> !word.isEmpty())    // Remove empty strings
-                .collect(Collectors.groupingBy(word -> word, Collectors.counting())).entrySet().stream()    // Count occurrences of each word
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())     // Sort by count in descending order
-                .filter(entry -> entry.getValue() > 1)    // Filter out words that appear only once
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new));   // Collect the sorted results into a LinkedHashMap
-
+    /**
+     * Creates a map of word frequencies based on the titles and descriptions of a large corpus of videos,
+     * such as every video accumulated for a keyword. Corpora of at least the configured parallel threshold
+     * are split across the pool of the service.
+     *
+     * @param videos a list of {@link Video} objects from which to generate word statistics
+     * @return a {@link Map} of the most frequent words and their counts, sorted in descending order by
+     *         frequency, with words that appear only once excluded.
+     */
+    public Map<String, Long> createCorpusStats(List<Video> videos) {
+        return WordCounter.createCorpusStats(videos, corpusCounter);
     }
 }
@@ -5,16 +5,18 @@ import com.typesafe.config.ConfigFactory;
 import models.entities.Video;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import utils.VideoInterner;
 
 import javax.inject.Inject;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -23,16 +25,43 @@ import java.util.stream.IntStream;
  * parse video details, and extract metadata such as tags. It relies on configuration values
  * for API key and URL, which are loaded from an external configuration file.
  *
+ * <p>Every video fetched from the API is parsed here, so this service is also the single point where
+ * ingested videos are handed to the registered video listeners (for example the trending-terms engine).</p>
+ *
  * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
  */
+@Singleton
 public class YouTubeService {
     private static final Config config = ConfigFactory.load();
     private static final String API_KEY = config.getString("youtube.api.key");
     private static final String API_URL = config.getString("youtube.api.url");
-    private static final String BASE_VIDEO_URL = "https://www.youtube.com/watch?v=";
+    private final List<Consumer<List<Video>>> videoListeners = new CopyOnWriteArrayList<>();
+
     public YouTubeService(){
 
     }
+
+    /**
+     * Registers a listener that receives every batch of videos parsed from an API response.
+     * Listeners are called on the thread that parsed the response and must not block.
+     *
+     * @param listener the listener to register
+     */
+    public void addVideoListener(Consumer<List<Video>> listener) {
+        videoListeners.add(listener);
+    }
+
+    /**
+     * Hands a batch of freshly fetched videos to every registered listener.
+     *
+     * @param videos the fetched videos
+     */
+    private void notifyVideoListeners(List<Video> videos) {
+        if (videos.isEmpty()) {
+            return;
+        }
+        videoListeners.forEach(listener -> listener.accept(videos));
+    }
     /**
      * Retrieves the YouTube API key from the configuration.
      *
@@ -61,37 +90,68 @@ public class YouTubeService {
      * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
      */
     public Video parseVideo(JSONObject item) {
+        Video video = toVideo(item);
+        if (video != null) {
+            notifyVideoListeners(List.of(video));
+        }
+        return video;
+    }
+
+    /**
+     * Converts a video item of an API response into a Video object without notifying the video listeners.
+     * The video is interned, so a video seen in several responses is held once however many components keep it.
+     *
+     * <p>Items of {@code search}, {@code videos} and {@code playlistItems} responses are accepted. The snippet of a
+     * playlist item is published when the video was added to the playlist, so the publication time of the video
+     * is read from its {@code contentDetails.videoPublishedAt} when the item has one. Private and deleted videos
+     * may have no thumbnails; their thumbnail URL is then empty.</p>
+     *
+     * @param item The JSONObject representing a video item from the YouTube API response.
+     * @return A Video object populated with the parsed details or null if the item is empty.
+     */
+    private Video toVideo(JSONObject item) {
         if (item.isEmpty()) {
             return null;
         }
 
         JSONObject snippet = item.optJSONObject("snippet");
+        if (snippet == null) {
+            snippet = new JSONObject();
+        }
 
         // Extract video details with default values where applicable
         String title = snippet.optString("title", "No Title");
         String description = snippet.optString("description", "");
         String channelTitle = snippet.optString("channelTitle", "Unknown Channel");
         String channelId = snippet.optString("channelId", "Unknown Channel ID");
-        String thumbnailUrl = snippet.optJSONObject("thumbnails")
-                .optJSONObject("default")
-                .optString("url", "");
-        String publishedAt = snippet.optString("publishedAt",
-                ZonedDateTime.now(ZoneOffset.UTC).format(DateTimeFormatter.ISO_INSTANT));
-
-        // Handle different types of 'id' structures
+        JSONObject thumbnails = snippet.optJSONObject("thumbnails");
+        JSONObject defaultThumbnail = thumbnails == null ? null : thumbnails.optJSONObject("default");
+        String thumbnailUrl = defaultThumbnail == null ? "" : defaultThumbnail.optString("url", "");
+        JSONObject contentDetails = item.optJSONObject("contentDetails");
+        String publishedAt = contentDetails != null && contentDetails.has("videoPublishedAt")
+                ? contentDetails.optString("videoPublishedAt", null)
+                : snippet.optString("publishedAt", null);
+
+        // Handle different types of 'id' structures; playlist items carry the video ID in their resource ID
         String videoId = null;
         Object idField = item.opt("id");
-        if (idField instanceof JSONObject) {
+        JSONObject resourceId = snippet.optJSONObject("resourceId");
+        if (resourceId != null && resourceId.has("videoId")) {
+            videoId = resourceId.getString("videoId");
+        } else if (idField instanceof JSONObject) {
             videoId = ((JSONObject) idField).optString("videoId", null);
         } else if (idField instanceof String) {
             videoId = (String) idField;
         }
 
         // Construct the video URL
-        String videoUrl = BASE_VIDEO_URL + videoId;
+        String videoUrl = Video.BASE_VIDEO_URL + videoId;
 
-        // Create and return the Video object
-        return new Video(title, description, channelTitle, thumbnailUrl, videoId, channelId, videoUrl, publishedAt);
+        // Create the Video object, published now if the item has no publication time, and return its canonical instance
+        Video video = publishedAt != null
+                ? new Video(title, description, channelTitle, thumbnailUrl, videoId, channelId, videoUrl, publishedAt)
+                : new Video(title, description, channelTitle, thumbnailUrl, videoId, channelId, videoUrl, System.currentTimeMillis());
+        return VideoInterner.shared().intern(video);
     }
 
     /**
@@ -102,13 +162,33 @@ public class YouTubeService {
      * @author: Zahra Rasoulifar, Hosna Habibi,Mojtaba Peyrovian, Kasra Karaji
      */
     public List<Video> parseVideos(JSONArray items) {
-        return IntStream.range(0, items.length())
+        List<Video> videos = IntStream.range(0, items.length())
                 .mapToObj(items::getJSONObject)
-                .map(this::parseVideo)
+                .map(this::toVideo)
                 .collect(Collectors.toList());
+        notifyVideoListeners(videos.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+        return videos;
     }
 
 
+    /**
+     * Extracts the ID of a channel's uploads playlist from a {@code channels?part=contentDetails} response.
+     *
+     * @param channelsResponse The JSONObject of the API response.
+     * @return The ID of the playlist holding every upload of the channel.
+     * @throws IllegalStateException if the response does not describe a channel.
+     */
+    public String parseUploadsPlaylistId(JSONObject channelsResponse) {
+        JSONArray items = channelsResponse.optJSONArray("items");
+        if (items == null || items.length() == 0) {
+            throw new IllegalStateException("Channel not found");
+        }
+        JSONObject relatedPlaylists = items.getJSONObject(0)
+                .getJSONObject("contentDetails")
+                .getJSONObject("relatedPlaylists");
+        return relatedPlaylists.getString("uploads");
+    }
+
     /**
      * Parses a JSONArray to extract tags from the first item in the array using Java Streams.
      *
@@ -0,0 +1,304 @@
+package utils;
+
+import models.entities.Video;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Incremental per-channel statistics over every ingested video.
+ *
+ * <p>Each channel keeps a fixed set of primitive arrays: publish-hour (UTC) and weekday histograms, the
+ * counts of happy, neutral and sad videos, and the publish times of its {@link #MAX_PUBLISH_TIMES} most
+ * recent videos in a sorted {@code long[]} from which the upload cadence is derived. Title terms are counted
+ * in a {@link SpaceSaving} sketch of {@link #TERM_COUNTERS} counters. The IDs of the {@link #SEEN_VIDEOS}
+ * most recently counted videos of a channel are remembered as 64-bit hashes in a {@link RecentIdSet}, so a
+ * video fetched again by another search is counted once while memory stays bounded per channel. Adding a video
+ * is O(title length) apart from the insertion into the publish times, and a summary never calls the
+ * YouTube API. At most {@code maxChannels} channels are kept; the least recently used one is dropped
+ * first. Instances are not thread-safe.</p>
+ */
+public final class ChannelStats {
+
+    /**
+     * The number of most recent publish times kept per channel to measure the upload cadence.
+     */
+    public static final int MAX_PUBLISH_TIMES = 256;
+    public static final int TERM_COUNTERS = 64;
+    /**
+     * The number of most recently counted video IDs remembered per channel to ignore videos counted again.
+     */
+    public static final int SEEN_VIDEOS = 2 * MAX_PUBLISH_TIMES;
+    public static final int DEFAULT_MAX_CHANNELS = 10_000;
+
+    public static final int SENTIMENT_SAD = -1;
+    public static final int SENTIMENT_NEUTRAL = 0;
+    public static final int SENTIMENT_HAPPY = 1;
+
+    private static final long SECONDS_PER_DAY = 24 * 3600L;
+    private static final long SECONDS_PER_WEEK = 7 * SECONDS_PER_DAY;
+
+    private final Map<String, ChannelAggregate> aggregates;
+    private final WordTokenizer tokenizer = new WordTokenizer();
+    private final Set<String> titleTerms = new HashSet<>();
+
+    /**
+     * Creates statistics for at most {@link #DEFAULT_MAX_CHANNELS} channels.
+     */
+    public ChannelStats() {
+        this(DEFAULT_MAX_CHANNELS);
+    }
+
+    /**
+     * Creates statistics.
+     *
+     * @param maxChannels the maximum number of channels kept
+     */
+    public ChannelStats(int maxChannels) {
+        if (maxChannels <= 0) {
+            throw new IllegalArgumentException("maxChannels must be positive");
+        }
+        this.aggregates = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ChannelAggregate> eldest) {
+                return size() > maxChannels;
+            }
+        };
+    }
+
+    /**
+     * Adds a video to the statistics of its channel. A video already counted is ignored.
+     *
+     * @param video     the video
+     * @param sentiment the sentiment of the video, one of {@link #SENTIMENT_SAD}, {@link #SENTIMENT_NEUTRAL}
+     *                  and {@link #SENTIMENT_HAPPY}
+     * @return {@code true} if the video was counted
+     */
+    public boolean add(Video video, int sentiment) {
+        if (video == null || video.getChannelId() == null || video.getVideoId() == null) {
+            return false;
+        }
+        ChannelAggregate aggregate = aggregates.computeIfAbsent(video.getChannelId(), channelId -> new ChannelAggregate());
+        if (!aggregate.seenVideos.add(video.getVideoId())) {
+            return false;
+        }
+        aggregate.videoCount++;
+        aggregate.sentiments[Math.max(-1, Math.min(1, sentiment)) + 1]++;
+
+        if (video.getPublishedAtMillis() != Video.UNKNOWN_TIME) {
+            long publishedAt = Math.floorDiv(video.getPublishedAtMillis(), 1000);
+            long epochDay = Math.floorDiv(publishedAt, SECONDS_PER_DAY);
+            aggregate.publishHours[(int) (Math.floorMod(publishedAt, SECONDS_PER_DAY) / 3600)]++;
+            // The epoch day 0 was a Thursday, the fourth day of the ISO week
+            aggregate.publishWeekdays[(int) Math.floorMod(epochDay + 3, 7L)]++;
+            aggregate.addPublishTime(publishedAt);
+        }
+
+        titleTerms.clear();
+        tokenizer.tokenize(video.getTitle(), (buffer, length) -> {
+            if (length >= TrendingTerms.MIN_TERM_LENGTH) {
+                String term = new String(buffer, 0, length);
+                if (!TrendingTerms.STOP_WORDS.contains(term)) {
+                    titleTerms.add(term);
+                }
+            }
+        });
+        titleTerms.forEach(term -> aggregate.terms.offer(term, 1));
+        return true;
+    }
+
+    /**
+     * Returns a snapshot of the statistics of a channel.
+     *
+     * @param channelId the channel ID
+     * @param topTerms  the maximum number of title terms
+     * @return the summary, or empty if no video of the channel was counted
+     */
+    public Optional<Summary> summary(String channelId, int topTerms) {
+        ChannelAggregate aggregate = aggregates.get(channelId);
+        if (aggregate == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Summary(aggregate.videoCount,
+                aggregate.publishHours.clone(),
+                aggregate.publishWeekdays.clone(),
+                aggregate.sentiments.clone(),
+                aggregate.medianGapSeconds(),
+                aggregate.uploadsPerWeek(),
+                aggregate.terms.top(topTerms)));
+    }
+
+    /**
+     * Returns the number of channels with statistics.
+     *
+     * @return the number of channels
+     */
+    public int channelCount() {
+        return aggregates.size();
+    }
+
+    /**
+     * The statistics of one channel.
+     */
+    private static final class ChannelAggregate {
+        private final RecentIdSet seenVideos = new RecentIdSet(SEEN_VIDEOS);
+        private final int[] publishHours = new int[24];
+        private final int[] publishWeekdays = new int[7];
+        private final int[] sentiments = new int[3];
+        private final SpaceSaving terms = new SpaceSaving(TERM_COUNTERS);
+        private long[] publishTimes = new long[8];
+        private int publishTimeCount;
+        private int videoCount;
+
+        /**
+         * Inserts a publish time, keeping the array sorted and dropping the oldest time beyond
+         * {@link #MAX_PUBLISH_TIMES}.
+         */
+        void addPublishTime(long epochSecond) {
+            if (publishTimeCount == MAX_PUBLISH_TIMES) {
+                if (epochSecond <= publishTimes[0]) {
+                    return;
+                }
+                System.arraycopy(publishTimes, 1, publishTimes, 0, --publishTimeCount);
+            } else if (publishTimeCount == publishTimes.length) {
+                publishTimes = Arrays.copyOf(publishTimes, Math.min(MAX_PUBLISH_TIMES, publishTimes.length * 2));
+            }
+            int index = Arrays.binarySearch(publishTimes, 0, publishTimeCount, epochSecond);
+            int insertion = index >= 0 ? index : -index - 1;
+            System.arraycopy(publishTimes, insertion, publishTimes, insertion + 1, publishTimeCount - insertion);
+            publishTimes[insertion] = epochSecond;
+            publishTimeCount++;
+        }
+
+        /**
+         * Returns the median time between two consecutive uploads, or -1 if fewer than two are known.
+         */
+        long medianGapSeconds() {
+            if (publishTimeCount < 2) {
+                return -1;
+            }
+            long[] gaps = new long[publishTimeCount - 1];
+            for (int i = 1; i < publishTimeCount; i++) {
+                gaps[i - 1] = publishTimes[i] - publishTimes[i - 1];
+            }
+            Arrays.sort(gaps);
+            return gaps[gaps.length / 2];
+        }
+
+        /**
+         * Returns the mean number of uploads per week over the span of the known publish times, or 0 if the
+         * span is empty.
+         */
+        double uploadsPerWeek() {
+            if (publishTimeCount < 2) {
+                return 0;
+            }
+            long span = publishTimes[publishTimeCount - 1] - publishTimes[0];
+            return span <= 0 ? 0 : (publishTimeCount - 1) * (double) SECONDS_PER_WEEK / span;
+        }
+    }
+
+    /**
+     * Immutable snapshot of the statistics of one channel.
+     */
+    public static final class Summary implements Serializable {
+        private final int videoCount;
+        private final int[] publishHours;
+        private final int[] publishWeekdays;
+        private final int[] sentiments;
+        private final long medianGapSeconds;
+        private final double uploadsPerWeek;
+        private final Map<String, Long> topTerms;
+
+        public Summary(int videoCount, int[] publishHours, int[] publishWeekdays, int[] sentiments,
+                       long medianGapSeconds, double uploadsPerWeek, Map<String, Long> topTerms) {
+            this.videoCount = videoCount;
+            this.publishHours = publishHours;
+            this.publishWeekdays = publishWeekdays;
+            this.sentiments = sentiments;
+            this.medianGapSeconds = medianGapSeconds;
+            this.uploadsPerWeek = uploadsPerWeek;
+            this.topTerms = topTerms;
+        }
+
+        public int getVideoCount() {
+            return videoCount;
+        }
+
+        /**
+         * Returns the number of videos published in every hour of the day, in UTC.
+         *
+         * @return 24 counts, from 00:00 to 23:00
+         */
+        public int[] getPublishHours() {
+            return publishHours.clone();
+        }
+
+        /**
+         * Returns the number of videos published on every day of the week, in UTC.
+         *
+         * @return 7 counts, from Monday to Sunday
+         */
+        public int[] getPublishWeekdays() {
+            return publishWeekdays.clone();
+        }
+
+        /**
+         * Returns the hour of the day, in UTC, in which most videos were published.
+         *
+         * @return the hour, or -1 if no publish time is known
+         */
+        public int getPeakHour() {
+            int peak = -1;
+            for (int hour = 0; hour < publishHours.length; hour++) {
+                if (publishHours[hour] > 0 && (peak < 0 || publishHours[hour] > publishHours[peak])) {
+                    peak = hour;
+                }
+            }
+            return peak;
+        }
+
+        /**
+         * Returns the median time between two consecutive uploads.
+         *
+         * @return the median gap in hours, or -1 if fewer than two publish times are known
+         */
+        public double getMedianUploadGapHours() {
+            return medianGapSeconds < 0 ? -1 : medianGapSeconds / 3600.0;
+        }
+
+        /**
+         * Returns the median time between two consecutive uploads.
+         *
+         * @return the median gap in seconds, or -1 if fewer than two publish times are known
+         */
+        public long getMedianGapSeconds() {
+            return medianGapSeconds;
+        }
+
+        public double getUploadsPerWeek() {
+            return uploadsPerWeek;
+        }
+
+        public int getHappyCount() {
+            return sentiments[SENTIMENT_HAPPY + 1];
+        }
+
+        public int getNeutralCount() {
+            return sentiments[SENTIMENT_NEUTRAL + 1];
+        }
+
+        public int getSadCount() {
+            return sentiments[SENTIMENT_SAD + 1];
+        }
+
+        /**
+         * Returns the most frequent title terms.
+         *
+         * @return the terms and their estimated counts, ordered by descending count
+         */
+        public Map<String, Long> getTopTerms() {
+            return topTerms;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package utils;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded asynchronous cache whose entries expire a fixed time after they were loaded.
+ *
+ * <p>A lookup of a missing or expired key starts a load through the given loader. Concurrent lookups of a
+ * key that is being loaded join the running load instead of starting their own (single-flight), so a burst
+ * of requests for one key costs a single load. Failed loads are not cached. When more than
+ * {@code maxSize} entries are cached, the least recently used one is dropped. The cache counts hits,
+ * misses and loads and measures load latency, see {@link #getStats()}. Instances are thread-safe.</p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public final class ExpiringCache<K, V> {
+
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<K, Entry<V>> entries;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder completedLoads = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+    private final AtomicLong maxLoadNanos = new AtomicLong();
+
+    /**
+     * Creates a cache measuring time with {@link System#nanoTime()}.
+     *
+     * @param ttlMillis the time in milliseconds during which a loaded value is served
+     * @param maxSize   the maximum number of cached entries
+     */
+    public ExpiringCache(long ttlMillis, int maxSize) {
+        this(ttlMillis, maxSize, System::nanoTime);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param ttlMillis the time in milliseconds during which a loaded value is served
+     * @param maxSize   the maximum number of cached entries
+     * @param nanoClock the source of the current time in nanoseconds
+     */
+    public ExpiringCache(long ttlMillis, int maxSize, LongSupplier nanoClock) {
+        if (ttlMillis <= 0 || maxSize <= 0) {
+            throw new IllegalArgumentException("ttlMillis and maxSize must be positive");
+        }
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value of a key, or loads it if it is missing or expired.
+     *
+     * @param key    the key
+     * @param loader the function loading the value of a key
+     * @return the value
+     */
+    public CompletionStage<V> get(K key, Function<K, CompletionStage<V>> loader) {
+        long now = nanoClock.getAsLong();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && now - entry.loadedAt < ttlNanos) {
+                hits.increment();
+                return CompletableFuture.completedFuture(entry.value);
+            }
+        }
+        misses.increment();
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            return running;
+        }
+        loads.increment();
+        CompletionStage<V> loading;
+        try {
+            loading = loader.apply(key);
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((value, ex) -> {
+            long loadNanos = nanoClock.getAsLong() - now;
+            totalLoadNanos.add(loadNanos);
+            maxLoadNanos.accumulateAndGet(loadNanos, Math::max);
+            completedLoads.increment();
+            if (ex == null) {
+                synchronized (entries) {
+                    entries.put(key, new Entry<>(value, nanoClock.getAsLong()));
+                }
+            } else {
+                loadFailures.increment();
+            }
+            inFlight.remove(key, created);
+            if (ex != null) {
+                created.completeExceptionally(ex);
+            } else {
+                created.complete(value);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Drops the cached value of a key, so that the next lookup loads it again.
+     *
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Returns the number of cached entries, including expired ones not yet replaced.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the cache counters.
+     *
+     * @return the statistics
+     */
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), loads.sum(), loadFailures.sum(), completedLoads.sum(),
+                totalLoadNanos.sum(), maxLoadNanos.get(), size());
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long loadedAt;
+
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * Snapshot of the counters of an {@link ExpiringCache}.
+     */
+    public static final class Stats implements Serializable {
+        private final long hits;
+        private final long misses;
+        private final long loads;
+        private final long loadFailures;
+        private final long completedLoads;
+        private final long totalLoadNanos;
+        private final long maxLoadNanos;
+        private final int size;
+
+        public Stats(long hits, long misses, long loads, long loadFailures, long completedLoads,
+                     long totalLoadNanos, long maxLoadNanos, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.loads = loads;
+            this.loadFailures = loadFailures;
+            this.completedLoads = completedLoads;
+            this.totalLoadNanos = totalLoadNanos;
+            this.maxLoadNanos = maxLoadNanos;
+            this.size = size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * Returns the number of lookups not served from the cache, including the ones that joined a running load.
+         *
+         * @return the number of misses
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * Returns the share of lookups served from the cache.
+         *
+         * @return the hit rate between 0 and 1, or 0 if nothing was looked up
+         */
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        /**
+         * Returns the number of loads started, at most one per key at a time.
+         *
+         * @return the number of loads
+         */
+        public long getLoads() {
+            return loads;
+        }
+
+        public long getLoadFailures() {
+            return loadFailures;
+        }
+
+        /**
+         * Returns the mean duration of the completed loads.
+         *
+         * @return the mean load latency in milliseconds, or 0 if no load completed
+         */
+        public double getAverageLoadMillis() {
+            return completedLoads == 0 ? 0 : totalLoadNanos / 1e6 / completedLoads;
+        }
+
+        public double getMaxLoadMillis() {
+            return maxLoadNanos / 1e6;
+        }
+
+        public long getCompletedLoads() {
+            return completedLoads;
+        }
+
+        public long getTotalLoadNanos() {
+            return totalLoadNanos;
+        }
+
+        public long getMaxLoadNanos() {
+            return maxLoadNanos;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+}
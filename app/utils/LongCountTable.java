@@ -0,0 +1,211 @@
+package utils;
+
+/**
+ * Open-addressing hash table from primitive {@code long} keys to positive {@code int} counts.
+ *
+ * <p>Used to count hashed n-grams without boxing or storing their text. A slot is empty when its count is
+ * zero, so no key value has to be reserved. Collisions are resolved by linear probing and the table doubles
+ * once it is half full. Instances are not thread-safe.</p>
+ */
+public final class LongCountTable {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] counts;
+    private int mask;
+    private int size;
+
+    /**
+     * Creates an empty table.
+     */
+    public LongCountTable() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty table sized for the expected number of distinct keys.
+     *
+     * @param expectedKeys the expected number of distinct keys
+     */
+    public LongCountTable(int expectedKeys) {
+        allocate(capacityFor(expectedKeys));
+    }
+
+    /**
+     * Adds a positive {@code delta} to the count of a key.
+     *
+     * @param key   the key
+     * @param delta the amount to add, must be positive
+     */
+    public void add(long key, int delta) {
+        int slot = slotOf(key);
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                counts[slot] += delta;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        counts[slot] = delta;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * Returns the count of a key.
+     *
+     * @param key the key
+     * @return the count, or {@code 0} if the key is not in the table
+     */
+    public int get(long key) {
+        int slot = slotOf(key);
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                return counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of distinct keys in the table.
+     *
+     * @return the number of distinct keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every key whose count is at most {@code maxCount}.
+     *
+     * @param maxCount the highest count that is removed
+     */
+    public void removeAtMost(int maxCount) {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        size = 0;
+        allocate(keys.length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] > maxCount) {
+                put(oldKeys[i], oldCounts[i]);
+            }
+        }
+    }
+
+    /**
+     * Selects the {@code k} keys with the highest counts that are at least {@code minCount}, using a bounded
+     * min-heap. Keys with equal counts are ordered by ascending key.
+     *
+     * @param k        the maximum number of keys to return
+     * @param minCount the minimum count of a returned key
+     * @return the selected keys, ordered by descending count
+     */
+    public long[] topK(int k, int minCount) {
+        int[] heap = new int[Math.max(0, Math.min(k, size))];
+        int heapSize = 0;
+        for (int slot = 0; slot < keys.length && heap.length > 0; slot++) {
+            if (counts[slot] == 0 || counts[slot] < minCount) {
+                continue;
+            }
+            if (heapSize < heap.length) {
+                heap[heapSize] = slot;
+                siftUp(heap, heapSize++);
+            } else if (ranksBefore(slot, heap[0])) {
+                heap[0] = slot;
+                siftDown(heap, 0, heapSize);
+            }
+        }
+        long[] ranked = new long[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ranked[i] = keys[heap[0]];
+            heap[0] = heap[i];
+            siftDown(heap, 0, i);
+        }
+        return ranked;
+    }
+
+    private void put(long key, int count) {
+        int slot = slotOf(key);
+        while (counts[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        counts[slot] = count;
+        size++;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                put(oldKeys[i], oldCounts[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slotOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private boolean ranksBefore(int a, int b) {
+        if (counts[a] != counts[b]) {
+            return counts[a] > counts[b];
+        }
+        return keys[a] < keys[b];
+    }
+
+    private void siftUp(int[] heap, int index) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBefore(heap[parent], slot)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+
+    private void siftDown(int[] heap, int index, int heapSize) {
+        int slot = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && ranksBefore(heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!ranksBefore(slot, heap[child])) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+
+    private static int capacityFor(int expectedKeys) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedKeys * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,247 @@
+package utils;
+
+import models.entities.Video;
+
+import java.util.*;
+
+/**
+ * Counts the phrases of {@code n} consecutive words (n-grams) in video titles.
+ *
+ * <p>Every word is hashed to 64 bits as it is tokenized, and the hashes of the last {@code n} words are
+ * combined into a single {@code long} key that is counted in a {@link LongCountTable}, so no phrase text is
+ * kept while counting. Phrases never span two titles. Whenever the table holds more than
+ * {@code maxEntries} keys, every key whose count is at most the current prune threshold is dropped and the
+ * threshold is raised, as in lossy counting: memory stays bounded and a reported count under-estimates the
+ * true count by at most {@link #getPruneThreshold()}. The text of a phrase is only rebuilt for the keys
+ * selected by {@link #topPhrases(Iterable, int, int)}, in a second pass over the titles.
+ * Instances are not thread-safe.</p>
+ */
+public final class NGramCounter {
+
+    /**
+     * The largest supported phrase length.
+     */
+    public static final int MAX_N = 3;
+
+    /**
+     * The default maximum number of distinct phrases kept before rare ones are pruned.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 50_000;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int n;
+    private final int maxEntries;
+    private final LongCountTable counts;
+    private final WordTokenizer tokenizer = new WordTokenizer();
+    private final long[] recentHashes;
+    private int wordsInTitle;
+    private int pruneThreshold = 0;
+
+    /**
+     * Creates a counter that keeps at most {@link #DEFAULT_MAX_ENTRIES} distinct phrases.
+     *
+     * @param n the number of words per phrase, between 1 and {@link #MAX_N}
+     */
+    public NGramCounter(int n) {
+        this(n, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a counter.
+     *
+     * @param n          the number of words per phrase, between 1 and {@link #MAX_N}
+     * @param maxEntries the number of distinct phrases above which rare phrases are pruned
+     */
+    public NGramCounter(int n, int maxEntries) {
+        if (n < 1 || n > MAX_N) {
+            throw new IllegalArgumentException("n must be between 1 and " + MAX_N);
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.n = n;
+        this.maxEntries = maxEntries;
+        this.counts = new LongCountTable();
+        this.recentHashes = new long[n];
+    }
+
+    /**
+     * Counts the phrases of the titles of the given videos and returns the {@link WordCounter#DEFAULT_TOP_K}
+     * most frequent ones that occur at least {@link WordCounter#MIN_COUNT} times.
+     *
+     * @param videos the videos whose titles are analyzed
+     * @param n      the number of words per phrase
+     * @return a map of phrase frequencies, sorted by descending frequency
+     */
+    public static Map<String, Long> createPhraseStats(Collection<Video> videos, int n) {
+        List<String> titles = new ArrayList<>(videos.size());
+        videos.forEach(video -> titles.add(video.getTitle()));
+        NGramCounter counter = new NGramCounter(n);
+        titles.forEach(counter::addTitle);
+        return counter.topPhrases(titles, WordCounter.DEFAULT_TOP_K, WordCounter.MIN_COUNT);
+    }
+
+    /**
+     * Counts every phrase of a title.
+     *
+     * @param title the title, ignored if {@code null}
+     */
+    public void addTitle(String title) {
+        wordsInTitle = 0;
+        tokenizer.tokenize(title, (buffer, length) -> {
+            if (pushWord(hash(buffer, length))) {
+                counts.add(phraseKey(), 1);
+            }
+        });
+        if (counts.size() > maxEntries) {
+            prune();
+        }
+    }
+
+    /**
+     * Returns the count of a phrase.
+     *
+     * @param phrase the phrase, with its words separated by single spaces
+     * @return the counted occurrences, or {@code 0} if the phrase is not (or no longer) counted
+     */
+    public int count(String phrase) {
+        long[] key = new long[1];
+        int[] words = new int[1];
+        wordsInTitle = 0;
+        tokenizer.tokenize(phrase, (buffer, length) -> {
+            words[0]++;
+            if (pushWord(hash(buffer, length))) {
+                key[0] = phraseKey();
+            }
+        });
+        return words[0] == n ? counts.get(key[0]) : 0;
+    }
+
+    /**
+     * Returns the number of distinct phrases currently counted.
+     *
+     * @return the number of distinct phrases
+     */
+    public int size() {
+        return counts.size();
+    }
+
+    /**
+     * Returns the highest count that has been pruned so far, which bounds the under-estimation of every
+     * reported count.
+     *
+     * @return the prune threshold, {@code 0} if nothing was pruned
+     */
+    public int getPruneThreshold() {
+        return pruneThreshold;
+    }
+
+    /**
+     * Selects the {@code k} most frequent phrases that occur at least {@code minCount} times and rebuilds
+     * their text from the given titles, which should be the titles that were counted.
+     *
+     * @param titles   the titles the phrases are read back from
+     * @param k        the maximum number of phrases
+     * @param minCount the minimum count of a phrase
+     * @return a map of phrase frequencies, sorted by descending frequency
+     */
+    public Map<String, Long> topPhrases(Iterable<String> titles, int k, int minCount) {
+        long[] ranked = counts.topK(k, minCount);
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (ranked.length == 0) {
+            return result;
+        }
+        Map<Long, String> phrases = new HashMap<>(ranked.length * 2);
+        for (long key : ranked) {
+            phrases.put(key, null);
+        }
+        StringBuilder[] recentWords = new StringBuilder[n];
+        for (int i = 0; i < n; i++) {
+            recentWords[i] = new StringBuilder();
+        }
+        int[] remaining = {ranked.length};
+        for (String title : titles) {
+            if (remaining[0] == 0) {
+                break;
+            }
+            wordsInTitle = 0;
+            tokenizer.tokenize(title, (buffer, length) -> {
+                StringBuilder word = recentWords[wordsInTitle % n];
+                word.setLength(0);
+                word.append(buffer, 0, length);
+                if (pushWord(hash(buffer, length))) {
+                    long key = phraseKey();
+                    if (phrases.containsKey(key) && phrases.get(key) == null) {
+                        phrases.put(key, joinRecentWords(recentWords));
+                        remaining[0]--;
+                    }
+                }
+            });
+        }
+        for (long key : ranked) {
+            String phrase = phrases.get(key);
+            if (phrase != null) {
+                result.put(phrase, (long) counts.get(key));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Records the hash of the next word of the current title.
+     *
+     * @return {@code true} if the title now has at least {@code n} words, so the last {@code n} form a phrase
+     */
+    private boolean pushWord(long wordHash) {
+        recentHashes[wordsInTitle % n] = wordHash;
+        wordsInTitle++;
+        return wordsInTitle >= n;
+    }
+
+    /**
+     * Combines the hashes of the last {@code n} words, oldest first, into the key of the phrase.
+     */
+    private long phraseKey() {
+        long key = n;
+        for (int i = wordsInTitle - n; i < wordsInTitle; i++) {
+            key = key * 0x9E3779B97F4A7C15L + recentHashes[i % n];
+        }
+        return mix(key);
+    }
+
+    private String joinRecentWords(StringBuilder[] recentWords) {
+        StringBuilder phrase = new StringBuilder();
+        for (int i = wordsInTitle - n; i < wordsInTitle; i++) {
+            if (phrase.length() > 0) {
+                phrase.append(' ');
+            }
+            phrase.append(recentWords[i % n]);
+        }
+        return phrase.toString();
+    }
+
+    private void prune() {
+        while (counts.size() > maxEntries * 3 / 4) {
+            counts.removeAtMost(++pruneThreshold);
+        }
+    }
+
+    private static long hash(char[] buffer, int length) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ buffer[i]) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,132 @@
+package utils;
+
+import models.entities.Video;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the words of the titles, and optionally the descriptions, of a large corpus of videos.
+ *
+ * <p>Below the parallel threshold the corpus is counted on the calling thread. Above it, the corpus is split
+ * into ranges on a {@link ForkJoinPool}: every leaf task counts its range into its own {@link WordCountTable}
+ * with its own {@link WordTokenizer}, so workers never share mutable state, and the tables are merged
+ * pairwise as the tasks join. The result is the same in both modes.</p>
+ */
+public final class ParallelWordCounter {
+
+    /**
+     * The default corpus size, in videos, from which counting runs in parallel.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 2_000;
+
+    private static final int MIN_LEAF_SIZE = 256;
+    private static final int LEAVES_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    /**
+     * Creates a counter running on the common fork-join pool.
+     *
+     * @param parallelThreshold the corpus size, in videos, from which counting runs in parallel
+     */
+    public ParallelWordCounter(int parallelThreshold) {
+        this(ForkJoinPool.commonPool(), parallelThreshold);
+    }
+
+    /**
+     * Creates a counter running on the given pool.
+     *
+     * @param pool              the pool the counting tasks run on
+     * @param parallelThreshold the corpus size, in videos, from which counting runs in parallel
+     */
+    public ParallelWordCounter(ForkJoinPool pool, int parallelThreshold) {
+        if (parallelThreshold <= 0) {
+            throw new IllegalArgumentException("parallelThreshold must be positive");
+        }
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Returns whether a corpus of the given size is counted in parallel.
+     *
+     * @param corpusSize the number of videos
+     * @return {@code true} if the corpus is split across the pool
+     */
+    public boolean isParallel(int corpusSize) {
+        return corpusSize >= parallelThreshold && pool.getParallelism() > 1;
+    }
+
+    /**
+     * Counts the words of the given videos.
+     *
+     * @param videos              the videos to count
+     * @param includeDescriptions whether the descriptions are counted along with the titles
+     * @return a table holding the count of every word
+     */
+    public WordCountTable count(List<Video> videos, boolean includeDescriptions) {
+        List<Video> corpus = videos instanceof RandomAccess ? videos : new ArrayList<>(videos);
+        if (!isParallel(corpus.size())) {
+            return countRange(corpus, 0, corpus.size(), includeDescriptions);
+        }
+        int leafSize = Math.max(MIN_LEAF_SIZE, corpus.size() / (pool.getParallelism() * LEAVES_PER_WORKER));
+        return pool.invoke(new CountTask(corpus, 0, corpus.size(), leafSize, includeDescriptions));
+    }
+
+    private static WordCountTable countRange(List<Video> videos, int from, int to, boolean includeDescriptions) {
+        WordCountTable table = new WordCountTable((to - from) * 4);
+        WordTokenizer tokenizer = new WordTokenizer();
+        WordTokenizer.TokenSink sink = (buffer, length) -> table.add(buffer, length, 1);
+        for (int i = from; i < to; i++) {
+            Video video = videos.get(i);
+            tokenizer.tokenize(video.getTitle(), sink);
+            if (includeDescriptions) {
+                tokenizer.tokenize(video.getDescription(), sink);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Counts a range of the corpus, splitting it in halves until it is no larger than the leaf size.
+     */
+    private static final class CountTask extends RecursiveTask<WordCountTable> {
+        private final List<Video> videos;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final boolean includeDescriptions;
+
+        CountTask(List<Video> videos, int from, int to, int leafSize, boolean includeDescriptions) {
+            this.videos = videos;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.includeDescriptions = includeDescriptions;
+        }
+
+        @Override
+        protected WordCountTable compute() {
+            if (to - from <= leafSize) {
+                return countRange(videos, from, to, includeDescriptions);
+            }
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(videos, from, middle, leafSize, includeDescriptions);
+            left.fork();
+            WordCountTable rightCounts = new CountTask(videos, middle, to, leafSize, includeDescriptions).compute();
+            WordCountTable leftCounts = left.join();
+            // Merge the smaller table into the larger one
+            if (leftCounts.size() >= rightCounts.size()) {
+                leftCounts.addAll(rightCounts);
+                return leftCounts;
+            }
+            rightCounts.addAll(leftCounts);
+            return rightCounts;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Compressed, sorted list of document numbers, as used by the postings of an inverted index.
+ *
+ * <p>Document numbers are stored in blocks of {@link #BLOCK_SIZE}. The first number of every block is kept
+ * uncompressed in a skip array, and the following numbers are stored as variable-length (7 bits per byte)
+ * gaps from their predecessor, so a posting usually takes one or two bytes. Appending a number larger than
+ * every stored one is O(1); inserting or removing in the middle re-encodes the list, which is only needed
+ * when an old document changes. Membership tests binary-search the skip array and decode a single block,
+ * and {@link #forEachDescending(IntPredicate)} walks the blocks backwards so the most recent postings can
+ * be read without decoding the whole list. Instances are not thread-safe.</p>
+ */
+public final class PostingList {
+
+    /**
+     * The number of document numbers per block.
+     */
+    public static final int BLOCK_SIZE = 128;
+
+    private byte[] data = new byte[8];
+    private int dataLength;
+    private int[] blockFirst = new int[1];
+    private int[] blockOffset = new int[1];
+    private int blocks;
+    private int size;
+    private int last = -1;
+
+    /**
+     * Adds a document number.
+     *
+     * @param doc the document number, must not be negative
+     * @return {@code true} if the number was added, {@code false} if it was already in the list
+     */
+    public boolean add(int doc) {
+        if (doc < 0) {
+            throw new IllegalArgumentException("doc must not be negative");
+        }
+        if (doc > last) {
+            append(doc);
+            return true;
+        }
+        int[] docs = toArray();
+        int index = Arrays.binarySearch(docs, doc);
+        if (index >= 0) {
+            return false;
+        }
+        int insertion = -index - 1;
+        int[] updated = new int[docs.length + 1];
+        System.arraycopy(docs, 0, updated, 0, insertion);
+        updated[insertion] = doc;
+        System.arraycopy(docs, insertion, updated, insertion + 1, docs.length - insertion);
+        rebuild(updated);
+        return true;
+    }
+
+    /**
+     * Removes a document number.
+     *
+     * @param doc the document number
+     * @return {@code true} if the number was in the list
+     */
+    public boolean remove(int doc) {
+        if (!contains(doc)) {
+            return false;
+        }
+        int[] docs = toArray();
+        int index = Arrays.binarySearch(docs, doc);
+        int[] updated = new int[docs.length - 1];
+        System.arraycopy(docs, 0, updated, 0, index);
+        System.arraycopy(docs, index + 1, updated, index, docs.length - index - 1);
+        rebuild(updated);
+        return true;
+    }
+
+    /**
+     * Returns whether the list holds a document number.
+     *
+     * @param doc the document number
+     * @return {@code true} if the number is in the list
+     */
+    public boolean contains(int doc) {
+        if (size == 0 || doc < blockFirst[0] || doc > last) {
+            return false;
+        }
+        int block = Arrays.binarySearch(blockFirst, 0, blocks, doc);
+        if (block >= 0) {
+            return true;
+        }
+        block = -block - 2;
+        int[] decoded = new int[BLOCK_SIZE];
+        int count = decodeBlock(block, decoded);
+        return Arrays.binarySearch(decoded, 0, count, doc) >= 0;
+    }
+
+    /**
+     * Returns the number of document numbers in the list.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the approximate number of bytes used by the list.
+     *
+     * @return the number of bytes of the encoded gaps and the skip array
+     */
+    public long memoryBytes() {
+        return data.length + (long) blockFirst.length * Integer.BYTES * 2;
+    }
+
+    /**
+     * Decodes every document number.
+     *
+     * @return the document numbers in ascending order
+     */
+    public int[] toArray() {
+        int[] docs = new int[size];
+        int[] decoded = new int[BLOCK_SIZE];
+        int position = 0;
+        for (int block = 0; block < blocks; block++) {
+            int count = decodeBlock(block, decoded);
+            System.arraycopy(decoded, 0, docs, position, count);
+            position += count;
+        }
+        return docs;
+    }
+
+    /**
+     * Passes the document numbers to a consumer from the largest to the smallest, until the consumer
+     * returns {@code false}.
+     *
+     * @param consumer the consumer, returning {@code false} to stop
+     */
+    public void forEachDescending(IntPredicate consumer) {
+        int[] decoded = new int[BLOCK_SIZE];
+        for (int block = blocks - 1; block >= 0; block--) {
+            int count = decodeBlock(block, decoded);
+            for (int i = count - 1; i >= 0; i--) {
+                if (!consumer.test(decoded[i])) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void append(int doc) {
+        if (size % BLOCK_SIZE == 0) {
+            if (blocks == blockFirst.length) {
+                blockFirst = Arrays.copyOf(blockFirst, blocks * 2);
+                blockOffset = Arrays.copyOf(blockOffset, blocks * 2);
+            }
+            blockFirst[blocks] = doc;
+            blockOffset[blocks] = dataLength;
+            blocks++;
+        } else {
+            writeVarint(doc - last);
+        }
+        last = doc;
+        size++;
+    }
+
+    private void rebuild(int[] docs) {
+        data = new byte[Math.max(8, docs.length * 2)];
+        dataLength = 0;
+        blockFirst = new int[Math.max(1, (docs.length + BLOCK_SIZE - 1) / BLOCK_SIZE)];
+        blockOffset = new int[blockFirst.length];
+        blocks = 0;
+        size = 0;
+        last = -1;
+        for (int doc : docs) {
+            append(doc);
+        }
+    }
+
+    /**
+     * Decodes a block into the given array.
+     *
+     * @return the number of decoded document numbers
+     */
+    private int decodeBlock(int block, int[] out) {
+        int count = block == blocks - 1 ? size - block * BLOCK_SIZE : BLOCK_SIZE;
+        int position = blockOffset[block];
+        int doc = blockFirst[block];
+        out[0] = doc;
+        for (int i = 1; i < count; i++) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += gap;
+            out[i] = doc;
+        }
+        return count;
+    }
+
+    private void writeVarint(int value) {
+        if (dataLength + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, dataLength + 5));
+        }
+        while ((value & ~0x7F) != 0) {
+            data[dataLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[dataLength++] = (byte) value;
+    }
+}
@@ -0,0 +1,84 @@
+package utils;
+
+/**
+ * Bounded set of recently seen IDs, remembered as 64-bit hashes.
+ *
+ * <p>IDs are kept in two generations of {@link LongCountTable}s. New IDs go to the current generation; once it
+ * holds half the capacity, it becomes the previous generation and the former previous generation is dropped.
+ * An ID seen again while it is only in the previous generation is moved to the current one. The set therefore
+ * holds at most {@code capacity} IDs and always remembers at least the {@code capacity / 2} most recently seen
+ * ones, without storing their text. Instances are not thread-safe.</p>
+ */
+public final class RecentIdSet {
+
+    private final int generationSize;
+    private LongCountTable current = new LongCountTable();
+    private LongCountTable previous = new LongCountTable();
+
+    /**
+     * Creates an empty set.
+     *
+     * @param capacity the maximum number of IDs remembered, at least 2
+     */
+    public RecentIdSet(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+        this.generationSize = capacity / 2;
+    }
+
+    /**
+     * Records an ID as seen.
+     *
+     * @param id the ID
+     * @return {@code true} if the ID was not remembered
+     */
+    public boolean add(String id) {
+        return add(hash(id));
+    }
+
+    /**
+     * Records the hash of an ID as seen.
+     *
+     * @param idHash the hash of the ID
+     * @return {@code true} if the hash was not remembered
+     */
+    public boolean add(long idHash) {
+        if (current.get(idHash) > 0) {
+            return false;
+        }
+        boolean remembered = previous.get(idHash) > 0;
+        current.add(idHash, 1);
+        if (current.size() >= generationSize) {
+            previous = current;
+            current = new LongCountTable();
+        }
+        return !remembered;
+    }
+
+    /**
+     * Returns whether an ID is remembered.
+     *
+     * @param id the ID
+     * @return {@code true} if the ID was seen recently enough to be remembered
+     */
+    public boolean contains(String id) {
+        long idHash = hash(id);
+        return current.get(idHash) > 0 || previous.get(idHash) > 0;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of an ID.
+     *
+     * @param id the ID
+     * @return the hash
+     */
+    public static long hash(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
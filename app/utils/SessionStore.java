@@ -0,0 +1,300 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded store of per-session values that expire after a period of inactivity.
+ *
+ * <p>Sessions are kept in the order of their last use, so the least recently used one is always the eldest;
+ * {@link #peek(String)}, {@link #forEach(BiConsumer)} and size updates do not count as a use. A session
+ * not accessed for {@code idleTtlMillis} expires; expired sessions are dropped as soon as they are looked
+ * up, and from the eldest end whenever a session is created or resized, so the cost of expiry is amortized
+ * O(1). Beyond {@code maxSessions} sessions, or when the estimated size of all values exceeds
+ * {@code maxBytes}, the least recently used sessions are dropped, except the one being written. The size of
+ * a value is reported by its owner through {@link #updateSize(String, long)}, as only the owner knows how to
+ * read the value safely. The optional removal listener is called for every session that expired or was
+ * dropped, after the lock of the store is released, so it may use the store. Instances are thread-safe.</p>
+ *
+ * @param <V> the value type
+ */
+public final class SessionStore<V> {
+
+    private final long idleTtlNanos;
+    private final int maxSessions;
+    private final long maxBytes;
+    private final LongSupplier nanoClock;
+    private final BiConsumer<String, V> removalListener;
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>();
+    private long totalBytes;
+    private long evictions;
+
+    /**
+     * Creates a store measuring time with {@link System#nanoTime()}.
+     *
+     * @param idleTtlMillis the time in milliseconds after which an unused session expires
+     * @param maxSessions   the maximum number of sessions
+     * @param maxBytes      the maximum estimated size in bytes of all values
+     */
+    public SessionStore(long idleTtlMillis, int maxSessions, long maxBytes) {
+        this(idleTtlMillis, maxSessions, maxBytes, System::nanoTime);
+    }
+
+    /**
+     * Creates a store without a removal listener.
+     *
+     * @param idleTtlMillis the time in milliseconds after which an unused session expires
+     * @param maxSessions   the maximum number of sessions
+     * @param maxBytes      the maximum estimated size in bytes of all values
+     * @param nanoClock     the source of the current time in nanoseconds
+     */
+    public SessionStore(long idleTtlMillis, int maxSessions, long maxBytes, LongSupplier nanoClock) {
+        this(idleTtlMillis, maxSessions, maxBytes, nanoClock, (sessionId, value) -> { });
+    }
+
+    /**
+     * Creates a store.
+     *
+     * @param idleTtlMillis   the time in milliseconds after which an unused session expires
+     * @param maxSessions     the maximum number of sessions
+     * @param maxBytes        the maximum estimated size in bytes of all values
+     * @param nanoClock       the source of the current time in nanoseconds
+     * @param removalListener the action called with the ID and value of every session that expired or was dropped
+     */
+    public SessionStore(long idleTtlMillis, int maxSessions, long maxBytes, LongSupplier nanoClock,
+                        BiConsumer<String, V> removalListener) {
+        if (idleTtlMillis <= 0 || maxSessions <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("idleTtlMillis, maxSessions and maxBytes must be positive");
+        }
+        this.idleTtlNanos = idleTtlMillis * 1_000_000L;
+        this.maxSessions = maxSessions;
+        this.maxBytes = maxBytes;
+        this.nanoClock = nanoClock;
+        this.removalListener = removalListener;
+    }
+
+    /**
+     * Returns the value of a session and marks the session as used.
+     *
+     * @param sessionId the session ID
+     * @return the value, or {@code null} if the session is unknown or expired
+     */
+    public V get(String sessionId) {
+        long now = nanoClock.getAsLong();
+        Entry<V> expired;
+        synchronized (entries) {
+            Entry<V> entry = entries.get(sessionId);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.lastAccess < idleTtlNanos) {
+                // Move the session to the youngest end
+                entries.remove(sessionId);
+                entries.put(sessionId, entry);
+                entry.lastAccess = now;
+                return entry.value;
+            }
+            removeEntry(sessionId, entry);
+            evictions++;
+            expired = entry;
+        }
+        removalListener.accept(sessionId, expired.value);
+        return null;
+    }
+
+    /**
+     * Returns the value of a session without marking the session as used.
+     *
+     * @param sessionId the session ID
+     * @return the value, or {@code null} if the session is unknown or expired
+     */
+    public V peek(String sessionId) {
+        long now = nanoClock.getAsLong();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(sessionId);
+            return entry == null || now - entry.lastAccess >= idleTtlNanos ? null : entry.value;
+        }
+    }
+
+    /**
+     * Returns the value of a session, creating the session if it is unknown or expired, and marks the
+     * session as used.
+     *
+     * @param sessionId the session ID
+     * @param factory   the supplier of the value of a new session
+     * @return the value
+     */
+    public V getOrCreate(String sessionId, Supplier<V> factory) {
+        V value = get(sessionId);
+        if (value != null) {
+            return value;
+        }
+        long now = nanoClock.getAsLong();
+        List<Map.Entry<String, V>> evicted;
+        synchronized (entries) {
+            Entry<V> entry = entries.get(sessionId);
+            if (entry != null) {
+                return entry.value;
+            }
+            value = factory.get();
+            entries.put(sessionId, new Entry<>(value, now));
+            evicted = evict(sessionId, now);
+        }
+        notifyRemoved(evicted);
+        return value;
+    }
+
+    /**
+     * Records the estimated size of the value of a session after it changed, dropping the least recently
+     * used sessions if the store is now too large.
+     *
+     * @param sessionId the session ID
+     * @param bytes     the estimated size in bytes of the value
+     */
+    public void updateSize(String sessionId, long bytes) {
+        long now = nanoClock.getAsLong();
+        List<Map.Entry<String, V>> evicted;
+        synchronized (entries) {
+            Entry<V> entry = entries.get(sessionId);
+            if (entry == null) {
+                return;
+            }
+            totalBytes += bytes - entry.bytes;
+            entry.bytes = bytes;
+            evicted = evict(sessionId, now);
+        }
+        notifyRemoved(evicted);
+    }
+
+    /**
+     * Removes a session. The removal listener is not called.
+     *
+     * @param sessionId the session ID
+     * @return the value of the session, or {@code null} if it was unknown
+     */
+    public V remove(String sessionId) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(sessionId);
+            if (entry == null) {
+                return null;
+            }
+            removeEntry(sessionId, entry);
+            return entry.value;
+        }
+    }
+
+    /**
+     * Calls an action for every live session, without marking them as used. The action runs on a snapshot,
+     * outside the lock of the store, so it may update the store.
+     *
+     * @param action the action called with the session ID and value
+     */
+    public void forEach(BiConsumer<String, V> action) {
+        long now = nanoClock.getAsLong();
+        List<Map.Entry<String, V>> snapshot = new ArrayList<>();
+        synchronized (entries) {
+            entries.forEach((sessionId, entry) -> {
+                if (now - entry.lastAccess < idleTtlNanos) {
+                    snapshot.add(Map.entry(sessionId, entry.value));
+                }
+            });
+        }
+        snapshot.forEach(entry -> action.accept(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Returns a snapshot of the values of the live sessions, without marking them as used.
+     *
+     * @return the values
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>();
+        forEach((sessionId, value) -> values.add(value));
+        return values;
+    }
+
+    /**
+     * Returns the number of sessions, including expired ones not yet dropped.
+     *
+     * @return the number of sessions
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns the estimated size of all values.
+     *
+     * @return the size in bytes
+     */
+    public long totalBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    /**
+     * Returns the number of sessions dropped because they expired or the store was full.
+     *
+     * @return the number of evictions
+     */
+    public long evictions() {
+        synchronized (entries) {
+            return evictions;
+        }
+    }
+
+    /**
+     * Drops the expired sessions, then the least recently used ones while the store is too large, never
+     * dropping the session being written. Must hold the lock.
+     *
+     * @return the dropped sessions, to be passed to {@link #notifyRemoved(List)} once the lock is released
+     */
+    private List<Map.Entry<String, V>> evict(String keptSessionId, long now) {
+        List<Map.Entry<String, V>> evicted = new ArrayList<>(0);
+        Iterator<Map.Entry<String, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (eldest.hasNext()) {
+            Map.Entry<String, Entry<V>> entry = eldest.next();
+            boolean expired = now - entry.getValue().lastAccess >= idleTtlNanos;
+            boolean full = entries.size() > maxSessions || totalBytes > maxBytes;
+            if (!expired && !full) {
+                break;
+            }
+            if (!entry.getKey().equals(keptSessionId)) {
+                totalBytes -= entry.getValue().bytes;
+                eldest.remove();
+                evictions++;
+                evicted.add(Map.entry(entry.getKey(), entry.getValue().value));
+            }
+        }
+        return evicted;
+    }
+
+    private void notifyRemoved(List<Map.Entry<String, V>> evicted) {
+        evicted.forEach(entry -> removalListener.accept(entry.getKey(), entry.getValue()));
+    }
+
+    private void removeEntry(String sessionId, Entry<V> entry) {
+        entries.remove(sessionId);
+        totalBytes -= entry.bytes;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private long lastAccess;
+        private long bytes;
+
+        Entry(V value, long lastAccess) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter sketch over a stream of terms.
+ *
+ * <p>At most {@code capacity} terms are monitored. When an unmonitored term arrives and the sketch is full,
+ * it takes over the counter of the term with the smallest count and inherits that count as its error.
+ * Every term whose true frequency exceeds {@code total / capacity} is guaranteed to be monitored, and each
+ * reported count over-estimates the true count by at most its error. Memory is fixed by the capacity,
+ * no matter how many distinct terms are offered. Instances are not thread-safe.</p>
+ */
+public final class SpaceSaving {
+
+    /**
+     * Receives the monitored terms of a {@link SpaceSaving} sketch.
+     */
+    public interface TermConsumer {
+        /**
+         * Called once per monitored term.
+         *
+         * @param term  the term
+         * @param count the estimated count, an upper bound of the true count
+         * @param error the maximum over-estimation of the count
+         */
+        void accept(String term, long count, long error);
+    }
+
+    private final String[] terms;
+    private final long[] counts;
+    private final long[] errors;
+    private final int[] heap;      // min-heap of counter indexes ordered by count
+    private final int[] heapIndex; // position of each counter in the heap
+    private final Map<String, Integer> counterByTerm;
+    private int size;
+
+    /**
+     * Creates a sketch that monitors at most {@code capacity} terms.
+     *
+     * @param capacity the number of counters
+     */
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.terms = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heap = new int[capacity];
+        this.heapIndex = new int[capacity];
+        this.counterByTerm = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Counts {@code increment} occurrences of a term.
+     *
+     * @param term      the term
+     * @param increment the number of occurrences, must be positive
+     */
+    public void offer(String term, long increment) {
+        Integer counter = counterByTerm.get(term);
+        if (counter != null) {
+            counts[counter] += increment;
+            siftDown(heapIndex[counter]);
+            return;
+        }
+        if (size < terms.length) {
+            int free = size++;
+            terms[free] = term;
+            counts[free] = increment;
+            errors[free] = 0;
+            heap[free] = free;
+            heapIndex[free] = free;
+            counterByTerm.put(term, free);
+            siftUp(free);
+            return;
+        }
+        int smallest = heap[0];
+        counterByTerm.remove(terms[smallest]);
+        terms[smallest] = term;
+        errors[smallest] = counts[smallest];
+        counts[smallest] += increment;
+        counterByTerm.put(term, smallest);
+        siftDown(0);
+    }
+
+    /**
+     * Returns the estimated count of a term.
+     *
+     * @param term the term
+     * @return the estimated count, or {@code 0} if the term is not monitored
+     */
+    public long estimate(String term) {
+        Integer counter = counterByTerm.get(term);
+        return counter == null ? 0 : counts[counter];
+    }
+
+    /**
+     * Returns the number of monitored terms.
+     *
+     * @return the number of monitored terms
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of monitored terms.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return terms.length;
+    }
+
+    /**
+     * Passes every monitored term to the given consumer, in no particular order.
+     *
+     * @param consumer the consumer of the terms
+     */
+    public void forEach(TermConsumer consumer) {
+        for (int counter = 0; counter < size; counter++) {
+            consumer.accept(terms[counter], counts[counter], errors[counter]);
+        }
+    }
+
+    /**
+     * Returns the {@code n} terms with the highest estimated counts, ordered by descending count.
+     *
+     * @param n the maximum number of terms
+     * @return the top terms and their estimated counts
+     */
+    public Map<String, Long> top(int n) {
+        WordCountTable table = new WordCountTable(size);
+        forEach((term, count, error) -> table.add(term, (int) Math.min(count, Integer.MAX_VALUE)));
+        return table.topK(n, 1);
+    }
+
+    /**
+     * Forgets every monitored term.
+     */
+    public void clear() {
+        for (int counter = 0; counter < size; counter++) {
+            terms[counter] = null;
+        }
+        counterByTerm.clear();
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        int counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[counter]) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        int counter = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[counter] <= counts[heap[child]]) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(int counter, int index) {
+        heap[index] = counter;
+        heapIndex[counter] = index;
+    }
+}
@@ -0,0 +1,232 @@
+package utils;
+
+import java.util.*;
+
+/**
+ * Incremental co-occurrence graph of video tags.
+ *
+ * <p>Every tag is mapped to a dense {@code int} node, and every node keeps a sparse adjacency table from
+ * neighbour node to weight, the number of videos on which both tags appear, in a {@link LongCountTable}.
+ * Each video adds 1 to the weight of every pair of its tags, and is counted only once even if its tags are
+ * fetched again while it is among the {@code maxCountedVideos} most recently counted videos, whose IDs are
+ * remembered in a {@link RecentIdSet}. To keep memory and query time bounded, at most {@link #MAX_TAGS_PER_VIDEO}
+ * tags of a video are counted, and a node holding more than {@code maxNeighbours} neighbours drops its lightest
+ * edges.
+ * Tags are compared case-insensitively. Instances are not thread-safe.</p>
+ */
+public final class TagGraph {
+
+    /**
+     * The maximum number of tags of a single video that are linked to each other.
+     */
+    public static final int MAX_TAGS_PER_VIDEO = 30;
+    public static final int DEFAULT_MAX_NEIGHBOURS = 1_000;
+    public static final int DEFAULT_MAX_COUNTED_VIDEOS = 1 << 16;
+
+    /**
+     * The maximum number of co-occurring tags considered when building clusters.
+     */
+    private static final int CLUSTER_CANDIDATES = 30;
+    /**
+     * The maximum number of tags whose names contain a keyword that are used as cluster seeds.
+     */
+    private static final int MAX_SEEDS = 10;
+
+    private final int maxNeighbours;
+    private final Map<String, Integer> nodeByTag = new HashMap<>();
+    private final List<String> tagByNode = new ArrayList<>();
+    private final List<LongCountTable> adjacency = new ArrayList<>();
+    private final List<int[]> pruneThresholds = new ArrayList<>();
+    private final Map<String, List<Integer>> nodesByWord = new HashMap<>();
+    private final RecentIdSet countedVideos;
+    private int videoCount;
+
+    /**
+     * Creates a graph keeping at most {@link #DEFAULT_MAX_NEIGHBOURS} neighbours per tag.
+     */
+    public TagGraph() {
+        this(DEFAULT_MAX_NEIGHBOURS);
+    }
+
+    /**
+     * Creates a graph remembering the IDs of the {@link #DEFAULT_MAX_COUNTED_VIDEOS} most recently counted videos.
+     *
+     * @param maxNeighbours the number of neighbours of a tag above which its lightest edges are dropped
+     */
+    public TagGraph(int maxNeighbours) {
+        this(maxNeighbours, DEFAULT_MAX_COUNTED_VIDEOS);
+    }
+
+    /**
+     * Creates a graph.
+     *
+     * @param maxNeighbours    the number of neighbours of a tag above which its lightest edges are dropped
+     * @param maxCountedVideos the maximum number of counted video IDs remembered to ignore videos counted again
+     */
+    public TagGraph(int maxNeighbours, int maxCountedVideos) {
+        if (maxNeighbours <= 0) {
+            throw new IllegalArgumentException("maxNeighbours must be positive");
+        }
+        this.maxNeighbours = maxNeighbours;
+        this.countedVideos = new RecentIdSet(maxCountedVideos);
+    }
+
+    /**
+     * Links every pair of tags of a video. A video that was counted recently is ignored.
+     *
+     * @param videoId the video ID
+     * @param tags    the tags of the video
+     * @return {@code true} if the video was counted
+     */
+    public boolean addVideo(String videoId, List<String> tags) {
+        if (tags.isEmpty() || !countedVideos.add(videoId)) {
+            return false;
+        }
+        videoCount++;
+        int[] nodes = tags.stream()
+                .map(TagGraph::normalize)
+                .filter(tag -> !tag.isEmpty())
+                .distinct()
+                .limit(MAX_TAGS_PER_VIDEO)
+                .mapToInt(this::node)
+                .toArray();
+        for (int i = 0; i < nodes.length; i++) {
+            for (int j = 0; j < nodes.length; j++) {
+                if (i != j) {
+                    link(nodes[i], nodes[j]);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the tags that appear most often together with a tag.
+     *
+     * @param tag   the tag
+     * @param limit the maximum number of tags
+     * @return the co-occurring tags and the number of videos they share with the tag, ordered by descending count,
+     *         then by the order in which the tags were first seen
+     */
+    public Map<String, Integer> topCooccurring(String tag, int limit) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        Integer node = nodeByTag.get(normalize(tag));
+        if (node == null || limit <= 0) {
+            return result;
+        }
+        LongCountTable neighbours = adjacency.get(node);
+        for (long neighbour : neighbours.topK(limit, 1)) {
+            result.put(tagByNode.get((int) neighbour), neighbours.get(neighbour));
+        }
+        return result;
+    }
+
+    /**
+     * Groups the tags related to a keyword into clusters.
+     *
+     * <p>The seeds are the tag equal to the keyword and the tags containing it as a word. Their strongest
+     * neighbours are visited by descending weight; a tag joins the first cluster whose anchor it co-occurs with
+     * at least {@code minWeight} times, and otherwise starts a new cluster if fewer than {@code maxClusters}
+     * exist. The work is bounded by the number of seeds and candidates, not by the size of the graph.</p>
+     *
+     * @param keyword     the keyword
+     * @param maxClusters the maximum number of clusters
+     * @param minWeight   the minimum co-occurrence count linking a tag to a cluster anchor
+     * @return the clusters, each starting with its anchor tag
+     */
+    public List<List<String>> clusters(String keyword, int maxClusters, int minWeight) {
+        String normalized = normalize(keyword);
+        Set<Integer> seeds = new LinkedHashSet<>();
+        Integer exact = nodeByTag.get(normalized);
+        if (exact != null) {
+            seeds.add(exact);
+        }
+        for (int node : nodesByWord.getOrDefault(normalized, List.of())) {
+            if (seeds.size() >= MAX_SEEDS) {
+                break;
+            }
+            seeds.add(node);
+        }
+
+        LongCountTable candidates = new LongCountTable();
+        for (int seed : seeds) {
+            LongCountTable neighbours = adjacency.get(seed);
+            for (long neighbour : neighbours.topK(CLUSTER_CANDIDATES, minWeight)) {
+                if (!seeds.contains((int) neighbour)) {
+                    candidates.add(neighbour, neighbours.get(neighbour));
+                }
+            }
+        }
+
+        List<Integer> anchors = new ArrayList<>();
+        List<List<String>> clusters = new ArrayList<>();
+        for (long candidate : candidates.topK(CLUSTER_CANDIDATES, 1)) {
+            int node = (int) candidate;
+            int cluster = -1;
+            for (int i = 0; i < anchors.size() && cluster < 0; i++) {
+                if (adjacency.get(anchors.get(i)).get(node) >= minWeight) {
+                    cluster = i;
+                }
+            }
+            if (cluster >= 0) {
+                clusters.get(cluster).add(tagByNode.get(node));
+            } else if (anchors.size() < maxClusters) {
+                anchors.add(node);
+                clusters.add(new ArrayList<>(List.of(tagByNode.get(node))));
+            }
+        }
+        return clusters;
+    }
+
+    /**
+     * Returns the number of distinct tags in the graph.
+     *
+     * @return the number of tags
+     */
+    public int tagCount() {
+        return tagByNode.size();
+    }
+
+    /**
+     * Returns the number of videos counted.
+     *
+     * @return the number of videos
+     */
+    public int videoCount() {
+        return videoCount;
+    }
+
+    private void link(int from, int to) {
+        LongCountTable neighbours = adjacency.get(from);
+        neighbours.add(to, 1);
+        if (neighbours.size() > maxNeighbours) {
+            // Drop the edges at the current threshold first, and raise it only if that is not enough
+            int[] threshold = pruneThresholds.get(from);
+            neighbours.removeAtMost(threshold[0]);
+            while (neighbours.size() > maxNeighbours * 3 / 4) {
+                neighbours.removeAtMost(++threshold[0]);
+            }
+        }
+    }
+
+    private int node(String tag) {
+        Integer node = nodeByTag.get(tag);
+        if (node == null) {
+            node = tagByNode.size();
+            nodeByTag.put(tag, node);
+            tagByNode.add(tag);
+            adjacency.add(new LongCountTable());
+            pruneThresholds.add(new int[]{1});
+            for (String word : tag.split(" ")) {
+                if (!word.isEmpty() && !word.equals(tag)) {
+                    nodesByWord.computeIfAbsent(word, key -> new ArrayList<>()).add(node);
+                }
+            }
+        }
+        return node;
+    }
+
+    private static String normalize(String tag) {
+        return tag == null ? "" : tag.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,182 @@
+package utils;
+
+import java.util.*;
+
+/**
+ * In-memory inverted index from video tags to the videos carrying them.
+ *
+ * <p>Every video ID is assigned a dense document number the first time it is indexed, and every tag owns a
+ * {@link PostingList} of those numbers. Because numbers are assigned in increasing order, indexing a new
+ * video only appends to the postings of its tags. Tags are compared case-insensitively. Lookups never call
+ * the YouTube API: they only read the postings, and related-video lookups read at most
+ * {@link #MAX_SCANNED_POSTINGS} of the most recent postings per tag, so their cost is bounded no matter how
+ * popular a tag is. Instances are not thread-safe.</p>
+ */
+public final class TagIndex {
+
+    /**
+     * The maximum number of postings read per tag when looking up related videos.
+     */
+    public static final int MAX_SCANNED_POSTINGS = 5_000;
+
+    private final Map<String, Integer> docByVideoId = new HashMap<>();
+    private final List<String> videoIdByDoc = new ArrayList<>();
+    private final List<int[]> tagsByDoc = new ArrayList<>();
+    private final Map<String, Integer> tagIdByName = new HashMap<>();
+    private final List<String> tagNames = new ArrayList<>();
+    private final List<PostingList> postings = new ArrayList<>();
+    private long postingCount;
+
+    /**
+     * Indexes the tags of a video, replacing the tags indexed for it before.
+     *
+     * @param videoId the video ID
+     * @param tags    the tags of the video
+     * @return {@code true} if the indexed tags of the video changed
+     */
+    public boolean index(String videoId, List<String> tags) {
+        int[] tagIds = tags.stream()
+                .map(TagIndex::normalize)
+                .filter(tag -> !tag.isEmpty())
+                .distinct()
+                .mapToInt(this::tagId)
+                .sorted()
+                .toArray();
+        Integer existing = docByVideoId.get(videoId);
+        int doc;
+        if (existing == null) {
+            doc = videoIdByDoc.size();
+            docByVideoId.put(videoId, doc);
+            videoIdByDoc.add(videoId);
+            tagsByDoc.add(new int[0]);
+        } else {
+            doc = existing;
+        }
+        int[] previous = tagsByDoc.get(doc);
+        if (Arrays.equals(previous, tagIds)) {
+            return false;
+        }
+        for (int tagId : previous) {
+            if (Arrays.binarySearch(tagIds, tagId) < 0 && postings.get(tagId).remove(doc)) {
+                postingCount--;
+            }
+        }
+        for (int tagId : tagIds) {
+            if (postings.get(tagId).add(doc)) {
+                postingCount++;
+            }
+        }
+        tagsByDoc.set(doc, tagIds);
+        return true;
+    }
+
+    /**
+     * Returns the videos carrying a tag, most recently indexed first.
+     *
+     * @param tag   the tag
+     * @param limit the maximum number of videos
+     * @return the video IDs
+     */
+    public List<String> videosForTag(String tag, int limit) {
+        Integer tagId = tagIdByName.get(normalize(tag));
+        List<String> videoIds = new ArrayList<>();
+        if (tagId == null || limit <= 0) {
+            return videoIds;
+        }
+        postings.get(tagId).forEachDescending(doc -> {
+            videoIds.add(videoIdByDoc.get(doc));
+            return videoIds.size() < limit;
+        });
+        return videoIds;
+    }
+
+    /**
+     * Returns the videos sharing the most tags with a video. Videos sharing as many tags are ordered from the
+     * most recently indexed.
+     *
+     * @param videoId the video ID
+     * @param limit   the maximum number of videos
+     * @return the related video IDs and the number of tags they share with the video, ordered by descending count
+     */
+    public Map<String, Integer> relatedVideos(String videoId, int limit) {
+        Map<String, Integer> related = new LinkedHashMap<>();
+        Integer doc = docByVideoId.get(videoId);
+        if (doc == null || limit <= 0) {
+            return related;
+        }
+        // Keyed by the negated document number so that equal counts rank the most recent video first
+        LongCountTable sharedTags = new LongCountTable();
+        for (int tagId : tagsByDoc.get(doc)) {
+            int[] scanned = {0};
+            postings.get(tagId).forEachDescending(other -> {
+                if (other != doc) {
+                    sharedTags.add(-(long) other, 1);
+                }
+                return ++scanned[0] < MAX_SCANNED_POSTINGS;
+            });
+        }
+        for (long key : sharedTags.topK(limit, 1)) {
+            related.put(videoIdByDoc.get((int) -key), sharedTags.get(key));
+        }
+        return related;
+    }
+
+    /**
+     * Returns the indexed tags of a video.
+     *
+     * @param videoId the video ID
+     * @return the normalized tags, or an empty list if the video is not indexed
+     */
+    public List<String> tagsOf(String videoId) {
+        Integer doc = docByVideoId.get(videoId);
+        List<String> tags = new ArrayList<>();
+        if (doc != null) {
+            for (int tagId : tagsByDoc.get(doc)) {
+                tags.add(tagNames.get(tagId));
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Returns the number of indexed videos.
+     *
+     * @return the number of videos
+     */
+    public int videoCount() {
+        return videoIdByDoc.size();
+    }
+
+    /**
+     * Returns the number of distinct indexed tags.
+     *
+     * @return the number of tags
+     */
+    public int tagCount() {
+        return tagNames.size();
+    }
+
+    /**
+     * Returns the total number of (tag, video) postings.
+     *
+     * @return the number of postings
+     */
+    public long postingCount() {
+        return postingCount;
+    }
+
+    private int tagId(String tag) {
+        Integer tagId = tagIdByName.get(tag);
+        if (tagId == null) {
+            tagId = tagNames.size();
+            tagIdByName.put(tag, tagId);
+            tagNames.add(tag);
+            postings.add(new PostingList());
+        }
+        return tagId;
+    }
+
+    private static String normalize(String tag) {
+        return tag == null ? "" : tag.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,183 @@
+package utils;
+
+import models.entities.Video;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Cross-keyword trending-terms engine.
+ *
+ * <p>Every window is a ring of time buckets, and every bucket is a {@link SpaceSaving} sketch with a fixed
+ * number of counters. Expired buckets are recycled, and a query merges the live buckets of a window and
+ * selects the top terms. Video IDs are remembered in a bounded LRU set so a video that is fetched again
+ * (for example by another search) is only counted once. Memory is therefore fixed by the configuration,
+ * no matter how many distinct words or videos are seen. Instances are not thread-safe.</p>
+ */
+public final class TrendingTerms {
+
+    /**
+     * The sliding windows tracked by the engine.
+     */
+    public enum Window {
+        FIVE_MINUTES("5m", Duration.ofMinutes(1), 5),
+        ONE_HOUR("1h", Duration.ofMinutes(5), 12),
+        ONE_DAY("24h", Duration.ofHours(1), 24);
+
+        private final String label;
+        private final long bucketMillis;
+        private final int buckets;
+
+        Window(String label, Duration bucketLength, int buckets) {
+            this.label = label;
+            this.bucketMillis = bucketLength.toMillis();
+            this.buckets = buckets;
+        }
+
+        /**
+         * Returns the short label of the window, as used in URLs and JSON.
+         *
+         * @return the label
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Looks up a window by its label.
+         *
+         * @param label the label, e.g. {@code "5m"}
+         * @return the window, or empty if no window has that label
+         */
+        public static Optional<Window> fromLabel(String label) {
+            return Arrays.stream(values()).filter(window -> window.label.equals(label)).findFirst();
+        }
+    }
+
+    public static final int DEFAULT_COUNTERS_PER_BUCKET = 500;
+    public static final int DEFAULT_REMEMBERED_VIDEOS = 10_000;
+
+    static final int MIN_TERM_LENGTH = 3;
+    static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "with", "you", "your", "are", "was", "this", "that", "from", "not", "but",
+            "all", "can", "its", "our", "out", "how", "what", "who", "why", "when", "will", "new", "vs",
+            "has", "have", "his", "her", "they", "their", "them", "into", "just", "about", "more", "than"
+    );
+
+    private final EnumMap<Window, SlidingWindow> windows = new EnumMap<>(Window.class);
+    private final Set<String> rememberedVideos;
+    private final WordTokenizer tokenizer = new WordTokenizer();
+    private final List<String> titleTerms = new ArrayList<>();
+
+    /**
+     * Creates an engine with the default sizes.
+     */
+    public TrendingTerms() {
+        this(DEFAULT_COUNTERS_PER_BUCKET, DEFAULT_REMEMBERED_VIDEOS);
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param countersPerBucket the capacity of the sketch of every bucket
+     * @param rememberedVideos  the number of recent video IDs remembered to skip duplicates
+     */
+    public TrendingTerms(int countersPerBucket, int rememberedVideos) {
+        for (Window window : Window.values()) {
+            windows.put(window, new SlidingWindow(window, countersPerBucket));
+        }
+        this.rememberedVideos = Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > rememberedVideos;
+            }
+        });
+    }
+
+    /**
+     * Counts the title terms of the given videos in every window. Videos seen recently are skipped.
+     *
+     * @param videos    the ingested videos
+     * @param nowMillis the current time in epoch milliseconds
+     * @return the number of videos that were counted
+     */
+    public int addVideos(List<Video> videos, long nowMillis) {
+        int counted = 0;
+        for (Video video : videos) {
+            if (video == null || (video.getVideoId() != null && !rememberedVideos.add(video.getVideoId()))) {
+                continue;
+            }
+            titleTerms.clear();
+            tokenizer.tokenize(video.getTitle(), (buffer, length) -> {
+                if (length >= MIN_TERM_LENGTH) {
+                    String term = new String(buffer, 0, length);
+                    if (!STOP_WORDS.contains(term)) {
+                        titleTerms.add(term);
+                    }
+                }
+            });
+            for (SlidingWindow window : windows.values()) {
+                window.add(titleTerms, nowMillis);
+            }
+            counted++;
+        }
+        return counted;
+    }
+
+    /**
+     * Returns the top terms of a window.
+     *
+     * @param window    the window
+     * @param n         the maximum number of terms
+     * @param nowMillis the current time in epoch milliseconds
+     * @return the top terms and their estimated counts, ordered by descending count
+     */
+    public Map<String, Long> top(Window window, int n, long nowMillis) {
+        return windows.get(window).top(n, nowMillis);
+    }
+
+    /**
+     * A ring of time buckets covering one window.
+     */
+    private static final class SlidingWindow {
+        private final long bucketMillis;
+        private final SpaceSaving[] buckets;
+        private final long[] bucketEpochs;
+
+        SlidingWindow(Window window, int countersPerBucket) {
+            this.bucketMillis = window.bucketMillis;
+            this.buckets = new SpaceSaving[window.buckets];
+            this.bucketEpochs = new long[window.buckets];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new SpaceSaving(countersPerBucket);
+                bucketEpochs[i] = -1;
+            }
+        }
+
+        void add(List<String> terms, long nowMillis) {
+            if (terms.isEmpty()) {
+                return;
+            }
+            long epoch = nowMillis / bucketMillis;
+            int slot = (int) (epoch % buckets.length);
+            if (bucketEpochs[slot] != epoch) {
+                buckets[slot].clear();
+                bucketEpochs[slot] = epoch;
+            }
+            for (String term : terms) {
+                buckets[slot].offer(term, 1);
+            }
+        }
+
+        Map<String, Long> top(int n, long nowMillis) {
+            long oldestLiveEpoch = nowMillis / bucketMillis - buckets.length + 1;
+            WordCountTable merged = new WordCountTable();
+            for (int i = 0; i < buckets.length; i++) {
+                if (bucketEpochs[i] >= oldestLiveEpoch) {
+                    buckets[i].forEach((term, count, error) -> merged.add(term, (int) count));
+                }
+            }
+            return merged.topK(n, 1);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Packing of YouTube video IDs into longs.
+ *
+ * <p>A YouTube video ID is 11 characters of the base64url alphabet. The first ten characters carry 6 bits each and
+ * the last one only 4, so every such ID packs exactly into the 64 bits of a long and can be unpacked again.</p>
+ */
+public final class VideoIds {
+
+    private static final int LENGTH = 11;
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+    private static final int[] DIGITS = new int[128];
+
+    static {
+        Arrays.fill(DIGITS, -1);
+        for (int i = 0; i < ALPHABET.length(); i++) {
+            DIGITS[ALPHABET.charAt(i)] = i;
+        }
+    }
+
+    private VideoIds() {
+    }
+
+    /**
+     * Returns whether an ID has the shape of a YouTube video ID, and so packs exactly.
+     *
+     * @param videoId the ID, may be null
+     * @return {@code true} if {@link #pack(String)} accepts the ID
+     */
+    public static boolean isPackable(String videoId) {
+        if (videoId == null || videoId.length() != LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            if (digit(videoId.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        // The last character only carries 4 bits
+        return (digit(videoId.charAt(LENGTH - 1)) & 3) == 0;
+    }
+
+    /**
+     * Packs a YouTube video ID.
+     *
+     * @param videoId an ID accepted by {@link #isPackable(String)}
+     * @return the packed ID
+     * @throws IllegalArgumentException if the ID is not a YouTube video ID
+     */
+    public static long pack(String videoId) {
+        if (!isPackable(videoId)) {
+            throw new IllegalArgumentException("Not a YouTube video ID: " + videoId);
+        }
+        long packed = 0;
+        for (int i = 0; i < LENGTH - 1; i++) {
+            packed = packed << 6 | digit(videoId.charAt(i));
+        }
+        return packed << 4 | digit(videoId.charAt(LENGTH - 1)) >>> 2;
+    }
+
+    /**
+     * Unpacks an ID packed by {@link #pack(String)}.
+     *
+     * @param packed the packed ID
+     * @return the video ID
+     */
+    public static String unpack(long packed) {
+        char[] chars = new char[LENGTH];
+        chars[LENGTH - 1] = ALPHABET.charAt((int) (packed & 15) << 2);
+        packed >>>= 4;
+        for (int i = LENGTH - 2; i >= 0; i--) {
+            chars[i] = ALPHABET.charAt((int) (packed & 63));
+            packed >>>= 6;
+        }
+        return new String(chars);
+    }
+
+    private static int digit(char c) {
+        return c < 128 ? DIGITS[c] : -1;
+    }
+}
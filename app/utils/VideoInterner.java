@@ -0,0 +1,99 @@
+package utils;
+
+import models.entities.Video;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Weak-valued intern table of videos keyed by video ID (flyweight).
+ *
+ * <p>The same video is referenced from the search cache, from the history of every session that searched for it,
+ * from the word statistics and from channel responses. Interning every parsed or decoded video returns one
+ * canonical instance per video, so the heap holds each video once however many components reference it. An entry
+ * only holds its video weakly: once no component references a video any more, the garbage collector reclaims it
+ * and its entry is purged on a later call.</p>
+ *
+ * <p>A video whose fields differ from the canonical instance (for example a renamed video fetched again) replaces
+ * it as the canonical instance; components holding the previous instance keep it until they drop it. Videos are
+ * immutable, so sharing them is safe. Instances are thread-safe.</p>
+ */
+public final class VideoInterner {
+
+    private static final VideoInterner SHARED = new VideoInterner();
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Video> collected = new ReferenceQueue<>();
+
+    /**
+     * Returns the table shared by every component of the application.
+     *
+     * @return the shared table
+     */
+    public static VideoInterner shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the canonical instance of a video.
+     *
+     * @param video the video to intern, may be null
+     * @return the interned instance equal to the video in every field, or the video itself if it is null,
+     * has no ID or becomes the canonical instance
+     */
+    public Video intern(Video video) {
+        String videoId = video == null ? null : video.getVideoId();
+        if (videoId == null) {
+            return video;
+        }
+        purge();
+        while (true) {
+            Entry entry = entries.get(videoId);
+            Video canonical = entry == null ? null : entry.get();
+            if (canonical != null && canonical.hasSameFields(video)) {
+                return canonical;
+            }
+            Entry fresh = new Entry(videoId, video, collected);
+            boolean installed = entry == null
+                    ? entries.putIfAbsent(videoId, fresh) == null
+                    : entries.replace(videoId, entry, fresh);
+            if (installed) {
+                return video;
+            }
+            // Another thread interned the same ID first, compare against its instance
+        }
+    }
+
+    /**
+     * Returns the number of entries, including those whose video was collected but not purged yet.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        purge();
+        return entries.size();
+    }
+
+    /**
+     * Removes the entries whose video was collected. An entry replaced in the meantime is kept.
+     */
+    private void purge() {
+        Entry entry;
+        while ((entry = (Entry) collected.poll()) != null) {
+            entries.remove(entry.videoId, entry);
+        }
+    }
+
+    /**
+     * Weak reference to a canonical video that remembers its key, so that it can be removed once collected.
+     */
+    private static final class Entry extends WeakReference<Video> {
+        private final String videoId;
+
+        Entry(String videoId, Video video, ReferenceQueue<Video> queue) {
+            super(video, queue);
+            this.videoId = videoId;
+        }
+    }
+}
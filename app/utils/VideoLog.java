@@ -0,0 +1,642 @@
+package utils;
+
+import models.entities.Video;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of video records, split into memory-mapped segments of {@code segmentBytes}, with an off-heap
+ * index from video ID to the location of the latest record of the video.
+ *
+ * <p>A record is the length of its body, the body, then the CRC-32 of the body. The body holds the eight fields of
+ * the video, the ID first, each as a variable-length size followed by its UTF-8 bytes. Appending a video whose
+ * record is unchanged writes nothing, as the same videos come back from every search and poll. Once the active
+ * segment is full it is forced to disk and sealed, and a new one is mapped; sealed segments are never written
+ * again.</p>
+ *
+ * <p>The index is an open-addressing hash table in a direct buffer, so a million videos cost 32 MB outside the
+ * heap and no object at all inside it. Its keys are the video IDs packed into a {@code long}: a YouTube ID is 11
+ * characters of base64 encoding 64 bits, so it packs exactly; any other ID is hashed, and the ID of a record is
+ * always compared before it is returned. Reads decode the record straight from the mapped segment, or hand out a
+ * read-only view of it with {@link #getRecord(String)}, without any system call or copy.</p>
+ *
+ * <p>A sealed segment whose live records, the latest of their video, fall below {@link #COMPACTION_THRESHOLD} of
+ * its size is compacted by a background thread: its live records are appended again to the active segment, then its
+ * file is deleted. At startup the segments are replayed in order to rebuild the index; a record torn by a crash
+ * fails its checksum and ends the replay of its segment. Instances are thread-safe: appends are serialized, reads
+ * share a read lock.</p>
+ */
+public final class VideoLog implements Closeable {
+
+    /**
+     * The fraction of live bytes under which a sealed segment is compacted.
+     */
+    public static final double COMPACTION_THRESHOLD = 0.5;
+
+    private static final String SUFFIX = ".log";
+    private static final int OFFSET_BITS = 40;
+    private static final int RECORD_OVERHEAD = 8;
+    private static final int SLOT_BYTES = 16;
+    private static final int MIN_SLOTS = 1024;
+    private static final int FIELDS = 8;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Segment> segments = new HashMap<>();
+    private final ExecutorService compactor;
+    /**
+     * Slots of two longs: the packed ID, then the location of the record plus one, zero for an empty slot.
+     */
+    private ByteBuffer index;
+    private int mask;
+    private int size;
+    private Segment active;
+    private long compactions;
+
+    /**
+     * Opens the log in a directory, replaying its segments to rebuild the index.
+     *
+     * @param directory    the directory of the segment files
+     * @param segmentBytes the size of a segment, which bounds the size of a record
+     * @throws UncheckedIOException if the directory cannot be read or written
+     */
+    public VideoLog(Path directory, int segmentBytes) {
+        if (segmentBytes <= RECORD_OVERHEAD) {
+            throw new IllegalArgumentException("segmentBytes is too small");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "video-log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        allocateIndex(MIN_SLOTS);
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(directory);
+            List<Long> numbers = new ArrayList<>();
+            try (Stream<Path> paths = Files.list(directory)) {
+                paths.map(path -> path.getFileName().toString())
+                        .filter(name -> name.endsWith(SUFFIX))
+                        .forEach(name -> numbers.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length()))));
+            }
+            Collections.sort(numbers);
+            for (long number : numbers) {
+                Segment segment = map(number);
+                segments.put(number, segment);
+                replay(segment);
+                if (active != null) {
+                    active.sealed = true;
+                }
+                active = segment;
+            }
+            if (active == null) {
+                active = map(0);
+                segments.put(0L, active);
+            } else {
+                discardTornRecord(active);
+            }
+            segments.values().forEach(this::compactIfSparse);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the video log in " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Packs a video ID into a {@code long}: exactly for an 11-character YouTube ID, as a 64-bit FNV-1a hash otherwise.
+     *
+     * @param videoId the video ID
+     * @return the packed ID
+     */
+    public static long packVideoId(String videoId) {
+        if (VideoIds.isPackable(videoId)) {
+            return VideoIds.pack(videoId);
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < videoId.length(); i++) {
+            hash ^= videoId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Appends the record of a video, unless its latest record is identical.
+     *
+     * @param video the video, which must have an ID
+     * @return {@code true} if a record was written
+     * @throws IllegalArgumentException if the record is larger than a segment
+     */
+    public boolean append(Video video) {
+        byte[] body = encode(video);
+        byte[] id = video.getVideoId().getBytes(StandardCharsets.UTF_8);
+        long key = packVideoId(video.getVideoId());
+        lock.writeLock().lock();
+        try {
+            if (active == null) {
+                throw new IllegalStateException("The video log is closed");
+            }
+            long previous = find(key, id);
+            if (previous >= 0 && sameBody(previous, body)) {
+                return false;
+            }
+            long location = write(body);
+            put(key, id, location);
+            if (previous >= 0) {
+                release(previous);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the latest record of a video, decoded from the mapped segment and interned in the
+     * {@linkplain VideoInterner#shared() shared intern table}.
+     *
+     * @param videoId the video ID
+     * @return the video, or {@code null} if the log has no record of it
+     */
+    public Video get(String videoId) {
+        lock.readLock().lock();
+        try {
+            if (active == null) {
+                return null;
+            }
+            long location = find(packVideoId(videoId), videoId.getBytes(StandardCharsets.UTF_8));
+            return location < 0 ? null : VideoInterner.shared().intern(decode(body(location)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a read-only view of the body of the latest record of a video in the mapped segment. The view stays
+     * valid after the record is superseded or compacted.
+     *
+     * @param videoId the video ID
+     * @return the body, or {@code null} if the log has no record of the video
+     */
+    public ByteBuffer getRecord(String videoId) {
+        lock.readLock().lock();
+        try {
+            if (active == null) {
+                return null;
+            }
+            long location = find(packVideoId(videoId), videoId.getBytes(StandardCharsets.UTF_8));
+            return location < 0 ? null : body(location).asReadOnlyBuffer();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Decodes a record body returned by {@link #getRecord(String)}.
+     *
+     * @param body the body
+     * @return the video
+     */
+    public static Video decode(ByteBuffer body) {
+        ByteBuffer in = body.duplicate();
+        String[] fields = new String[FIELDS];
+        for (int i = 0; i < FIELDS; i++) {
+            fields[i] = readString(in);
+        }
+        // The ID is stored first, so that it can be compared without decoding the rest
+        return new Video(fields[1], fields[2], fields[3], fields[4], fields[0], fields[5], fields[6], fields[7]);
+    }
+
+    /**
+     * Returns the number of videos in the log.
+     *
+     * @return the number of videos
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of segments of the log, including the active one.
+     *
+     * @return the number of segments
+     */
+    public int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the size of the latest records of all videos.
+     *
+     * @return the size in bytes
+     */
+    public long liveBytes() {
+        lock.readLock().lock();
+        try {
+            return segments.values().stream().mapToLong(segment -> segment.liveBytes).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of segments compacted since the log was opened.
+     *
+     * @return the number of compactions
+     */
+    public long compactions() {
+        lock.readLock().lock();
+        try {
+            return compactions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forces the active segment to disk and stops the compaction. Appends after closing fail.
+     */
+    @Override
+    public void close() {
+        compactor.shutdown();
+        lock.writeLock().lock();
+        try {
+            if (active != null) {
+                active.buffer.force();
+                active = null;
+            }
+            segments.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Waits for the compactions scheduled so far. Used by tests.
+     */
+    void awaitCompaction() throws InterruptedException, ExecutionException {
+        compactor.submit(() -> { }).get();
+    }
+
+    /**
+     * Writes a record at the end of the active segment, sealing it first if the record does not fit. Must hold
+     * the write lock.
+     *
+     * @return the location of the record
+     */
+    private long write(byte[] body) {
+        int recordBytes = body.length + RECORD_OVERHEAD;
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("A record of " + recordBytes + " bytes does not fit in a segment");
+        }
+        if (active.end + recordBytes > active.buffer.capacity()) {
+            Segment sealed = active;
+            sealed.buffer.force();
+            sealed.sealed = true;
+            try {
+                active = map(sealed.number + 1);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create a video log segment", e);
+            }
+            segments.put(active.number, active);
+            compactIfSparse(sealed);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        ByteBuffer out = active.buffer.duplicate();
+        out.position(active.end + 4);
+        out.put(body);
+        out.putInt((int) crc.getValue());
+        // The length goes last, so a reader of the segment never sees a record before its body
+        out.putInt(active.end, body.length);
+        long location = location(active.number, active.end);
+        active.end += recordBytes;
+        active.liveBytes += recordBytes;
+        return location;
+    }
+
+    /**
+     * Rebuilds the index from the records of a segment, stopping at its end or at the first torn record.
+     */
+    private void replay(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset + RECORD_OVERHEAD <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + RECORD_OVERHEAD + length > buffer.capacity()) {
+                break;
+            }
+            ByteBuffer body = buffer.duplicate();
+            body.position(offset + 4).limit(offset + 4 + length);
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(offset + 4 + length)) {
+                break;
+            }
+            String videoId = readString(body);
+            byte[] id = videoId.getBytes(StandardCharsets.UTF_8);
+            long key = packVideoId(videoId);
+            long location = location(segment.number, offset);
+            long previous = find(key, id);
+            put(key, id, location);
+            segment.liveBytes += length + RECORD_OVERHEAD;
+            if (previous >= 0) {
+                release(previous);
+            }
+            offset += length + RECORD_OVERHEAD;
+        }
+        segment.end = offset;
+    }
+
+    /**
+     * Clears the length of a torn record at the end of the active segment, so that appending a shorter record
+     * over it cannot leave a readable remainder behind.
+     */
+    private static void discardTornRecord(Segment segment) {
+        if (segment.end + 4 <= segment.buffer.capacity()) {
+            segment.buffer.putInt(segment.end, 0);
+        }
+    }
+
+    /**
+     * Accounts for a record superseded by a newer record of its video. Must hold the write lock.
+     */
+    private void release(long location) {
+        Segment segment = segments.get(location >>> OFFSET_BITS);
+        if (segment != null) {
+            segment.liveBytes -= recordBytes(location);
+            compactIfSparse(segment);
+        }
+    }
+
+    /**
+     * Schedules the compaction of a sealed segment whose live records fall below the threshold.
+     */
+    private void compactIfSparse(Segment segment) {
+        if (segment.sealed && !segment.compacting && !compactor.isShutdown()
+                && segment.liveBytes < COMPACTION_THRESHOLD * segment.end) {
+            segment.compacting = true;
+            compactor.execute(() -> compact(segment));
+        }
+    }
+
+    /**
+     * Appends the live records of a sealed segment again, forces them to disk, then deletes the segment.
+     */
+    private void compact(Segment segment) {
+        int offset = 0;
+        while (offset < segment.end) {
+            int length = segment.buffer.getInt(offset);
+            lock.writeLock().lock();
+            try {
+                if (segments.get(segment.number) != segment) {
+                    return;
+                }
+                long location = location(segment.number, offset);
+                ByteBuffer body = body(location);
+                String videoId = readString(body.duplicate());
+                byte[] id = videoId.getBytes(StandardCharsets.UTF_8);
+                long key = packVideoId(videoId);
+                if (find(key, id) == location) {
+                    byte[] copy = new byte[length];
+                    body.get(copy);
+                    put(key, id, write(copy));
+                    segment.liveBytes -= length + RECORD_OVERHEAD;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            offset += length + RECORD_OVERHEAD;
+        }
+        lock.writeLock().lock();
+        try {
+            if (active == null || segments.get(segment.number) != segment) {
+                return;
+            }
+            // The copies must be on disk before the only other copy is deleted; sealed segments were forced already
+            active.buffer.force();
+            segments.remove(segment.number);
+            compactions++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            // The mapping stays valid for the views already handed out until they are collected
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            System.err.println("Error deleting the video log segment " + segment.path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the location of the latest record of a video. Must hold a lock.
+     *
+     * @return the location, or -1 if the index has no record of the video
+     */
+    private long find(long key, byte[] id) {
+        int slot = slotOf(key);
+        while (true) {
+            long stored = index.getLong(slot * SLOT_BYTES + 8);
+            if (stored == 0) {
+                return -1;
+            }
+            if (index.getLong(slot * SLOT_BYTES) == key && idMatches(stored - 1, id)) {
+                return stored - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Points the index entry of a video to a record, adding the entry if needed. Must hold the write lock.
+     */
+    private void put(long key, byte[] id, long location) {
+        int slot = slotOf(key);
+        while (true) {
+            long stored = index.getLong(slot * SLOT_BYTES + 8);
+            if (stored == 0) {
+                break;
+            }
+            if (index.getLong(slot * SLOT_BYTES) == key && idMatches(stored - 1, id)) {
+                index.putLong(slot * SLOT_BYTES + 8, location + 1);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        index.putLong(slot * SLOT_BYTES, key);
+        index.putLong(slot * SLOT_BYTES + 8, location + 1);
+        if (++size * 2 > index.capacity() / SLOT_BYTES) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        ByteBuffer old = index;
+        allocateIndex(old.capacity() / SLOT_BYTES * 2);
+        for (int position = 0; position < old.capacity(); position += SLOT_BYTES) {
+            long stored = old.getLong(position + 8);
+            if (stored != 0) {
+                int slot = slotOf(old.getLong(position));
+                while (index.getLong(slot * SLOT_BYTES + 8) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                index.putLong(slot * SLOT_BYTES, old.getLong(position));
+                index.putLong(slot * SLOT_BYTES + 8, stored);
+            }
+        }
+    }
+
+    private void allocateIndex(int slots) {
+        index = ByteBuffer.allocateDirect(slots * SLOT_BYTES);
+        mask = slots - 1;
+    }
+
+    private int slotOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Compares the ID stored at the start of a record with the UTF-8 bytes of an ID, without decoding it.
+     */
+    private boolean idMatches(long location, byte[] id) {
+        ByteBuffer body = body(location);
+        if (readSize(body) != id.length + 1) {
+            return false;
+        }
+        for (byte b : id) {
+            if (body.get() != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sameBody(long location, byte[] body) {
+        return body(location).equals(ByteBuffer.wrap(body));
+    }
+
+    /**
+     * Returns a view of the body of a record in its mapped segment.
+     */
+    private ByteBuffer body(long location) {
+        ByteBuffer buffer = segments.get(location >>> OFFSET_BITS).buffer.duplicate();
+        int offset = (int) (location & ((1L << OFFSET_BITS) - 1));
+        buffer.position(offset + 4).limit(offset + 4 + buffer.getInt(offset));
+        return buffer.slice();
+    }
+
+    private int recordBytes(long location) {
+        Segment segment = segments.get(location >>> OFFSET_BITS);
+        return segment.buffer.getInt((int) (location & ((1L << OFFSET_BITS) - 1))) + RECORD_OVERHEAD;
+    }
+
+    private Segment map(long number) throws IOException {
+        Path path = directory.resolve(String.format("%010d%s", number, SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(number, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentBytes, channel.size())));
+        }
+    }
+
+    private static long location(long segment, int offset) {
+        return segment << OFFSET_BITS | offset;
+    }
+
+    private static byte[] encode(Video video) {
+        String[] fields = {video.getVideoId(), video.getTitle(), video.getDescription(), video.getChannelTitle(),
+                video.getThumbnailUrl(), video.getChannelId(), video.getVideoURL(), video.getPublishedAt()};
+        byte[][] bytes = new byte[FIELDS][];
+        int length = 0;
+        for (int i = 0; i < FIELDS; i++) {
+            bytes[i] = fields[i] == null ? null : fields[i].getBytes(StandardCharsets.UTF_8);
+            length += 5 + (bytes[i] == null ? 0 : bytes[i].length);
+        }
+        ByteBuffer out = ByteBuffer.allocate(length);
+        for (byte[] field : bytes) {
+            writeSize(out, field == null ? 0 : field.length + 1);
+            if (field != null) {
+                out.put(field);
+            }
+        }
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    /**
+     * Writes a size as a variable-length integer of 7 bits per byte; a field stores its length plus one, zero
+     * standing for {@code null}.
+     */
+    private static void writeSize(ByteBuffer out, int size) {
+        while ((size & ~0x7F) != 0) {
+            out.put((byte) ((size & 0x7F) | 0x80));
+            size >>>= 7;
+        }
+        out.put((byte) size);
+    }
+
+    private static int readSize(ByteBuffer in) {
+        int size = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            size |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return size;
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        int size = readSize(in);
+        if (size == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[size - 1];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Segment {
+        private final long number;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int end;
+        private long liveBytes;
+        private boolean sealed;
+        private boolean compacting;
+
+        Segment(long number, Path path, MappedByteBuffer buffer) {
+            this.number = number;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -1,22 +1,65 @@
 package utils;
 import models.entities.Video;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 
+/**
+ * Orders videos by recency, using the publication times parsed when the videos were created.
+ */
 public class VideoSorter {
 
+    /**
+     * Orders videos newest first; videos with an unknown publication time come last.
+     */
+    public static final Comparator<Video> NEWEST_FIRST =
+            Comparator.comparingLong(Video::getPublishedAtMillis).reversed();
+
     public static void sortVideosByPublishedAt(List<Video> videos) {
-        Collections.sort(videos, new Comparator<Video>() {
-            @Override
-            public int compare(Video video1, Video video2) {
-                ZonedDateTime dateTime1 = ZonedDateTime.parse(video1.getPublishedAt(), DateTimeFormatter.ISO_ZONED_DATE_TIME);
-                ZonedDateTime dateTime2 = ZonedDateTime.parse(video2.getPublishedAt(), DateTimeFormatter.ISO_ZONED_DATE_TIME);
-                return dateTime2.compareTo(dateTime1); // Newer videos first
+        videos.sort(NEWEST_FIRST);
+    }
+
+    /**
+     * Merges new videos into existing ones, keeping the most recent in a single pass over both lists. Only the
+     * kept videos and their publication times are held, so merging costs O((n + m) * limit) comparisons of
+     * primitive times and no sort. Videos published at the same time keep their order, new videos first.
+     *
+     * @param newVideos      the new videos
+     * @param existingVideos the existing videos, may be null
+     * @param limit          the maximum number of videos kept
+     * @return the most recent videos, newest first
+     */
+    public static List<Video> mostRecent(List<Video> newVideos, List<Video> existingVideos, int limit) {
+        Video[] top = new Video[limit];
+        long[] times = new long[limit];
+        int size = offerAll(newVideos, top, times, 0);
+        if (existingVideos != null) {
+            size = offerAll(existingVideos, top, times, size);
+        }
+        List<Video> videos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            videos.add(top[i]);
+        }
+        return videos;
+    }
+
+    private static int offerAll(List<Video> videos, Video[] top, long[] times, int size) {
+        int limit = top.length;
+        for (Video video : videos) {
+            long time = video.getPublishedAtMillis();
+            if (size == limit && (limit == 0 || time <= times[limit - 1])) {
+                continue;
+            }
+            // Insert after the videos at least as recent, dropping the oldest kept video if full
+            int position = size < limit ? size++ : limit - 1;
+            while (position > 0 && times[position - 1] < time) {
+                top[position] = top[position - 1];
+                times[position] = times[position - 1];
+                position--;
             }
-        });
+            top[position] = video;
+            times[position] = time;
+        }
+        return size;
     }
 }
-
@@ -0,0 +1,319 @@
+package utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Open-addressing hash table from words to primitive {@code int} counts.
+ *
+ * <p>Words are looked up directly from a character buffer (see {@link WordTokenizer}), so a {@code String}
+ * is only allocated the first time a word is seen. Collisions are resolved by linear probing and the
+ * table doubles once it is half full. Counts may be decremented; a word whose count drops to zero or below
+ * is removed by shifting the following entries back, so no tombstones are left behind.
+ * Instances are not thread-safe.</p>
+ */
+public final class WordCountTable {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private String[] keys;
+    private int[] hashes;
+    private int[] counts;
+    private int mask;
+    private int size;
+
+    /**
+     * Creates an empty table.
+     */
+    public WordCountTable() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty table sized for the expected number of distinct words.
+     *
+     * @param expectedWords the expected number of distinct words
+     */
+    public WordCountTable(int expectedWords) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedWords * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Adds {@code delta} to the count of the word held in the first {@code length} characters of the buffer.
+     *
+     * @param buffer the buffer holding the word
+     * @param length the length of the word
+     * @param delta  the amount to add
+     */
+    public void add(char[] buffer, int length, int delta) {
+        int hash = hash(buffer, length);
+        int slot = hash & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && matches(keys[slot], buffer, length)) {
+                update(slot, delta);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (delta > 0) {
+            insert(slot, new String(buffer, 0, length), hash, delta);
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the count of a word.
+     *
+     * @param word  the word
+     * @param delta the amount to add
+     */
+    public void add(String word, int delta) {
+        int slot = find(word);
+        if (slot >= 0) {
+            update(slot, delta);
+        } else if (delta > 0) {
+            int hash = hash(word);
+            slot = hash & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            insert(slot, word, hash, delta);
+        }
+    }
+
+    /**
+     * Returns the count of a word.
+     *
+     * @param word the word
+     * @return the count, or {@code 0} if the word is not in the table
+     */
+    public int get(String word) {
+        int slot = find(word);
+        return slot >= 0 ? counts[slot] : 0;
+    }
+
+    /**
+     * Returns the number of distinct words in the table.
+     *
+     * @return the number of distinct words
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Passes every word and its count to the given consumer, in no particular order.
+     *
+     * @param consumer the consumer of the entries
+     */
+    public void forEach(ObjIntConsumer<String> consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null) {
+                consumer.accept(keys[slot], counts[slot]);
+            }
+        }
+    }
+
+    /**
+     * Adds every count of another table to this table.
+     *
+     * @param other the table to merge into this one
+     */
+    public void addAll(WordCountTable other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.keys[slot] != null) {
+                add(other.keys[slot], other.counts[slot]);
+            }
+        }
+    }
+
+    /**
+     * Selects the {@code k} most frequent words whose count is at least {@code minCount}.
+     *
+     * <p>A bounded min-heap of at most {@code k} slots is kept while scanning the table, so the cost is
+     * O(n log k) instead of sorting every word. Words with equal counts are ordered alphabetically.</p>
+     *
+     * @param k        the maximum number of words to return
+     * @param minCount the minimum count of a returned word
+     * @return the selected words and their counts, ordered by descending count
+     */
+    public Map<String, Long> topK(int k, int minCount) {
+        int[] heap = new int[Math.max(0, Math.min(k, size))];
+        int heapSize = 0;
+        for (int slot = 0; slot < keys.length && heap.length > 0; slot++) {
+            if (keys[slot] == null || counts[slot] < minCount) {
+                continue;
+            }
+            if (heapSize < heap.length) {
+                heap[heapSize] = slot;
+                siftUp(heap, heapSize++);
+            } else if (ranksBefore(slot, heap[0])) {
+                heap[0] = slot;
+                siftDown(heap, 0, heapSize);
+            }
+        }
+
+        // Drain the heap from the least to the most frequent word and fill the result back to front
+        int[] ranked = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ranked[i] = heap[0];
+            heap[0] = heap[i];
+            siftDown(heap, 0, i);
+        }
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int slot : ranked) {
+            result.put(keys[slot], (long) counts[slot]);
+        }
+        return result;
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private void update(int slot, int delta) {
+        counts[slot] += delta;
+        if (counts[slot] <= 0) {
+            delete(slot);
+        }
+    }
+
+    /**
+     * Removes the entry in the given slot and moves back later entries of the same probe run
+     * that would otherwise become unreachable.
+     */
+    private void delete(int slot) {
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != null) {
+            int home = hashes[next] & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                hashes[gap] = hashes[next];
+                counts[gap] = counts[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = null;
+        counts[gap] = 0;
+        size--;
+    }
+
+    private void insert(int slot, String word, int hash, int count) {
+        keys[slot] = word;
+        hashes[slot] = hash;
+        counts[slot] = count;
+        if (++size * 2 > keys.length) {
+            resize();
+        }
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldCounts = counts;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                hashes[slot] = oldHashes[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private int find(String word) {
+        int hash = hash(word);
+        int slot = hash & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && keys[slot].equals(word)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether the word in slot {@code a} ranks before the word in slot {@code b}.
+     */
+    private boolean ranksBefore(int a, int b) {
+        if (counts[a] != counts[b]) {
+            return counts[a] > counts[b];
+        }
+        return keys[a].compareTo(keys[b]) < 0;
+    }
+
+    private void siftUp(int[] heap, int index) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBefore(heap[parent], slot)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+
+    private void siftDown(int[] heap, int index, int heapSize) {
+        int slot = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && ranksBefore(heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!ranksBefore(slot, heap[child])) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+
+    private static boolean matches(String key, char[] buffer, int length) {
+        if (key.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != buffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(char[] buffer, int length) {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + buffer[i];
+        }
+        return spread(h);
+    }
+
+    private static int hash(String word) {
+        return spread(word.hashCode());
+    }
+
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,94 @@
+package utils;
+
+import models.entities.Video;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared word-count engine behind the word statistics of {@code WordStatService} and {@code WordStatActor}.
+ *
+ * <p>Titles are tokenized with a {@link WordTokenizer}, counted in a {@link WordCountTable} and the most
+ * frequent words are selected with a bounded heap.</p>
+ */
+public final class WordCounter {
+
+    /**
+     * The maximum number of words reported by {@link #createWordStats(List)}.
+     */
+    public static final int DEFAULT_TOP_K = 100;
+
+    /**
+     * Words that occur fewer times than this are left out of the statistics.
+     */
+    public static final int MIN_COUNT = 2;
+
+    private WordCounter() {
+    }
+
+    /**
+     * Counts the words of the titles of the given videos.
+     *
+     * @param videos the videos whose titles are counted
+     * @return a table holding the count of every word
+     */
+    public static WordCountTable countTitles(List<Video> videos) {
+        WordCountTable table = new WordCountTable(videos.size() * 4);
+        WordTokenizer tokenizer = new WordTokenizer();
+        WordTokenizer.TokenSink sink = (buffer, length) -> table.add(buffer, length, 1);
+        for (Video video : videos) {
+            tokenizer.tokenize(video.getTitle(), sink);
+        }
+        return table;
+    }
+
+    /**
+     * Adds {@code delta} to the count of every word of a single title. A negative delta removes a title
+     * that was added before.
+     *
+     * @param table     the table to update
+     * @param tokenizer the tokenizer to reuse
+     * @param title     the title to count
+     * @param delta     the amount to add per occurrence
+     */
+    public static void addTitle(WordCountTable table, WordTokenizer tokenizer, String title, int delta) {
+        tokenizer.tokenize(title, (buffer, length) -> table.add(buffer, length, delta));
+    }
+
+    /**
+     * Creates the word statistics of the titles of the given videos: the {@link #DEFAULT_TOP_K} most frequent
+     * words that occur at least {@link #MIN_COUNT} times, sorted by descending frequency.
+     *
+     * @param videos the videos whose titles are analyzed
+     * @return a sorted map of word frequencies
+     */
+    public static Map<String, Long> createWordStats(List<Video> videos) {
+        return countTitles(videos).topK(DEFAULT_TOP_K, MIN_COUNT);
+    }
+
+    /**
+     * Creates the word statistics of the titles and descriptions of a large corpus of videos: the
+     * {@link #DEFAULT_TOP_K} most frequent words that occur at least {@link #MIN_COUNT} times, sorted by
+     * descending frequency. Corpora of at least {@code parallelThreshold} videos are counted in parallel
+     * by a {@link ParallelWordCounter}.
+     *
+     * @param videos            the videos whose titles and descriptions are analyzed
+     * @param parallelThreshold the corpus size, in videos, from which counting runs in parallel
+     * @return a sorted map of word frequencies
+     */
+    public static Map<String, Long> createCorpusStats(List<Video> videos, int parallelThreshold) {
+        return createCorpusStats(videos, new ParallelWordCounter(parallelThreshold));
+    }
+
+    /**
+     * Creates the word statistics of the titles and descriptions of a large corpus of videos with a given counter,
+     * as {@link #createCorpusStats(List, int)} does.
+     *
+     * @param videos  the videos whose titles and descriptions are analyzed
+     * @param counter the counter, which decides whether the corpus is counted in parallel and on which pool
+     * @return a sorted map of word frequencies
+     */
+    public static Map<String, Long> createCorpusStats(List<Video> videos, ParallelWordCounter counter) {
+        return counter.count(videos, true).topK(DEFAULT_TOP_K, MIN_COUNT);
+    }
+}
@@ -0,0 +1,160 @@
+package utils;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * Character-level tokenizer used by the word statistics.
+ *
+ * <p>ASCII text takes a fast path: it is split on spaces, letters are lower-cased and every character that
+ * is not an ASCII letter or digit is dropped, which matches the former {@code split(" ")} /
+ * {@code replaceAll("[^a-zA-Z0-9]", "")} pipeline. From the word holding the first non-ASCII character on,
+ * the text is NFKC-normalized and classified by code point instead:</p>
+ * <ul>
+ *   <li>spaces and any Unicode white space separate words;</li>
+ *   <li>letters and digits of every script are lower-cased and kept, and combining marks stay attached to
+ *       their word, so accented, Cyrillic, Greek, Arabic or Devanagari words come out whole;</li>
+ *   <li>every ideograph (Han characters) is a word of its own, and a word is also split where its letters
+ *       change script, so Japanese kana runs are separated from the surrounding kanji;</li>
+ *   <li>punctuation, symbols and emoji are dropped.</li>
+ * </ul>
+ * <p>Scripts written without spaces and without ideographs, such as Thai, are kept as one word per run.
+ * Tokens are written into a reusable buffer and handed to a {@link TokenSink} without creating any
+ * {@code String}s for ASCII text, so a tokenizer instance is not thread-safe.</p>
+ */
+public final class WordTokenizer {
+
+    /**
+     * Receives the tokens found by a {@link WordTokenizer}.
+     */
+    public interface TokenSink {
+        /**
+         * Called once per token. The buffer is reused for the next token and must not be retained.
+         *
+         * @param buffer the buffer holding the token
+         * @param length the number of characters of the token
+         */
+        void accept(char[] buffer, int length);
+    }
+
+    private char[] buffer = new char[32];
+    private int length;
+    private Character.UnicodeScript tokenScript;
+
+    /**
+     * Splits the given text into normalized tokens and passes each non-empty token to the sink.
+     *
+     * @param text the text to tokenize, ignored if {@code null}
+     * @param sink the receiver of the tokens
+     */
+    public void tokenize(String text, TokenSink sink) {
+        if (text == null) {
+            return;
+        }
+        length = 0;
+        int tokenStart = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                // Tokenize the rest of the text, starting over at the current word, on the Unicode path
+                tokenizeUnicode(text.substring(tokenStart), sink);
+                return;
+            }
+            if (c == ' ') {
+                flush(sink);
+                tokenStart = i + 1;
+                continue;
+            }
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            } else if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9'))) {
+                continue;
+            }
+            append(c);
+        }
+        flush(sink);
+    }
+
+    /**
+     * Tokenizes text that contains non-ASCII characters by classifying every code point.
+     */
+    private void tokenizeUnicode(String text, TokenSink sink) {
+        if (!Normalizer.isNormalized(text, Normalizer.Form.NFKC)) {
+            text = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        }
+        length = 0;
+        tokenScript = null;
+        for (int i = 0, n = text.length(); i < n; ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (cp < 0x80) {
+                if (cp == ' ') {
+                    flush(sink);
+                } else if (cp >= 'A' && cp <= 'Z') {
+                    appendLetter(cp + ('a' - 'A'), Character.UnicodeScript.LATIN, sink);
+                } else if (cp >= 'a' && cp <= 'z') {
+                    appendLetter(cp, Character.UnicodeScript.LATIN, sink);
+                } else if (cp >= '0' && cp <= '9') {
+                    append((char) cp);
+                }
+                continue;
+            }
+            if (Character.isWhitespace(cp) || Character.isSpaceChar(cp)) {
+                flush(sink);
+            } else if (Character.isIdeographic(cp)) {
+                flush(sink);
+                appendCodePoint(cp);
+                flush(sink);
+            } else if (Character.isLetter(cp)) {
+                appendLetter(Character.toLowerCase(cp), Character.UnicodeScript.of(cp), sink);
+            } else if (Character.isDigit(cp)) {
+                appendCodePoint(cp);
+            } else if (length > 0 && isCombiningMark(cp)) {
+                appendCodePoint(cp);
+            }
+        }
+        flush(sink);
+    }
+
+    /**
+     * Appends a letter, first ending the current word if the letter belongs to a different script.
+     */
+    private void appendLetter(int cp, Character.UnicodeScript script, TokenSink sink) {
+        if (tokenScript != null && tokenScript != script && length > 0) {
+            flush(sink);
+        }
+        tokenScript = script;
+        appendCodePoint(cp);
+    }
+
+    private void appendCodePoint(int cp) {
+        if (Character.isBmpCodePoint(cp)) {
+            append((char) cp);
+        } else {
+            append(Character.highSurrogate(cp));
+            append(Character.lowSurrogate(cp));
+        }
+    }
+
+    private void append(char c) {
+        if (length == buffer.length) {
+            buffer = Arrays.copyOf(buffer, length * 2);
+        }
+        buffer[length++] = c;
+    }
+
+    private void flush(TokenSink sink) {
+        if (length > 0) {
+            sink.accept(buffer, length);
+            length = 0;
+        }
+        tokenScript = null;
+    }
+
+    private static boolean isCombiningMark(int cp) {
+        int type = Character.getType(cp);
+        return type == Character.NON_SPACING_MARK
+                || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK;
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import models.entities.Video;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic data shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    private static final String[] VOCABULARY = {
+            "Live", "stream", "World", "Cup", "highlights", "2024", "official", "music", "video", "review",
+            "tutorial", "Java", "#shorts", "news", "[4K]", "gameplay", "reaction", "best", "moments", "vs",
+            "full", "match", "trailer", "episode", "podcast", "unboxing", "how", "to", "the", "new"
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates videos with titles of 4 to 12 words drawn from a skewed vocabulary plus rare words.
+     *
+     * @param count the number of videos
+     * @return the videos
+     */
+    static List<Video> videos(int count) {
+        Random random = new Random(42);
+        List<Video> videos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder title = new StringBuilder();
+            int words = 4 + random.nextInt(9);
+            for (int w = 0; w < words; w++) {
+                if (w > 0) {
+                    title.append(' ');
+                }
+                if (random.nextInt(5) == 0) {
+                    title.append("word").append(random.nextInt(count * 2 + 1));
+                } else {
+                    int index = (int) (Math.abs(random.nextGaussian()) * VOCABULARY.length / 3) % VOCABULARY.length;
+                    title.append(VOCABULARY[index]);
+                }
+            }
+            String videoId = String.format("vid%08d", i);
+            videos.add(new Video(title.toString(), "Description of " + title, "Channel " + (i % 100),
+                    "https://i.ytimg.com/vi/" + videoId + "/default.jpg", videoId, "channel" + (i % 100),
+                    "https://www.youtube.com/watch?v=" + videoId, "2024-11-24T10:00:00Z"));
+        }
+        return videos;
+    }
+}
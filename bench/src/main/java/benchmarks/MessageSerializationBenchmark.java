@@ -0,0 +1,68 @@
+package benchmarks;
+
+import actors.ChannelProfileMessages;
+import actors.MessageSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary {@link MessageSerializer} with Java serialization, the default of Akka, on a channel
+ * videos response, the largest message sent between actors.
+ *
+ * <p>Run with {@code sbt "bench/Jmh/run -prof gc MessageSerializationBenchmark"}; the sizes of both encodings are
+ * printed once per trial.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageSerializationBenchmark {
+
+    @Param({"10", "50", "500"})
+    public int videos;
+
+    private final MessageSerializer serializer = new MessageSerializer();
+    private ChannelProfileMessages.ChannelVideosResponse message;
+    private String manifest;
+    private byte[] binary;
+    private byte[] java;
+
+    @Setup
+    public void setUp() throws IOException {
+        message = new ChannelProfileMessages.ChannelVideosResponse(BenchmarkData.videos(videos), "nextPageToken");
+        manifest = serializer.manifest(message);
+        binary = serializer.toBinary(message);
+        java = javaSerialize();
+        System.out.println("\nBinary: " + binary.length + " bytes, Java serialization: " + java.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return serializer.toBinary(message);
+    }
+
+    @Benchmark
+    public Object binaryDeserialize() throws NotSerializableException {
+        return serializer.fromBinary(binary, manifest);
+    }
+
+    @Benchmark
+    public byte[] javaSerialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(message);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object javaDeserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(java))) {
+            return in.readObject();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.WordTokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link WordTokenizer} on its ASCII fast path and on its Unicode path, against the former
+ * {@code split(" ")} / {@code replaceAll("[^a-zA-Z0-9]", "")} pipeline.
+ *
+ * <p>Run with {@code sbt "bench/Jmh/run -prof gc TokenizerBenchmark"}. The {@code ascii} titles stay on the
+ * fast path; {@code latin} titles switch to the Unicode path at their first accented word and the other
+ * scripts switch at their first character.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    private static final int TITLES = 1_000;
+
+    @Param({"ascii", "latin", "cyrillic", "cjk", "arabic"})
+    public String script;
+
+    private List<String> titles;
+    private final WordTokenizer tokenizer = new WordTokenizer();
+
+    @Setup
+    public void setUp() {
+        String[] vocabulary = vocabulary(script);
+        Random random = new Random(42);
+        titles = new ArrayList<>(TITLES);
+        for (int i = 0; i < TITLES; i++) {
+            StringBuilder title = new StringBuilder();
+            int words = 4 + random.nextInt(9);
+            for (int w = 0; w < words; w++) {
+                if (w > 0 && !script.equals("cjk")) {
+                    title.append(' ');
+                }
+                title.append(vocabulary[random.nextInt(vocabulary.length)]);
+            }
+            titles.add(title.toString());
+        }
+    }
+
+    @Benchmark
+    public void legacyRegex(Blackhole blackhole) {
+        for (String title : titles) {
+            for (String word : title.split(" ")) {
+                String token = word.toLowerCase().replaceAll("[^a-zA-Z0-9]", "");
+                if (!token.isEmpty()) {
+                    blackhole.consume(token);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void wordTokenizer(Blackhole blackhole) {
+        WordTokenizer.TokenSink sink = (buffer, length) -> blackhole.consume(length);
+        for (String title : titles) {
+            tokenizer.tokenize(title, sink);
+        }
+    }
+
+    private static String[] vocabulary(String script) {
+        switch (script) {
+            case "latin":
+                return new String[]{"Live", "stream", "Coupe", "du", "Monde", "résumé", "officiel", "Müller", "Tor", "año", "nuevo", "[4K]"};
+            case "cyrillic":
+                return new String[]{"Прямой", "эфир", "Чемпионат", "мира", "обзор", "матча", "лучшие", "моменты", "2024", "новости"};
+            case "cjk":
+                return new String[]{"世界杯", "直播", "精彩", "集锦", "ライブ", "配信", "ゲーム", "実況", "2024", "新作"};
+            case "arabic":
+                return new String[]{"بث", "مباشر", "كأس", "العالم", "أهداف", "المباراة", "ملخص", "جديد", "2024", "أخبار"};
+            default:
+                return new String[]{"Live", "stream", "World", "Cup", "highlights", "official", "music", "video", "review", "[4K]", "#shorts", "2024"};
+        }
+    }
+}
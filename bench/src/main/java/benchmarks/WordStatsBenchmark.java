@@ -0,0 +1,67 @@
+package benchmarks;
+
+import models.entities.Video;
+import org.openjdk.jmh.annotations.*;
+import utils.ParallelWordCounter;
+import utils.WordCounter;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the former stream/regex word statistics with the shared {@link WordCounter} engine, and the
+ * sequential and fork-join ({@link ParallelWordCounter}) counting of titles and descriptions.
+ *
+ * <p>Run with {@code sbt "bench/Jmh/run -prof gc WordStatsBenchmark"}; the {@code gc.alloc.rate.norm}
+ * column of the GC profiler shows the bytes allocated per operation.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WordStatsBenchmark {
+
+    @Param({"50", "500", "5000", "50000"})
+    public int titles;
+
+    private List<Video> videos;
+
+    @Setup
+    public void setUp() {
+        videos = BenchmarkData.videos(titles);
+    }
+
+    @Benchmark
+    public Map<String, Long> legacyStreams() {
+        return videos.stream()
+                .map(Video::getTitle)
+                .map(title -> title.split(" "))
+                .flatMap(Arrays::stream)
+                .map(String::toLowerCase)
+                .map(word -> word.replaceAll("[^a-zA-Z0-9]", ""))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.groupingBy(word -> word, Collectors.counting()))
+                .entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .filter(entry -> entry.getValue() > 1)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, e2) -> e1, LinkedHashMap::new));
+    }
+
+    @Benchmark
+    public Map<String, Long> wordCounter() {
+        return WordCounter.createWordStats(videos);
+    }
+
+    @Benchmark
+    public Map<String, Long> corpusSequential() {
+        return WordCounter.createCorpusStats(videos, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public Map<String, Long> corpusParallel() {
+        return WordCounter.createCorpusStats(videos, 1);
+    }
+}
@@ -61,7 +61,13 @@ socket.addEventListener("close", (event) => {
             p.textContent = video.description;
 
             var small = document.createElement('small');
-            small.innerHTML = 'Channel: <a href="/channel/' + video.channelId + '" target="_blank">' + video.channelTitle + '</a>';
+            small.innerHTML = 'Channel: <a href="/channel/' + video.channelId + '" target="_blank">' + video.channelTitle + '</a> ';
+            var followLink = document.createElement('a');
+            followLink.href = '#';
+            followLink.className = 'follow-channel';
+            followLink.dataset.channelId = video.channelId;
+            followLink.textContent = '(follow)';
+            small.appendChild(followLink);
 
             var tagsLink = document.createElement('p');
             var tagsA = document.createElement('a');
@@ -93,11 +99,95 @@ socket.addEventListener("close", (event) => {
             if (sentimentElement) {
                 sentimentElement.textContent = 'Sentiment for \'' + keyword + '\': ' + sentiment;
             }
+        } else if (data.type === 'trending') {
+            renderTrending(data.windows);
+        } else if (data.type === 'channelSubscribed') {
+            channelFeedList();
+        } else if (data.type === 'channelVideo') {
+            renderChannelVideo(data);
         } else if (data.type === 'heartbeat') {
             console.log('Received heartbeat from server.');
         }
     });
 
+    // Follow the new uploads of a channel; the server polls each channel once for all its followers
+    function followChannel(channelId) {
+        socket.send(JSON.stringify({ type: 'subscribeChannel', channelId: channelId }));
+    }
+
+    document.addEventListener('click', function (e) {
+        var link = e.target.closest('.follow-channel');
+        if (link) {
+            e.preventDefault();
+            followChannel(link.dataset.channelId);
+            link.textContent = '(following)';
+        }
+    });
+
+    function channelFeedList() {
+        var feed = document.getElementById('channel-feed');
+        if (!feed) {
+            var h2 = document.createElement('h2');
+            h2.textContent = 'New uploads from followed channels';
+            statusElement.insertAdjacentElement('afterend', h2);
+
+            feed = document.createElement('ul');
+            feed.className = 'video-list';
+            feed.id = 'channel-feed';
+            h2.insertAdjacentElement('afterend', feed);
+        }
+        return feed;
+    }
+
+    function renderChannelVideo(video) {
+        var feed = channelFeedList();
+
+        var li = document.createElement('li');
+        li.classList.add('video-item');
+
+        var img = document.createElement('img');
+        img.src = video.thumbnailUrl;
+        img.alt = 'Thumbnail';
+
+        var div = document.createElement('div');
+        var h3 = document.createElement('h3');
+        var a = document.createElement('a');
+        a.href = 'https://www.youtube.com/watch?v=' + video.videoId;
+        a.target = '_blank';
+        a.textContent = video.title;
+        h3.appendChild(a);
+
+        var small = document.createElement('small');
+        var channelLink = document.createElement('a');
+        channelLink.href = '/channel/' + video.channelId;
+        channelLink.target = '_blank';
+        channelLink.textContent = video.channelTitle;
+        small.appendChild(document.createTextNode('Channel: '));
+        small.appendChild(channelLink);
+
+        div.appendChild(h3);
+        div.appendChild(small);
+        li.appendChild(img);
+        li.appendChild(div);
+
+        feed.insertBefore(li, feed.firstChild);
+        while (feed.children.length > 10) {
+            feed.removeChild(feed.lastChild);
+        }
+    }
+
+    function renderTrending(windows) {
+        var trendingDiv = document.getElementById('trending');
+        if (!trendingDiv) {
+            trendingDiv = document.createElement('div');
+            trendingDiv.id = 'trending';
+            trendingDiv.className = 'sentiment';
+            statusElement.insertAdjacentElement('afterend', trendingDiv);
+        }
+        var terms = (windows['1h'] || []).map(function (entry) { return entry.term; });
+        trendingDiv.textContent = terms.length > 0 ? 'Trending (1h): ' + terms.join(', ') : '';
+    }
+
     function createKeywordSection(keyword, safeKey) {
         var h2 = document.createElement('h2');
         h2.textContent = "Search Results for '" + keyword + "'";
@@ -0,0 +1,119 @@
+package actors;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.testkit.javadsl.TestKit;
+import org.junit.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import static models.entities.TestVideos.video;
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the {@link ChannelPollerActor}.
+ */
+public class ChannelPollerActorTest {
+
+    static ActorSystem system;
+
+    @BeforeClass
+    public static void setup() {
+        system = ActorSystem.create("ChannelPollerTestSystem");
+    }
+
+    @AfterClass
+    public static void teardown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    /**
+     * Tests that subscribers of a channel share one poll and all receive its new uploads.
+     */
+    @Test
+    public void testSubscribersSharePollAndReceiveNewUploads() throws Exception {
+        TestKit channelProfileProbe = new TestKit(system);
+        TestKit firstSubscriber = new TestKit(system);
+        TestKit secondSubscriber = new TestKit(system);
+        ActorRef poller = system.actorOf(Props.create(ChannelPollerActor.class, channelProfileProbe.getRef(), 1L, 1L, 100L));
+
+        poller.tell(new ChannelPollerMessages.SubscribeChannel("channel1"), firstSubscriber.getRef());
+        poller.tell(new ChannelPollerMessages.SubscribeChannel("channel1"), secondSubscriber.getRef());
+
+        // The first poll only records the videos the channel already has
+        ChannelProfileMessages.RefreshChannelVideos refresh = channelProfileProbe.expectMsgClass(ChannelProfileMessages.RefreshChannelVideos.class);
+        assertEquals("channel1", refresh.getChannelId());
+        channelProfileProbe.reply(new ChannelProfileMessages.ChannelVideosResponse(List.of(video("old"))));
+        firstSubscriber.expectNoMessage(Duration.ofMillis(200));
+
+        // The next poll finds one new upload and sends it to both subscribers
+        poller.tell("PollChannels", ActorRef.noSender());
+        channelProfileProbe.expectMsgClass(ChannelProfileMessages.RefreshChannelVideos.class);
+        channelProfileProbe.reply(new ChannelProfileMessages.ChannelVideosResponse(List.of(video("new"), video("old"))));
+
+        for (TestKit subscriber : List.of(firstSubscriber, secondSubscriber)) {
+            ChannelPollerMessages.NewChannelUploads uploads = subscriber.expectMsgClass(ChannelPollerMessages.NewChannelUploads.class);
+            assertEquals("channel1", uploads.getChannelId());
+            assertEquals(1, uploads.getVideos().size());
+            assertEquals("new", uploads.getVideos().get(0).getVideoId());
+        }
+        channelProfileProbe.expectNoMessage(Duration.ofMillis(200));
+    }
+
+    /**
+     * Tests that a channel is no longer polled once its last subscriber left.
+     */
+    @Test
+    public void testUnsubscribeStopsPolling() {
+        TestKit channelProfileProbe = new TestKit(system);
+        TestKit subscriber = new TestKit(system);
+        ActorRef poller = system.actorOf(Props.create(ChannelPollerActor.class, channelProfileProbe.getRef(), 1L, 1L, 100L));
+
+        poller.tell(new ChannelPollerMessages.SubscribeChannel("channel1"), subscriber.getRef());
+        channelProfileProbe.expectMsgClass(ChannelProfileMessages.RefreshChannelVideos.class);
+        channelProfileProbe.reply(new ChannelProfileMessages.ChannelVideosResponse(List.of(video("old"))));
+
+        poller.tell(new ChannelPollerMessages.UnsubscribeChannel("channel1"), subscriber.getRef());
+        poller.tell("PollChannels", ActorRef.noSender());
+        channelProfileProbe.expectNoMessage(Duration.ofMillis(200));
+    }
+
+    /**
+     * Tests that the reply to a poll of a channel unsubscribed from and subscribed to again is ignored by the new
+     * feed, which is seeded by its own poll.
+     */
+    @Test
+    public void testStalePollIsIgnoredAfterResubscribing() {
+        TestKit channelProfileProbe = new TestKit(system);
+        TestKit subscriber = new TestKit(system);
+        ActorRef poller = system.actorOf(Props.create(ChannelPollerActor.class, channelProfileProbe.getRef(), 1L, 1L, 100L));
+
+        poller.tell(new ChannelPollerMessages.SubscribeChannel("channel1"), subscriber.getRef());
+        channelProfileProbe.expectMsgClass(ChannelProfileMessages.RefreshChannelVideos.class);
+        ActorRef stalePoll = channelProfileProbe.getLastSender();
+
+        poller.tell(new ChannelPollerMessages.UnsubscribeChannel("channel1"), subscriber.getRef());
+        poller.tell(new ChannelPollerMessages.SubscribeChannel("channel1"), subscriber.getRef());
+        channelProfileProbe.expectMsgClass(ChannelProfileMessages.RefreshChannelVideos.class);
+        ActorRef newPoll = channelProfileProbe.getLastSender();
+
+        // Had the stale reply seeded the new feed, the new poll would report "new" as an upload
+        stalePoll.tell(new ChannelProfileMessages.ChannelVideosResponse(List.of(video("old"))), ActorRef.noSender());
+        newPoll.tell(new ChannelProfileMessages.ChannelVideosResponse(List.of(video("new"), video("old"))), ActorRef.noSender());
+        subscriber.expectNoMessage(Duration.ofMillis(200));
+    }
+
+    /**
+     * Tests that the poll interval shrinks on activity and grows when a channel is quiet, within its bounds.
+     */
+    @Test
+    public void testNextInterval() {
+        assertEquals(150, ChannelPollerActor.nextInterval(300, true, 60, 3600));
+        assertEquals(60, ChannelPollerActor.nextInterval(100, true, 60, 3600));
+        assertEquals(450, ChannelPollerActor.nextInterval(300, false, 60, 3600));
+        assertEquals(3600, ChannelPollerActor.nextInterval(3000, false, 60, 3600));
+    }
+}
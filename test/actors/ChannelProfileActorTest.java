@@ -5,11 +5,13 @@ import akka.actor.ActorSystem;
 import akka.actor.Props;
 import akka.testkit.TestActorRef;
 import akka.testkit.javadsl.TestKit;
+import models.entities.Channel;
 import models.entities.Video;
 import models.services.YouTubeService;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.*;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import java.net.ConnectException;
@@ -87,9 +89,10 @@ public class ChannelProfileActorTest {
             ChannelProfileMessages.ChannelInfoResponse response = expectMsgClass(ChannelProfileMessages.ChannelInfoResponse.class);
 
             // Assert that the response contains the expected data
-            JSONObject snippet = response.getChannelInfo();
-            Assert.assertEquals("Channel Title", snippet.getString("title"));
-            Assert.assertEquals("Channel Description", snippet.getString("description"));
+            Channel channel = response.getChannel();
+            Assert.assertEquals(testChannelId, channel.getChannelId());
+            Assert.assertEquals("Channel Title", channel.getTitle());
+            Assert.assertEquals("Channel Description", channel.getDescription());
         }};
     }
 
@@ -158,6 +161,7 @@ public class ChannelProfileActorTest {
 
             List<Video> mockVideos = List.of(video1, video2);
             Mockito.when(youTubeService.parseVideos(any(JSONArray.class))).thenReturn(mockVideos);
+            Mockito.when(youTubeService.parseUploadsPlaylistId(any(JSONObject.class))).thenReturn("UU-test-uploads");
 
             // Mock HttpClient and HttpResponse
             HttpClient mockHttpClient = mock(HttpClient.class);
@@ -187,7 +191,48 @@ public class ChannelProfileActorTest {
             Assert.assertEquals("videoId1", resultVideo1.getVideoId());
             Assert.assertEquals("title1", resultVideo1.getTitle());
             Assert.assertEquals("channelId1", resultVideo1.getChannelId());
-            // Add more assertions as needed
+            Assert.assertNull(response.getNextPageToken());
+
+            // The videos are listed from the uploads playlist instead of a search
+            ArgumentCaptor<HttpRequest> requests = ArgumentCaptor.forClass(HttpRequest.class);
+            Mockito.verify(mockHttpClient, Mockito.times(2)).sendAsync(requests.capture(), any(HttpResponse.BodyHandler.class));
+            assertTrue(requests.getAllValues().get(0).uri().toString().contains("/channels?part=contentDetails"));
+            assertTrue(requests.getAllValues().get(1).uri().toString().contains("/playlistItems?part=snippet,contentDetails&playlistId=UU-test-uploads"));
+        }};
+    }
+
+    @Test
+    public void testHandleGetChannelVideos_Pagination() {
+        new TestKit(system) {{
+            // Mock YouTubeService
+            YouTubeService youTubeService = mock(YouTubeService.class);
+            Mockito.when(youTubeService.getApiUrl()).thenReturn("http://api.youtube.com");
+            Mockito.when(youTubeService.getApiKey()).thenReturn("test-api-key");
+            Mockito.when(youTubeService.parseVideos(any(JSONArray.class))).thenReturn(List.of());
+            Mockito.when(youTubeService.parseUploadsPlaylistId(any(JSONObject.class))).thenReturn("UU-test-uploads");
+
+            // Mock HttpClient and HttpResponse
+            HttpClient mockHttpClient = mock(HttpClient.class);
+            HttpResponse<String> mockHttpResponse = mock(HttpResponse.class);
+            Mockito.when(mockHttpResponse.body()).thenReturn("{\"items\":[],\"nextPageToken\":\"PAGE2\"}");
+            Mockito.when(mockHttpClient.sendAsync(
+                    any(HttpRequest.class),
+                    any(HttpResponse.BodyHandler.class))
+            ).thenReturn(CompletableFuture.completedFuture(mockHttpResponse));
+
+            ActorRef actorRef = system.actorOf(Props.create(TestableChannelProfileActor.class, youTubeService, mockHttpClient));
+
+            actorRef.tell(new ChannelProfileMessages.GetChannelVideos("test-channel-id", 10), getRef());
+            ChannelProfileMessages.ChannelVideosResponse first = expectMsgClass(ChannelProfileMessages.ChannelVideosResponse.class);
+            Assert.assertEquals("PAGE2", first.getNextPageToken());
+
+            actorRef.tell(new ChannelProfileMessages.GetChannelVideos("test-channel-id", 10, first.getNextPageToken()), getRef());
+            expectMsgClass(ChannelProfileMessages.ChannelVideosResponse.class);
+
+            // The playlist ID is resolved once for both pages
+            ArgumentCaptor<HttpRequest> requests = ArgumentCaptor.forClass(HttpRequest.class);
+            Mockito.verify(mockHttpClient, Mockito.times(3)).sendAsync(requests.capture(), any(HttpResponse.BodyHandler.class));
+            assertTrue(requests.getAllValues().get(2).uri().toString().contains("&pageToken=PAGE2"));
         }};
     }
 
@@ -224,6 +269,81 @@ public class ChannelProfileActorTest {
         }};
     }
 
+    @Test
+    public void testChannelInfoIsCachedAndCoalesced() {
+        new TestKit(system) {{
+            // Mock YouTubeService
+            YouTubeService youTubeService = mock(YouTubeService.class);
+            Mockito.when(youTubeService.getApiUrl()).thenReturn("http://api.youtube.com");
+            Mockito.when(youTubeService.getApiKey()).thenReturn("test-api-key");
+
+            // Mock HttpClient with a response that completes only after both requests arrived
+            HttpClient mockHttpClient = mock(HttpClient.class);
+            HttpResponse<String> mockHttpResponse = mock(HttpResponse.class);
+            Mockito.when(mockHttpResponse.body()).thenReturn("{\"items\":[{\"snippet\":{\"title\":\"Channel Title\"}}]}");
+            CompletableFuture<HttpResponse<String>> futureResponse = new CompletableFuture<>();
+            Mockito.when(mockHttpClient.sendAsync(
+                    any(HttpRequest.class),
+                    any(HttpResponse.BodyHandler.class))
+            ).thenReturn(futureResponse);
+
+            ActorRef actorRef = system.actorOf(Props.create(TestableChannelProfileActor.class, youTubeService, mockHttpClient));
+
+            // Two concurrent requests share one API call
+            actorRef.tell(new ChannelProfileMessages.GetChannelInfo("test-channel-id"), getRef());
+            actorRef.tell(new ChannelProfileMessages.GetChannelInfo("test-channel-id"), getRef());
+            actorRef.tell(new ChannelProfileMessages.GetCacheStats(), getRef());
+            expectMsgClass(ChannelProfileMessages.CacheStatsResponse.class);
+            futureResponse.complete(mockHttpResponse);
+            expectMsgClass(ChannelProfileMessages.ChannelInfoResponse.class);
+            expectMsgClass(ChannelProfileMessages.ChannelInfoResponse.class);
+
+            // A later request is served from the cache
+            actorRef.tell(new ChannelProfileMessages.GetChannelInfo("test-channel-id"), getRef());
+            ChannelProfileMessages.ChannelInfoResponse cached = expectMsgClass(ChannelProfileMessages.ChannelInfoResponse.class);
+            Assert.assertEquals("Channel Title", cached.getChannel().getTitle());
+            Mockito.verify(mockHttpClient, Mockito.times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+
+            actorRef.tell(new ChannelProfileMessages.GetCacheStats(), getRef());
+            ChannelProfileMessages.CacheStatsResponse stats = expectMsgClass(ChannelProfileMessages.CacheStatsResponse.class);
+            Assert.assertEquals(1, stats.getInfoStats().getHits());
+            Assert.assertEquals(2, stats.getInfoStats().getMisses());
+            Assert.assertEquals(1, stats.getInfoStats().getLoads());
+            Assert.assertEquals(0, stats.getVideosStats().getLoads());
+        }};
+    }
+
+    @Test
+    public void testRefreshChannelVideosBypassesCache() {
+        new TestKit(system) {{
+            YouTubeService youTubeService = mock(YouTubeService.class);
+            Mockito.when(youTubeService.getApiUrl()).thenReturn("http://api.youtube.com");
+            Mockito.when(youTubeService.getApiKey()).thenReturn("test-api-key");
+            Mockito.when(youTubeService.parseVideos(any(JSONArray.class))).thenReturn(List.of());
+            Mockito.when(youTubeService.parseUploadsPlaylistId(any(JSONObject.class))).thenReturn("UU-test-uploads");
+
+            HttpClient mockHttpClient = mock(HttpClient.class);
+            HttpResponse<String> mockHttpResponse = mock(HttpResponse.class);
+            Mockito.when(mockHttpResponse.body()).thenReturn("{\"items\":[]}");
+            Mockito.when(mockHttpClient.sendAsync(
+                    any(HttpRequest.class),
+                    any(HttpResponse.BodyHandler.class))
+            ).thenReturn(CompletableFuture.completedFuture(mockHttpResponse));
+
+            ActorRef actorRef = system.actorOf(Props.create(TestableChannelProfileActor.class, youTubeService, mockHttpClient));
+
+            actorRef.tell(new ChannelProfileMessages.GetChannelVideos("test-channel-id", 10), getRef());
+            expectMsgClass(ChannelProfileMessages.ChannelVideosResponse.class);
+            actorRef.tell(new ChannelProfileMessages.RefreshChannelVideos("test-channel-id", 10), getRef());
+            expectMsgClass(ChannelProfileMessages.ChannelVideosResponse.class);
+            actorRef.tell(new ChannelProfileMessages.GetChannelVideos("test-channel-id", 10), getRef());
+            expectMsgClass(ChannelProfileMessages.ChannelVideosResponse.class);
+
+            // One playlist lookup, then one playlistItems call for the first request and one for the refresh
+            Mockito.verify(mockHttpClient, Mockito.times(3)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        }};
+    }
+
     @Test
     public void testUnhandledMessage() {
         new TestKit(system) {{
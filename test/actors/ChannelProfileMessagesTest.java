@@ -1,7 +1,7 @@
 package actors;
 
+import models.entities.Channel;
 import models.entities.Video;
-import org.json.JSONObject;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -29,10 +29,9 @@ public class ChannelProfileMessagesTest {
 
     @Test
     public void testChannelInfoResponse() {
-        JSONObject channelInfo = new JSONObject();
-        channelInfo.put("title", "Channel Title");
-        ChannelProfileMessages.ChannelInfoResponse response = new ChannelProfileMessages.ChannelInfoResponse(channelInfo);
-        Assert.assertEquals("Channel Title", response.getChannelInfo().getString("title"));
+        Channel channel = new Channel("channelId", "Channel Title", "Description", null);
+        ChannelProfileMessages.ChannelInfoResponse response = new ChannelProfileMessages.ChannelInfoResponse(channel);
+        Assert.assertEquals("Channel Title", response.getChannel().getTitle());
     }
 
     @Test
@@ -0,0 +1,70 @@
+package actors;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.testkit.javadsl.TestKit;
+import models.entities.Video;
+import models.services.SentimentService;
+import org.junit.*;
+import utils.ChannelStats;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the {@link ChannelStatsActor}.
+ */
+public class ChannelStatsActorTest {
+
+    static ActorSystem system;
+
+    @BeforeClass
+    public static void setup() {
+        system = ActorSystem.create("ChannelStatsTestSystem");
+    }
+
+    @AfterClass
+    public static void teardown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    /**
+     * Tests that ingested videos are aggregated per channel with the sentiment of their description.
+     */
+    @Test
+    public void testIngestAndGetChannelStats() {
+        new TestKit(system) {{
+            ActorRef statsActor = system.actorOf(ChannelStatsActor.props(new SentimentService()));
+            statsActor.tell(new TrendingMessages.VideosIngested(List.of(
+                    new Video("Java tutorial", "happy joy wonderful", "Channel", "", "vid1", "chan1", "", "2024-11-25T18:30:00Z"),
+                    new Video("Java streams", "", "Channel", "", "vid2", "chan1", "", "2024-11-26T18:00:00Z"),
+                    new Video("Cooking", "", "Other", "", "vid3", "chan2", "", "2024-11-26T10:00:00Z")
+            )), ActorRef.noSender());
+
+            statsActor.tell(new ChannelStatsMessages.GetChannelStats("chan1", 5), getRef());
+            ChannelStatsMessages.ChannelStatsResponse response = expectMsgClass(ChannelStatsMessages.ChannelStatsResponse.class);
+            assertEquals("chan1", response.getChannelId());
+            ChannelStats.Summary summary = response.getSummary();
+            assertEquals(2, summary.getVideoCount());
+            assertEquals(18, summary.getPeakHour());
+            assertEquals(1, summary.getHappyCount());
+            assertEquals(1, summary.getNeutralCount());
+            assertEquals(Long.valueOf(2), summary.getTopTerms().get("java"));
+        }};
+    }
+
+    /**
+     * Tests that an unknown channel has no statistics.
+     */
+    @Test
+    public void testGetChannelStatsUnknownChannel() {
+        new TestKit(system) {{
+            ActorRef statsActor = system.actorOf(ChannelStatsActor.props(new SentimentService()));
+            statsActor.tell(new ChannelStatsMessages.GetChannelStats("unknown", 5), getRef());
+
+            assertNull(expectMsgClass(ChannelStatsMessages.ChannelStatsResponse.class).getSummary());
+        }};
+    }
+}
@@ -0,0 +1,195 @@
+package actors;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import models.entities.Channel;
+import models.entities.Video;
+import org.junit.Test;
+import utils.ChannelStats;
+import utils.ExpiringCache;
+import utils.TrendingTerms;
+
+import java.io.ByteArrayOutputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.util.*;
+
+import static models.entities.TestVideos.video;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link MessageSerializer} class.
+ */
+public class MessageSerializerTest {
+
+    private final MessageSerializer serializer = new MessageSerializer();
+
+    @SuppressWarnings("unchecked")
+    private <T> T roundTrip(T message) throws NotSerializableException {
+        byte[] bytes = serializer.toBinary(message);
+        assertEquals(MessageSerializer.SCHEMA_VERSION, bytes[0]);
+        return (T) serializer.fromBinary(bytes, serializer.manifest(message));
+    }
+
+    /**
+     * Tests that videos keep every field, including derived and irregular URLs, times and missing fields.
+     */
+    @Test
+    public void testVideoRoundTrip() throws NotSerializableException {
+        List<Video> videos = Arrays.asList(
+                video("dQw4w9WgXcQ"),
+                new Video("Title", "Déscription ✓", "Channel", Video.defaultThumbnailUrl("9bZkp7q19f0"), "9bZkp7q19f0",
+                        "channel1", Video.BASE_VIDEO_URL + "9bZkp7q19f0", "2024-11-24T10:00:00Z"),
+                new Video("Title", "Description", "Channel", "thumb", "sampleVideoId", "channel1",
+                        "https://example.com/video", "2024-11-24"),
+                new Video(null, null, null, null, null, null, null, null));
+        for (Video video : videos) {
+            Video decoded = roundTrip(video);
+            assertTrue(video + " became " + decoded, video.hasSameFields(decoded));
+            assertEquals(video.getVideoURL(), decoded.getVideoURL());
+            assertEquals(video.getPublishedAt(), decoded.getPublishedAt());
+            assertEquals(video.getPublishedAtMillis(), decoded.getPublishedAtMillis());
+        }
+    }
+
+    /**
+     * Tests that decoded videos are interned, so decoding the same video twice returns one instance.
+     */
+    @Test
+    public void testDecodedVideosAreInterned() throws NotSerializableException {
+        Video video = video("9bZkp7q19f0");
+        byte[] bytes = serializer.toBinary(video);
+        assertSame(serializer.fromBinary(bytes, "Video"), serializer.fromBinary(bytes, "Video"));
+    }
+
+    /**
+     * Tests the round trip of the channel profile messages, including a typed channel and the cache statistics.
+     */
+    @Test
+    public void testChannelProfileMessages() throws NotSerializableException {
+        assertEquals("channel1", roundTrip(new ChannelProfileMessages.GetChannelInfo("channel1")).getChannelId());
+
+        ChannelProfileMessages.GetChannelVideos getVideos = roundTrip(new ChannelProfileMessages.GetChannelVideos("channel1", 10, "token"));
+        assertEquals("channel1", getVideos.getChannelId());
+        assertEquals(10, getVideos.getMaxResults());
+        assertEquals("token", getVideos.getPageToken());
+        assertNull(roundTrip(new ChannelProfileMessages.GetChannelVideos("channel1", 10)).getPageToken());
+
+        Channel channel = new Channel("channel1", "Channel", "Music from all around the world.", null);
+        assertEquals(channel, roundTrip(new ChannelProfileMessages.ChannelInfoResponse(channel)).getChannel());
+
+        List<Video> videos = Arrays.asList(video("dQw4w9WgXcQ"), video("9bZkp7q19f0"));
+        ChannelProfileMessages.ChannelVideosResponse response = roundTrip(new ChannelProfileMessages.ChannelVideosResponse(videos, "next"));
+        assertEquals(videos, response.getVideos());
+        assertEquals("next", response.getNextPageToken());
+
+        assertEquals("Failed", roundTrip(new ChannelProfileMessages.ChannelProfileError("Failed")).getErrorMessage());
+        assertNotNull(roundTrip(new ChannelProfileMessages.GetCacheStats()));
+
+        ExpiringCache.Stats stats = new ExpiringCache.Stats(5, 3, 3, 1, 2, 1_500_000_000L, 1_000_000_000L, 2);
+        ChannelProfileMessages.CacheStatsResponse statsResponse = roundTrip(new ChannelProfileMessages.CacheStatsResponse(stats, stats));
+        assertEquals(5, statsResponse.getInfoStats().getHits());
+        assertEquals(1, statsResponse.getInfoStats().getLoadFailures());
+        assertEquals(1_000_000_000L, statsResponse.getVideosStats().getMaxLoadNanos());
+        assertEquals(2, statsResponse.getVideosStats().getSize());
+    }
+
+    /**
+     * Tests the round trip of messages carrying maps, nested collections, enums and summaries.
+     */
+    @Test
+    public void testStatisticsMessages() throws NotSerializableException {
+        Map<String, Long> terms = new LinkedHashMap<>();
+        terms.put("java", 7L);
+        terms.put("akka", 3L);
+        TrendingMessages.TrendingResponse trending = roundTrip(new TrendingMessages.TrendingResponse(TrendingTerms.Window.ONE_HOUR, terms));
+        assertEquals(TrendingTerms.Window.ONE_HOUR, trending.getWindow());
+        assertEquals(new ArrayList<>(terms.entrySet()), new ArrayList<>(trending.getTerms().entrySet()));
+
+        Map<TrendingTerms.Window, Map<String, Long>> windows = new EnumMap<>(TrendingTerms.Window.class);
+        windows.put(TrendingTerms.Window.FIVE_MINUTES, terms);
+        windows.put(TrendingTerms.Window.ONE_DAY, Collections.emptyMap());
+        assertEquals(windows, roundTrip(new TrendingMessages.TrendingUpdate(windows)).getTerms());
+
+        List<List<String>> clusters = Arrays.asList(Arrays.asList("java", "jvm"), Collections.singletonList("akka"));
+        assertEquals(clusters, roundTrip(new TagGraphMessages.TagClustersResponse("java", clusters)).getClusters());
+
+        WordStatMessages.WordStatsResult result = roundTrip(new WordStatMessages.WordStatsResult("java", 42L, terms));
+        assertEquals(42L, result.getVersion());
+        assertEquals(terms, result.getWordStats());
+        assertEquals(3, roundTrip(new WordStatMessages.UpdateAndGetWordStats("java", 3)).ngramSize);
+
+        int[] hours = new int[24];
+        hours[10] = 2;
+        ChannelStats.Summary summary = new ChannelStats.Summary(2, hours, new int[7], new int[]{0, 1, 1}, 86_400L, 1.5, terms);
+        ChannelStats.Summary decoded = roundTrip(new ChannelStatsMessages.ChannelStatsResponse("channel1", summary)).getSummary();
+        assertEquals(2, decoded.getVideoCount());
+        assertArrayEquals(hours, decoded.getPublishHours());
+        assertEquals(1, decoded.getHappyCount());
+        assertEquals(86_400L, decoded.getMedianGapSeconds());
+        assertEquals(1.5, decoded.getUploadsPerWeek(), 0.0);
+        assertEquals(terms, decoded.getTopTerms());
+    }
+
+    /**
+     * Tests that the binary encoding takes less than half the bytes of Java serialization.
+     */
+    @Test
+    public void testSmallerThanJavaSerialization() throws Exception {
+        List<Video> videos = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            videos.add(video(String.format("vid%08d", i)));
+        }
+        ChannelProfileMessages.ChannelVideosResponse response = new ChannelProfileMessages.ChannelVideosResponse(videos, null);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(response);
+        }
+        assertTrue(serializer.toBinary(response).length * 2 < bytes.size());
+    }
+
+    /**
+     * Tests that unknown manifests, other schema versions and truncated messages are rejected.
+     */
+    @Test
+    public void testRejectsInvalidMessages() {
+        byte[] bytes = serializer.toBinary(new TagMessages.GetTags("dQw4w9WgXcQ"));
+        assertRejected(bytes, "Unknown");
+        byte[] otherVersion = bytes.clone();
+        otherVersion[0] = MessageSerializer.SCHEMA_VERSION + 1;
+        assertRejected(otherVersion, "tag.GetTags");
+        assertRejected(Arrays.copyOf(bytes, bytes.length - 1), "tag.GetTags");
+        assertRejected(Arrays.copyOf(bytes, bytes.length + 1), "tag.GetTags");
+        assertRejected(new byte[0], "tag.GetTags");
+    }
+
+    private void assertRejected(byte[] bytes, String manifest) {
+        try {
+            serializer.fromBinary(bytes, manifest);
+            fail("Accepted " + Arrays.toString(bytes) + " as " + manifest);
+        } catch (NotSerializableException expected) {
+            // Rejected
+        }
+    }
+
+    /**
+     * Tests that classes without a codec are not serialized.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsUnknownClasses() {
+        serializer.toBinary(new WordStatMessages.VideosFetched("java", null, new RuntimeException()));
+    }
+
+    /**
+     * Tests that every class the serializer encodes is bound to it in the configuration.
+     */
+    @Test
+    public void testAllClassesAreBound() {
+        Config bindings = ConfigFactory.load().getConfig("akka.actor.serialization-bindings");
+        for (Class<?> type : MessageSerializer.registeredClasses()) {
+            String path = "\"" + type.getName() + "\"";
+            assertTrue(type.getName() + " is not bound", bindings.hasPath(path));
+            assertEquals("tubelytics", bindings.getString(path));
+        }
+    }
+}
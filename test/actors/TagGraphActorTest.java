@@ -0,0 +1,52 @@
+package actors;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.testkit.javadsl.TestKit;
+import org.junit.*;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the {@link TagGraphActor}.
+ */
+public class TagGraphActorTest {
+
+    static ActorSystem system;
+
+    @BeforeClass
+    public static void setup() {
+        system = ActorSystem.create("TagGraphTestSystem");
+    }
+
+    @AfterClass
+    public static void teardown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    /**
+     * Tests that fetched tags update the graph and are served to both kinds of queries.
+     */
+    @Test
+    public void testCooccurringTagsAndClusters() {
+        new TestKit(system) {{
+            ActorRef tagGraphActor = system.actorOf(TagGraphActor.props());
+            tagGraphActor.tell(new TagIndexMessages.TagsFetched("vid1", List.of("football", "world cup")), ActorRef.noSender());
+            tagGraphActor.tell(new TagIndexMessages.TagsFetched("vid2", List.of("football", "world cup", "messi")), ActorRef.noSender());
+
+            tagGraphActor.tell(new TagGraphMessages.GetCooccurringTags("football", 1), getRef());
+            TagGraphMessages.CooccurringTagsResponse cooccurring = expectMsgClass(TagGraphMessages.CooccurringTagsResponse.class);
+            assertEquals("football", cooccurring.getTag());
+            assertEquals(Map.of("world cup", 2), cooccurring.getTags());
+
+            tagGraphActor.tell(new TagGraphMessages.GetTagClusters("football", 5), getRef());
+            TagGraphMessages.TagClustersResponse clusters = expectMsgClass(TagGraphMessages.TagClustersResponse.class);
+            assertEquals("football", clusters.getKeyword());
+            assertEquals(List.of(List.of("world cup")), clusters.getClusters());
+        }};
+    }
+}
@@ -0,0 +1,65 @@
+package actors;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.testkit.javadsl.TestKit;
+import org.junit.*;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the {@link TagIndexActor}.
+ */
+public class TagIndexActorTest {
+
+    static ActorSystem system;
+
+    @BeforeClass
+    public static void setup() {
+        system = ActorSystem.create("TagIndexTestSystem");
+    }
+
+    @AfterClass
+    public static void teardown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    /**
+     * Tests that fetched tags are indexed and served to both kinds of lookups.
+     */
+    @Test
+    public void testIndexAndLookup() {
+        new TestKit(system) {{
+            ActorRef tagIndexActor = system.actorOf(TagIndexActor.props());
+            tagIndexActor.tell(new TagIndexMessages.TagsFetched("vid1", List.of("football", "world cup")), ActorRef.noSender());
+            tagIndexActor.tell(new TagIndexMessages.TagsFetched("vid2", List.of("football")), ActorRef.noSender());
+
+            tagIndexActor.tell(new TagIndexMessages.GetVideosForTag("football", 10), getRef());
+            TagIndexMessages.VideosForTagResponse videos = expectMsgClass(TagIndexMessages.VideosForTagResponse.class);
+            assertEquals("football", videos.getTag());
+            assertEquals(List.of("vid2", "vid1"), videos.getVideoIds());
+
+            tagIndexActor.tell(new TagIndexMessages.GetRelatedVideos("vid1", 10), getRef());
+            TagIndexMessages.RelatedVideosResponse related = expectMsgClass(TagIndexMessages.RelatedVideosResponse.class);
+            assertEquals("vid1", related.getVideoId());
+            assertEquals(Map.of("vid2", 1), related.getRelated());
+        }};
+    }
+
+    /**
+     * Tests that an unknown video has no related videos.
+     */
+    @Test
+    public void testUnknownVideo() {
+        new TestKit(system) {{
+            ActorRef tagIndexActor = system.actorOf(TagIndexActor.props());
+            tagIndexActor.tell(new TagIndexMessages.GetRelatedVideos("missing", 10), getRef());
+
+            assertTrue(expectMsgClass(TagIndexMessages.RelatedVideosResponse.class).getRelated().isEmpty());
+        }};
+    }
+}
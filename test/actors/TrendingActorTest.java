@@ -0,0 +1,66 @@
+package actors;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.testkit.javadsl.TestKit;
+import models.entities.Video;
+import org.junit.*;
+import utils.TrendingTerms;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the {@link TrendingActor}.
+ */
+public class TrendingActorTest {
+
+    static ActorSystem system;
+
+    @BeforeClass
+    public static void setup() {
+        system = ActorSystem.create("TrendingTestSystem");
+    }
+
+    @AfterClass
+    public static void teardown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    /**
+     * Tests that ingested videos are reflected in the trending terms of every window.
+     */
+    @Test
+    public void testIngestAndGetTrending() {
+        new TestKit(system) {{
+            ActorRef trendingActor = system.actorOf(TrendingActor.props());
+            trendingActor.tell(new TrendingMessages.VideosIngested(List.of(
+                    new Video("World Cup highlights", "", "", "", "vid1", "", "", ""),
+                    new Video("World Cup final", "", "", "", "vid2", "", "", "")
+            )), ActorRef.noSender());
+
+            for (TrendingTerms.Window window : TrendingTerms.Window.values()) {
+                trendingActor.tell(new TrendingMessages.GetTrending(window, 2), getRef());
+                TrendingMessages.TrendingResponse response = expectMsgClass(TrendingMessages.TrendingResponse.class);
+                assertEquals(window, response.getWindow());
+                assertEquals(2, response.getTerms().size());
+                assertEquals(Long.valueOf(2), response.getTerms().get("world"));
+            }
+        }};
+    }
+
+    /**
+     * Tests that an empty engine replies with no terms.
+     */
+    @Test
+    public void testGetTrendingEmpty() {
+        new TestKit(system) {{
+            ActorRef trendingActor = system.actorOf(TrendingActor.props());
+            trendingActor.tell(new TrendingMessages.GetTrending(TrendingTerms.Window.ONE_DAY, 10), getRef());
+
+            assertTrue(expectMsgClass(TrendingMessages.TrendingResponse.class).getTerms().isEmpty());
+        }};
+    }
+}
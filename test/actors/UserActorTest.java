@@ -283,4 +283,37 @@ public class UserActorTest {
         // Expect no messages due to null search history
         Assert.assertTrue(outActor.messages.isEmpty());
     }
+
+    /**
+     * Tests that channel subscriptions sent by the client reach the channel poller, and that new uploads
+     * of the followed channel are sent to the client.
+     */
+    @Test
+    public void testChannelSubscription() throws Exception {
+        TestActorRef<TestOutActor> outActorRef = TestActorRef.create(system, TestOutActor.props());
+        TestOutActor outActor = outActorRef.underlyingActor();
+        akka.testkit.javadsl.TestKit channelPollerProbe = new akka.testkit.javadsl.TestKit(system);
+
+        SearchService searchService = mock(SearchService.class);
+        when(searchService.getSearchHistory(anyString())).thenReturn(new HashMap<>());
+
+        ActorRef userActor = system.actorOf(UserActor.props(outActorRef, searchService, null, channelPollerProbe.getRef(), "testSession"));
+
+        userActor.tell(new JSONObject().put("type", "subscribeChannel").put("channelId", "channel1").toString(), ActorRef.noSender());
+        ChannelPollerMessages.SubscribeChannel subscribe = channelPollerProbe.expectMsgClass(ChannelPollerMessages.SubscribeChannel.class);
+        assertEquals("channel1", subscribe.getChannelId());
+
+        Video upload = new Video("Video1", "Description1", "Channel1", "ThumbnailUrl1", "VideoId1", "channel1", "VideoUrl1", "PublishedAt1");
+        userActor.tell(new ChannelPollerMessages.NewChannelUploads("channel1", List.of(upload)), ActorRef.noSender());
+        Thread.sleep(200);
+
+        assertEquals(2, outActor.messages.size());
+        assertEquals("channelSubscribed", new JSONObject((String) outActor.messages.get(0)).getString("type"));
+        JSONObject video = new JSONObject((String) outActor.messages.get(1));
+        assertEquals("channelVideo", video.getString("type"));
+        assertEquals("VideoId1", video.getString("videoId"));
+
+        userActor.tell(new JSONObject().put("type", "unsubscribeChannel").put("channelId", "channel1").toString(), ActorRef.noSender());
+        channelPollerProbe.expectMsgClass(ChannelPollerMessages.UnsubscribeChannel.class);
+    }
 }
@@ -8,6 +8,8 @@ import akka.testkit.TestActorRef;
 import models.entities.Video;
 import models.services.SearchService;
 import org.junit.*;
+
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
@@ -166,7 +168,7 @@ public class WordStatActorTest {
         TestReceiverActor receiver = receiverRef.underlyingActor();
 
         // Send GetWordStats message
-        wordStatActor.tell(new WordStatMessages.GetWordStats(), receiverRef);
+        wordStatActor.tell(new WordStatMessages.GetWordStats("java"), receiverRef);
 
         // Wait for the reply
         Thread.sleep(500);
@@ -186,6 +188,185 @@ public class WordStatActorTest {
         assertEquals(expectedWordStats, wordStats);
     }
 
+    /**
+     * Tests that UpdateAndGetWordStats replies with the refreshed statistics tagged with keyword and version.
+     */
+    @Test
+    public void testUpdateAndGetWordStats() {
+        new akka.testkit.javadsl.TestKit(system) {{
+            SearchService searchService = mock(SearchService.class);
+            List<Video> videos = Arrays.asList(
+                    new Video("Java Tutorial", "", "", "", "vid1", "", "", ""),
+                    new Video("Java Concurrency", "", "", "", "vid2", "", "", "")
+            );
+            when(searchService.searchVideos(anyString(), anyInt()))
+                    .thenReturn(CompletableFuture.completedFuture(videos));
+
+            ActorRef wordStatActor = system.actorOf(WordStatActor.props(searchService));
+            wordStatActor.tell(new WordStatMessages.UpdateAndGetWordStats("java"), getRef());
+
+            WordStatMessages.WordStatsResult result = expectMsgClass(WordStatMessages.WordStatsResult.class);
+            assertEquals("java", result.getKeyword());
+            assertEquals(1L, result.getVersion());
+            assertEquals(Map.of("java", 2L), result.getWordStats());
+
+            // Same videos again: statistics and version stay the same
+            wordStatActor.tell(new WordStatMessages.UpdateAndGetWordStats("java"), getRef());
+            assertEquals(1L, expectMsgClass(WordStatMessages.WordStatsResult.class).getVersion());
+        }};
+    }
+
+    /**
+     * Tests that word counts follow the window of videos as videos arrive and leave.
+     */
+    @Test
+    public void testUpdateAndGetWordStats_AppliesVideoDelta() {
+        new akka.testkit.javadsl.TestKit(system) {{
+            SearchService searchService = mock(SearchService.class);
+            Video javaTutorial = new Video("Java Tutorial", "", "", "", "vid1", "", "", "");
+            Video javaConcurrency = new Video("Java Concurrency", "", "", "", "vid2", "", "", "");
+            Video akkaConcurrency = new Video("Akka Concurrency", "", "", "", "vid3", "", "", "");
+            Video akkaActors = new Video("Akka Actors", "", "", "", "vid4", "", "", "");
+            when(searchService.searchVideos(anyString(), anyInt())).thenReturn(
+                    CompletableFuture.completedFuture(Arrays.asList(javaTutorial, javaConcurrency)),
+                    CompletableFuture.completedFuture(Arrays.asList(akkaConcurrency, javaConcurrency, akkaActors)),
+                    CompletableFuture.completedFuture(Arrays.asList(akkaConcurrency, akkaActors)));
+
+            ActorRef wordStatActor = system.actorOf(WordStatActor.props(searchService));
+
+            wordStatActor.tell(new WordStatMessages.UpdateAndGetWordStats("java"), getRef());
+            assertEquals(Map.of("java", 2L), expectMsgClass(WordStatMessages.WordStatsResult.class).getWordStats());
+
+            // vid1 leaves the window, vid3 and vid4 arrive
+            wordStatActor.tell(new WordStatMessages.UpdateAndGetWordStats("java"), getRef());
+            WordStatMessages.WordStatsResult second = expectMsgClass(WordStatMessages.WordStatsResult.class);
+            assertEquals(2L, second.getVersion());
+            assertEquals(Map.of("concurrency", 2L, "akka", 2L), second.getWordStats());
+
+            // vid2 leaves the window
+            wordStatActor.tell(new WordStatMessages.UpdateAndGetWordStats("java"), getRef());
+            assertEquals(Map.of("akka", 2L), expectMsgClass(WordStatMessages.WordStatsResult.class).getWordStats());
+        }};
+    }
+
+    /**
+     * Tests that an n-gram request is answered with the phrase statistics of the window.
+     */
+    @Test
+    public void testUpdateAndGetWordStats_Bigrams() {
+        new akka.testkit.javadsl.TestKit(system) {{
+            SearchService searchService = mock(SearchService.class);
+            when(searchService.searchVideos(anyString(), anyInt())).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
+                    new Video("World Cup Final Highlights", "", "", "", "vid1", "", "", ""),
+                    new Video("World Cup Goals", "", "", "", "vid2", "", "", ""),
+                    new Video("Cup of World Coffee", "", "", "", "vid3", "", "", "")
+            )));
+
+            ActorRef wordStatActor = system.actorOf(WordStatActor.props(searchService));
+
+            wordStatActor.tell(new WordStatMessages.UpdateAndGetWordStats("football", 2), getRef());
+            assertEquals(Map.of("world cup", 2L), expectMsgClass(WordStatMessages.WordStatsResult.class).getWordStats());
+
+            wordStatActor.tell(new WordStatMessages.UpdateAndGetWordStats("football"), getRef());
+            assertEquals(Map.of("world", 3L, "cup", 3L), expectMsgClass(WordStatMessages.WordStatsResult.class).getWordStats());
+        }};
+    }
+
+    /**
+     * Tests that concurrent UpdateAndGetWordStats requests collapse into a single fetch.
+     */
+    @Test
+    public void testUpdateAndGetWordStats_CoalescesConcurrentRequests() {
+        new akka.testkit.javadsl.TestKit(system) {{
+            SearchService searchService = mock(SearchService.class);
+            CompletableFuture<List<Video>> pending = new CompletableFuture<>();
+            when(searchService.searchVideos(anyString(), anyInt())).thenReturn(pending);
+
+            ActorRef wordStatActor = system.actorOf(WordStatActor.props(searchService));
+            akka.testkit.javadsl.TestKit otherRequester = new akka.testkit.javadsl.TestKit(system);
+            wordStatActor.tell(new WordStatMessages.UpdateAndGetWordStats("java"), getRef());
+            wordStatActor.tell(new WordStatMessages.UpdateAndGetWordStats("java"), otherRequester.getRef());
+
+            pending.complete(Arrays.asList(
+                    new Video("Java Tutorial", "", "", "", "vid1", "", "", ""),
+                    new Video("Java Concurrency", "", "", "", "vid2", "", "", "")
+            ));
+
+            assertEquals(Map.of("java", 2L), expectMsgClass(WordStatMessages.WordStatsResult.class).getWordStats());
+            assertEquals(Map.of("java", 2L), otherRequester.expectMsgClass(WordStatMessages.WordStatsResult.class).getWordStats());
+            verify(searchService, times(1)).searchVideos(anyString(), anyInt());
+        }};
+    }
+
+    /**
+     * Tests that a failed fetch is reported to the requester as a WordStatsError.
+     */
+    @Test
+    public void testUpdateAndGetWordStats_Error() {
+        new akka.testkit.javadsl.TestKit(system) {{
+            SearchService searchService = mock(SearchService.class);
+            when(searchService.searchVideos(anyString(), anyInt()))
+                    .thenReturn(CompletableFuture.failedFuture(new Exception("Search error")));
+
+            ActorRef wordStatActor = system.actorOf(WordStatActor.props(searchService));
+            wordStatActor.tell(new WordStatMessages.UpdateAndGetWordStats("java"), getRef());
+
+            WordStatMessages.WordStatsError error = expectMsgClass(WordStatMessages.WordStatsError.class);
+            assertEquals("java", error.getKeyword());
+        }};
+    }
+
+    /**
+     * Tests that a request routed just before the parent detached the actor is still answered, and that the
+     * actor only stops once its fetch completed.
+     */
+    @Test
+    public void testDetachedActorAnswersPendingRequestsBeforeStopping() {
+        new akka.testkit.javadsl.TestKit(system) {{
+            SearchService searchService = mock(SearchService.class);
+            CompletableFuture<List<Video>> pending = new CompletableFuture<>();
+            when(searchService.searchVideos(anyString(), anyInt())).thenReturn(pending);
+
+            ActorRef wordStatActor = childActorOf(WordStatActor.props(searchService, Duration.ofMillis(200)));
+            watch(wordStatActor);
+            expectMsgClass(Duration.ofSeconds(3), WordStatMessages.Passivate.class);
+
+            // The parent routes a request, then handles the Passivate and acknowledges it
+            akka.testkit.javadsl.TestKit requester = new akka.testkit.javadsl.TestKit(system);
+            wordStatActor.tell(new WordStatMessages.UpdateAndGetWordStats("java"), requester.getRef());
+            wordStatActor.tell(new WordStatMessages.Detached(), getRef());
+            expectNoMessage(Duration.ofMillis(300));
+
+            pending.complete(Arrays.asList(
+                    new Video("Java Tutorial", "", "", "", "vid1", "", "", ""),
+                    new Video("Java Concurrency", "", "", "", "vid2", "", "", "")
+            ));
+            assertEquals(Map.of("java", 2L), requester.expectMsgClass(WordStatMessages.WordStatsResult.class).getWordStats());
+            expectTerminated(wordStatActor);
+        }};
+    }
+
+    /**
+     * Tests that the idle timeout does not passivate an actor while a fetch is running.
+     */
+    @Test
+    public void testNoPassivationWhileFetching() {
+        new akka.testkit.javadsl.TestKit(system) {{
+            SearchService searchService = mock(SearchService.class);
+            CompletableFuture<List<Video>> pending = new CompletableFuture<>();
+            when(searchService.searchVideos(anyString(), anyInt())).thenReturn(pending);
+
+            ActorRef wordStatActor = childActorOf(WordStatActor.props(searchService, Duration.ofMillis(200)));
+            akka.testkit.javadsl.TestKit requester = new akka.testkit.javadsl.TestKit(system);
+            wordStatActor.tell(new WordStatMessages.UpdateAndGetWordStats("java"), requester.getRef());
+            expectNoMessage(Duration.ofMillis(600));
+
+            pending.complete(Collections.singletonList(new Video("Java Tutorial", "", "", "", "vid1", "", "", "")));
+            requester.expectMsgClass(WordStatMessages.WordStatsResult.class);
+            expectMsgClass(Duration.ofSeconds(3), WordStatMessages.Passivate.class);
+        }};
+    }
+
     /**
      * Tests that the {@code props} method returns the correct Props for the WordStatActor.
      */
@@ -35,9 +35,42 @@ public class WordStatMessagesTest {
     @Test
     public void testGetWordStatsMessageInstance() {
         // Act
-        WordStatMessages.GetWordStats getWordStatsMessage = new WordStatMessages.GetWordStats();
+        WordStatMessages.GetWordStats getWordStatsMessage = new WordStatMessages.GetWordStats("testKeyword");
 
         // Assert
         assertNotNull("The GetWordStats message instance should not be null", getWordStatsMessage);
+        assertEquals("The keyword should be set correctly", "testKeyword", getWordStatsMessage.getKeyword());
+    }
+
+    @Test
+    public void testKeywordMessages() {
+        // Act
+        WordStatMessages.KeywordMessage update = new WordStatMessages.UpdateVideos("java");
+        WordStatMessages.KeywordMessage get = new WordStatMessages.GetWordStats("scala");
+
+        // Assert
+        assertEquals("java", update.getKeyword());
+        assertEquals("scala", get.getKeyword());
+    }
+
+    @Test
+    public void testWordStatsResult() {
+        // Act
+        WordStatMessages.WordStatsResult result = new WordStatMessages.WordStatsResult("java", 3L, java.util.Map.of("java", 2L));
+
+        // Assert
+        assertEquals("java", result.getKeyword());
+        assertEquals(3L, result.getVersion());
+        assertEquals(Long.valueOf(2L), result.getWordStats().get("java"));
+    }
+
+    @Test
+    public void testWordStatsError() {
+        // Act
+        WordStatMessages.WordStatsError error = new WordStatMessages.WordStatsError("java", "Search error");
+
+        // Assert
+        assertEquals("java", error.getKeyword());
+        assertEquals("Search error", error.getErrorMessage());
     }
 }
@@ -0,0 +1,117 @@
+package actors;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.testkit.TestActorRef;
+import akka.testkit.javadsl.TestKit;
+import models.entities.Video;
+import models.services.SearchService;
+import org.junit.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link WordStatRouterActor}.
+ */
+public class WordStatRouterActorTest {
+
+    static ActorSystem system;
+
+    @BeforeClass
+    public static void setup() {
+        system = ActorSystem.create("WordStatRouterTestSystem");
+    }
+
+    @AfterClass
+    public static void teardown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    /**
+     * Tests that the statistics of two keywords are kept apart.
+     */
+    @Test
+    public void testKeywordsHaveIsolatedStats() {
+        new TestKit(system) {{
+            SearchService searchService = mock(SearchService.class);
+            when(searchService.searchVideos(eq("java"), anyInt())).thenReturn(CompletableFuture.completedFuture(List.of(
+                    new Video("Java Tutorial", "", "", "", "vid1", "", "", ""),
+                    new Video("Java Streams", "", "", "", "vid2", "", "", "")
+            )));
+            when(searchService.searchVideos(eq("akka"), anyInt())).thenReturn(CompletableFuture.completedFuture(List.of(
+                    new Video("Akka Actors", "", "", "", "vid3", "", "", ""),
+                    new Video("Akka Streams", "", "", "", "vid4", "", "", "")
+            )));
+
+            ActorRef router = system.actorOf(WordStatRouterActor.props(searchService));
+            router.tell(new WordStatMessages.UpdateVideos("java"), ActorRef.noSender());
+            router.tell(new WordStatMessages.UpdateVideos("akka"), ActorRef.noSender());
+
+            awaitAssert(Duration.ofSeconds(3), () -> {
+                router.tell(new WordStatMessages.GetWordStats("java"), getRef());
+                Map<?, ?> javaStats = expectMsgClass(Map.class);
+                assertEquals(Map.of("java", 2L), javaStats);
+                return null;
+            });
+
+            awaitAssert(Duration.ofSeconds(3), () -> {
+                router.tell(new WordStatMessages.GetWordStats("akka"), getRef());
+                Map<?, ?> akkaStats = expectMsgClass(Map.class);
+                assertEquals(Map.of("akka", 2L), akkaStats);
+                return null;
+            });
+        }};
+    }
+
+    /**
+     * Tests that a child actor is created per keyword and reused for later messages.
+     */
+    @Test
+    public void testOneChildPerKeyword() {
+        new TestKit(system) {{
+            SearchService searchService = mock(SearchService.class);
+            TestActorRef<WordStatRouterActor> router = TestActorRef.create(system, WordStatRouterActor.props(searchService));
+
+            router.tell(new WordStatMessages.GetWordStats("java"), getRef());
+            expectMsgClass(Map.class);
+            router.tell(new WordStatMessages.GetWordStats("java"), getRef());
+            expectMsgClass(Map.class);
+            router.tell(new WordStatMessages.GetWordStats("scala"), getRef());
+            expectMsgClass(Map.class);
+
+            assertEquals(2, router.underlyingActor().getActiveKeywordCount());
+        }};
+    }
+
+    /**
+     * Tests that idle keyword actors are passivated and recreated on demand.
+     */
+    @Test
+    public void testIdleChildIsPassivated() {
+        new TestKit(system) {{
+            SearchService searchService = mock(SearchService.class);
+            TestActorRef<WordStatRouterActor> router = TestActorRef.create(system,
+                    WordStatRouterActor.props(searchService, Duration.ofMillis(200)));
+
+            router.tell(new WordStatMessages.GetWordStats("java"), getRef());
+            expectMsgClass(Map.class);
+            assertEquals(1, router.underlyingActor().getActiveKeywordCount());
+
+            awaitAssert(Duration.ofSeconds(3), () -> {
+                assertEquals(0, router.underlyingActor().getActiveKeywordCount());
+                return null;
+            });
+
+            router.tell(new WordStatMessages.GetWordStats("java"), getRef());
+            assertTrue(expectMsgClass(Map.class).isEmpty());
+        }};
+    }
+}
@@ -66,6 +66,7 @@ public class YoutubeControllerTest {
                 mockMaterializer,
                 mockYouTubeService,
                 mockSentimentService,
+                mock(VideoStore.class),
                 null // Execution context is not used in these tests
         );
 
@@ -169,7 +170,7 @@ public class YoutubeControllerTest {
         Http.Request mockRequest = mock(Http.Request.class);
 
         // Act
-        CompletionStage<Result> resultStage = youtubeController.wordStats(keyword, mockRequest);
+        CompletionStage<Result> resultStage = youtubeController.wordStats(keyword, 1, mockRequest);
         Result result = resultStage.toCompletableFuture().get();
 
         // Assert
@@ -0,0 +1,66 @@
+package models.entities;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static models.entities.TestVideos.video;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link SearchHistory} class.
+ */
+public class SearchHistoryTest {
+
+    /**
+     * Tests that changes return new histories and leave the original unchanged.
+     */
+    @Test
+    public void testChangesAreCopyOnWrite() {
+        SearchHistory one = SearchHistory.EMPTY.with("java", List.of(video("v1")));
+        SearchHistory two = one.with("scala", List.of(video("v2")));
+        SearchHistory replaced = two.with("java", List.of(video("v3")));
+
+        assertEquals(0, SearchHistory.EMPTY.size());
+        assertEquals(List.of("java"), one.keywords());
+        assertEquals(List.of("java", "scala"), two.keywords());
+        assertEquals(List.of(video("v1")), two.get("java"));
+        assertEquals("An existing keyword keeps its position", List.of("java", "scala"), replaced.keywords());
+        assertEquals(List.of(video("v3")), replaced.get("java"));
+        assertSame("Unchanged keywords share their videos", two.get("scala"), replaced.get("scala"));
+        assertNull(replaced.get("kotlin"));
+    }
+
+    /**
+     * Tests that the oldest keyword is removed.
+     */
+    @Test
+    public void testWithoutOldest() {
+        SearchHistory history = SearchHistory.EMPTY.with("java", List.of(video("v1"))).with("scala", List.of(video("v2")));
+
+        SearchHistory trimmed = history.withoutOldest();
+        assertEquals(List.of("scala"), trimmed.keywords());
+        assertFalse(trimmed.containsKey("java"));
+        assertEquals(List.of(video("v2")), trimmed.get("scala"));
+        assertSame(SearchHistory.EMPTY, SearchHistory.EMPTY.withoutOldest());
+    }
+
+    /**
+     * Tests the map view, which is ordered, unmodifiable and not affected by the caller's list.
+     */
+    @Test
+    public void testMapView() {
+        List<Video> videos = new ArrayList<>(List.of(video("v1")));
+        SearchHistory history = SearchHistory.EMPTY.with("java", videos).with("scala", List.of(video("v2")));
+        videos.add(video("v9"));
+
+        Map<String, List<Video>> map = history.asMap();
+        assertEquals(Map.of("java", List.of(video("v1")), "scala", List.of(video("v2"))), map);
+        assertEquals(List.of("java", "scala"), new ArrayList<>(map.keySet()));
+        assertTrue(map.containsKey("scala"));
+        assertThrows(UnsupportedOperationException.class, () -> map.remove("java"));
+        assertThrows(UnsupportedOperationException.class, () -> map.get("java").clear());
+    }
+}
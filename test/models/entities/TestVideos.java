@@ -0,0 +1,48 @@
+package models.entities;
+
+/**
+ * Videos for the tests, with placeholder values in the fields a test does not set. The description is
+ * {@code null}, so that tests round-tripping these videos also cover a missing field.
+ */
+public final class TestVideos {
+
+    public static final String CHANNEL_ID = "channelId";
+    public static final String PUBLISHED_AT = "2024-12-01T10:00:00Z";
+
+    private TestVideos() {
+    }
+
+    /**
+     * Returns a video titled after its ID.
+     *
+     * @param videoId the video ID
+     * @return the video
+     */
+    public static Video video(String videoId) {
+        return video(videoId, "Title " + videoId);
+    }
+
+    /**
+     * Returns a video with a title.
+     *
+     * @param videoId the video ID
+     * @param title   the title
+     * @return the video
+     */
+    public static Video video(String videoId, String title) {
+        return video(videoId, CHANNEL_ID, title, PUBLISHED_AT);
+    }
+
+    /**
+     * Returns a video of a channel, published at a time.
+     *
+     * @param videoId     the video ID
+     * @param channelId   the channel ID
+     * @param title       the title
+     * @param publishedAt the publication time, as an ISO-8601 date-time or date
+     * @return the video
+     */
+    public static Video video(String videoId, String channelId, String title, String publishedAt) {
+        return new Video(title, null, "Channel", "thumb", videoId, channelId, "url", publishedAt);
+    }
+}
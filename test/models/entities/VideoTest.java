@@ -1,6 +1,9 @@
 package models.entities;
 
 import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.Assert.*;
 
 /**
@@ -8,7 +11,7 @@ import static org.junit.Assert.*;
  *
  * This test class validates the functionality of:
  * - Constructors (default and parameterized).
- * - Getter and setter methods.
+ * - Getter methods, packed IDs and derived URLs.
  * - `equals`, `hashCode`, and `toString` implementations.
  *
  * Ensures the correctness of the {@code Video} class by covering all major functionalities.
@@ -58,35 +61,75 @@ public class VideoTest {
     }
 
     /**
-     * Tests the getter and setter methods for all fields.
+     * Tests that a YouTube video ID is packed, and the URLs following the YouTube patterns are derived from it.
      */
     @Test
-    public void testSettersAndGetters() {
-        Video video = new Video();
+    public void testDerivedFields() {
+        String videoId = "dQw4w9WgXcQ";
+        Video video = new Video("Title", "Déscription ✓", "Channel", "https://i.ytimg.com/vi/" + videoId + "/default.jpg",
+                videoId, "channel", "https://www.youtube.com/watch?v=" + videoId, "2024-11-29T00:00:00Z");
+
+        assertEquals(videoId, video.getVideoId());
+        assertEquals("https://www.youtube.com/watch?v=" + videoId, video.getVideoURL());
+        assertEquals("https://i.ytimg.com/vi/" + videoId + "/default.jpg", video.getThumbnailUrl());
+        assertEquals("Déscription ✓", video.getDescription());
+        assertEquals("", new Video("Title", "", null, null, videoId, null, null, null).getDescription());
+    }
+
+    /**
+     * Tests that the publication time is parsed once, and its text is returned as given.
+     */
+    @Test
+    public void testPublishedAt() {
+        Video instant = new Video(null, null, null, null, "dQw4w9WgXcQ", null, null, "2024-11-29T10:15:30Z");
+        Video offset = new Video(null, null, null, null, "dQw4w9WgXcQ", null, null, "2024-11-29T12:15:30+02:00");
+        Video date = new Video(null, null, null, null, "dQw4w9WgXcQ", null, null, "2024-11-29");
+        Video invalid = new Video(null, null, null, null, "dQw4w9WgXcQ", null, null, "yesterday");
+        Video millis = new Video(null, null, null, null, "dQw4w9WgXcQ", null, null, 1732875330000L);
 
-        String title = "Updated Title";
-        String description = "Updated Description";
-        String channelTitle = "Updated Channel Title";
-        String thumbnailUrl = "http://example.com/updated_thumbnail.jpg";
-        String videoId = "updated123";
-        String channelId = "updated456";
-        String videoURL = "http://youtube.com/watch?v=updated123";
-
-        video.setTitle(title);
-        video.setDescription(description);
-        video.setChannelTitle(channelTitle);
-        video.setThumbnailUrl(thumbnailUrl);
-        video.setVideoId(videoId);
-        video.setChannelId(channelId);
-        video.setVideoURL(videoURL);
-
-        assertEquals("Title should be retrieved correctly", title, video.getTitle());
-        assertEquals("Description should be retrieved correctly", description, video.getDescription());
-        assertEquals("Channel title should be retrieved correctly", channelTitle, video.getChannelTitle());
-        assertEquals("Thumbnail URL should be retrieved correctly", thumbnailUrl, video.getThumbnailUrl());
-        assertEquals("Video ID should be retrieved correctly", videoId, video.getVideoId());
-        assertEquals("Channel ID should be retrieved correctly", channelId, video.getChannelId());
-        assertEquals("Video URL should be retrieved correctly", videoURL, video.getVideoURL());
+        assertEquals(1732875330000L, instant.getPublishedAtMillis());
+        assertEquals(1732875330000L, offset.getPublishedAtMillis());
+        assertEquals(1732838400000L, date.getPublishedAtMillis());
+        assertEquals(Video.UNKNOWN_TIME, invalid.getPublishedAtMillis());
+        assertEquals(Video.UNKNOWN_TIME, new Video().getPublishedAtMillis());
+        assertEquals("2024-11-29T10:15:30Z", instant.getPublishedAt());
+        assertEquals("2024-11-29T12:15:30+02:00", offset.getPublishedAt());
+        assertEquals("2024-11-29", date.getPublishedAt());
+        assertEquals("yesterday", invalid.getPublishedAt());
+        assertEquals("2024-11-29T10:15:30Z", millis.getPublishedAt());
+        assertTrue(instant.hasSameFields(millis));
+        assertFalse(instant.hasSameFields(offset));
+    }
+
+    /**
+     * Tests that IDs and URLs not following the YouTube patterns are kept as given.
+     */
+    @Test
+    public void testIrregularFields() {
+        Video packedZero = new Video(null, null, null, null, "AAAAAAAAAAA", null, null, null);
+        Video noId = new Video();
+        assertEquals("AAAAAAAAAAA", packedZero.getVideoId());
+        assertNotEquals(packedZero, noId);
+
+        Video video = new Video("Title", null, null, "https://i.ytimg.com/vi/other/default.jpg", "dQw4w9WgXcQ",
+                null, "https://youtu.be/dQw4w9WgXcQ", null);
+        assertEquals("https://i.ytimg.com/vi/other/default.jpg", video.getThumbnailUrl());
+        assertEquals("https://youtu.be/dQw4w9WgXcQ", video.getVideoURL());
+        assertEquals("sampleVideoId", new Video(null, null, null, null, "sampleVideoId", null, null, null).getVideoId());
+    }
+
+    /**
+     * Tests that hasSameFields compares every field, unlike equals.
+     */
+    @Test
+    public void testHasSameFields() {
+        Video video = new Video("Title", "Description", "Channel", "thumb", "dQw4w9WgXcQ", "channel", null, "2024-11-29");
+        Video same = new Video("Title", "Description", "Channel", "thumb", "dQw4w9WgXcQ", "channel", null, "2024-11-29");
+        Video renamed = new Video("Renamed", "Description", "Channel", "thumb", "dQw4w9WgXcQ", "channel", null, "2024-11-29");
+
+        assertTrue(video.hasSameFields(same));
+        assertEquals(video, renamed);
+        assertFalse(video.hasSameFields(renamed));
     }
 
     /**
@@ -268,4 +311,22 @@ public class VideoTest {
 
         assertEquals("hashCode should be consistent for the same object", initialHashCode, subsequentHashCode);
     }
+
+    /**
+     * Tests that the estimated size counts the stored fields, so derived URLs and packed IDs take no space.
+     */
+    @Test
+    public void testEstimatedSize() {
+        Video derived = new Video("Title", "Déscription", "Channel", "https://i.ytimg.com/vi/dQw4w9WgXcQ/default.jpg",
+                "dQw4w9WgXcQ", "channel1", "https://www.youtube.com/watch?v=dQw4w9WgXcQ", "2024-11-24T10:00:00Z");
+        Video irregular = new Video("Title", "Déscription", "Channel", "thumb", "videoId",
+                "channel1", "http://video.url", "2024-11-24");
+
+        long strings = 3 * 40 + 2 * ("Title".length() + "Channel".length() + "channel1".length());
+        long description = 16 + "Déscription".getBytes(StandardCharsets.UTF_8).length;
+        assertEquals(64 + strings + description, derived.estimatedSize());
+        assertEquals(derived.estimatedSize() + 4 * 40 + 2 * ("videoId".length() + "thumb".length()
+                + "http://video.url".length() + "2024-11-24".length()), irregular.estimatedSize());
+        assertEquals(64, new Video().estimatedSize());
+    }
 }
@@ -5,6 +5,7 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import java.net.http.HttpClient;
@@ -118,6 +119,7 @@ public class ChannelProfileServiceTest {
 
         List<Video> mockVideos = List.of(video1, video2);
         Mockito.when(youTubeService.parseVideos(any(JSONArray.class))).thenReturn(mockVideos);
+        Mockito.when(youTubeService.parseUploadsPlaylistId(any(JSONObject.class))).thenReturn("UU-test-uploads");
 
         // Mock HttpClient and HttpResponse
         HttpClient mockHttpClient = mock(HttpClient.class);
@@ -146,7 +148,14 @@ public class ChannelProfileServiceTest {
         Video resultVideo1 = result.get(0);
         Assert.assertEquals("videoId1", resultVideo1.getVideoId());
         Assert.assertEquals("title1", resultVideo1.getTitle());
-        // Add more assertions as needed
+
+        // The uploads playlist is resolved once, then only playlistItems is called
+        service.getChannelVideos(testChannelId, maxResults).toCompletableFuture().get();
+        ArgumentCaptor<HttpRequest> requests = ArgumentCaptor.forClass(HttpRequest.class);
+        Mockito.verify(mockHttpClient, Mockito.times(3)).sendAsync(requests.capture(), any(HttpResponse.BodyHandler.class));
+        assertTrue(requests.getAllValues().get(0).uri().toString().contains("/channels?part=contentDetails&id=test-channel-id"));
+        assertTrue(requests.getAllValues().get(1).uri().toString().contains("/playlistItems?part=snippet,contentDetails&playlistId=UU-test-uploads&maxResults=2"));
+        assertTrue(requests.getAllValues().get(2).uri().toString().contains("/playlistItems?"));
     }
 
     @Test
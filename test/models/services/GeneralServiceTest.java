@@ -1,14 +1,19 @@
 package models.services;
 
 import actors.ChannelProfileMessages;
+import actors.ChannelStatsMessages;
 import actors.SentimentMessages;
+import actors.TagGraphMessages;
+import actors.TagIndexMessages;
 import actors.TagMessages;
+import actors.TrendingMessages;
 import actors.WordStatMessages;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.testkit.TestKit;
 import akka.testkit.TestProbe;
 import controllers.routes;
+import models.entities.Channel;
 import models.entities.Video;
 import org.json.JSONObject;
 import org.junit.After;
@@ -18,6 +23,9 @@ import play.mvc.Http;
 import play.mvc.Result;
 
 import scala.concurrent.duration.Duration;
+import utils.ChannelStats;
+import utils.ExpiringCache;
+import utils.TrendingTerms;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
@@ -203,11 +211,7 @@ public class GeneralServiceTest {
         String channelId = "channel123";
 
         // Prepare mock responses
-        JSONObject channelInfo = new JSONObject();
-        channelInfo.put("title", "Sample Channel");
-        channelInfo.put("description", "Sample Description");
-        channelInfo.put("subscriberCount", 1000);
-        channelInfo.put("videoCount", 50);
+        Channel channelInfo = new Channel(channelId, "Sample Channel", "Sample Description", null);
         ChannelProfileMessages.ChannelInfoResponse infoResponse = new ChannelProfileMessages.ChannelInfoResponse(channelInfo);
 
         List<Video> videos = List.of(
@@ -241,6 +245,34 @@ public class GeneralServiceTest {
         // assertTrue(contentAsString(result).contains("Video1"));
     }
 
+    @Test
+    public void testChannelProfileHelper_WithChannelStats() throws Exception {
+        String channelId = "channel123";
+        TestProbe channelStatsProbe = new TestProbe(system);
+
+        Channel channelInfo = new Channel(channelId, "Sample Channel", "Sample Description", null);
+        List<Video> videos = List.of(
+                new Video("Video1", "Description1", "Channel1", "https://thumbnail1.url", "videoId1", channelId, "https://www.youtube.com/watch?v=videoId1", "2024-11-24T18:00:00Z"));
+        ChannelStats stats = new ChannelStats();
+        stats.add(videos.get(0), ChannelStats.SENTIMENT_NEUTRAL);
+
+        CompletionStage<Result> resultStage = GeneralService.channelProfileHelper(mockChannelProfileActorProbe.ref(), channelStatsProbe.ref(), channelId, mockRequest);
+
+        mockChannelProfileActorProbe.expectMsgClass(ChannelProfileMessages.GetChannelInfo.class);
+        mockChannelProfileActorProbe.reply(new ChannelProfileMessages.ChannelInfoResponse(channelInfo));
+        mockChannelProfileActorProbe.expectMsgClass(ChannelProfileMessages.GetChannelVideos.class);
+        mockChannelProfileActorProbe.reply(new ChannelProfileMessages.ChannelVideosResponse(videos));
+
+        // The statistics are requested once the videos were fetched
+        ChannelStatsMessages.GetChannelStats statsRequest = channelStatsProbe.expectMsgClass(ChannelStatsMessages.GetChannelStats.class);
+        assertEquals(channelId, statsRequest.getChannelId());
+        assertEquals(GeneralService.NUM_OF_CHANNEL_TOP_TERMS, statsRequest.getTopTerms());
+        channelStatsProbe.reply(new ChannelStatsMessages.ChannelStatsResponse(channelId, stats.summary(channelId, 10).orElseThrow()));
+
+        Result result = resultStage.toCompletableFuture().get();
+        assertEquals(OK, result.status());
+    }
+
     @Test
     public void testChannelProfileHelper_ErrorRetrieval() throws Exception {
         String channelId = "channel123";
@@ -275,6 +307,51 @@ public class GeneralServiceTest {
         // assertTrue(contentAsString(result).contains("Failed to fetch channel profile."));
     }
 
+    @Test
+    public void testChannelVideosHelper() throws Exception {
+        List<Video> videos = List.of(
+                new Video("Video1", "Description1", "Channel1", "https://thumbnail1.url", "videoId1", "channelId1", "https://www.youtube.com/watch?v=videoId1", "2024-11-24"));
+
+        // Invoke channelVideosHelper asynchronously
+        CompletionStage<Result> resultStage = GeneralService.channelVideosHelper(mockChannelProfileActorProbe.ref(), "channel123", "PAGE2", mockRequest);
+
+        // Expect GetChannelVideos message with the page token and reply
+        ChannelProfileMessages.GetChannelVideos received = mockChannelProfileActorProbe.expectMsgClass(ChannelProfileMessages.GetChannelVideos.class);
+        assertEquals("channel123", received.getChannelId());
+        assertEquals("PAGE2", received.getPageToken());
+        assertEquals(GeneralService.NUM_OF_CHANNEL_VIDEOS_PER_PAGE, received.getMaxResults());
+        mockChannelProfileActorProbe.reply(new ChannelProfileMessages.ChannelVideosResponse(videos, "PAGE3"));
+
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Assertions
+        assertEquals(OK, result.status());
+        JSONObject json = new JSONObject(contentAsString(result));
+        assertEquals("PAGE3", json.getString("nextPageToken"));
+        assertEquals("videoId1", json.getJSONArray("videos").getJSONObject(0).getString("videoId"));
+    }
+
+    @Test
+    public void testChannelCacheStatsHelper() throws Exception {
+        // Invoke channelCacheStatsHelper asynchronously
+        CompletionStage<Result> resultStage = GeneralService.channelCacheStatsHelper(mockChannelProfileActorProbe.ref(), mockRequest);
+
+        // Expect GetCacheStats message and reply
+        mockChannelProfileActorProbe.expectMsgClass(ChannelProfileMessages.GetCacheStats.class);
+        mockChannelProfileActorProbe.reply(new ChannelProfileMessages.CacheStatsResponse(
+                new ExpiringCache.Stats(3, 1, 1, 0, 1, 250_000_000L, 250_000_000L, 1),
+                new ExpiringCache.Stats(0, 1, 1, 0, 1, 400_000_000L, 400_000_000L, 1)));
+
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Assertions
+        assertEquals(OK, result.status());
+        JSONObject json = new JSONObject(contentAsString(result));
+        assertEquals(0.75, json.getJSONObject("info").getDouble("hitRate"), 1e-9);
+        assertEquals(250.0, json.getJSONObject("info").getDouble("averageLoadMillis"), 1e-9);
+        assertEquals(400.0, json.getJSONObject("videos").getDouble("maxLoadMillis"), 1e-9);
+    }
+
     // d. Testing wordStatHelper
     @Test
     public void testWordStatHelper_ValidKeyword() throws Exception {
@@ -387,7 +464,7 @@ public class GeneralServiceTest {
         String keyword = "   ";
 
         // Act
-        CompletionStage<Result> resultStage = GeneralService.wordStatActorHelper(mockSearchService, mockWordStatActorProbe.ref(), keyword, mockRequest);
+        CompletionStage<Result> resultStage = GeneralService.wordStatActorHelper(mockWordStatActorProbe.ref(), keyword, mockRequest);
         Result result = resultStage.toCompletableFuture().get();
 
         // Assert
@@ -395,6 +472,212 @@ public class GeneralServiceTest {
         assertEquals(routes.YoutubeController.index().url(), result.redirectLocation().orElse(""));
     }
 
+    @Test
+    public void testWordStatActorHelper_ValidKeyword() throws Exception {
+        // Act
+        CompletionStage<Result> resultStage = GeneralService.wordStatActorHelper(mockWordStatActorProbe.ref(), "Java ", mockRequest);
+
+        // The helper asks for a refresh of the standardized keyword and waits for the result
+        WordStatMessages.UpdateAndGetWordStats received = mockWordStatActorProbe.expectMsgClass(WordStatMessages.UpdateAndGetWordStats.class);
+        assertEquals("java", received.getKeyword());
+        mockWordStatActorProbe.reply(new WordStatMessages.WordStatsResult("java", 1L, Map.of("java", 2L)));
+
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Assert
+        assertEquals(OK, result.status());
+    }
+
+    @Test
+    public void testWordStatActorHelper_ActorError() throws Exception {
+        // Act
+        CompletionStage<Result> resultStage = GeneralService.wordStatActorHelper(mockWordStatActorProbe.ref(), "java", mockRequest);
+
+        mockWordStatActorProbe.expectMsgClass(WordStatMessages.UpdateAndGetWordStats.class);
+        mockWordStatActorProbe.reply(new WordStatMessages.WordStatsError("java", "Search failed"));
+
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Assert
+        assertEquals(INTERNAL_SERVER_ERROR, result.status());
+    }
+
+    @Test
+    public void testWordStatActorHelper_Bigrams() throws Exception {
+        // Act
+        CompletionStage<Result> resultStage = GeneralService.wordStatActorHelper(mockWordStatActorProbe.ref(), "football", 2, mockRequest);
+
+        WordStatMessages.UpdateAndGetWordStats received = mockWordStatActorProbe.expectMsgClass(WordStatMessages.UpdateAndGetWordStats.class);
+        assertEquals(2, received.ngramSize);
+        mockWordStatActorProbe.reply(new WordStatMessages.WordStatsResult("football", 1L, Map.of("world cup", 2L)));
+
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Assert
+        assertEquals(OK, result.status());
+    }
+
+    @Test
+    public void testWordStatActorHelper_InvalidNgramSize() throws Exception {
+        // Act
+        Result result = GeneralService.wordStatActorHelper(mockWordStatActorProbe.ref(), "football", 4, mockRequest)
+                .toCompletableFuture().get();
+
+        // Assert
+        assertEquals(BAD_REQUEST, result.status());
+    }
+
+    @Test
+    public void testRelatedVideosHelper() throws Exception {
+        TestProbe tagIndexActorProbe = new TestProbe(system);
+
+        // Act
+        CompletionStage<Result> resultStage = GeneralService.relatedVideosHelper(tagIndexActorProbe.ref(), "vid1", mockRequest);
+
+        TagIndexMessages.GetRelatedVideos received = tagIndexActorProbe.expectMsgClass(TagIndexMessages.GetRelatedVideos.class);
+        assertEquals("vid1", received.getVideoId());
+        tagIndexActorProbe.reply(new TagIndexMessages.RelatedVideosResponse("vid1", Map.of("vid2", 2)));
+
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Assert
+        assertEquals(OK, result.status());
+        assertTrue(contentAsString(result).contains("\"sharedTags\":2"));
+    }
+
+    @Test
+    public void testTagVideosHelper() throws Exception {
+        TestProbe tagIndexActorProbe = new TestProbe(system);
+
+        // Act
+        CompletionStage<Result> resultStage = GeneralService.tagVideosHelper(tagIndexActorProbe.ref(), "football", mockRequest);
+
+        TagIndexMessages.GetVideosForTag received = tagIndexActorProbe.expectMsgClass(TagIndexMessages.GetVideosForTag.class);
+        assertEquals("football", received.getTag());
+        tagIndexActorProbe.reply(new TagIndexMessages.VideosForTagResponse("football", List.of("vid2", "vid1")));
+
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Assert
+        assertEquals(OK, result.status());
+        assertTrue(contentAsString(result).contains("[\"vid2\",\"vid1\"]"));
+    }
+
+    @Test
+    public void testCooccurringTagsHelper() throws Exception {
+        TestProbe tagGraphActorProbe = new TestProbe(system);
+
+        // Act
+        CompletionStage<Result> resultStage = GeneralService.cooccurringTagsHelper(tagGraphActorProbe.ref(), "football", mockRequest);
+
+        TagGraphMessages.GetCooccurringTags received = tagGraphActorProbe.expectMsgClass(TagGraphMessages.GetCooccurringTags.class);
+        assertEquals("football", received.getTag());
+        tagGraphActorProbe.reply(new TagGraphMessages.CooccurringTagsResponse("football", Map.of("world cup", 2)));
+
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Assert
+        assertEquals(OK, result.status());
+        assertTrue(contentAsString(result).contains("\"world cup\""));
+    }
+
+    @Test
+    public void testTagClustersHelper() throws Exception {
+        TestProbe tagGraphActorProbe = new TestProbe(system);
+
+        // Act
+        CompletionStage<Result> resultStage = GeneralService.tagClustersHelper(tagGraphActorProbe.ref(), "java", mockRequest);
+
+        tagGraphActorProbe.expectMsgClass(TagGraphMessages.GetTagClusters.class);
+        tagGraphActorProbe.reply(new TagGraphMessages.TagClustersResponse("java", List.of(List.of("spring", "spring boot"))));
+
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Assert
+        assertEquals(OK, result.status());
+        assertTrue(contentAsString(result).contains("[[\"spring\",\"spring boot\"]]"));
+        assertEquals(BAD_REQUEST, GeneralService.tagClustersHelper(tagGraphActorProbe.ref(), " ", mockRequest).toCompletableFuture().get().status());
+    }
+
+    @Test
+    public void testTagCacheStatsHelper() throws Exception {
+        TagsService mockTagsService = mock(TagsService.class);
+        when(mockTagsService.getCacheStats()).thenReturn(new TagsService.CacheStats(3, 1, 1, 2, 60, 3, 61));
+
+        // Act
+        Result result = GeneralService.tagCacheStatsHelper(mockTagsService, mockRequest).toCompletableFuture().get();
+
+        // Assert
+        assertEquals(OK, result.status());
+        JSONObject json = new JSONObject(contentAsString(result));
+        assertEquals(0.75, json.getDouble("hitRate"), 0.0);
+        assertEquals(2, json.getInt("prefetchCalls"));
+    }
+
+    @Test
+    public void testKeywordVideosHelper() throws Exception {
+        VideoStore mockVideoStore = mock(VideoStore.class);
+        Video stored = new Video("Title", "Description", "Channel", "thumb", "videoId", "channelId", "url", "2024-12-01T10:00:00Z");
+        when(mockVideoStore.getVideosForKeyword("java", 1000L, GeneralService.NUM_OF_STORED_VIDEOS))
+                .thenReturn(CompletableFuture.completedFuture(List.of(stored)));
+
+        // Act
+        Result result = GeneralService.keywordVideosHelper(mockVideoStore, " Java ", 1000L, mockRequest).toCompletableFuture().get();
+
+        // Assert
+        assertEquals(OK, result.status());
+        JSONObject json = new JSONObject(contentAsString(result));
+        assertEquals("java", json.getString("keyword"));
+        assertEquals("videoId", json.getJSONArray("videos").getJSONObject(0).getString("videoId"));
+    }
+
+    @Test
+    public void testCorpusWordStatsHelper() throws Exception {
+        VideoStore mockVideoStore = mock(VideoStore.class);
+        List<Video> stored = List.of(new Video("Java Tutorial", "Learn Java", "Channel", "thumb", "videoId", "channelId", "url", "2024-12-01T10:00:00Z"));
+        when(mockVideoStore.getVideosForKeyword("java", 0L, GeneralService.NUM_OF_CORPUS_VIDEOS))
+                .thenReturn(CompletableFuture.completedFuture(stored));
+        when(mockWordStatService.createCorpusStats(stored)).thenReturn(Map.of("java", 2L));
+        when(mockWordStatService.getCorpusExecutor()).thenReturn(Runnable::run);
+
+        // Act
+        Result result = GeneralService.corpusWordStatsHelper(mockVideoStore, mockWordStatService, " Java ", mockRequest).toCompletableFuture().get();
+
+        // Assert
+        assertEquals(OK, result.status());
+        assertTrue(contentAsString(result).contains("<strong>java</strong>"));
+        verify(mockWordStatService).createCorpusStats(stored);
+    }
+
+    @Test
+    public void testTrendingHelper_ValidWindow() throws Exception {
+        TestProbe trendingActorProbe = new TestProbe(system);
+
+        // Act
+        CompletionStage<Result> resultStage = GeneralService.trendingHelper(trendingActorProbe.ref(), "5m", mockRequest);
+
+        TrendingMessages.GetTrending received = trendingActorProbe.expectMsgClass(TrendingMessages.GetTrending.class);
+        assertEquals(TrendingTerms.Window.FIVE_MINUTES, received.getWindow());
+        trendingActorProbe.reply(new TrendingMessages.TrendingResponse(TrendingTerms.Window.FIVE_MINUTES, Map.of("worldcup", 3L)));
+
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Assert
+        assertEquals(OK, result.status());
+        assertTrue(contentAsString(result).contains("worldcup"));
+    }
+
+    @Test
+    public void testTrendingHelper_UnknownWindow() throws Exception {
+        TestProbe trendingActorProbe = new TestProbe(system);
+
+        // Act
+        Result result = GeneralService.trendingHelper(trendingActorProbe.ref(), "1w", mockRequest).toCompletableFuture().get();
+
+        // Assert
+        assertEquals(BAD_REQUEST, result.status());
+    }
+
     @Test
     public void testGeneralServiceInstantiation() {
         // Act
@@ -1,5 +1,6 @@
 package models.services;
 
+import models.entities.SearchHistory;
 import models.entities.Video;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -12,10 +13,14 @@ import java.lang.reflect.Method;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -200,12 +205,65 @@ public class SearchServiceTest {
 
         searchService.updateVideosForKeyword(keyword, newVideos);
 
-        for (LinkedHashMap<String, List<Video>> history : searchService.sessionSearchHistoryMap.values()) {
-            assertTrue("History should contain the keyword", history.containsKey(keyword));
-            assertEquals("Keyword should have updated videos", newVideos, history.get(keyword));
+        for (AtomicReference<SearchHistory> history : searchService.sessionSearchHistoryMap.values()) {
+            assertTrue("History should contain the keyword", history.get().containsKey(keyword));
+            assertEquals("Keyword should have updated videos", newVideos, history.get().get(keyword));
         }
     }
 
+    /**
+     * Tests that the global updateVideosForKeyword only reaches the sessions indexed under the keyword,
+     * and that the index follows evicted keywords and cleared sessions.
+     */
+    @Test
+    public void testUpdateVideosForKeyword_KeywordIndex() {
+        Video oldVideo = new Video("Old", "Desc", "Channel", "Thumb", "oldVideoId", "channelId", "URL", "2024-12-01");
+        Video newVideo = new Video("New", "Desc", "Channel", "Thumb", "newVideoId", "channelId", "URL", "2024-12-09");
+        searchService.addSearchResult("session1", "java", List.of(oldVideo));
+        searchService.addSearchResult("session2", "java", List.of(oldVideo));
+        searchService.addSearchResult("session3", "scala", List.of(oldVideo));
+        assertEquals(Set.of("session1", "session2"), searchService.sessionsByKeyword.get("java"));
+
+        searchService.updateVideosForKeyword("java", List.of(newVideo));
+        assertEquals(List.of(newVideo, oldVideo), searchService.getSearchHistory("session1").get("java"));
+        assertEquals(List.of(newVideo, oldVideo), searchService.getSearchHistory("session2").get("java"));
+        assertEquals(List.of(oldVideo), searchService.getSearchHistory("session3").get("scala"));
+
+        // Pushing "java" out of the history of session1 removes it from the index
+        for (int i = 1; i <= 10; i++) {
+            searchService.addSearchResult("session1", "keyword" + i, List.of(oldVideo));
+        }
+        assertEquals(Set.of("session2"), searchService.sessionsByKeyword.get("java"));
+
+        searchService.clearSearchHistory("session2");
+        assertNull(searchService.sessionsByKeyword.get("java"));
+        assertEquals(Set.of("session3"), searchService.sessionsByKeyword.get("scala"));
+    }
+
+    /**
+     * Tests that polled videos are merged into the history of a keyword by recency, keeping the most recent 10.
+     */
+    @Test
+    public void testUpdateVideosForKeyword_MostRecent() {
+        List<Video> existing = new ArrayList<>();
+        for (int day = 20; day >= 11; day--) {
+            existing.add(new Video("Old", "Desc", "Channel", "Thumb", "old" + day, "channelId", "URL", "2024-11-" + day + "T10:00:00Z"));
+        }
+        Video newest = new Video("Newest", "Desc", "Channel", "Thumb", "newest", "channelId", "URL", "2024-11-30T10:00:00Z");
+        Video middle = new Video("Middle", "Desc", "Channel", "Thumb", "middle", "channelId", "URL", "2024-11-15T12:00:00Z");
+        Video oldest = new Video("Oldest", "Desc", "Channel", "Thumb", "oldest", "channelId", "URL", "2024-11-01T10:00:00Z");
+        searchService.addSearchResult("session1", "java", existing);
+
+        searchService.updateVideosForKeyword("session1", "java", List.of(newest, middle, oldest));
+        List<Video> videos = searchService.getSearchHistory("session1").get("java");
+        assertEquals(10, videos.size());
+        assertEquals(newest, videos.get(0));
+        assertEquals(middle, videos.get(6));
+        assertFalse("An older polled video is not kept", videos.contains(oldest));
+        assertFalse(videos.contains(existing.get(9)));
+        assertFalse(videos.contains(existing.get(8)));
+    }
+
     /**
      * Tests updateVideosForKeyword (session-specific version).
      */
@@ -224,24 +282,6 @@ public class SearchServiceTest {
         assertEquals("Should contain the new videos", videos, searchHistory.get(keyword));
     }
 
-    /**
-     * Tests removeOldestEntry.
-     */
-    @Test
-    public void testRemoveOldestEntry() {
-        LinkedHashMap<String, List<Video>> searchHistory = new LinkedHashMap<>();
-        for (int i = 1; i <= 10; i++) {
-            searchHistory.put("keyword" + i, List.of(
-                    new Video("Title" + i, "Desc" + i, "Channel" + i, "Thumb" + i, "videoId" + i, "channelId" + i, "URL" + i, "2024-12-0" + i)
-            ));
-        }
-
-        searchService.removeOldestEntry(searchHistory);
-
-        assertEquals("Search history size should be reduced by 1", 9, searchHistory.size());
-        assertFalse("Oldest entry should be removed", searchHistory.containsKey("keyword1"));
-    }
-
     /**
      * Tests clearSearchHistory.
      */
@@ -262,6 +302,83 @@ public class SearchServiceTest {
         assertTrue("Search history should be empty after clearing", searchService.getSearchHistory(sessionId).isEmpty());
     }
 
+    /**
+     * Tests that a snapshot returned by getSearchHistory is immutable and unaffected by later updates.
+     */
+    @Test
+    public void testSearchHistorySnapshot() {
+        String sessionId = "session1";
+        Video first = new Video("First", "Desc", "Channel", "Thumb", "firstId", "channelId", "URL", "2024-12-01");
+        Video second = new Video("Second", "Desc", "Channel", "Thumb", "secondId", "channelId", "URL", "2024-12-02");
+        searchService.addSearchResult(sessionId, "keyword1", List.of(first));
+
+        Map<String, List<Video>> snapshot = searchService.getSearchHistory(sessionId);
+        searchService.updateVideosForKeyword(sessionId, "keyword1", List.of(second));
+        searchService.addSearchResult(sessionId, "keyword2", List.of(second));
+
+        assertEquals(Map.of("keyword1", List.of(first)), snapshot);
+        assertEquals(List.of("keyword1", "keyword2"), new ArrayList<>(searchService.getSearchHistory(sessionId).keySet()));
+        assertEquals(List.of(second, first), searchService.getSearchHistory(sessionId).get("keyword1"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.put("keyword3", List.of()));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.get("keyword1").add(second));
+    }
+
+    /**
+     * Tests that the search histories are loaded from the journal after a restart, and that a cleared history stays
+     * cleared.
+     */
+    @Test
+    public void testSearchHistoryJournal() throws Exception {
+        Path directory = Files.createTempDirectory("search-service-journal");
+        Video first = new Video("First", "Desc", "Channel", "Thumb", "firstId", "channelId", "URL", "2024-12-01");
+        Video second = new Video("Second", "Desc", "Channel", "Thumb", "secondId", "channelId", "URL", "2024-12-02");
+
+        SessionJournal journal = new SessionJournal(directory, 1000, 3600_000L);
+        SearchService before = new SearchService(mockSentimentService, mockYouTubeService, journal);
+        before.addSearchResult("session1", "keyword1", List.of(first));
+        before.addSearchResult("session1", "keyword2", List.of(second));
+        before.updateVideosForKeyword("session1", "keyword1", List.of(second));
+        before.addSearchResult("session2", "keyword1", List.of(first));
+        before.clearSearchHistory("session2");
+        journal.close();
+
+        journal = new SessionJournal(directory, 1000, 3600_000L);
+        SearchService after = new SearchService(mockSentimentService, mockYouTubeService, journal);
+        assertEquals(before.getSearchHistory("session1"), after.getSearchHistory("session1"));
+        assertEquals(List.of("keyword1", "keyword2"), new ArrayList<>(after.getSearchHistory("session1").keySet()));
+        assertTrue(after.getSearchHistory("session2").isEmpty());
+        assertEquals("A loaded session is indexed by keyword", Set.of("session1"), after.sessionsByKeyword.get("keyword2"));
+
+        after.addSearchResult("session1", "keyword3", List.of(first));
+        assertEquals(3, after.getSearchHistory("session1").size());
+        journal.close();
+        for (Path file : Files.list(directory).collect(Collectors.toList())) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Tests that the estimated size of the search histories is tracked as they change.
+     */
+    @Test
+    public void testSearchHistorySizeAccounting() {
+        String sessionId = "session1";
+        List<Video> videos = List.of(
+                new Video("Title", "Desc", "Channel", "Thumb", "videoId", "channelId", "URL", "2024-12-01")
+        );
+
+        searchService.addSearchResult(sessionId, "keyword1", videos);
+        long oneKeyword = searchService.sessionSearchHistoryMap.totalBytes();
+        assertEquals(SearchService.estimateSize(searchService.getSearchHistory(sessionId)), oneKeyword);
+
+        searchService.addSearchResult(sessionId, "keyword2", videos);
+        assertTrue("Size should grow with the history", searchService.sessionSearchHistoryMap.totalBytes() > oneKeyword);
+
+        searchService.clearSearchHistory(sessionId);
+        assertEquals(0, searchService.sessionSearchHistoryMap.totalBytes());
+    }
+
     /**
      * Tests accessor methods.
      */
@@ -0,0 +1,186 @@
+package models.services;
+
+import models.entities.SearchHistory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static models.entities.TestVideos.video;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link SessionJournal} class.
+ */
+public class SessionJournalTest {
+
+    private static final long DAY_MILLIS = 24 * 3600 * 1000L;
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("session-journal");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static SearchHistory change(SessionJournal journal, String sessionId, SearchHistory previous, SearchHistory updated, long version) {
+        SearchHistory versioned = updated.withVersion(version);
+        journal.appendChange(sessionId, previous, versioned);
+        return versioned;
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Tests that the histories are loaded back after a restart, with their versions.
+     */
+    @Test
+    public void testLoadAfterRestart() {
+        SessionJournal journal = new SessionJournal(directory, 1000, DAY_MILLIS);
+        SearchHistory one = change(journal, "s1", SearchHistory.EMPTY, SearchHistory.EMPTY.with("java", List.of(video("v1"))), 1);
+        SearchHistory two = change(journal, "s1", one, one.with("scala", List.of(video("v2"), video("v3"))), 2);
+        change(journal, "s1", two, two.with("java", List.of(video("v4"), video("v1"))), 3);
+        change(journal, "s2", SearchHistory.EMPTY, SearchHistory.EMPTY.with("kotlin", List.of(video("v5"))), 4);
+        journal.close();
+
+        SessionJournal reopened = new SessionJournal(directory, 1000, DAY_MILLIS);
+        SearchHistory loaded = reopened.load("s1");
+        assertEquals(List.of("java", "scala"), loaded.keywords());
+        assertEquals(List.of(video("v4"), video("v1")), loaded.get("java"));
+        assertEquals(List.of(video("v2"), video("v3")), loaded.get("scala"));
+        assertNull("Null fields are kept", loaded.get("java").get(0).getDescription());
+        assertEquals(3, loaded.version());
+        assertEquals(List.of("kotlin"), reopened.load("s2").keywords());
+        assertNull(reopened.load("unknown"));
+        assertEquals(4, reopened.lastVersion());
+        reopened.close();
+    }
+
+    /**
+     * Tests that changes appended out of order are merged by version.
+     */
+    @Test
+    public void testOutOfOrderAppends() {
+        SessionJournal journal = new SessionJournal(directory, 1000, DAY_MILLIS);
+        SearchHistory one = SearchHistory.EMPTY.with("java", List.of(video("v1"))).withVersion(1);
+        SearchHistory newer = one.with("java", List.of(video("v3"))).with("scala", List.of(video("v4")));
+        SearchHistory older = one.with("java", List.of(video("v2")));
+        change(journal, "s1", SearchHistory.EMPTY, one, 1);
+        change(journal, "s1", one, newer, 3);
+        change(journal, "s1", one, older, 2);
+
+        SearchHistory loaded = journal.load("s1");
+        assertEquals(List.of("java", "scala"), loaded.keywords());
+        assertEquals(List.of(video("v3")), loaded.get("java"));
+        assertEquals(3, loaded.version());
+        journal.close();
+    }
+
+    /**
+     * Tests that a clearing hides the older records, but not the newer ones, across restarts.
+     */
+    @Test
+    public void testClear() {
+        SessionJournal journal = new SessionJournal(directory, 1000, DAY_MILLIS);
+        change(journal, "s1", SearchHistory.EMPTY, SearchHistory.EMPTY.with("java", List.of(video("v1"))), 1);
+        journal.appendClear("s1", 3);
+        change(journal, "s1", SearchHistory.EMPTY, SearchHistory.EMPTY.with("late", List.of(video("v2"))), 2);
+        assertNull(journal.load("s1"));
+
+        change(journal, "s1", SearchHistory.EMPTY, SearchHistory.EMPTY.with("scala", List.of(video("v3"))), 4);
+        journal.close();
+
+        SessionJournal reopened = new SessionJournal(directory, 1000, DAY_MILLIS);
+        assertEquals(List.of("scala"), reopened.load("s1").keywords());
+        reopened.close();
+    }
+
+    /**
+     * Tests that a snapshot replaces the journal and keeps every session.
+     */
+    @Test
+    public void testCompaction() throws Exception {
+        SessionJournal journal = new SessionJournal(directory, 10, DAY_MILLIS);
+        SearchHistory[] histories = {SearchHistory.EMPTY, SearchHistory.EMPTY, SearchHistory.EMPTY};
+        for (int version = 1; version <= 25; version++) {
+            int session = version % 3;
+            histories[session] = change(journal, "s" + session, histories[session],
+                    histories[session].with("keyword" + (version % 4), List.of(video("v" + version))), version);
+        }
+        journal.awaitCompaction();
+        journal.awaitCompaction();
+        for (int session = 0; session < 3; session++) {
+            assertEquals(histories[session].asMap(), journal.load("s" + session).asMap());
+        }
+        journal.close();
+
+        assertTrue("Older files are deleted: " + files(), files().size() <= 3);
+        assertEquals(1, files().stream().filter(name -> name.endsWith(".snapshot")).count());
+        SessionJournal reopened = new SessionJournal(directory, 10, DAY_MILLIS);
+        for (int session = 0; session < 3; session++) {
+            assertEquals(histories[session].keywords(), reopened.load("s" + session).keywords());
+            assertEquals(histories[session].asMap(), reopened.load("s" + session).asMap());
+        }
+        assertEquals(25, reopened.lastVersion());
+        reopened.close();
+    }
+
+    /**
+     * Tests that a snapshot drops the sessions unchanged for longer than the retention.
+     */
+    @Test
+    public void testRetention() throws Exception {
+        SessionJournal journal = new SessionJournal(directory, 2, 1);
+        change(journal, "s1", SearchHistory.EMPTY, SearchHistory.EMPTY.with("java", List.of(video("v1"))), 1);
+        Thread.sleep(20);
+        change(journal, "s2", SearchHistory.EMPTY, SearchHistory.EMPTY.with("scala", List.of(video("v2"))), 2);
+        journal.awaitCompaction();
+        journal.close();
+
+        SessionJournal reopened = new SessionJournal(directory, 1000, DAY_MILLIS);
+        assertNull(reopened.load("s1"));
+        reopened.close();
+    }
+
+    /**
+     * Tests that a record torn by a crash is ignored and the records before it are kept.
+     */
+    @Test
+    public void testTornRecord() throws IOException {
+        SessionJournal journal = new SessionJournal(directory, 1000, DAY_MILLIS);
+        SearchHistory one = change(journal, "s1", SearchHistory.EMPTY, SearchHistory.EMPTY.with("java", List.of(video("v1"))), 1);
+        change(journal, "s1", one, one.with("scala", List.of(video("v2"))), 2);
+        journal.close();
+
+        Path file = directory.resolve(files().get(0));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        SessionJournal reopened = new SessionJournal(directory, 1000, DAY_MILLIS);
+        assertEquals(List.of("java"), reopened.load("s1").keywords());
+        assertEquals(1, reopened.lastVersion());
+        reopened.close();
+    }
+}
@@ -35,7 +35,7 @@ public class SessionServiceTest {
      *
      * Validates:
      * - A session ID is generated.
-     * - The generated session ID is stored in the session map.
+     * - The same session ID is returned for the same request.
      */
     @Test
     public void testGetSessionId_NewSession() {
@@ -45,9 +45,28 @@ public class SessionServiceTest {
 
         assertNotNull("Session ID should be generated for a new session.", sessionId);
 
-        // Ensure the session ID is stored in the session map
+        // Ensure the session ID is stable for the request
         String storedSessionId = SessionService.getSessionId(request);
-        assertEquals("Generated Session ID should be stored in the map.", sessionId, storedSessionId);
+        assertEquals("Generated Session ID should be stable for the request.", sessionId, storedSessionId);
+    }
+
+    /**
+     * Tests that requests without a session get distinct session IDs, derived from their request IDs.
+     *
+     * Validates:
+     * - Two requests get different session IDs.
+     * - A derived session ID is a version 4 UUID and depends only on the request ID.
+     */
+    @Test
+    public void testGetSessionId_DistinctRequests() {
+        Http.Request first = requestBuilder.build();
+        Http.Request second = Helpers.fakeRequest().build();
+
+        assertNotEquals("Distinct requests should get distinct session IDs.",
+                SessionService.getSessionId(first), SessionService.getSessionId(second));
+        assertEquals(SessionService.deriveSessionId(42), SessionService.deriveSessionId(42));
+        assertNotEquals(SessionService.deriveSessionId(42), SessionService.deriveSessionId(43));
+        assertEquals(4, java.util.UUID.fromString(SessionService.deriveSessionId(42)).version());
     }
 
     /**
@@ -4,14 +4,18 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -104,4 +108,170 @@ public class TagsServiceTest {
         assertEquals("sampleChannelId", video.getChannelId());
         assertEquals("https://www.youtube.com/watch?v=sampleVideoId", video.getVideoURL());
     }
+
+    /**
+     * Tests that every registered tag listener receives the fetched tags of a video.
+     */
+    @Test
+    public void testTagListenersAreNotified() {
+        TagsService tagsService = new TagsService(mockYouTubeService);
+        List<String> received = new java.util.ArrayList<>();
+        tagsService.addTagListener((videoId, tags) -> received.add(videoId + ":" + String.join(",", tags)));
+
+        tagsService.notifyTagListeners("vid1", List.of("football", "live"));
+
+        assertEquals(List.of("vid1:football,live"), received);
+    }
+
+    /**
+     * Builds a videos.list response holding one item, with one tag, per requested video ID.
+     */
+    @SuppressWarnings("unchecked")
+    private HttpResponse<String> videosResponse(HttpRequest request) {
+        String query = request.uri().getQuery();
+        String ids = query.substring(query.indexOf("id=") + 3, query.indexOf('&', query.indexOf("id=")));
+        JSONArray items = new JSONArray();
+        for (String id : ids.split(",")) {
+            items.put(new JSONObject().put("id", id).put("snippet", new JSONObject().put("title", "Title " + id)
+                    .put("tags", new JSONArray().put("tag-" + id))));
+        }
+        HttpResponse<String> response = Mockito.mock(HttpResponse.class);
+        when(response.body()).thenReturn(new JSONObject().put("items", items).toString());
+        return response;
+    }
+
+    /**
+     * Creates a real TagsService whose HTTP client and YouTubeService are mocked.
+     */
+    @SuppressWarnings("unchecked")
+    private TagsService tagsServiceWithMockedApi() throws Exception {
+        when(mockYouTubeService.getApiKey()).thenReturn("mockApiKey");
+        when(mockYouTubeService.getApiUrl()).thenReturn("https://mock.api.url");
+        when(mockYouTubeService.parseVideos(any(JSONArray.class))).thenAnswer(invocation -> {
+            JSONArray items = invocation.getArgument(0);
+            List<Video> videos = new java.util.ArrayList<>();
+            for (int i = 0; i < items.length(); i++) {
+                JSONObject item = items.getJSONObject(i);
+                videos.add(new Video(item.getJSONObject("snippet").getString("title"), "", "", "", item.getString("id"), "", "", ""));
+            }
+            return videos;
+        });
+        when(mockYouTubeService.parseTags(any(JSONArray.class))).thenAnswer(invocation -> {
+            JSONArray items = invocation.getArgument(0);
+            return List.of(items.getJSONObject(0).getJSONObject("snippet").getJSONArray("tags").getString(0));
+        });
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(videosResponse(invocation.getArgument(0))));
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> videosResponse(invocation.getArgument(0)));
+        return new TagsService(mockYouTubeService, mockHttpClient, 1_000);
+    }
+
+    /**
+     * Tests that the video and the tags of a tag page share one API call and that the next visit is
+     * served from the cache.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTagPageIsCached() throws Exception {
+        TagsService tagsService = tagsServiceWithMockedApi();
+
+        Video video = tagsService.getVideoByVideoId("vid1").toCompletableFuture().get();
+        List<String> tags = tagsService.getTagsByVideoId("vid1").toCompletableFuture().get();
+        tagsService.getTagsByVideoId("vid1").toCompletableFuture().get();
+
+        assertEquals("Title vid1", video.getTitle());
+        assertEquals(List.of("tag-vid1"), tags);
+        verify(mockHttpClient, times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        TagsService.CacheStats stats = tagsService.getCacheStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getApiCalls());
+    }
+
+    /**
+     * Tests that prefetching batches the video IDs by 50 and that prefetched tags are then served
+     * without any further API call.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPrefetchBatchesAndFillsCache() throws Exception {
+        TagsService tagsService = tagsServiceWithMockedApi();
+        List<String> videoIds = new java.util.ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            videoIds.add("vid" + i);
+        }
+
+        tagsService.prefetch(videoIds);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (tagsService.getCacheStats().getPrefetchedVideos() < 120 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(List.of("tag-vid42"), tagsService.getTagsByVideoId("vid42").toCompletableFuture().get());
+        verify(mockHttpClient, times(3)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        verify(mockHttpClient, never()).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        TagsService.CacheStats stats = tagsService.getCacheStats();
+        assertEquals(3, stats.getPrefetchCalls());
+        assertEquals(120, stats.getPrefetchedVideos());
+        assertEquals(1, stats.getUsedPrefetches());
+        assertEquals(1.0, stats.getHitRate(), 0.0);
+
+        // Videos already cached are not fetched again
+        tagsService.prefetch(videoIds);
+        Thread.sleep(50);
+        assertEquals(3, tagsService.getCacheStats().getPrefetchCalls());
+    }
+
+    /**
+     * Tests that a tag page asked for while the batch of its video is being prefetched waits for that batch
+     * rather than making its own call.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testOnDemandRequestJoinsRunningPrefetch() throws Exception {
+        TagsService tagsService = tagsServiceWithMockedApi();
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await();
+            return videosResponse(invocation.getArgument(0));
+        }).when(mockHttpClient).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+
+        tagsService.prefetch(List.of("vid1", "vid2"));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        CompletableFuture<List<String>> tags = tagsService.getTagsByVideoId("vid1").toCompletableFuture();
+        release.countDown();
+
+        assertEquals(List.of("tag-vid1"), tags.get(5, TimeUnit.SECONDS));
+        verify(mockHttpClient, never()).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        TagsService.CacheStats stats = tagsService.getCacheStats();
+        assertEquals(0, stats.getApiCalls());
+        assertEquals(1, stats.getUsedPrefetches());
+    }
+
+    /**
+     * Tests that a prefetch batch skips the videos being fetched on demand when it starts.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPrefetchSkipsVideosFetchedOnDemand() throws Exception {
+        TagsService tagsService = tagsServiceWithMockedApi();
+        CompletableFuture<HttpResponse<String>> onDemand = new CompletableFuture<>();
+        doReturn(onDemand).when(mockHttpClient).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+
+        CompletableFuture<List<String>> tags = tagsService.getTagsByVideoId("vid1").toCompletableFuture();
+        tagsService.prefetch(List.of("vid1", "vid2"));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (tagsService.getCacheStats().getPrefetchedVideos() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        ArgumentCaptor<HttpRequest> prefetchRequest = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(mockHttpClient).send(prefetchRequest.capture(), any(HttpResponse.BodyHandler.class));
+        assertTrue(prefetchRequest.getValue().uri().getQuery().contains("id=vid2&"));
+        onDemand.complete(videosResponse(HttpRequest.newBuilder().uri(URI.create("https://mock.api.url/videos?id=vid1&key=k")).build()));
+        assertEquals(List.of("tag-vid1"), tags.get(5, TimeUnit.SECONDS));
+    }
 }
@@ -0,0 +1,144 @@
+package models.services;
+
+import models.entities.Video;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import utils.VideoLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static models.entities.TestVideos.video;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link VideoStore} class, against an in-memory H2 database and a video log in a temporary
+ * directory.
+ */
+public class VideoStoreTest {
+
+    private Path logDirectory;
+    private VideoStore videoStore;
+
+    @Before
+    public void setUp() throws IOException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        logDirectory = Files.createTempDirectory("video-store");
+        videoStore = new VideoStore(dataSource, new VideoLog(logDirectory, 1 << 20), 100, 1000, 1);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        videoStore.close();
+        try (Stream<Path> paths = Files.walk(logDirectory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static List<String> ids(List<Video> videos) {
+        return videos.stream().map(Video::getVideoId).sorted().collect(Collectors.toList());
+    }
+
+    /**
+     * Tests that the videos of a search are returned for its keyword, and only since the requested time.
+     */
+    @Test
+    public void testVideosForKeyword() throws Exception {
+        videoStore.recordSearch("java", List.of(video("v1", "Java streams"), video("v2", "Java records")));
+        videoStore.recordSearch("scala", List.of(video("v3", "Scala")));
+        videoStore.flush().toCompletableFuture().get();
+        long afterFirstBatch = System.currentTimeMillis() + 1;
+
+        assertEquals(List.of("v1", "v2"), ids(videoStore.getVideosForKeyword("java", 0, 10).toCompletableFuture().get()));
+        assertEquals(List.of("v3"), ids(videoStore.getVideosForKeyword("scala", 0, 10).toCompletableFuture().get()));
+        assertTrue(videoStore.getVideosForKeyword("kotlin", 0, 10).toCompletableFuture().get().isEmpty());
+
+        Thread.sleep(5);
+        videoStore.recordSearch("java", List.of(video("v2", "Java records, updated")));
+        videoStore.flush().toCompletableFuture().get();
+        List<Video> recent = videoStore.getVideosForKeyword("java", afterFirstBatch, 10).toCompletableFuture().get();
+        assertEquals(List.of("v2"), ids(recent));
+        assertEquals("A video seen again is updated", "Java records, updated", recent.get(0).getTitle());
+    }
+
+    /**
+     * Tests that the tags of a video replace its previous tags.
+     */
+    @Test
+    public void testVideosForTag() throws Exception {
+        videoStore.recordVideos(List.of(video("v1", "One"), video("v2", "Two")));
+        videoStore.recordTags("v1", List.of("music", "live"));
+        videoStore.recordTags("v2", List.of("music", "music"));
+        videoStore.flush().toCompletableFuture().get();
+        assertEquals(List.of("v1", "v2"), ids(videoStore.getVideosForTag("music", 10).toCompletableFuture().get()));
+
+        videoStore.recordTags("v1", List.of("live"));
+        videoStore.flush().toCompletableFuture().get();
+        assertEquals(List.of("v2"), ids(videoStore.getVideosForTag("music", 10).toCompletableFuture().get()));
+        assertEquals(List.of("v1"), ids(videoStore.getVideosForTag("live", 10).toCompletableFuture().get()));
+    }
+
+    /**
+     * Tests that queued items are written in batches and counted.
+     */
+    @Test
+    public void testWriteStats() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            videoStore.recordSearch("keyword" + i, List.of(video("v" + i, "Video " + i)));
+        }
+        videoStore.flush().toCompletableFuture().get();
+
+        VideoStore.WriteStats stats = videoStore.getWriteStats();
+        assertEquals(50, stats.getWrittenItems());
+        assertTrue(stats.getBatches() <= 51);
+        assertEquals(0, stats.getDroppedItems());
+        assertEquals(0, stats.getQueuedItems());
+    }
+
+    /**
+     * Tests that a batch the video log rejects is dropped, its flush still completes and the writer keeps going.
+     */
+    @Test
+    public void testFailedBatchDoesNotStopTheWriter() throws Exception {
+        String tooLarge = "x".repeat(2 << 20);
+        videoStore.recordSearch("java", List.of(new Video("Huge", tooLarge, "Channel", "thumb", "v1", "channelId", "url",
+                "2024-12-01T10:00:00Z")));
+        videoStore.flush().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertTrue(videoStore.getVideosForKeyword("java", 0, 10).toCompletableFuture().get().isEmpty());
+
+        videoStore.recordSearch("java", List.of(video("v2", "Java records")));
+        videoStore.flush().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("v2"), ids(videoStore.getVideosForKeyword("java", 0, 10).toCompletableFuture().get()));
+        assertEquals(1, videoStore.getWriteStats().getWrittenItems());
+    }
+
+    /**
+     * Tests that closing twice returns, and that items queued after closing are dropped rather than left queued.
+     */
+    @Test
+    public void testClose() throws Exception {
+        videoStore.recordSearch("java", List.of(video("v1", "Java streams")));
+        videoStore.close();
+        videoStore.close();
+        assertEquals(1, videoStore.getWriteStats().getWrittenItems());
+
+        videoStore.recordSearch("java", List.of(video("v2", "Java records")));
+        videoStore.flush().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        VideoStore.WriteStats stats = videoStore.getWriteStats();
+        assertEquals(1, stats.getWrittenItems());
+        assertEquals(1, stats.getDroppedItems());
+        assertEquals(0, stats.getQueuedItems());
+    }
+}
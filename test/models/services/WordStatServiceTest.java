@@ -149,4 +149,37 @@ public class WordStatServiceTest {
         assertEquals("title2", iterator.next().getKey());
         assertEquals("title1", iterator.next().getKey());
     }
+
+    /**
+     * Tests that corpus statistics count descriptions as well as titles and give the same result
+     * whether the corpus is counted sequentially or in parallel.
+     */
+    @Test
+    public void testCreateCorpusStats() {
+        List<Video> videoList = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            videoList.add(new Video("title" + (i % 10), "description" + (i % 7), "channel title", "ThumbnailURL", "id" + i, "channelId", "videoURL", "2024-02-22"));
+        }
+
+        Map<String, Long> sequential = new WordStatService(Integer.MAX_VALUE).createCorpusStats(videoList);
+        Map<String, Long> parallel = new WordStatService(1_000).createCorpusStats(videoList);
+
+        assertEquals(300L, (long) sequential.get("title0"));
+        assertEquals(429L, (long) sequential.get("description0"));
+        assertEquals(sequential, parallel);
+    }
+
+    /**
+     * Tests that non-Latin titles are counted instead of being stripped to empty words.
+     */
+    @Test
+    public void testNonLatinTitles() {
+        List<Video> videoList = new ArrayList<>();
+        videoList.add(new Video("Чемпионат мира обзор", "description", "channel title", "ThumbnailURL", "id1", "channelId", "videoURL", "2024-02-22"));
+        videoList.add(new Video("Чемпионат мира 2026", "description", "channel title", "ThumbnailURL", "id2", "channelId", "videoURL", "2024-02-22"));
+
+        Map<String, Long> statMap = wordStatService.createWordStats(videoList);
+
+        assertEquals(Map.of("чемпионат", 2L, "мира", 2L), statMap);
+    }
 }
@@ -52,6 +52,66 @@ public class YouTubeServiceTest {
         assertEquals("sampleVideoId", video.getVideoId());
     }
 
+    /**
+     * Tests that a playlist item of a private video without thumbnails is parsed with an empty thumbnail URL.
+     */
+    @Test
+    public void testParseVideoWithoutThumbnails() {
+        JSONObject item = new JSONObject()
+                .put("id", "playlistItemId")
+                .put("snippet", new JSONObject()
+                        .put("title", "Private video")
+                        .put("thumbnails", new JSONObject())
+                        .put("resourceId", new JSONObject().put("videoId", "privateVideo")));
+
+        Video video = youTubeService.parseVideo(item);
+
+        assertEquals("privateVideo", video.getVideoId());
+        assertEquals("", video.getThumbnailUrl());
+        assertEquals("", youTubeService.parseVideo(new JSONObject().put("id", "noThumbnails")
+                .put("snippet", new JSONObject().put("title", "Deleted video"))).getThumbnailUrl());
+    }
+
+    /**
+     * Tests that the publication time of a playlist item is the time the video was published, not the time it
+     * was added to the playlist.
+     */
+    @Test
+    public void testParsePlaylistItemPublicationTime() {
+        JSONObject item = new JSONObject()
+                .put("id", "playlistItemId")
+                .put("snippet", new JSONObject()
+                        .put("title", "Uploaded video")
+                        .put("publishedAt", "2024-12-01T10:00:00Z")
+                        .put("resourceId", new JSONObject().put("videoId", "uploadedVideo")))
+                .put("contentDetails", new JSONObject()
+                        .put("videoId", "uploadedVideo")
+                        .put("videoPublishedAt", "2024-11-20T08:30:00Z"));
+
+        Video video = youTubeService.parseVideo(item);
+
+        assertEquals("2024-11-20T08:30:00Z", video.getPublishedAt());
+    }
+
+    /**
+     * Tests that a video parsed from several responses is the same interned instance.
+     */
+    @Test
+    public void testParseVideoInternsVideos() {
+        JSONObject snippet = new JSONObject()
+                .put("title", "Interned Video Title")
+                .put("thumbnails", new JSONObject().put("default", new JSONObject().put("url", "https://sample.thumbnail.url")))
+                .put("channelId", "sampleChannelId")
+                .put("publishedAt", "2024-12-01T10:00:00Z");
+        JSONObject item = new JSONObject()
+                .put("id", "internedVideoId")
+                .put("snippet", snippet);
+
+        Video first = youTubeService.parseVideo(item);
+        Video second = youTubeService.parseVideos(new JSONArray().put(new JSONObject(item.toString()))).get(0);
+        assertSame(first, second);
+    }
+
     /**
      * Tests parseVideo when the 'id' field in JSON data is an object containing 'videoId'.
      * Verifies that the video ID is correctly extracted from the nested JSON object.
@@ -270,6 +330,61 @@ public class YouTubeServiceTest {
         assertEquals("https://unexpected.id.thumbnail.url", video.getThumbnailUrl());
     }
 
+    /**
+     * Tests that registered video listeners receive every batch of parsed videos once.
+     */
+    @Test
+    public void testVideoListenersReceiveParsedVideos() {
+        List<List<Video>> batches = new java.util.ArrayList<>();
+        youTubeService.addVideoListener(batches::add);
 
-}
+        JSONObject snippet = new JSONObject()
+                .put("title", "Sample Video Title")
+                .put("thumbnails", new JSONObject().put("default", new JSONObject().put("url", "https://sample.thumbnail.url")));
+        JSONArray items = new JSONArray()
+                .put(new JSONObject().put("id", "video1").put("snippet", snippet))
+                .put(new JSONObject().put("id", "video2").put("snippet", snippet));
+
+        youTubeService.parseVideos(items);
+        youTubeService.parseVideo(new JSONObject().put("id", "video3").put("snippet", snippet));
+        youTubeService.parseVideo(new JSONObject());
+
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals("video3", batches.get(1).get(0).getVideoId());
+    }
 
+    /**
+     * Tests that the video ID of a playlist item is read from its resource ID, not from the item ID.
+     */
+    @Test
+    public void testParsePlaylistItem() {
+        JSONObject snippet = new JSONObject()
+                .put("title", "Uploaded Video")
+                .put("channelId", "channel1")
+                .put("thumbnails", new JSONObject().put("default", new JSONObject().put("url", "https://sample.thumbnail.url")))
+                .put("resourceId", new JSONObject().put("kind", "youtube#video").put("videoId", "uploadedVideoId"));
+        JSONObject item = new JSONObject()
+                .put("id", "UExwbGF5bGlzdEl0ZW1JZA")
+                .put("snippet", snippet);
+
+        Video video = youTubeService.parseVideo(item);
+
+        assertEquals("uploadedVideoId", video.getVideoId());
+        assertEquals("https://www.youtube.com/watch?v=uploadedVideoId", video.getVideoURL());
+    }
+
+    /**
+     * Tests that the uploads playlist ID is read from a channels response, and that an unknown channel is reported.
+     */
+    @Test
+    public void testParseUploadsPlaylistId() {
+        JSONObject response = new JSONObject().put("items", new JSONArray().put(new JSONObject()
+                .put("contentDetails", new JSONObject()
+                        .put("relatedPlaylists", new JSONObject().put("uploads", "UU1234")))));
+
+        assertEquals("UU1234", youTubeService.parseUploadsPlaylistId(response));
+        assertThrows(IllegalStateException.class,
+                () -> youTubeService.parseUploadsPlaylistId(new JSONObject().put("items", new JSONArray())));
+    }
+}
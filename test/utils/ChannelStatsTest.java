@@ -0,0 +1,116 @@
+package utils;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static models.entities.TestVideos.video;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link ChannelStats} class.
+ */
+public class ChannelStatsTest {
+
+    /**
+     * Tests the histograms, the sentiment counts and that a video is only counted once.
+     */
+    @Test
+    public void testHistogramsAndSentiments() {
+        ChannelStats stats = new ChannelStats();
+        assertTrue(stats.add(video("v1", "c1", "Java streams tutorial", "2024-11-25T18:30:00Z"), ChannelStats.SENTIMENT_HAPPY));
+        assertTrue(stats.add(video("v2", "c1", "Java records tutorial", "2024-11-27T18:05:00Z"), ChannelStats.SENTIMENT_NEUTRAL));
+        assertTrue(stats.add(video("v3", "c1", "Spring boot", "2024-11-29T09:00:00Z"), ChannelStats.SENTIMENT_HAPPY));
+        assertFalse(stats.add(video("v1", "c1", "Java streams tutorial", "2024-11-25T18:30:00Z"), ChannelStats.SENTIMENT_HAPPY));
+        assertTrue(stats.add(video("v4", "c2", "Cooking", "2024-11-25T10:00:00Z"), ChannelStats.SENTIMENT_SAD));
+
+        ChannelStats.Summary summary = stats.summary("c1", 3).orElseThrow();
+        assertEquals(3, summary.getVideoCount());
+        assertEquals(2, summary.getPublishHours()[18]);
+        assertEquals(1, summary.getPublishHours()[9]);
+        assertEquals(18, summary.getPeakHour());
+        assertEquals(1, summary.getPublishWeekdays()[0]); // Monday
+        assertEquals(1, summary.getPublishWeekdays()[2]); // Wednesday
+        assertEquals(1, summary.getPublishWeekdays()[4]); // Friday
+        assertEquals(2, summary.getHappyCount());
+        assertEquals(1, summary.getNeutralCount());
+        assertEquals(0, summary.getSadCount());
+        assertEquals(2, stats.channelCount());
+        assertFalse(stats.summary("unknown", 3).isPresent());
+    }
+
+    /**
+     * Tests the title terms, ranked by the number of videos using them.
+     */
+    @Test
+    public void testTopTerms() {
+        ChannelStats stats = new ChannelStats();
+        stats.add(video("v1", "c1", "Java streams tutorial tutorial", "2024-11-25T18:30:00Z"), 0);
+        stats.add(video("v2", "c1", "Java records tutorial", "2024-11-27T18:05:00Z"), 0);
+        stats.add(video("v3", "c1", "The Java way", "2024-11-29T09:00:00Z"), 0);
+
+        Map<String, Long> terms = stats.summary("c1", 2).orElseThrow().getTopTerms();
+        assertEquals(Map.of("java", 3L, "tutorial", 2L), terms);
+        assertEquals("java", terms.keySet().iterator().next());
+    }
+
+    /**
+     * Tests the upload cadence, including videos ingested out of order and beyond the kept publish times.
+     */
+    @Test
+    public void testUploadCadence() {
+        ChannelStats stats = new ChannelStats();
+        stats.add(video("v3", "c1", "third", "2024-11-03T00:00:00Z"), 0);
+        stats.add(video("v1", "c1", "first", "2024-11-01T00:00:00Z"), 0);
+        stats.add(video("v2", "c1", "second", "2024-11-02T00:00:00Z"), 0);
+        stats.add(video("v4", "c1", "fourth", "2024-11-08T00:00:00Z"), 0);
+        stats.add(video("v5", "c1", "undated", "not a date"), 0);
+
+        ChannelStats.Summary summary = stats.summary("c1", 1).orElseThrow();
+        assertEquals(5, summary.getVideoCount());
+        assertEquals(24.0, summary.getMedianUploadGapHours(), 1e-9);
+        assertEquals(3.0, summary.getUploadsPerWeek(), 1e-9);
+
+        ChannelStats daily = new ChannelStats();
+        long start = java.time.Instant.parse("2020-01-01T00:00:00Z").getEpochSecond();
+        for (int day = 0; day < ChannelStats.MAX_PUBLISH_TIMES + 50; day++) {
+            daily.add(video("d" + day, "c2", "daily", java.time.Instant.ofEpochSecond(start + day * 86_400L).toString()), 0);
+        }
+        ChannelStats.Summary dailySummary = daily.summary("c2", 1).orElseThrow();
+        assertEquals(ChannelStats.MAX_PUBLISH_TIMES + 50, dailySummary.getVideoCount());
+        assertEquals(24.0, dailySummary.getMedianUploadGapHours(), 1e-9);
+        assertEquals(7.0, dailySummary.getUploadsPerWeek(), 1e-9);
+    }
+
+    /**
+     * Tests that the least recently used channel is dropped beyond the maximum number of channels.
+     */
+    @Test
+    public void testMaxChannels() {
+        ChannelStats stats = new ChannelStats(2);
+        stats.add(video("v1", "c1", "one", "2024-11-01T00:00:00Z"), 0);
+        stats.add(video("v2", "c2", "two", "2024-11-01T00:00:00Z"), 0);
+        stats.add(video("v3", "c1", "three", "2024-11-01T00:00:00Z"), 0);
+        stats.add(video("v4", "c3", "four", "2024-11-01T00:00:00Z"), 0);
+
+        assertEquals(2, stats.channelCount());
+        assertTrue(stats.summary("c1", 1).isPresent());
+        assertFalse(stats.summary("c2", 1).isPresent());
+    }
+
+    /**
+     * Tests that a channel only remembers its most recently counted videos, so a video counted long ago is
+     * counted again while recent ones are still ignored.
+     */
+    @Test
+    public void testSeenVideosAreBounded() {
+        ChannelStats stats = new ChannelStats();
+        int videos = 4 * ChannelStats.SEEN_VIDEOS;
+        for (int i = 0; i < videos; i++) {
+            assertTrue(stats.add(video("v" + i, "c1", "title", "2024-11-01T00:00:00Z"), 0));
+        }
+        assertFalse(stats.add(video("v" + (videos - 1), "c1", "title", "2024-11-01T00:00:00Z"), 0));
+        assertTrue(stats.add(video("v0", "c1", "title", "2024-11-01T00:00:00Z"), 0));
+        assertEquals(videos + 1, stats.summary("c1", 1).orElseThrow().getVideoCount());
+    }
+}
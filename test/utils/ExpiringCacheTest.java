@@ -0,0 +1,120 @@
+package utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link ExpiringCache} class.
+ */
+public class ExpiringCacheTest {
+
+    private static final long MILLI = 1_000_000L;
+
+    /**
+     * Tests that a loaded value is served until it expires, and loaded again afterwards.
+     */
+    @Test
+    public void testValueExpiresAfterTtl() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(100, 10, clock::get);
+
+        assertEquals(1, get(cache, "a", loads));
+        clock.addAndGet(99 * MILLI);
+        assertEquals(1, get(cache, "a", loads));
+        clock.addAndGet(MILLI);
+        assertEquals(2, get(cache, "a", loads));
+
+        ExpiringCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(2, stats.getLoads());
+        assertEquals(1.0 / 3, stats.getHitRate(), 1e-9);
+    }
+
+    /**
+     * Tests that concurrent lookups of a key being loaded share the running load.
+     */
+    @Test
+    public void testConcurrentLookupsShareOneLoad() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+        ExpiringCache<String, String> cache = new ExpiringCache<>(1_000, 10, clock::get);
+
+        CompletionStage<String> first = cache.get("channel", key -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+        CompletionStage<String> second = cache.get("channel", key -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+        clock.addAndGet(40 * MILLI);
+        pending.complete("profile");
+
+        assertEquals("profile", first.toCompletableFuture().get());
+        assertEquals("profile", second.toCompletableFuture().get());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getStats().getLoads());
+        assertEquals(40.0, cache.getStats().getAverageLoadMillis(), 1e-9);
+        assertEquals(40.0, cache.getStats().getMaxLoadMillis(), 1e-9);
+    }
+
+    /**
+     * Tests that failed loads are reported to every waiting lookup and are not cached.
+     */
+    @Test
+    public void testFailedLoadIsNotCached() throws Exception {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(1_000, 10);
+
+        CompletionStage<String> failed = cache.get("channel", key -> CompletableFuture.failedFuture(new IllegalStateException("quota")));
+        try {
+            failed.toCompletableFuture().get();
+            fail("Expected the load to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().getMessage().contains("quota"));
+        }
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getStats().getLoadFailures());
+
+        assertEquals("profile", cache.get("channel", key -> CompletableFuture.completedFuture("profile")).toCompletableFuture().get());
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Tests that the least recently used entry is dropped when the cache is full.
+     */
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(1_000, 2);
+
+        get(cache, "a", loads);
+        get(cache, "b", loads);
+        get(cache, "a", loads);
+        get(cache, "c", loads);
+        assertEquals(2, cache.size());
+        assertEquals(3, loads.get());
+
+        get(cache, "a", loads);
+        assertEquals(3, loads.get());
+        get(cache, "b", loads);
+        assertEquals(4, loads.get());
+
+        cache.invalidate("b");
+        get(cache, "b", loads);
+        assertEquals(5, loads.get());
+    }
+
+    private static int get(ExpiringCache<String, Integer> cache, String key, AtomicInteger loads) throws Exception {
+        return cache.get(key, ignored -> CompletableFuture.completedFuture(loads.incrementAndGet())).toCompletableFuture().get();
+    }
+}
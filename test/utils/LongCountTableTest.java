@@ -0,0 +1,64 @@
+package utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the {@link LongCountTable} class.
+ */
+public class LongCountTableTest {
+
+    /**
+     * Tests counting, lookups of missing keys and growth of the table.
+     */
+    @Test
+    public void testAddGetAndResize() {
+        LongCountTable table = new LongCountTable();
+        for (long key = -5_000; key < 5_000; key++) {
+            table.add(key, 1);
+            table.add(key, 2);
+        }
+
+        assertEquals(10_000, table.size());
+        assertEquals(3, table.get(-5_000));
+        assertEquals(3, table.get(0));
+        assertEquals(0, table.get(5_000));
+    }
+
+    /**
+     * Tests that removing low counts keeps the other keys reachable.
+     */
+    @Test
+    public void testRemoveAtMost() {
+        LongCountTable table = new LongCountTable();
+        for (long key = 0; key < 1_000; key++) {
+            table.add(key, (int) (key % 4) + 1);
+        }
+
+        table.removeAtMost(2);
+
+        assertEquals(500, table.size());
+        assertEquals(0, table.get(1));
+        assertEquals(3, table.get(2));
+        assertEquals(4, table.get(999));
+    }
+
+    /**
+     * Tests the top-K selection, including the minimum count and the tie order.
+     */
+    @Test
+    public void testTopK() {
+        LongCountTable table = new LongCountTable();
+        table.add(7L, 5);
+        table.add(3L, 2);
+        table.add(9L, 2);
+        table.add(1L, 1);
+        table.add(-4L, 8);
+
+        assertArrayEquals(new long[]{-4L, 7L, 3L}, table.topK(3, 2));
+        assertArrayEquals(new long[]{-4L, 7L, 3L, 9L}, table.topK(10, 2));
+        assertArrayEquals(new long[0], table.topK(0, 1));
+    }
+}
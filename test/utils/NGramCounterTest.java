@@ -0,0 +1,96 @@
+package utils;
+
+import models.entities.Video;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the {@link NGramCounter} class.
+ */
+public class NGramCounterTest {
+
+    /**
+     * Tests that bigrams are counted per title and never span two titles.
+     */
+    @Test
+    public void testBigramsStayWithinTitles() {
+        NGramCounter counter = new NGramCounter(2);
+        counter.addTitle("World Cup");
+        counter.addTitle("Cup World");
+        counter.addTitle("world cup final");
+
+        assertEquals(2, counter.count("world cup"));
+        assertEquals(1, counter.count("cup world"));
+        assertEquals(1, counter.count("cup final"));
+        assertEquals(3, counter.size());
+    }
+
+    /**
+     * Tests that the top phrases are rebuilt with their text and ordered by descending count.
+     */
+    @Test
+    public void testTopPhrases() {
+        List<String> titles = Arrays.asList(
+                "Live Stream Now", "LIVE stream: world cup", "world cup live stream", "World Cup!", "random title");
+        NGramCounter counter = new NGramCounter(2);
+        titles.forEach(counter::addTitle);
+
+        Map<String, Long> top = counter.topPhrases(titles, 10, 2);
+        Iterator<Map.Entry<String, Long>> entries = top.entrySet().iterator();
+        Map.Entry<String, Long> first = entries.next();
+        Map.Entry<String, Long> second = entries.next();
+        assertEquals(2, top.size());
+        assertEquals(3L, (long) first.getValue());
+        assertEquals(3L, (long) second.getValue());
+        assertEquals(Map.of("live stream", 3L, "world cup", 3L), top);
+    }
+
+    /**
+     * Tests trigram statistics built from videos.
+     */
+    @Test
+    public void testCreatePhraseStatsTrigrams() {
+        List<Video> videos = Arrays.asList(
+                new Video("How to cook rice fast", "", "", "", "vid1", "", "", ""),
+                new Video("how to cook rice", "", "", "", "vid2", "", "", ""),
+                new Video("How to cook pasta", "", "", "", "vid3", "", "", "")
+        );
+
+        Map<String, Long> stats = NGramCounter.createPhraseStats(videos, 3);
+
+        assertEquals(Map.of("how to cook", 3L, "to cook rice", 2L), stats);
+        assertEquals("how to cook", stats.keySet().iterator().next());
+    }
+
+    /**
+     * Tests that rare phrases are pruned so that the number of distinct phrases stays bounded,
+     * while frequent phrases keep their counts.
+     */
+    @Test
+    public void testPruningBoundsMemory() {
+        NGramCounter counter = new NGramCounter(2, 1_000);
+        for (int i = 0; i < 20_000; i++) {
+            counter.addTitle("breaking news");
+            counter.addTitle("unique" + i + " phrase" + i);
+        }
+
+        assertTrue(counter.size() <= 1_000);
+        assertTrue(counter.getPruneThreshold() > 0);
+        assertTrue(counter.count("breaking news") >= 20_000 - counter.getPruneThreshold());
+    }
+
+    /**
+     * Tests that an unsupported phrase length is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidN() {
+        new NGramCounter(4);
+    }
+}
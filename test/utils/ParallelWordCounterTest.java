@@ -0,0 +1,86 @@
+package utils;
+
+import models.entities.Video;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link ParallelWordCounter} class.
+ */
+public class ParallelWordCounterTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeClass
+    public static void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Tests that the mode switches on at the configured corpus size.
+     */
+    @Test
+    public void testThreshold() {
+        ParallelWordCounter counter = new ParallelWordCounter(pool, 1_000);
+
+        assertFalse(counter.isParallel(999));
+        assertTrue(counter.isParallel(1_000));
+    }
+
+    /**
+     * Tests that titles and, when requested, descriptions are counted.
+     */
+    @Test
+    public void testCountsTitlesAndDescriptions() {
+        List<Video> videos = Arrays.asList(
+                new Video("Java Tutorial", "Learn Java fast", "", "", "vid1", "", "", ""),
+                new Video("Akka Tutorial", null, "", "", "vid2", "", "", ""));
+        ParallelWordCounter counter = new ParallelWordCounter(pool, 1);
+
+        WordCountTable titlesOnly = counter.count(videos, false);
+        WordCountTable withDescriptions = counter.count(videos, true);
+
+        assertEquals(1, titlesOnly.get("java"));
+        assertEquals(0, titlesOnly.get("learn"));
+        assertEquals(2, withDescriptions.get("java"));
+        assertEquals(2, withDescriptions.get("tutorial"));
+        assertEquals(1, withDescriptions.get("fast"));
+    }
+
+    /**
+     * Tests that the parallel and sequential modes produce the same counts on a large corpus.
+     */
+    @Test
+    public void testParallelMatchesSequential() {
+        Random random = new Random(7);
+        List<Video> videos = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            String title = "word" + random.nextInt(500) + " Word" + random.nextInt(50) + " common";
+            String description = "desc" + random.nextInt(2_000) + " common";
+            videos.add(new Video(title, description, "", "", "vid" + i, "", "", ""));
+        }
+
+        WordCountTable sequential = new ParallelWordCounter(pool, Integer.MAX_VALUE).count(videos, true);
+        WordCountTable parallel = new ParallelWordCounter(pool, 1_000).count(new LinkedList<>(videos), true);
+
+        assertEquals(sequential.size(), parallel.size());
+        sequential.forEach((word, count) -> assertEquals(word, count, parallel.get(word)));
+        assertEquals(40_000, parallel.get("common"));
+        assertEquals(sequential.topK(100, 2), parallel.topK(100, 2));
+    }
+}
@@ -0,0 +1,89 @@
+package utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link PostingList} class.
+ */
+public class PostingListTest {
+
+    /**
+     * Tests appending across several blocks and decoding the list again.
+     */
+    @Test
+    public void testAppendAndDecode() {
+        PostingList list = new PostingList();
+        for (int doc = 0; doc < 1_000; doc++) {
+            assertTrue(list.add(doc * 300));
+        }
+
+        int[] docs = list.toArray();
+        assertEquals(1_000, list.size());
+        assertEquals(0, docs[0]);
+        assertEquals(299_700, docs[999]);
+        assertTrue(list.contains(128 * 300));
+        assertTrue(list.contains(555 * 300));
+        assertFalse(list.contains(555 * 300 + 1));
+        assertFalse(list.add(555 * 300));
+    }
+
+    /**
+     * Tests that small gaps take less room than an uncompressed array of numbers.
+     */
+    @Test
+    public void testCompression() {
+        PostingList list = new PostingList();
+        for (int doc = 0; doc < 100_000; doc += 3) {
+            list.add(doc);
+        }
+
+        assertTrue(list.memoryBytes() < list.size() * (long) Integer.BYTES);
+    }
+
+    /**
+     * Tests random inserts and removals against a sorted set.
+     */
+    @Test
+    public void testInsertAndRemoveMatchSortedSet() {
+        Random random = new Random(11);
+        PostingList list = new PostingList();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            int doc = random.nextInt(20_000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(doc), list.remove(doc));
+            } else {
+                assertEquals(expected.add(doc), list.add(doc));
+            }
+        }
+
+        assertEquals(expected.size(), list.size());
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), list.toArray());
+    }
+
+    /**
+     * Tests that descending iteration starts at the largest number and can stop early.
+     */
+    @Test
+    public void testForEachDescending() {
+        PostingList list = new PostingList();
+        for (int doc = 0; doc < 300; doc++) {
+            list.add(doc);
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        list.forEachDescending(doc -> {
+            seen.add(doc);
+            return seen.size() < 3;
+        });
+
+        assertEquals(List.of(299, 298, 297), seen);
+    }
+}
@@ -0,0 +1,66 @@
+package utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link RecentIdSet} class.
+ */
+public class RecentIdSetTest {
+
+    /**
+     * Tests that an ID is only added once while it is remembered.
+     */
+    @Test
+    public void testAdd() {
+        RecentIdSet ids = new RecentIdSet(100);
+        assertTrue(ids.add("vid1"));
+        assertFalse(ids.add("vid1"));
+        assertTrue(ids.add("vid2"));
+        assertTrue(ids.contains("vid1"));
+        assertFalse(ids.contains("vid3"));
+    }
+
+    /**
+     * Tests that the most recent IDs are remembered while older ones are forgotten.
+     */
+    @Test
+    public void testForgetsOldestIds() {
+        RecentIdSet ids = new RecentIdSet(100);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(ids.add("vid" + i));
+        }
+        for (int i = 950; i < 1000; i++) {
+            assertTrue("vid" + i + " was forgotten", ids.contains("vid" + i));
+        }
+        int remembered = 0;
+        for (int i = 0; i < 1000; i++) {
+            remembered += ids.contains("vid" + i) ? 1 : 0;
+        }
+        assertTrue(remembered + " IDs remembered", remembered <= 100);
+        assertTrue(ids.add("vid0"));
+    }
+
+    /**
+     * Tests that an ID seen again is kept among the recent ones.
+     */
+    @Test
+    public void testSeenIdIsKept() {
+        RecentIdSet ids = new RecentIdSet(10);
+        ids.add("kept");
+        for (int i = 0; i < 100; i++) {
+            ids.add("vid" + i);
+            ids.add("kept");
+        }
+        assertTrue(ids.contains("kept"));
+    }
+
+    /**
+     * Tests that a capacity below 2 is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsSmallCapacity() {
+        new RecentIdSet(1);
+    }
+}
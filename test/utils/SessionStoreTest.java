@@ -0,0 +1,135 @@
+package utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link SessionStore} class.
+ */
+public class SessionStoreTest {
+
+    private static final long MILLI = 1_000_000L;
+
+    /**
+     * Tests that a session expires after the idle TTL, and that every access extends it.
+     */
+    @Test
+    public void testIdleExpiry() {
+        AtomicLong clock = new AtomicLong();
+        SessionStore<List<String>> store = new SessionStore<>(100, 10, 1_000, clock::get);
+        List<String> value = store.getOrCreate("s1", ArrayList::new);
+        assertSame(value, store.getOrCreate("s1", ArrayList::new));
+
+        clock.set(90 * MILLI);
+        assertSame(value, store.get("s1"));
+        clock.set(180 * MILLI);
+        assertSame(value, store.get("s1")); // the previous access extended the session
+        clock.set(280 * MILLI);
+        assertNull(store.get("s1"));
+        assertEquals(0, store.size());
+        assertEquals(1, store.evictions());
+        assertNotSame(value, store.getOrCreate("s1", ArrayList::new));
+    }
+
+    /**
+     * Tests that expired sessions are dropped when another session is created, and skipped by forEach.
+     */
+    @Test
+    public void testExpiredSessionsDroppedOnWrite() {
+        AtomicLong clock = new AtomicLong();
+        SessionStore<String> store = new SessionStore<>(100, 10, 1_000, clock::get);
+        store.getOrCreate("s1", () -> "one");
+        store.getOrCreate("s2", () -> "two");
+        clock.set(60 * MILLI);
+        store.getOrCreate("s3", () -> "three");
+
+        clock.set(120 * MILLI);
+        assertEquals(List.of("three"), store.values());
+        assertEquals(3, store.size());
+
+        store.getOrCreate("s4", () -> "four");
+        assertEquals(2, store.size());
+        assertEquals(2, store.evictions());
+    }
+
+    /**
+     * Tests that the least recently used session is dropped beyond the maximum number of sessions.
+     */
+    @Test
+    public void testMaxSessions() {
+        SessionStore<String> store = new SessionStore<>(60_000, 2, 1_000);
+        store.getOrCreate("s1", () -> "one");
+        store.getOrCreate("s2", () -> "two");
+        store.get("s1");
+        store.getOrCreate("s3", () -> "three");
+
+        assertEquals(2, store.size());
+        assertEquals("one", store.get("s1"));
+        assertNull(store.get("s2"));
+        assertEquals("three", store.get("s3"));
+    }
+
+    /**
+     * Tests the size accounting, and that the least recently used sessions are dropped beyond the maximum size,
+     * except the session being written.
+     */
+    @Test
+    public void testMemoryAccounting() {
+        SessionStore<String> store = new SessionStore<>(60_000, 10, 1_000);
+        store.getOrCreate("s1", () -> "one");
+        store.updateSize("s1", 400);
+        store.getOrCreate("s2", () -> "two");
+        store.updateSize("s2", 400);
+        assertEquals(800, store.totalBytes());
+
+        store.updateSize("s2", 300);
+        assertEquals(700, store.totalBytes());
+
+        store.getOrCreate("s3", () -> "three");
+        store.updateSize("s3", 400);
+        assertEquals(700, store.totalBytes());
+        assertNull(store.get("s1"));
+
+        store.updateSize("s3", 2_000);
+        assertEquals(1, store.size());
+        assertEquals(2_000, store.totalBytes());
+        assertEquals("three", store.get("s3"));
+
+        assertEquals("three", store.remove("s3"));
+        assertEquals(0, store.totalBytes());
+        assertNull(store.remove("s3"));
+    }
+
+    /**
+     * Tests that the removal listener is called for expired and evicted sessions but not for explicit removals,
+     * and that peeking does not extend a session.
+     */
+    @Test
+    public void testRemovalListenerAndPeek() {
+        AtomicLong clock = new AtomicLong();
+        List<String> removed = new ArrayList<>();
+        SessionStore<String> store = new SessionStore<>(100, 2, 1_000, clock::get, (sessionId, value) -> removed.add(sessionId + "=" + value));
+        store.getOrCreate("s1", () -> "one");
+        clock.set(60 * MILLI);
+        store.getOrCreate("s2", () -> "two");
+        assertEquals("one", store.peek("s1"));
+
+        clock.set(120 * MILLI);
+        assertNull("Peeking should not have extended the session", store.peek("s1"));
+        assertEquals("two", store.peek("s2"));
+        store.getOrCreate("s3", () -> "three");
+        assertEquals(List.of("s1=one"), removed);
+
+        store.get("s2");
+        store.getOrCreate("s4", () -> "four");
+        assertEquals(List.of("s1=one", "s3=three"), removed);
+
+        store.remove("s4");
+        assertEquals(2, removed.size());
+    }
+}
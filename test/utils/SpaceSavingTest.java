@@ -0,0 +1,76 @@
+package utils;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link SpaceSaving} class.
+ */
+public class SpaceSavingTest {
+
+    /**
+     * Tests that counts are exact while the number of terms fits in the sketch.
+     */
+    @Test
+    public void testExactBelowCapacity() {
+        SpaceSaving sketch = new SpaceSaving(10);
+        sketch.offer("java", 3);
+        sketch.offer("akka", 1);
+        sketch.offer("java", 2);
+
+        assertEquals(5, sketch.estimate("java"));
+        assertEquals(1, sketch.estimate("akka"));
+        assertEquals(0, sketch.estimate("scala"));
+        assertEquals(2, sketch.size());
+    }
+
+    /**
+     * Tests that heavy hitters survive a long tail of distinct terms while memory stays bounded.
+     */
+    @Test
+    public void testKeepsHeavyHittersWithBoundedMemory() {
+        SpaceSaving sketch = new SpaceSaving(50);
+        for (int i = 0; i < 100_000; i++) {
+            sketch.offer("rare" + i, 1);
+            if (i % 10 == 0) {
+                sketch.offer("worldcup", 1);
+            }
+            if (i % 20 == 0) {
+                sketch.offer("highlights", 1);
+            }
+        }
+
+        assertEquals(50, sketch.size());
+        Map<String, Long> top = sketch.top(2);
+        assertEquals(2, top.size());
+        assertEquals("worldcup", top.keySet().iterator().next());
+        assertTrue(top.containsKey("highlights"));
+        assertTrue(sketch.estimate("worldcup") >= 10_000);
+    }
+
+    /**
+     * Tests that clear forgets every term.
+     */
+    @Test
+    public void testClear() {
+        SpaceSaving sketch = new SpaceSaving(4);
+        sketch.offer("java", 1);
+        sketch.clear();
+        sketch.offer("akka", 1);
+
+        assertEquals(1, sketch.size());
+        assertEquals(0, sketch.estimate("java"));
+        assertEquals(1, sketch.estimate("akka"));
+    }
+
+    /**
+     * Tests that a sketch needs at least one counter.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new SpaceSaving(0);
+    }
+}
@@ -0,0 +1,96 @@
+package utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link TagGraph} class.
+ */
+public class TagGraphTest {
+
+    /**
+     * Tests that co-occurrence counts grow with every video and are ranked by count, then by first appearance.
+     */
+    @Test
+    public void testTopCooccurring() {
+        TagGraph graph = new TagGraph();
+        graph.addVideo("vid1", List.of("Football", "World Cup", "Messi"));
+        graph.addVideo("vid2", List.of("football", "world cup"));
+        graph.addVideo("vid3", List.of("football", "cooking"));
+
+        Map<String, Integer> cooccurring = graph.topCooccurring("FOOTBALL", 10);
+
+        assertEquals(List.of("world cup", "messi", "cooking"), new ArrayList<>(cooccurring.keySet()));
+        assertEquals(Integer.valueOf(2), cooccurring.get("world cup"));
+        assertEquals(Map.of("world cup", 2), graph.topCooccurring("football", 1));
+        assertTrue(graph.topCooccurring("unknown", 10).isEmpty());
+    }
+
+    /**
+     * Tests that a video is counted only once.
+     */
+    @Test
+    public void testVideoCountedOnce() {
+        TagGraph graph = new TagGraph();
+        assertTrue(graph.addVideo("vid1", List.of("a", "b")));
+        assertFalse(graph.addVideo("vid1", List.of("a", "b")));
+
+        assertEquals(Map.of("b", 1), graph.topCooccurring("a", 10));
+        assertEquals(1, graph.videoCount());
+    }
+
+    /**
+     * Tests that only the IDs of the most recently counted videos are remembered, so memory stays bounded.
+     */
+    @Test
+    public void testCountedVideosAreBounded() {
+        TagGraph graph = new TagGraph(100, 10);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(graph.addVideo("vid" + i, List.of("a", "b")));
+        }
+        assertFalse(graph.addVideo("vid99", List.of("a", "b")));
+        assertTrue("A forgotten video is counted again", graph.addVideo("vid0", List.of("a", "b")));
+        assertEquals(101, graph.videoCount());
+    }
+
+    /**
+     * Tests that the neighbours of a tag stay bounded while the strongest edges survive.
+     */
+    @Test
+    public void testNeighboursAreBounded() {
+        TagGraph graph = new TagGraph(100);
+        for (int i = 0; i < 5_000; i++) {
+            graph.addVideo("vid" + i, List.of("music", "rare" + i, i % 2 == 0 ? "pop" : "rock"));
+        }
+
+        Map<String, Integer> cooccurring = graph.topCooccurring("music", 1_000);
+        assertTrue(cooccurring.size() <= 100);
+        assertEquals(Integer.valueOf(2_500), cooccurring.get("pop"));
+        assertEquals(Integer.valueOf(2_500), cooccurring.get("rock"));
+    }
+
+    /**
+     * Tests that tags related to a keyword are grouped around the anchors they co-occur with.
+     */
+    @Test
+    public void testClusters() {
+        TagGraph graph = new TagGraph();
+        for (int i = 0; i < 3; i++) {
+            graph.addVideo("a" + i, List.of("java", "spring", "spring boot"));
+            graph.addVideo("b" + i, List.of("java tutorial", "coffee", "espresso"));
+        }
+
+        List<List<String>> clusters = graph.clusters("java", 5, 2);
+
+        assertEquals(2, clusters.size());
+        assertTrue(clusters.contains(List.of("spring", "spring boot")) || clusters.contains(List.of("spring boot", "spring")));
+        assertTrue(clusters.contains(List.of("coffee", "espresso")) || clusters.contains(List.of("espresso", "coffee")));
+        assertEquals(1, graph.clusters("java", 1, 2).size());
+        assertTrue(graph.clusters("unknown", 5, 2).isEmpty());
+    }
+}
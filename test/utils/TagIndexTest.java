@@ -0,0 +1,91 @@
+package utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link TagIndex} class.
+ */
+public class TagIndexTest {
+
+    /**
+     * Tests that the videos of a tag are returned most recent first and tags are case-insensitive.
+     */
+    @Test
+    public void testVideosForTag() {
+        TagIndex index = new TagIndex();
+        index.index("vid1", List.of("Football", "World Cup"));
+        index.index("vid2", List.of("football"));
+        index.index("vid3", List.of("cooking"));
+
+        assertEquals(List.of("vid2", "vid1"), index.videosForTag("FOOTBALL", 10));
+        assertEquals(List.of("vid2"), index.videosForTag("football", 1));
+        assertEquals(List.of(), index.videosForTag("unknown", 10));
+        assertEquals(3, index.tagCount());
+        assertEquals(4, index.postingCount());
+    }
+
+    /**
+     * Tests that related videos are ranked by the number of shared tags.
+     */
+    @Test
+    public void testRelatedVideos() {
+        TagIndex index = new TagIndex();
+        index.index("vid1", List.of("football", "world cup", "highlights"));
+        index.index("vid2", List.of("football", "highlights"));
+        index.index("vid3", List.of("football"));
+        index.index("vid4", List.of("cooking"));
+
+        Map<String, Integer> related = index.relatedVideos("vid1", 10);
+
+        assertEquals(List.of("vid2", "vid3"), new ArrayList<>(related.keySet()));
+        assertEquals(Integer.valueOf(2), related.get("vid2"));
+        assertEquals(Integer.valueOf(1), related.get("vid3"));
+        assertTrue(index.relatedVideos("unknown", 10).isEmpty());
+    }
+
+    /**
+     * Tests that indexing a video again replaces its tags.
+     */
+    @Test
+    public void testReindexReplacesTags() {
+        TagIndex index = new TagIndex();
+        index.index("vid1", List.of("football", "live"));
+        index.index("vid2", List.of("football"));
+
+        assertTrue(index.index("vid1", List.of("live", "news")));
+        assertFalse(index.index("vid1", List.of("news", "LIVE")));
+
+        assertEquals(List.of("vid2"), index.videosForTag("football", 10));
+        assertEquals(List.of("vid1"), index.videosForTag("news", 10));
+        assertEquals(List.of("live", "news"), index.tagsOf("vid1"));
+        assertEquals(2, index.videoCount());
+        assertEquals(3, index.postingCount());
+    }
+
+    /**
+     * Tests that lookups on a large index stay fast.
+     */
+    @Test
+    public void testLargeIndexLookups() {
+        TagIndex index = new TagIndex();
+        for (int i = 0; i < 200_000; i++) {
+            index.index("vid" + i, List.of("common", "tag" + (i % 1_000), "rare" + i));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(20, index.videosForTag("tag" + i, 20).size());
+            assertEquals(10, index.relatedVideos("vid" + i, 10).size());
+        }
+        long averageMicros = (System.nanoTime() - start) / 100 / 1_000;
+
+        assertEquals(600_000, index.postingCount());
+        assertTrue("average lookup took " + averageMicros + " µs", averageMicros < 20_000);
+    }
+}
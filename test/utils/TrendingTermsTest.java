@@ -0,0 +1,68 @@
+package utils;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static models.entities.TestVideos.video;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link TrendingTerms} class.
+ */
+public class TrendingTermsTest {
+
+    private static final long NOW = Duration.ofDays(1000).toMillis();
+
+    /**
+     * Tests that title terms are counted across keywords and stop words are ignored.
+     */
+    @Test
+    public void testCountsTitleTerms() {
+        TrendingTerms trending = new TrendingTerms();
+        trending.addVideos(List.of(video("v1", "World Cup highlights"), video("v2", "The World Cup final")), NOW);
+
+        Map<String, Long> top = trending.top(TrendingTerms.Window.FIVE_MINUTES, 10, NOW);
+
+        assertEquals(Long.valueOf(2), top.get("world"));
+        assertEquals(Long.valueOf(2), top.get("cup"));
+        assertFalse(top.containsKey("the"));
+    }
+
+    /**
+     * Tests that a video fetched twice is only counted once.
+     */
+    @Test
+    public void testSkipsRepeatedVideos() {
+        TrendingTerms trending = new TrendingTerms();
+
+        assertEquals(1, trending.addVideos(List.of(video("v1", "World Cup")), NOW));
+        assertEquals(0, trending.addVideos(List.of(video("v1", "World Cup")), NOW));
+        assertEquals(Long.valueOf(1), trending.top(TrendingTerms.Window.ONE_HOUR, 10, NOW).get("world"));
+    }
+
+    /**
+     * Tests that terms expire from the short window but stay in the longer ones.
+     */
+    @Test
+    public void testWindowsExpire() {
+        TrendingTerms trending = new TrendingTerms();
+        trending.addVideos(List.of(video("v1", "World Cup")), NOW);
+        long later = NOW + Duration.ofMinutes(10).toMillis();
+
+        assertTrue(trending.top(TrendingTerms.Window.FIVE_MINUTES, 10, later).isEmpty());
+        assertEquals(Long.valueOf(1), trending.top(TrendingTerms.Window.ONE_HOUR, 10, later).get("world"));
+        assertEquals(Long.valueOf(1), trending.top(TrendingTerms.Window.ONE_DAY, 10, later).get("world"));
+    }
+
+    /**
+     * Tests the lookup of windows by label.
+     */
+    @Test
+    public void testWindowFromLabel() {
+        assertEquals(TrendingTerms.Window.ONE_DAY, TrendingTerms.Window.fromLabel("24h").orElseThrow());
+        assertFalse(TrendingTerms.Window.fromLabel("1w").isPresent());
+    }
+}
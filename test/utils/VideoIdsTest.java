@@ -0,0 +1,45 @@
+package utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link VideoIds} class.
+ */
+public class VideoIdsTest {
+
+    /**
+     * Tests that YouTube video IDs are recognised, and other IDs are not.
+     */
+    @Test
+    public void testIsPackable() {
+        assertTrue(VideoIds.isPackable("dQw4w9WgXcQ"));
+        assertTrue(VideoIds.isPackable("__________8"));
+        assertFalse("The last character only carries 4 bits", VideoIds.isPackable("__________x"));
+        assertFalse(VideoIds.isPackable("sampleVideoId"));
+        assertFalse(VideoIds.isPackable("dQw4w9WgX+Q"));
+        assertFalse(VideoIds.isPackable("dQw4w9WgXcé"));
+        assertFalse(VideoIds.isPackable(null));
+    }
+
+    /**
+     * Tests that packed IDs unpack to the original IDs.
+     */
+    @Test
+    public void testRoundTrip() {
+        for (String videoId : new String[]{"AAAAAAAAAAA", "__________8", "dQw4w9WgXcQ", "9bZkp7q19f0", "-_-_-_-_-_E"}) {
+            assertEquals(videoId, VideoIds.unpack(VideoIds.pack(videoId)));
+        }
+        assertEquals(0L, VideoIds.pack("AAAAAAAAAAA"));
+        assertEquals(-1L, VideoIds.pack("__________8"));
+    }
+
+    /**
+     * Tests that IDs that are not YouTube IDs are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPackRejectsOtherIds() {
+        VideoIds.pack("sampleVideoId");
+    }
+}
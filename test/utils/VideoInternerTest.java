@@ -0,0 +1,68 @@
+package utils;
+
+import models.entities.Video;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static models.entities.TestVideos.video;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link VideoInterner} class.
+ */
+public class VideoInternerTest {
+
+    /**
+     * Tests that equal videos share one canonical instance, and null or ID-less videos are returned as they are.
+     */
+    @Test
+    public void testInternSharesInstances() {
+        VideoInterner interner = new VideoInterner();
+        Video first = video("v1", "Title");
+        assertSame(first, interner.intern(first));
+        assertSame(first, interner.intern(video("v1", "Title")));
+        assertNotSame(first, interner.intern(video("v2", "Title")));
+
+        assertNull(interner.intern(null));
+        Video withoutId = video(null, "Title");
+        assertSame(withoutId, interner.intern(withoutId));
+        assertEquals(2, interner.size());
+    }
+
+    /**
+     * Tests that a video with changed fields becomes the canonical instance.
+     */
+    @Test
+    public void testChangedVideoReplacesCanonical() {
+        VideoInterner interner = new VideoInterner();
+        Video original = interner.intern(video("v1", "Title"));
+        Video renamed = video("v1", "Renamed");
+        assertSame(renamed, interner.intern(renamed));
+        assertSame(renamed, interner.intern(video("v1", "Renamed")));
+        assertEquals("Title", original.getTitle());
+        assertEquals(1, interner.size());
+    }
+
+    /**
+     * Tests that the entries of videos no longer referenced are purged after a garbage collection.
+     */
+    @Test
+    public void testUnreferencedVideosArePurged() throws InterruptedException {
+        VideoInterner interner = new VideoInterner();
+        List<Video> kept = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Video video = interner.intern(video("v" + i, "Title " + i));
+            if (i % 10 == 0) {
+                kept.add(video);
+            }
+        }
+        for (int attempt = 0; attempt < 50 && interner.size() > kept.size(); attempt++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(kept.size(), interner.size());
+        assertSame(kept.get(3), interner.intern(video("v30", "Title 30")));
+    }
+}
@@ -0,0 +1,160 @@
+package utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static models.entities.TestVideos.video;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link VideoLog} class.
+ */
+public class VideoLogTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("video-log");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Tests that YouTube IDs pack exactly into distinct values, and other IDs are hashed.
+     */
+    @Test
+    public void testPackVideoId() {
+        assertEquals(0L, VideoLog.packVideoId("AAAAAAAAAAA"));
+        assertEquals(-1L, VideoLog.packVideoId("__________8"));
+        assertNotEquals(VideoLog.packVideoId("dQw4w9WgXcQ"), VideoLog.packVideoId("dQw4w9WgXcA"));
+        assertNotEquals(VideoLog.packVideoId("not-a-youtube-id"), VideoLog.packVideoId("another-id"));
+    }
+
+    /**
+     * Tests that the latest record of every video is returned, and unchanged videos are not appended again.
+     */
+    @Test
+    public void testAppendAndGet() {
+        VideoLog log = new VideoLog(directory, 1 << 16);
+        assertTrue(log.append(video("dQw4w9WgXcQ", "First")));
+        assertTrue(log.append(video("custom-id", "Second")));
+        assertFalse("An unchanged video is not appended", log.append(video("dQw4w9WgXcQ", "First")));
+        assertTrue(log.append(video("dQw4w9WgXcQ", "First, renamed")));
+
+        assertEquals(2, log.size());
+        assertEquals(video("dQw4w9WgXcQ", "First, renamed"), log.get("dQw4w9WgXcQ"));
+        assertEquals("First, renamed", log.get("dQw4w9WgXcQ").getTitle());
+        assertNull(log.get("dQw4w9WgXcQ").getDescription());
+        assertEquals("Second", log.get("custom-id").getTitle());
+        assertNull(log.get("unknown"));
+
+        ByteBuffer record = log.getRecord("custom-id");
+        assertTrue(record.isReadOnly());
+        assertEquals("Second", VideoLog.decode(record).getTitle());
+        log.close();
+    }
+
+    /**
+     * Tests that the index is rebuilt at startup and grows past its initial size.
+     */
+    @Test
+    public void testReopen() {
+        VideoLog log = new VideoLog(directory, 1 << 16);
+        for (int i = 0; i < 3000; i++) {
+            log.append(video("video" + i, "Title " + i));
+        }
+        log.append(video("video7", "Renamed"));
+        assertTrue("The log spans several segments", log.segmentCount() > 1);
+        log.close();
+
+        VideoLog reopened = new VideoLog(directory, 1 << 16);
+        assertEquals(3000, reopened.size());
+        assertEquals("Title 2999", reopened.get("video2999").getTitle());
+        assertEquals("Renamed", reopened.get("video7").getTitle());
+        assertTrue(reopened.append(video("video3000", "New")));
+        reopened.close();
+    }
+
+    /**
+     * Tests that sealed segments holding mostly superseded records are compacted away.
+     */
+    @Test
+    public void testCompaction() throws Exception {
+        VideoLog log = new VideoLog(directory, 4096);
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 10; i++) {
+                log.append(video("video" + i, "Title " + i + " round " + round));
+            }
+        }
+        log.awaitCompaction();
+        log.awaitCompaction();
+
+        assertTrue(log.compactions() > 0);
+        assertTrue("Only the segments with live records are kept: " + log.segmentCount(), log.segmentCount() <= 3);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("Title " + i + " round 19", log.get("video" + i).getTitle());
+        }
+        log.close();
+
+        VideoLog reopened = new VideoLog(directory, 4096);
+        assertEquals(10, reopened.size());
+        assertEquals("Title 3 round 19", reopened.get("video3").getTitle());
+        reopened.close();
+    }
+
+    /**
+     * Tests that a record torn by a crash is ignored, and the records before it are kept.
+     */
+    @Test
+    public void testTornRecord() throws IOException {
+        VideoLog log = new VideoLog(directory, 1 << 16);
+        log.append(video("video1", "First"));
+        log.append(video("video2", "Second"));
+        log.close();
+
+        // Corrupt the last byte of the checksum of the second record
+        Path segment = segmentFiles().get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        int end = 0;
+        int last = 0;
+        while (ByteBuffer.wrap(bytes).getInt(end) > 0) {
+            last = end;
+            end += ByteBuffer.wrap(bytes).getInt(end) + 8;
+        }
+        bytes[end - 1] ^= 1;
+        Files.write(segment, bytes, StandardOpenOption.TRUNCATE_EXISTING);
+
+        VideoLog reopened = new VideoLog(directory, 1 << 16);
+        assertEquals("First", reopened.get("video1").getTitle());
+        assertNull(reopened.get("video2"));
+        assertTrue(last > 0);
+        reopened.append(video("video3", "Third"));
+        assertEquals("Third", reopened.get("video3").getTitle());
+        reopened.close();
+    }
+}
@@ -0,0 +1,51 @@
+package utils;
+
+import models.entities.Video;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static models.entities.TestVideos.CHANNEL_ID;
+import static models.entities.TestVideos.video;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link VideoSorter} class.
+ */
+public class VideoSorterTest {
+
+    /**
+     * Tests that videos are sorted newest first, whatever the offset of their times, and unknown times come last.
+     */
+    @Test
+    public void testSortVideosByPublishedAt() {
+        Video first = video("v1", CHANNEL_ID, "Title", "2024-12-01T10:00:00Z");
+        Video second = video("v2", CHANNEL_ID, "Title", "2024-12-01T12:30:00+02:00");
+        Video third = video("v3", CHANNEL_ID, "Title", "2024-12-02T08:00:00Z");
+        Video unknown = video("v4", CHANNEL_ID, "Title", "not a date");
+        List<Video> videos = new ArrayList<>(Arrays.asList(unknown, first, third, second));
+
+        VideoSorter.sortVideosByPublishedAt(videos);
+        assertEquals(List.of(third, second, first, unknown), videos);
+    }
+
+    /**
+     * Tests that the most recent videos are kept newest first, with new videos first among equal times.
+     */
+    @Test
+    public void testMostRecent() {
+        Video a = video("a", CHANNEL_ID, "Title", "2024-12-05T00:00:00Z");
+        Video b = video("b", CHANNEL_ID, "Title", "2024-12-03T00:00:00Z");
+        Video c = video("c", CHANNEL_ID, "Title", "2024-12-01T00:00:00Z");
+        Video d = video("d", CHANNEL_ID, "Title", "2024-12-04T00:00:00Z");
+        Video e = video("e", CHANNEL_ID, "Title", "2024-12-03T00:00:00Z");
+        Video f = video("f", CHANNEL_ID, "Title", "2024-11-30T00:00:00Z");
+
+        assertEquals(List.of(a, d, b, e), VideoSorter.mostRecent(List.of(b, a), List.of(d, e, c, f), 4));
+        assertEquals(List.of(a, b), VideoSorter.mostRecent(List.of(b, a), null, 10));
+        assertEquals(List.of(b, e), VideoSorter.mostRecent(List.of(), List.of(b, e, c), 2));
+        assertTrue(VideoSorter.mostRecent(List.of(a), List.of(b), 0).isEmpty());
+    }
+}
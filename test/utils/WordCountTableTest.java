@@ -0,0 +1,89 @@
+package utils;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the {@link WordCountTable} class.
+ */
+public class WordCountTableTest {
+
+    /**
+     * Tests that buffer and string lookups address the same counter.
+     */
+    @Test
+    public void testAddAndGet() {
+        WordCountTable table = new WordCountTable();
+        table.add("java".toCharArray(), 4, 1);
+        table.add("javascript".toCharArray(), 4, 1);
+        table.add("java", 2);
+
+        assertEquals(4, table.get("java"));
+        assertEquals(0, table.get("scala"));
+        assertEquals(1, table.size());
+    }
+
+    /**
+     * Tests that the table keeps every count while growing.
+     */
+    @Test
+    public void testResize() {
+        WordCountTable table = new WordCountTable();
+        for (int i = 0; i < 10_000; i++) {
+            table.add("word" + (i % 1000), 1);
+        }
+
+        assertEquals(1000, table.size());
+        assertEquals(10, table.get("word999"));
+    }
+
+    /**
+     * Tests that topK keeps the most frequent words in descending order and honours the minimum count.
+     */
+    @Test
+    public void testTopK() {
+        WordCountTable table = new WordCountTable();
+        table.add("a", 5);
+        table.add("b", 3);
+        table.add("c", 3);
+        table.add("d", 2);
+        table.add("e", 1);
+
+        Map<String, Long> top = table.topK(3, 2);
+        Iterator<Map.Entry<String, Long>> iterator = top.entrySet().iterator();
+
+        assertEquals(3, top.size());
+        assertEquals(Map.entry("a", 5L), iterator.next());
+        assertEquals(Map.entry("b", 3L), iterator.next());
+        assertEquals(Map.entry("c", 3L), iterator.next());
+        assertTrue(table.topK(10, 6).isEmpty());
+        assertEquals(4, table.topK(10, 2).size());
+    }
+
+    /**
+     * Tests that words whose count drops to zero are removed without breaking lookups of colliding words.
+     */
+    @Test
+    public void testDecrementRemovesWords() {
+        WordCountTable table = new WordCountTable();
+        for (int i = 0; i < 500; i++) {
+            table.add("word" + i, 2);
+        }
+        for (int i = 0; i < 500; i += 2) {
+            table.add("word" + i, -1);
+            table.add(("word" + i).toCharArray(), ("word" + i).length(), -1);
+        }
+        table.add("missing", -1);
+
+        assertEquals(250, table.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i % 2 == 0 ? 0 : 2, table.get("word" + i));
+        }
+        assertEquals(0, table.get("missing"));
+    }
+}
@@ -0,0 +1,98 @@
+package utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the {@link WordTokenizer} class.
+ */
+public class WordTokenizerTest {
+
+    private static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        new WordTokenizer().tokenize(text, (buffer, length) -> tokens.add(new String(buffer, 0, length)));
+        return tokens;
+    }
+
+    /**
+     * Tests that words are split on spaces and lower-cased.
+     */
+    @Test
+    public void testSplitsAndLowerCases() {
+        assertEquals(List.of("java", "tutorial", "2024"), tokens("Java  TUTORIAL 2024"));
+    }
+
+    /**
+     * Tests that non-alphanumeric characters are dropped and empty tokens are skipped.
+     */
+    @Test
+    public void testDropsSpecialCharacters() {
+        assertEquals(List.of("title1", "worldcup"), tokens("(title1) ) world-cup!"));
+    }
+
+    /**
+     * Tests that tokens longer than the initial buffer are kept intact.
+     */
+    @Test
+    public void testLongToken() {
+        String word = "a".repeat(100);
+        assertEquals(List.of(word), tokens(word));
+    }
+
+    /**
+     * Tests that null and blank texts produce no tokens.
+     */
+    @Test
+    public void testNullAndBlank() {
+        assertEquals(List.of(), tokens(null));
+        assertEquals(List.of(), tokens("   "));
+    }
+
+    /**
+     * Tests that accented letters are kept and that composed and decomposed forms give the same token.
+     */
+    @Test
+    public void testAccentedLatin() {
+        assertEquals(List.of("café", "crème", "brûlée"), tokens("Café Crème Brûlée!"));
+        assertEquals(List.of("café"), tokens("Cafe\u0301"));
+    }
+
+    /**
+     * Tests that ASCII words before the first non-ASCII word are tokenized the same as on the fast path.
+     */
+    @Test
+    public void testAsciiPrefixBeforeUnicode() {
+        assertEquals(List.of("world", "cup", "2026", "müller", "goal"), tokens("World Cup 2026: Müller goal"));
+    }
+
+    /**
+     * Tests Cyrillic, Greek and Arabic words, including non-ASCII white space.
+     */
+    @Test
+    public void testNonLatinScripts() {
+        assertEquals(List.of("привет", "мир"), tokens("Привет,\u00A0МИР"));
+        assertEquals(List.of("καλημέρα"), tokens("Καλημέρα"));
+        assertEquals(List.of("مرحبا", "بالعالم"), tokens("مرحبا بالعالم"));
+    }
+
+    /**
+     * Tests that every ideograph is a token of its own and kana runs are separated from kanji.
+     */
+    @Test
+    public void testIdeographsAndKana() {
+        assertEquals(List.of("世", "界", "杯"), tokens("世界杯"));
+        assertEquals(List.of("日", "本", "の", "テスト"), tokens("日本のテスト"));
+    }
+
+    /**
+     * Tests that full-width forms are folded and that emoji and symbols are dropped.
+     */
+    @Test
+    public void testFullWidthAndEmoji() {
+        assertEquals(List.of("abc123", "live"), tokens("ＡＢＣ１２３ 🎉 LIVE😊"));
+    }
+}
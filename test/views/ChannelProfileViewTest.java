@@ -1,13 +1,15 @@
 package views;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertNotNull;
 
-import org.json.JSONObject;
 import org.junit.Test;
 import play.twirl.api.Html;
 import views.html.channelProfile;
+import models.entities.Channel;
 import models.entities.Video;
+import utils.ChannelStats;
 
 import java.util.Arrays;
 import java.util.List;
@@ -17,9 +19,7 @@ public class ChannelProfileViewTest {
     @Test
     public void channelProfileTest() {
         // Mock channel info
-        JSONObject channelInfo = new JSONObject();
-        channelInfo.put("title", "Channel");
-        channelInfo.put("description", "Music videos from all around the world.");
+        Channel channelInfo = new Channel("channelId1", "Channel", "Music videos from all around the world.", null);
 
         // List of mock videos
         Video video1 = new Video("Video 1", "Happy mappy music video.",
@@ -32,7 +32,7 @@ public class ChannelProfileViewTest {
         List<Video> videos = Arrays.asList(video1, video2, video3);
 
         // Render the template
-        Html html = channelProfile.render(channelInfo, videos);
+        Html html = channelProfile.render(channelInfo, videos, null);
 
         // Convert content to string
         String renderedContent = html.body();
@@ -49,6 +49,24 @@ public class ChannelProfileViewTest {
         assertTrue(renderedContent.contains("<h3>Video 2</h3>"));
         assertTrue(renderedContent.contains("<p>Hello music video by unknown artist.</p>"));
         assertTrue(renderedContent.contains("<img src=\"sample-thumbnail-url-2.jpg\" alt=\"Thumbnail\">"));
+        assertFalse(renderedContent.contains("Channel Statistics"));
+    }
+
+    @Test
+    public void channelProfileWithStatsTest() {
+        Channel channelInfo = new Channel("channelId1", "Channel", "Music videos from all around the world.", null);
+
+        ChannelStats stats = new ChannelStats();
+        stats.add(new Video("Music video", "", "Channel", "thumb.jpg", "videoId1", "channelId1", "url", "2024-11-25T18:30:00Z"), ChannelStats.SENTIMENT_HAPPY);
+        stats.add(new Video("Live music", "", "Channel", "thumb.jpg", "videoId2", "channelId1", "url", "2024-11-27T18:30:00Z"), ChannelStats.SENTIMENT_NEUTRAL);
+
+        String renderedContent = channelProfile.render(channelInfo, List.of(), stats.summary("channelId1", 10).orElseThrow()).body();
+
+        assertTrue(renderedContent.contains("Channel Statistics"));
+        assertTrue(renderedContent.contains("Based on 2 videos seen so far."));
+        assertTrue(renderedContent.contains("Most uploads at 18:00 UTC"));
+        assertTrue(renderedContent.contains("music</span> (2)"));
+        assertTrue(renderedContent.contains("1 :-) / 1 :-| / 0 :-("));
     }
 
     /*@Test
@@ -60,9 +78,7 @@ public class ChannelProfileViewTest {
         assertNotNull(channelProfile.f());
 
         // Render template via f() to test coverage on the generated code's f() method
-        JSONObject channelInfo = new JSONObject();
-        channelInfo.put("title", "Channel");
-        channelInfo.put("description", "Music videos from all around the world.");
+        Channel channelInfo = new Channel("channelId1", "Channel", "Music videos from all around the world.", null);
 
         List<Video> videos = Arrays.asList(
                 new Video("Title 1", "Description 1", "Sample Channel", "thumbnail1.jpg", "id1", "channelId1", "url1")
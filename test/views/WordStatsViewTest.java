@@ -20,7 +20,7 @@ public class WordStatsViewTest extends WithApplication{
 
     @Test
     public void testTitleAndKeyword() {
-        Html content = views.html.wordStats.render(keyword, wordCounts);
+        Html content = views.html.wordStats.render(keyword, wordCounts, 1, false);
         String htmlContent = Helpers.contentAsString(content);
 
         // Check main title and keyword display
@@ -29,7 +29,7 @@ public class WordStatsViewTest extends WithApplication{
 
     @Test
     public void testWordCounts() {
-        Html content = views.html.wordStats.render(keyword, wordCounts);
+        Html content = views.html.wordStats.render(keyword, wordCounts, 1, false);
         String htmlContent = Helpers.contentAsString(content);
         // Check if each word and its count appear
         assertTrue(htmlContent.contains("<strong>sample</strong>"));
@@ -39,5 +39,26 @@ public class WordStatsViewTest extends WithApplication{
         assertTrue(htmlContent.contains("<strong>test</strong>"));
         assertTrue(htmlContent.contains("<span>2</span>"));
     }
-}
 
+    @Test
+    public void testPhraseTitleAndModeLinks() {
+        Html content = views.html.wordStats.render(keyword, Map.of("world cup", 3L), 2, false);
+        String htmlContent = Helpers.contentAsString(content);
+
+        // Check the phrase title, the phrase itself and the links to the other modes
+        assertTrue(htmlContent.contains("2-word phrase stats for \"Sample Keyword\""));
+        assertTrue(htmlContent.contains("<strong>world cup</strong>"));
+        assertTrue(htmlContent.contains("2-grams"));
+        assertTrue(htmlContent.contains("3-grams"));
+    }
+
+    @Test
+    public void testCorpusTitle() {
+        Html content = views.html.wordStats.render(keyword, Map.of("goal", 42L), 1, true);
+        String htmlContent = Helpers.contentAsString(content);
+
+        assertTrue(htmlContent.contains("Word stats of every stored video for \"Sample Keyword\""));
+        assertTrue(htmlContent.contains("<strong>goal</strong>"));
+        assertTrue(htmlContent.contains("All stored videos"));
+    }
+}